@@ -0,0 +1,97 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares compiling a glob per match with the cached matchers of {@link ArtifactMatcher}.
+ * Every invocation matches all artifacts against all patterns, as a step with that many rules would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArtifactMatcherBenchmark {
+    
+    private static final String[] PATTERNS = {"**/*.jar", "src/**", "target/*.jar", "**Argos4jIT.java", "pom.xml"};
+    
+    @Param({"1000", "50000"})
+    private int numberOfArtifacts;
+    
+    private List<String> uris;
+    
+    @Setup
+    public void setUp() {
+        uris = new ArrayList<>(numberOfArtifacts);
+        for (int i = 0; i < numberOfArtifacts; i++) {
+            switch (i % 4) {
+                case 0 -> uris.add("src/main/java/com/argosnotary/Class" + i + ".java");
+                case 1 -> uris.add("target/lib/dependency" + i + ".jar");
+                case 2 -> uris.add("src/test/java/com/argosnotary/Argos4jIT" + i + ".java");
+                default -> uris.add("docs/page" + i + ".md");
+            }
+        }
+    }
+    
+    @Benchmark
+    public int compilePerMatch() {
+        int matches = 0;
+        for (String pattern : PATTERNS) {
+            for (String uri : uris) {
+                if (FileSystems.getDefault().getPathMatcher("glob:" + pattern).matches(Paths.get(uri))) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+    
+    @Benchmark
+    public int cachedMatcher() {
+        int matches = 0;
+        for (String pattern : PATTERNS) {
+            for (String uri : uris) {
+                if (ArtifactMatcher.matches(uri, pattern)) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+}
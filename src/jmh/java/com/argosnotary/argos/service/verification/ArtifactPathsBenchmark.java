@@ -0,0 +1,82 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the {@link java.nio.file.Path} based prefix handling with {@link ArtifactPaths}.
+ * Run with "-prof gc" to see the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArtifactPathsBenchmark {
+    
+    private static final String PREFIX = "target/classes";
+    
+    private static final String SOURCE_PREFIX = "build/output";
+    
+    private static final int NUMBER_OF_ARTIFACTS = 1000;
+    
+    private List<String> uris;
+    
+    @Setup
+    public void setUp() {
+        uris = new ArrayList<>(NUMBER_OF_ARTIFACTS);
+        for (int i = 0; i < NUMBER_OF_ARTIFACTS; i++) {
+            uris.add(PREFIX + "/com/argosnotary/argos/Class" + i + ".class");
+        }
+    }
+    
+    @Benchmark
+    public void pathRelativizeAndJoin(Blackhole blackhole) {
+        for (String uri : uris) {
+            String relative = Paths.get(PREFIX).relativize(Paths.get(uri)).toString();
+            blackhole.consume(Paths.get(SOURCE_PREFIX, relative).toString());
+        }
+    }
+    
+    @Benchmark
+    public void stringRelativizeAndJoin(Blackhole blackhole) {
+        for (String uri : uris) {
+            String relative = ArtifactPaths.relativize(PREFIX, uri);
+            blackhole.consume(ArtifactPaths.join(SOURCE_PREFIX, relative));
+        }
+    }
+}
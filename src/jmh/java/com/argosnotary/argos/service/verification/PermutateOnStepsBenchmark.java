@@ -0,0 +1,85 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+import com.argosnotary.argos.service.verification.SyntheticSupplyChain.RuleMix;
+
+/**
+ * The depth first search of {@link VerificationContextsProvider#permutateOnSteps} without the rules,
+ * all combinations of the link variants, only the valid combination and the first combination.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermutateOnStepsBenchmark {
+    
+    @Param({"3", "6"})
+    private int steps;
+    
+    @Param({"2", "4"})
+    private int linkVariants;
+    
+    private List<List<Set<LinkMetaBlock>>> stepCandidates;
+    
+    private Set<LinkMetaBlock> validLinkSet;
+    
+    @Setup
+    public void setUp() throws Exception {
+        SyntheticSupplyChain supplyChain = new SyntheticSupplyChain(steps, linkVariants, 1, RuleMix.ALLOW);
+        stepCandidates = supplyChain.getStepCandidates();
+        validLinkSet = supplyChain.getValidLinkSet();
+    }
+    
+    @Benchmark
+    public long allCombinations() {
+        return VerificationContextsProvider.permutateOnSteps(stepCandidates, (depth, chosen) -> true).count();
+    }
+    
+    @Benchmark
+    public long prunedCombinations() {
+        return VerificationContextsProvider.permutateOnSteps(stepCandidates, 
+                (depth, chosen) -> validLinkSet.containsAll(chosen.get(depth))).count();
+    }
+    
+    @Benchmark
+    public Set<LinkMetaBlock> firstCombination() {
+        return VerificationContextsProvider.permutateOnSteps(stepCandidates, (depth, chosen) -> true).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.argosnotary.argos.service.verification.SyntheticSupplyChain.RuleMix;
+
+/**
+ * The rules of all steps of the valid verification context, verified by {@link RulesVerification}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RulesVerificationBenchmark {
+    
+    @Param({"5", "20"})
+    private int steps;
+    
+    @Param({"100", "1000"})
+    private int artifactsPerLink;
+    
+    @Param({"ALLOW", "MATCH", "MIXED"})
+    private RuleMix ruleMix;
+    
+    @Param({"1", "4"})
+    private int stepParallelism;
+    
+    private RulesVerification rulesVerification;
+    
+    private VerificationContext verificationContext;
+    
+    @Setup
+    public void setUp() throws Exception {
+        SyntheticSupplyChain supplyChain = new SyntheticSupplyChain(steps, 1, artifactsPerLink, ruleMix);
+        VerificationProperties verificationProperties = new VerificationProperties();
+        verificationProperties.setStepParallelism(stepParallelism);
+        rulesVerification = supplyChain.createRulesVerification(verificationProperties);
+        LayoutPlan layoutPlan = LayoutPlan.compile(supplyChain.getLayoutMetaBlock());
+        verificationContext = VerificationContext.builder()
+                .layoutMetaBlock(supplyChain.getLayoutMetaBlock())
+                .layoutPlan(layoutPlan)
+                .linkMetaBlocks(supplyChain.getLinks())
+                .productsToVerify(supplyChain.getProductsToVerify())
+                .build();
+        if (!rulesVerification.verify(verificationContext).isRunIsValid()) {
+            throw new IllegalStateException("rules of the synthetic supply chain are not valid");
+        }
+    }
+    
+    @TearDown
+    public void tearDown() {
+        rulesVerification.shutdown();
+    }
+    
+    @Benchmark
+    public boolean verify() {
+        return rulesVerification.verify(verificationContext).isRunIsValid();
+    }
+}
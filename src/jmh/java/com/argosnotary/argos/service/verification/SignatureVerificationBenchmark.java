@@ -0,0 +1,116 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.argosnotary.argos.domain.crypto.CryptoHelper;
+import com.argosnotary.argos.domain.crypto.HashAlgorithm;
+import com.argosnotary.argos.domain.crypto.KeyAlgorithm;
+import com.argosnotary.argos.domain.crypto.KeyPair;
+import com.argosnotary.argos.domain.crypto.PublicKey;
+import com.argosnotary.argos.domain.crypto.Signature;
+import com.argosnotary.argos.domain.crypto.signing.JsonSigningSerializer;
+import com.argosnotary.argos.domain.crypto.signing.SignatureValidator;
+import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.domain.link.Link;
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The signature check of one link, signed with an ECDSA P-384 or an Ed25519 key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureVerificationBenchmark {
+    
+    private static final char[] PASSWORD = "password".toCharArray();
+    
+    @Param({"EC", "ED25519"})
+    private KeyAlgorithm keyAlgorithm;
+    
+    @Param({"10", "1000"})
+    private int artifactsPerLink;
+    
+    private Link link;
+    
+    private Signature signature;
+    
+    private java.security.PublicKey publicKey;
+    
+    private LinkMetaBlock linkMetaBlock;
+    
+    private Optional<PublicKey> key;
+    
+    private SignatureValidatorService signatureValidatorService;
+    
+    @Setup
+    public void setUp() throws Exception {
+        KeyPair keyPair = CryptoHelper.createKeyPair(PASSWORD, keyAlgorithm);
+        HashAlgorithm hashAlgorithm = keyAlgorithm == KeyAlgorithm.ED25519 ? HashAlgorithm.SHA512 : HashAlgorithm.SHA384;
+        List<Artifact> artifacts = IntStream.range(0, artifactsPerLink)
+                .mapToObj(i -> new Artifact("target/classes/file" + i + ".class", String.format("%064x", i)))
+                .toList();
+        link = Link.builder().stepName("build").materials(artifacts).products(artifacts).build();
+        signature = CryptoHelper.sign(keyPair, PASSWORD, new JsonSigningSerializer().serialize(link), keyAlgorithm, hashAlgorithm);
+        publicKey = PublicKey.instance(keyPair.getPub());
+        linkMetaBlock = LinkMetaBlock.builder().link(link).signature(signature).build();
+        linkMetaBlock.calculateDigests();
+        key = Optional.of(new PublicKey(keyPair.getKeyId(), keyPair.getPub()));
+        VerificationProperties verificationProperties = new VerificationProperties();
+        signatureValidatorService = new SignatureValidatorService(null, 
+                new PublicKeyCache(verificationProperties, new SimpleMeterRegistry()), verificationProperties);
+        if (!verifyLink() || !verifyLinkMetaBlock()) {
+            throw new IllegalStateException("signature of the link is not valid");
+        }
+    }
+    
+    /** serializes the link into the signature */
+    @Benchmark
+    public boolean verifyLink() {
+        return SignatureValidator.isValid(link, signature, publicKey);
+    }
+    
+    /** as in a verification run, with the canonical digest stored with the link when the algorithm can use it */
+    @Benchmark
+    public boolean verifyLinkMetaBlock() {
+        return signatureValidatorService.validateSignature(linkMetaBlock, key);
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.LoggerFactory;
+
+import com.argosnotary.argos.domain.crypto.CryptoHelper;
+import com.argosnotary.argos.domain.crypto.KeyPair;
+import com.argosnotary.argos.domain.crypto.signing.JsonSigningSerializer;
+import com.argosnotary.argos.domain.layout.ArtifactType;
+import com.argosnotary.argos.domain.layout.Layout;
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
+import com.argosnotary.argos.domain.layout.Step;
+import com.argosnotary.argos.domain.layout.rule.MatchRule;
+import com.argosnotary.argos.domain.layout.rule.Rule;
+import com.argosnotary.argos.domain.layout.rule.RuleType;
+import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.domain.link.Link;
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+import com.argosnotary.argos.service.account.AccountService;
+import com.argosnotary.argos.service.mongodb.link.LinkMetaBlockRepository;
+import com.argosnotary.argos.service.verification.rules.AllowRuleVerification;
+import com.argosnotary.argos.service.verification.rules.CreateOrModifyRuleVerification;
+import com.argosnotary.argos.service.verification.rules.CreateRuleVerification;
+import com.argosnotary.argos.service.verification.rules.DeleteRuleVerification;
+import com.argosnotary.argos.service.verification.rules.DisallowRuleVerification;
+import com.argosnotary.argos.service.verification.rules.MatchRuleVerification;
+import com.argosnotary.argos.service.verification.rules.ModifyRuleVerification;
+import com.argosnotary.argos.service.verification.rules.RequireRuleVerification;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * A signed layout with a chain of steps and the signed links of the steps, for the benchmarks.
+ * 
+ * Every step has a number of link variants. Only the last variant of a step has the products
+ * the next step uses as materials, the other variants have another hash for the first product.
+ * The expected end product is the first product of the last step, so the one valid 
+ * verification context is made of the last variant of every step.
+ */
+public class SyntheticSupplyChain {
+    
+    public enum RuleMix {
+        /** only allow rules, every combination of variants passes the rules */
+        ALLOW,
+        /** the materials of a step match the products of the previous step */
+        MATCH,
+        /** require, match, create, disallow and allow rules */
+        MIXED
+    }
+    
+    static final UUID SUPPLY_CHAIN_ID = UUID.randomUUID();
+    
+    private static final char[] PASSWORD = "benchmark".toCharArray();
+    
+    private final JsonSigningSerializer jsonSigningSerializer = new JsonSigningSerializer();
+    
+    private final KeyPair layoutKey;
+    
+    private final KeyPair functionaryKey;
+    
+    private final LayoutMetaBlock layoutMetaBlock;
+    
+    /* per step the link meta blocks of the variants, the valid variant last */
+    private final List<List<LinkMetaBlock>> stepLinks = new ArrayList<>();
+    
+    SyntheticSupplyChain(int steps, int linkVariants, int artifactsPerLink, RuleMix ruleMix) throws Exception {
+        // the engine logs every run on info
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        layoutKey = CryptoHelper.createKeyPair(PASSWORD);
+        functionaryKey = CryptoHelper.createKeyPair(PASSWORD);
+        
+        List<Step> layoutSteps = new ArrayList<>();
+        List<Artifact> materials = sources(artifactsPerLink);
+        for (int i = 0; i < steps; i++) {
+            layoutSteps.add(step(i, ruleMix));
+            List<LinkMetaBlock> variants = new ArrayList<>();
+            for (int v = linkVariants - 1; v >= 0; v--) {
+                variants.add(sign(Link.builder()
+                        .stepName(stepName(i))
+                        .materials(materials)
+                        .products(products(i, v, artifactsPerLink))
+                        .build()));
+            }
+            stepLinks.add(variants);
+            materials = products(i, 0, artifactsPerLink);
+        }
+        
+        Layout layout = Layout.builder()
+                .keys(List.of(layoutKey, functionaryKey))
+                .authorizedKeyIds(List.of(layoutKey.getKeyId()))
+                .expectedEndProducts(List.of(MatchRule.builder()
+                        .pattern(productUri(steps - 1, 0))
+                        .destinationType(ArtifactType.PRODUCTS)
+                        .destinationStepName(stepName(steps - 1))
+                        .build()))
+                .steps(layoutSteps)
+                .build();
+        layoutMetaBlock = LayoutMetaBlock.builder()
+                .layout(layout)
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .signatures(List.of(CryptoHelper.sign(layoutKey, PASSWORD, jsonSigningSerializer.serialize(layout))))
+                .build();
+        layoutMetaBlock.calculateCanonicalDigest();
+    }
+    
+    LayoutMetaBlock getLayoutMetaBlock() {
+        return layoutMetaBlock;
+    }
+    
+    /**
+     * @return the link meta blocks of all steps
+     */
+    List<LinkMetaBlock> getLinks() {
+        return stepLinks.stream().flatMap(List::stream).toList();
+    }
+    
+    /**
+     * @return per step a candidate set per link variant, as the contexts provider creates them
+     */
+    List<List<Set<LinkMetaBlock>>> getStepCandidates() {
+        return stepLinks.stream()
+                .map(variants -> variants.stream().map(Set::of).toList())
+                .toList();
+    }
+    
+    /**
+     * @return the link meta blocks of the valid verification context
+     */
+    Set<LinkMetaBlock> getValidLinkSet() {
+        Set<LinkMetaBlock> linkSet = new HashSet<>();
+        stepLinks.forEach(variants -> linkSet.add(variants.get(variants.size() - 1)));
+        return linkSet;
+    }
+    
+    Set<Artifact> getProductsToVerify() {
+        return Set.of(new Artifact(productUri(stepLinks.size() - 1, 0), hash(productUri(stepLinks.size() - 1, 0), 0)));
+    }
+    
+    RulesVerification createRulesVerification(VerificationProperties verificationProperties) {
+        RulesVerification rulesVerification = new RulesVerification(List.of(new AllowRuleVerification(), 
+                new CreateOrModifyRuleVerification(), 
+                new CreateRuleVerification(), 
+                new DeleteRuleVerification(), 
+                new DisallowRuleVerification(), 
+                new MatchRuleVerification(), 
+                new ModifyRuleVerification(), 
+                new RequireRuleVerification()), verificationProperties);
+        rulesVerification.init();
+        return rulesVerification;
+    }
+    
+    /**
+     * The verification provider with all verifications, the links and keys are served from memory.
+     */
+    VerificationProvider createVerificationProvider(VerificationProperties verificationProperties, RulesVerification rulesVerification,
+            VerificationResultCache verificationResultCache) {
+        // stub only mocks do not record the invocations
+        AccountService accountService = mock(AccountService.class, withSettings().stubOnly());
+        when(accountService.findPublicKeysByKeyIds(Set.of(layoutKey.getKeyId()))).thenReturn(Map.of(layoutKey.getKeyId(), layoutKey));
+        LinkMetaBlockRepository linkMetaBlockRepository = mock(LinkMetaBlockRepository.class, withSettings().stubOnly());
+        when(linkMetaBlockRepository.findForVerification(SUPPLY_CHAIN_ID)).thenReturn(getLinks());
+        VerificationStateService verificationStateService = mock(VerificationStateService.class, withSettings().stubOnly());
+        
+        SignatureValidatorService signatureValidatorService = new SignatureValidatorService(accountService, new PublicKeyCache(new VerificationProperties(), new SimpleMeterRegistry()), new VerificationProperties());
+        List<Verification> verifications = new ArrayList<>(List.of(
+                new LayoutAuthorizedKeyIdVerification(), 
+                new LayoutMetaBlockSignatureVerification(signatureValidatorService), 
+                new KnownStepVerification(), 
+                new StepAuthorizedKeyIdVerification(), 
+                new LinkMetaBlockSignatureVerification(signatureValidatorService), 
+                new RequiredNumberOfLinksVerification(), 
+                rulesVerification,
+                new ExpectedEndProductsVerification()));
+        VerificationContextsProvider verificationContextsProvider = new VerificationContextsProvider(linkMetaBlockRepository, 
+                signatureValidatorService, rulesVerification, verificationStateService);
+        VerificationProvider verificationProvider = new VerificationProvider(verifications, verificationContextsProvider, 
+                verificationProperties, new LayoutPlanCache(verificationProperties),
+                verificationResultCache,
+                new VerificationAdmission(verificationProperties, new SimpleMeterRegistry()));
+        verificationProvider.init();
+        return verificationProvider;
+    }
+    
+    private Step step(int index, RuleMix ruleMix) {
+        List<Rule> expectedMaterials = new ArrayList<>();
+        List<Rule> expectedProducts = new ArrayList<>();
+        boolean first = index == 0;
+        switch (ruleMix) {
+            case ALLOW -> {
+                expectedMaterials.add(new Rule(RuleType.ALLOW, "**"));
+                expectedProducts.add(new Rule(RuleType.ALLOW, "**"));
+            }
+            case MATCH -> {
+                expectedMaterials.add(first ? new Rule(RuleType.ALLOW, "**") : matchPrevious(index, "**"));
+                expectedProducts.add(new Rule(RuleType.CREATE, "**"));
+            }
+            case MIXED -> {
+                expectedMaterials.add(new Rule(RuleType.REQUIRE, first ? "src/**/Source0.java" : productUri(index - 1, 0)));
+                if (!first) {
+                    expectedMaterials.add(matchPrevious(index, "**/*.bin"));
+                }
+                expectedMaterials.add(new Rule(RuleType.DISALLOW, "**/*.tmp"));
+                expectedMaterials.add(new Rule(RuleType.ALLOW, "**"));
+                expectedProducts.add(new Rule(RuleType.CREATE, stepName(index) + "/out/*.bin"));
+                expectedProducts.add(new Rule(RuleType.DISALLOW, "**/*.tmp"));
+                expectedProducts.add(new Rule(RuleType.ALLOW, "**"));
+            }
+        }
+        return Step.builder()
+                .name(stepName(index))
+                .authorizedKeyIds(List.of(functionaryKey.getKeyId()))
+                .requiredNumberOfLinks(1)
+                .expectedMaterials(expectedMaterials)
+                .expectedProducts(expectedProducts)
+                .build();
+    }
+    
+    private static Rule matchPrevious(int index, String pattern) {
+        return MatchRule.builder()
+                .pattern(pattern)
+                .destinationType(ArtifactType.PRODUCTS)
+                .destinationStepName(stepName(index - 1))
+                .build();
+    }
+    
+    /* with the digests set when a link is added */
+    private LinkMetaBlock sign(Link link) {
+        LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder()
+                .link(link)
+                .signature(CryptoHelper.sign(functionaryKey, PASSWORD, jsonSigningSerializer.serialize(link)))
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .build();
+        linkMetaBlock.calculateDigests();
+        return linkMetaBlock;
+    }
+    
+    private static List<Artifact> sources(int artifactsPerLink) {
+        List<Artifact> sources = new ArrayList<>(artifactsPerLink);
+        for (int j = 0; j < artifactsPerLink; j++) {
+            String uri = "src/main/java/com/argosnotary/Source" + j + ".java";
+            sources.add(new Artifact(uri, hash(uri, 0)));
+        }
+        return sources;
+    }
+    
+    /* variant 0 is the valid variant, the other variants differ in the hash of the first product */
+    private static List<Artifact> products(int index, int variant, int artifactsPerLink) {
+        List<Artifact> products = new ArrayList<>(artifactsPerLink);
+        for (int j = 0; j < artifactsPerLink; j++) {
+            String uri = productUri(index, j);
+            products.add(new Artifact(uri, hash(uri, j == 0 ? variant : 0)));
+        }
+        return products;
+    }
+    
+    private static String stepName(int index) {
+        return "step" + index;
+    }
+    
+    private static String productUri(int index, int artifact) {
+        return stepName(index) + "/out/product" + artifact + ".bin";
+    }
+    
+    private static String hash(String uri, int variant) {
+        return DigestUtils.sha256Hex(uri + "#" + variant);
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
+import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.service.verification.SyntheticSupplyChain.RuleMix;
+import com.argosnotary.argos.service.verification.VerificationProperties.EvaluationMode;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * A full {@link VerificationProvider#verifyRun} of a synthetic supply chain, with the signature 
+ * checks, the search for the verification contexts and all verifications. The result cache is 
+ * cleared before every run, except for the cached run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VerificationRunBenchmark {
+    
+    @Param({"3", "6"})
+    private int steps;
+    
+    @Param({"1", "3"})
+    private int linkVariants;
+    
+    @Param({"100"})
+    private int artifactsPerLink;
+    
+    @Param({"MATCH"})
+    private RuleMix ruleMix;
+    
+    @Param({"FIRST_VALID", "ALL"})
+    private EvaluationMode evaluationMode;
+    
+    @Param({"1", "4"})
+    private int parallelism;
+    
+    private RulesVerification rulesVerification;
+    
+    private VerificationResultCache verificationResultCache;
+    
+    private VerificationProvider verificationProvider;
+    
+    private LayoutMetaBlock layoutMetaBlock;
+    
+    private Set<Artifact> productsToVerify;
+    
+    @Setup
+    public void setUp() throws Exception {
+        SyntheticSupplyChain supplyChain = new SyntheticSupplyChain(steps, linkVariants, artifactsPerLink, ruleMix);
+        VerificationProperties verificationProperties = new VerificationProperties();
+        verificationProperties.setEvaluationMode(evaluationMode);
+        verificationProperties.setParallelism(parallelism);
+        verificationProperties.setMaxContexts(0);
+        rulesVerification = supplyChain.createRulesVerification(verificationProperties);
+        verificationResultCache = new VerificationResultCache(verificationProperties, new SimpleMeterRegistry());
+        verificationProvider = supplyChain.createVerificationProvider(verificationProperties, rulesVerification, verificationResultCache);
+        layoutMetaBlock = supplyChain.getLayoutMetaBlock();
+        productsToVerify = supplyChain.getProductsToVerify();
+        if (!verificationProvider.verifyRun(layoutMetaBlock, productsToVerify).isRunIsValid()) {
+            throw new IllegalStateException("synthetic supply chain is not valid");
+        }
+    }
+    
+    @TearDown
+    public void tearDown() {
+        verificationProvider.shutdown();
+        rulesVerification.shutdown();
+    }
+    
+    @Benchmark
+    public boolean verifyRun() {
+        verificationResultCache.invalidate(SyntheticSupplyChain.SUPPLY_CHAIN_ID);
+        return verificationProvider.verifyRun(layoutMetaBlock, productsToVerify).isRunIsValid();
+    }
+    
+    @Benchmark
+    public boolean verifyRunCached() {
+        return verificationProvider.verifyRun(layoutMetaBlock, productsToVerify).isRunIsValid();
+    }
+}
@@ -19,14 +19,20 @@
  */
 package com.argosnotary.argos.domain.attest;
 
+import java.util.List;
 import java.util.UUID;
 
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.argosnotary.argos.domain.crypto.Signature;
+import com.argosnotary.argos.domain.crypto.signing.CanonicalDigest;
+
 import jakarta.validation.constraints.NotNull;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 @Data
 @Builder
@@ -39,5 +45,19 @@ public class Attestation {
 	
 	@NotNull
 	private final Envelope envelope;
+	
+	/**
+	 * digest of the canonical json of the statement with the hash algorithm of the first signature, set when the attestation is added, 
+	 * not stored as a stored digest is not tied to the statement stored with it
+	 */
+	@Transient
+	@EqualsAndHashCode.Exclude
+	private CanonicalDigest canonicalDigest;
+	
+	public void calculateCanonicalDigest() {
+		List<Signature> signatures = envelope.getSignatures();
+		canonicalDigest = signatures == null || signatures.isEmpty() || !CanonicalDigest.isSupported(signatures.get(0)) ? null 
+				: CanonicalDigest.of(envelope.getPayload(), signatures.get(0).getHashAlgorithm());
+	}
 
 }
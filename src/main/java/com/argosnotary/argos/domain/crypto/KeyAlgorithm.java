@@ -19,6 +19,24 @@
  */
 package com.argosnotary.argos.domain.crypto;
 
+import java.util.Arrays;
+import java.util.Optional;
+
 public enum KeyAlgorithm {
-  EC
+  EC("1.2.840.10045.2.1"), ED25519("1.3.101.112");
+  
+  /* the object identifier of the algorithm in an encoded public key */
+  private final String oid;
+  
+  KeyAlgorithm(String oid) {
+    this.oid = oid;
+  }
+  
+  public String getOid() {
+    return oid;
+  }
+  
+  public static Optional<KeyAlgorithm> fromOid(String oid) {
+    return Arrays.stream(values()).filter(keyAlgorithm -> keyAlgorithm.oid.equals(oid)).findFirst();
+  }
 }
@@ -25,6 +25,7 @@ import java.security.GeneralSecurityException;
 import java.security.KeyFactory;
 import java.security.Security;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.Optional;
 
 import org.bouncycastle.asn1.ASN1InputStream;
 import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
@@ -55,6 +56,21 @@ public class PublicKey  implements Serializable {
         return keyFactory.generatePublic(x509EncodedKeySpec);
     }
     
+    /**
+     * @return the algorithm of an encoded public key, empty when the key can not be read or the algorithm is not supported
+     */
+    public static Optional<KeyAlgorithm> getKeyAlgorithm(byte[] encodedKey) {
+        if (encodedKey == null) {
+            return Optional.empty();
+        }
+        try (ASN1InputStream aIn = new ASN1InputStream(encodedKey)) {
+            SubjectPublicKeyInfo info = SubjectPublicKeyInfo.getInstance(aIn.readObject());
+            return info == null ? Optional.empty() : KeyAlgorithm.fromOid(info.getAlgorithm().getAlgorithm().getId());
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            return Optional.empty();
+        }
+    }
+    
     public static java.security.PublicKey getJavaPublicKey(byte[] publicKey) throws GeneralSecurityException, IOException {
     	return PublicKey.instance(publicKey);
     }
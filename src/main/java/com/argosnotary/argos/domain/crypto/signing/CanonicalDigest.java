@@ -0,0 +1,130 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.domain.crypto.signing;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.data.annotation.Transient;
+
+import com.argosnotary.argos.domain.attest.Statement;
+import com.argosnotary.argos.domain.crypto.HashAlgorithm;
+import com.argosnotary.argos.domain.crypto.Signature;
+import com.argosnotary.argos.domain.layout.Layout;
+import com.argosnotary.argos.domain.link.Link;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Digest of the canonical json of a signed object, computed once when the object is added.
+ * A signature with the same hash algorithm is checked against the digest, so the object is 
+ * not serialized again. The digest is not stored with the object, a stored digest would not be 
+ * tied to the object stored with it, and only digests calculated in this process are used.
+ */
+@Data
+@NoArgsConstructor
+public class CanonicalDigest {
+    
+    private HashAlgorithm hashAlgorithm;
+    
+    /** hex encoded digest */
+    private String digest;
+    
+    /** true if the digest is calculated from the object in this process, false if it is read from the database */
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @Setter(AccessLevel.NONE)
+    private boolean calculated;
+    
+    private CanonicalDigest(HashAlgorithm hashAlgorithm, byte[] digest) {
+        this.hashAlgorithm = hashAlgorithm;
+        this.digest = Hex.encodeHexString(digest);
+        this.calculated = true;
+    }
+    
+    public static CanonicalDigest of(Link link, HashAlgorithm hashAlgorithm) {
+        MessageDigest messageDigest = getMessageDigest(hashAlgorithm);
+        new JsonSigningSerializer().serialize(link, digestOutputStream(messageDigest));
+        return of(hashAlgorithm, messageDigest);
+    }
+    
+    public static CanonicalDigest of(Layout layout, HashAlgorithm hashAlgorithm) {
+        MessageDigest messageDigest = getMessageDigest(hashAlgorithm);
+        new JsonSigningSerializer().serialize(layout, digestOutputStream(messageDigest));
+        return of(hashAlgorithm, messageDigest);
+    }
+    
+    public static CanonicalDigest of(Statement statement, HashAlgorithm hashAlgorithm) {
+        byte[] digest = getMessageDigest(hashAlgorithm).digest(new JsonSigningSerializer().serialize(statement).getBytes(UTF_8));
+        return new CanonicalDigest(hashAlgorithm, digest);
+    }
+    
+    /**
+     * @param messageDigest the message digest updated with the canonical json of the object
+     */
+    public static CanonicalDigest of(HashAlgorithm hashAlgorithm, MessageDigest messageDigest) {
+        return new CanonicalDigest(hashAlgorithm, messageDigest.digest());
+    }
+    
+    public static MessageDigest getMessageDigest(HashAlgorithm hashAlgorithm) {
+        return DigestUtils.getDigest(hashAlgorithm.getStringValue());
+    }
+    
+    /**
+     * @return an output stream updating the message digests with the bytes written to it
+     */
+    public static OutputStream digestOutputStream(MessageDigest... messageDigests) {
+        OutputStream outputStream = OutputStream.nullOutputStream();
+        for (MessageDigest messageDigest : messageDigests) {
+            outputStream = new DigestOutputStream(outputStream, messageDigest);
+        }
+        return outputStream;
+    }
+    
+    /**
+     * @return true if the digest is calculated in this process and the signature is made over a 
+     * digest with the hash algorithm of this digest
+     */
+    public boolean isFor(Signature signature) {
+        return calculated && digest != null && hashAlgorithm != null && hashAlgorithm == signature.getHashAlgorithm() && isSupported(signature);
+    }
+    
+    /**
+     * @return true if the signature algorithm of the signature can be verified against a digest
+     */
+    public static boolean isSupported(Signature signature) {
+        try {
+            return signature.getAlgorithm().isPreHashedSupported();
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+}
@@ -21,7 +21,12 @@ package com.argosnotary.argos.domain.crypto.signing;
 
 import static java.util.Comparator.comparing;
 
-import org.mapstruct.factory.Mappers;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 
 import com.argosnotary.argos.domain.ArgosError;
 import com.argosnotary.argos.domain.layout.Layout;
@@ -29,32 +34,49 @@ import com.argosnotary.argos.domain.layout.Step;
 import com.argosnotary.argos.domain.link.Artifact;
 import com.argosnotary.argos.domain.link.Link;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+/**
+ * Canonical json of the signed objects, with the properties sorted alphabetically, the artifacts
+ * of a link sorted by uri and the steps of a layout sorted by name. The lists are sorted while
+ * they are written, so the link or layout is not copied.
+ */
 public class JsonSigningSerializer implements SigningSerializer {
 	
 	private static final JsonMapper jsonMapper = JsonMapper.builder()
 			.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+			.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
     		.addModule(new JavaTimeModule())
 			.serializationInclusion(JsonInclude.Include.NON_NULL)
+			.addMixIn(Link.class, LinkMixIn.class)
+			.addMixIn(Layout.class, LayoutMixIn.class)
 			.build();
 
     @Override
     public String serialize(Link link) {
-        Link linkClone = Mappers.getMapper(Cloner.class).clone(link);
-        linkClone.getMaterials().sort(comparing(Artifact::getUri));
-        linkClone.getProducts().sort(comparing(Artifact::getUri));
-        return serializeSignable(linkClone);
+        return serializeSignable(link);
+    }
+
+    @Override
+    public void serialize(Link link, OutputStream outputStream) {
+        serializeSignable(link, outputStream);
     }
 
     @Override
     public String serialize(Layout layout) {
-        Layout layoutClone = Mappers.getMapper(Cloner.class).clone(layout);
-        layoutClone.getSteps().sort(comparing(Step::getName));
-        return serializeSignable(layoutClone);
+        return serializeSignable(layout);
+    }
+
+    @Override
+    public void serialize(Layout layout, OutputStream outputStream) {
+        serializeSignable(layout, outputStream);
     }
 
 	@Override
@@ -71,4 +93,82 @@ public class JsonSigningSerializer implements SigningSerializer {
         }
     }
 
+    private void serializeSignable(Object signable, OutputStream outputStream) {
+        try {
+            jsonMapper.writeValue(outputStream, signable);
+        } catch (IOException e) {
+            throw new ArgosError(e.getMessage(), e);
+        }
+    }
+
+    private abstract static class LinkMixIn {
+        @JsonSerialize(using = ArtifactsSerializer.class)
+        abstract List<Artifact> getMaterials();
+
+        @JsonSerialize(using = ArtifactsSerializer.class)
+        abstract List<Artifact> getProducts();
+    }
+
+    private abstract static class LayoutMixIn {
+        @JsonSerialize(using = StepsSerializer.class)
+        abstract List<Step> getSteps();
+    }
+
+    private static class ArtifactsSerializer extends SortedListSerializer<Artifact> {
+        ArtifactsSerializer() {
+            super(comparing(Artifact::getUri));
+        }
+    }
+
+    private static class StepsSerializer extends SortedListSerializer<Step> {
+        StepsSerializer() {
+            super(comparing(Step::getName));
+        }
+    }
+
+    /*
+     * Writes the elements of a list in the order of the comparator, equal elements in list order.
+     * A sorted list is written as it is, otherwise only the references are copied to be sorted.
+     */
+    private abstract static class SortedListSerializer<T> extends StdSerializer<List<T>> {
+        
+        private final transient Comparator<T> comparator;
+
+        @SuppressWarnings("unchecked")
+        SortedListSerializer(Comparator<T> comparator) {
+            super((Class<List<T>>) (Class<?>) List.class);
+            this.comparator = comparator;
+        }
+
+        @Override
+        public void serialize(List<T> list, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartArray(list, list.size());
+            Iterable<?> elements = isSorted(list) ? list : Arrays.asList(sort(list));
+            for (Object element : elements) {
+                provider.defaultSerializeValue(element, generator);
+            }
+            generator.writeEndArray();
+        }
+
+        private boolean isSorted(List<T> list) {
+            Iterator<T> iterator = list.iterator();
+            T previous = iterator.hasNext() ? iterator.next() : null;
+            while (iterator.hasNext()) {
+                T element = iterator.next();
+                if (comparator.compare(previous, element) > 0) {
+                    return false;
+                }
+                previous = element;
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object[] sort(List<T> list) {
+            Object[] elements = list.toArray();
+            Arrays.sort(elements, (first, second) -> comparator.compare((T) first, (T) second));
+            return elements;
+        }
+    }
+
 }
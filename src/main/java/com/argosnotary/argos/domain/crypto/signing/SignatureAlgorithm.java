@@ -25,21 +25,41 @@ import com.argosnotary.argos.domain.crypto.HashAlgorithm;
 import com.argosnotary.argos.domain.crypto.KeyAlgorithm;
 
 public enum SignatureAlgorithm {
-	SHA_384_WITH_ECDSA("SHA384withECDSA"), SHA_256_WITH_RSA("SHA256withRSA");;
+	SHA_384_WITH_ECDSA("SHA384withECDSA", "NONEwithECDSA"), SHA_256_WITH_RSA("SHA256withRSA", null), 
+	/* hashes the message with SHA-512 itself, Ed25519ph gives other signatures so there is no pre-hashed variant */
+	ED25519("Ed25519", null);
 	
 	String stringValue;
 	
-	SignatureAlgorithm(String stringValue) {
+	/* the algorithm over an already computed digest */
+	String preHashedStringValue;
+	
+	SignatureAlgorithm(String stringValue, String preHashedStringValue) {
 		this.stringValue = stringValue;
+		this.preHashedStringValue = preHashedStringValue;
 	}
 	
 	public String getStringValue() {
 	    return stringValue;
 	}
 	
+	public String getPreHashedStringValue() throws GeneralSecurityException {
+		if (preHashedStringValue == null) {
+			throw new GeneralSecurityException(String.format("Pre-hashed verification with [%s] not supported", stringValue));
+		}
+	    return preHashedStringValue;
+	}
+	
+	public boolean isPreHashedSupported() {
+		return preHashedStringValue != null;
+	}
+	
 	public static SignatureAlgorithm getAlgorithm(KeyAlgorithm keyAlgorithm, HashAlgorithm hashAlgorithm) throws GeneralSecurityException {
 		if (KeyAlgorithm.EC.equals(keyAlgorithm) && HashAlgorithm.SHA384.equals(hashAlgorithm)) {
     		return SHA_384_WITH_ECDSA;
+    	}
+		if (KeyAlgorithm.ED25519.equals(keyAlgorithm) && HashAlgorithm.SHA512.equals(hashAlgorithm)) {
+    		return ED25519;
     	}
 		throw new GeneralSecurityException(String.format("Combination of algorithms [%s] and [%s] not supported", keyAlgorithm, hashAlgorithm));
 	}
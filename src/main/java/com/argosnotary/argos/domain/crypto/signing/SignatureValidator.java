@@ -22,7 +22,9 @@ package com.argosnotary.argos.domain.crypto.signing;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.security.GeneralSecurityException;
+import java.security.SignatureException;
 
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
@@ -43,40 +45,108 @@ public class SignatureValidator {
 
     public static boolean isValid(Link link, Signature signature, PublicKey key) {
         try {
-        	return isValid(new JsonSigningSerializer().serialize(link), signature, getPublicKey(key));
+        	return isValid(link, signature, getPublicKey(key));
 		} catch (GeneralSecurityException | IOException e) {
             throw new ArgosError(e.getMessage(), e);
 		}
     }
 
+    public static boolean isValid(Link link, Signature signature, java.security.PublicKey publicKey) {
+        return isValid(outputStream -> new JsonSigningSerializer().serialize(link, outputStream), signature, publicKey, false);
+    }
+
     public static boolean isValid(Layout layout, Signature signature, PublicKey key) {
         try {
-        	return isValid(new JsonSigningSerializer().serialize(layout), signature, getPublicKey(key));
+        	return isValid(layout, signature, getPublicKey(key));
 		} catch (GeneralSecurityException | IOException e) {
             throw new ArgosError(e.getMessage(), e);
 		}
     }
 
+    public static boolean isValid(Layout layout, Signature signature, java.security.PublicKey publicKey) {
+        return isValid(outputStream -> new JsonSigningSerializer().serialize(layout, outputStream), signature, publicKey, false);
+    }
+
     public static boolean isValid(Statement statement, Signature signature, PublicKey key) {
         try {
-        	return isValid(new JsonSigningSerializer().serialize(statement), signature, getPublicKey(key));
+        	return isValid(statement, signature, getPublicKey(key));
 		} catch (GeneralSecurityException | IOException e) {
             throw new ArgosError(e.getMessage(), e);
 		}
     }
 
-    private static boolean isValid(String signableJson, Signature signature, java.security.PublicKey publicKey) {
+    public static boolean isValid(Statement statement, Signature signature, java.security.PublicKey publicKey) {
+        String signableJson = new JsonSigningSerializer().serialize(statement);
+        return isValid(outputStream -> outputStream.write(signableJson.getBytes(UTF_8)), signature, publicKey, false);
+    }
+
+    /**
+     * Check the signature against the canonical digest of the signed object, with the pre-hashed 
+     * variant of the signature algorithm.
+     */
+    public static boolean isValid(CanonicalDigest canonicalDigest, Signature signature, java.security.PublicKey publicKey) {
+        if (!canonicalDigest.isFor(signature)) {
+            throw new ArgosError(String.format("digest with [%s] can not be used for a signature with [%s]", 
+                    canonicalDigest.getHashAlgorithm(), signature.getHashAlgorithm()));
+        }
+        try {
+            byte[] digest = Hex.decodeHex(canonicalDigest.getDigest());
+            return isValid(outputStream -> outputStream.write(digest), signature, publicKey, true);
+        } catch (DecoderException e) {
+            throw new ArgosError(e.getMessage(), e);
+        }
+    }
+
+    /*
+     * The signable is written straight into the signature, so no json string or byte array 
+     * of the whole signable is built.
+     */
+    private static boolean isValid(Signable signable, Signature signature, java.security.PublicKey publicKey, boolean preHashed) {
         try {
-            java.security.Signature publicSignature = java.security.Signature.getInstance(signature.getAlgorithm().getStringValue());
-            publicSignature.initVerify(publicKey);
-            publicSignature.update(signableJson.getBytes(UTF_8));
             byte[] signatureBytes = Hex.decodeHex(signature.getSig());
+            SignatureAlgorithm algorithm = signature.getAlgorithm();
+            java.security.Signature publicSignature = java.security.Signature.getInstance(
+                    preHashed ? algorithm.getPreHashedStringValue() : algorithm.getStringValue());
+            publicSignature.initVerify(publicKey);
+            signable.writeTo(new SignatureOutputStream(publicSignature));
             return publicSignature.verify(signatureBytes);
-        } catch (GeneralSecurityException | DecoderException e) {
+        } catch (GeneralSecurityException | DecoderException | IOException e) {
             throw new ArgosError(e.getMessage(), e);
         }
     }
 
+    @FunctionalInterface
+    private interface Signable {
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    private static class SignatureOutputStream extends OutputStream {
+
+        private final java.security.Signature signature;
+
+        SignatureOutputStream(java.security.Signature signature) {
+            this.signature = signature;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            try {
+                signature.update((byte) b);
+            } catch (SignatureException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            try {
+                signature.update(b, off, len);
+            } catch (SignatureException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
+
     private static java.security.PublicKey getPublicKey(PublicKey key) throws GeneralSecurityException, IOException {
     	return PublicKey.instance(key.getPub());
     }
@@ -19,6 +19,8 @@
  */
 package com.argosnotary.argos.domain.crypto.signing;
 
+import java.io.OutputStream;
+
 import com.argosnotary.argos.domain.layout.Layout;
 import com.argosnotary.argos.domain.link.Link;
 
@@ -26,7 +28,17 @@ public interface SigningSerializer {
 
     String serialize(Link link);
 
+    /**
+     * Write the canonical json of the link as UTF-8 to the output stream, the stream is not closed.
+     */
+    void serialize(Link link, OutputStream outputStream);
+
     String serialize(Layout layout);
 
+    /**
+     * Write the canonical json of the layout as UTF-8 to the output stream, the stream is not closed.
+     */
+    void serialize(Layout layout, OutputStream outputStream);
+
     public <T> String serialize(Canonicalable<T> signable);
 }
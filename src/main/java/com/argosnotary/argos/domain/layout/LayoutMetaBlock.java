@@ -21,14 +21,17 @@ package com.argosnotary.argos.domain.layout;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.argosnotary.argos.domain.crypto.Signature;
+import com.argosnotary.argos.domain.crypto.signing.CanonicalDigest;
 
 @Builder
 @Data
@@ -40,4 +43,17 @@ public class LayoutMetaBlock {
     private List<Signature> signatures;
 
     private Layout layout;
+    
+    /**
+     * digest of the canonical json of the layout with the hash algorithm of the first signature, set when the layout is added, 
+     * not stored as a stored digest is not tied to the layout stored with it
+     */
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private CanonicalDigest canonicalDigest;
+    
+    public void calculateCanonicalDigest() {
+        canonicalDigest = signatures == null || signatures.isEmpty() || !CanonicalDigest.isSupported(signatures.get(0)) ? null 
+                : CanonicalDigest.of(layout, signatures.get(0).getHashAlgorithm());
+    }
 }
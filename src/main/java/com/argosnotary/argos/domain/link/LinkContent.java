@@ -0,0 +1,42 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.domain.link;
+
+import java.util.UUID;
+
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * The content of a link stored once per supply chain and link digest. Link meta blocks stored
+ * deduplicated only contain the signature and the link digest of the content.
+ */
+@Builder
+@Data
+@Document(collection = "linkContents")
+@CompoundIndex(name = "supplychain_linkdigest_idx", def = "{'supplyChainId' : 1, 'linkDigest': 1}", unique = true)
+public class LinkContent {
+    private UUID supplyChainId;
+    private String linkDigest;
+    private Link link;
+}
@@ -19,24 +19,89 @@
  */
 package com.argosnotary.argos.domain.link;
 
+import java.security.MessageDigest;
 import java.util.UUID;
 
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.argosnotary.argos.domain.crypto.Signature;
+import com.argosnotary.argos.domain.crypto.signing.CanonicalDigest;
+import com.argosnotary.argos.domain.crypto.signing.JsonSigningSerializer;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 @Builder
 @Data
 @Document
 @CompoundIndex(name = "supplychain_stepname_idx", def = "{'supplyChainId' : 1, 'link.stepName': 1}")
 public class LinkMetaBlock {
+    @Id
+    @EqualsAndHashCode.Exclude
+    private String id;
 	@Indexed
     private UUID supplyChainId;
     private Signature signature;
     private Link link;
+    
+    /**
+     * sha256 of the canonical json of the link, the signed content, set when the link is stored
+     */
+    @EqualsAndHashCode.Exclude
+    private String linkDigest;
+    
+    /**
+     * digest of the canonical json of the link with the hash algorithm of the signature, set when the link is added 
+     * or loaded, not stored as a stored digest is not tied to the link stored with it
+     */
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private CanonicalDigest canonicalDigest;
+    
+    /**
+     * @return the stored digest, computed for links stored without a digest
+     */
+    public String getLinkDigest() {
+        if (linkDigest == null && link != null) {
+            linkDigest = calculateLinkDigest(link);
+        }
+        return linkDigest;
+    }
+
+    public static String calculateLinkDigest(Link link) {
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        new JsonSigningSerializer().serialize(link, CanonicalDigest.digestOutputStream(digest));
+        return Hex.encodeHexString(digest.digest());
+    }
+    
+    /**
+     * Set the link digest and, when the signature algorithm can verify a digest, the canonical 
+     * digest for the signature with one serialization of the link. A link digest read from the 
+     * database is replaced, it is not tied to the link read with it.
+     * 
+     * @return false if a digest set before differs from the calculated digest
+     */
+    public boolean calculateDigests() {
+        String previousLinkDigest = linkDigest;
+        CanonicalDigest previousCanonicalDigest = canonicalDigest;
+        if (signature == null || !CanonicalDigest.isSupported(signature)) {
+            linkDigest = calculateLinkDigest(link);
+            canonicalDigest = null;
+        } else {
+            MessageDigest digest = DigestUtils.getSha256Digest();
+            MessageDigest signedDigest = CanonicalDigest.getMessageDigest(signature.getHashAlgorithm());
+            new JsonSigningSerializer().serialize(link, CanonicalDigest.digestOutputStream(digest, signedDigest));
+            linkDigest = Hex.encodeHexString(digest.digest());
+            canonicalDigest = CanonicalDigest.of(signature.getHashAlgorithm(), signedDigest);
+        }
+        return (previousLinkDigest == null || previousLinkDigest.equals(linkDigest))
+                && (previousCanonicalDigest == null || previousCanonicalDigest.equals(canonicalDigest));
+    }
 }
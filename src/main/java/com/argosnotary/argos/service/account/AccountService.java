@@ -20,6 +20,7 @@
 package com.argosnotary.argos.service.account;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -32,6 +33,11 @@ public interface AccountService {
 
     Optional<PublicKey> findPublicKeyByKeyId(String keyId);
 
+    /**
+     * @return the active public keys with one of the key ids by key id
+     */
+    Map<String, PublicKey> findPublicKeysByKeyIds(Set<String> keyIds);
+
     Optional<Account> loadAuthenticatedUser(String providerIssuer, String providerSubject);
 
     List<Account> findByKeyIds(Set<String> keyId);
@@ -19,7 +19,11 @@
  */
 package com.argosnotary.argos.service.account;
 
+import static java.util.stream.Collectors.toMap;
+
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
@@ -62,6 +66,18 @@ public class AccountServiceImpl implements AccountService {
                 .or(() -> personalAccountRepository.findFirstByActiveKeyId(keyId)).map(Account::getActiveKeyPair);
     }
 
+	@Override
+	public Map<String, PublicKey> findPublicKeysByKeyIds(Set<String> keyIds) {
+		if (keyIds.isEmpty()) {
+			return Map.of();
+		}
+		return findByKeyIds(keyIds).stream()
+				.<PublicKey>map(Account::getActiveKeyPair)
+				.filter(Objects::nonNull)
+				.filter(publicKey -> keyIds.contains(publicKey.getKeyId()))
+				.collect(toMap(PublicKey::getKeyId, publicKey -> publicKey, (first, second) -> first));
+	}
+
 	@Override
 	public List<Account> findByKeyIds(Set<String> keyIds) {
 		List<Account> accounts = personalAccountRepository.findByKeyIds(keyIds);
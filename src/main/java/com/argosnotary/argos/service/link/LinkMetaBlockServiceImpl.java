@@ -26,6 +26,7 @@ import java.util.UUID;
 import org.springframework.stereotype.Service;
 
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
+import com.argosnotary.argos.service.link.LinkProperties.StorageMode;
 import com.argosnotary.argos.service.mongodb.link.LinkMetaBlockRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -35,9 +36,17 @@ import lombok.RequiredArgsConstructor;
 public class LinkMetaBlockServiceImpl implements LinkMetaBlockService {
 	
 	private final LinkMetaBlockRepository linkMetaBlockRepository; 
+	
+	private final LinkProperties linkProperties;
 
 	@Override
 	public LinkMetaBlock create(LinkMetaBlock linkMetaBlock) {
+		if (linkMetaBlock.getCanonicalDigest() == null) {
+			linkMetaBlock.calculateDigests();
+		}
+		if (linkProperties.getStorageMode() == StorageMode.DEDUPLICATED) {
+			return linkMetaBlockRepository.insertDeduplicated(linkMetaBlock);
+		}
 		return linkMetaBlockRepository.insert(linkMetaBlock);
 	}
 
@@ -0,0 +1,44 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.link;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Settings of the link storage, configured with the argos.link properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "argos.link")
+@Data
+public class LinkProperties {
+    
+    public enum StorageMode {
+        /** every link meta block is stored with its link */
+        DOCUMENT,
+        /** equal links of a supply chain are stored once, link meta blocks refer to them by link digest */
+        DEDUPLICATED
+    }
+    
+    private StorageMode storageMode = StorageMode.DOCUMENT;
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.mongodb.link;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+
+/**
+ * Link meta blocks are stored as complete documents or deduplicated, with the link content 
+ * stored once per link digest. The reads return complete link meta blocks for both.
+ */
+public interface LinkMetaBlockRepositoryCustom {
+    
+    /**
+     * Store the link content once for the supply chain and the signature as a reference to it.
+     * 
+     * @param linkMetaBlock with the link digest set
+     * @return the link meta block
+     */
+    public LinkMetaBlock insertDeduplicated(LinkMetaBlock linkMetaBlock);
+	
+	public void deleteBySupplyChainId(UUID supplyChainId);
+	
+	public List<LinkMetaBlock> findBySupplyChainId(UUID supplyChainId);
+	
+	public List<LinkMetaBlock> findBySupplyChainIdAndHash(UUID supplyChainId, String hash);
+	
+	/**
+	 * Load the link meta blocks of a supply chain for a verification run with one streamed
+	 * query, only the fields used by the verification are read.
+	 * 
+	 * @param supplyChainId the supply chain
+	 * @return the link meta blocks, each document once
+	 */
+	public List<LinkMetaBlock> findForVerification(UUID supplyChainId);
+
+}
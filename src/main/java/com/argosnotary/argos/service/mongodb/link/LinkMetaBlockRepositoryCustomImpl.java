@@ -0,0 +1,162 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.mongodb.link;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.argosnotary.argos.domain.link.LinkContent;
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RequiredArgsConstructor
+@Slf4j
+public class LinkMetaBlockRepositoryCustomImpl implements LinkMetaBlockRepositoryCustom {
+    
+    private static final String ID = "_id";
+    private static final String SUPPLY_CHAIN_ID = "supplyChainId";
+    private static final String SIGNATURE = "signature";
+    private static final String LINK = "link";
+    private static final String LINK_DIGEST = "linkDigest";
+    
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public LinkMetaBlock insertDeduplicated(LinkMetaBlock linkMetaBlock) {
+        try {
+            mongoTemplate.upsert(
+                    query(where(SUPPLY_CHAIN_ID).is(linkMetaBlock.getSupplyChainId()).and(LINK_DIGEST).is(linkMetaBlock.getLinkDigest())), 
+                    new Update().setOnInsert(LINK, linkMetaBlock.getLink()), 
+                    LinkContent.class);
+        } catch (DuplicateKeyException e) {
+            // stored by a concurrent submission of the same link
+            log.debug("link content [{}] already stored", linkMetaBlock.getLinkDigest());
+        }
+        mongoTemplate.insert(LinkMetaBlock.builder()
+                .supplyChainId(linkMetaBlock.getSupplyChainId())
+                .signature(linkMetaBlock.getSignature())
+                .linkDigest(linkMetaBlock.getLinkDigest())
+                .build());
+        return linkMetaBlock;
+    }
+
+    @Override
+    public void deleteBySupplyChainId(UUID supplyChainId) {
+        mongoTemplate.remove(query(where(SUPPLY_CHAIN_ID).is(supplyChainId)), LinkMetaBlock.class);
+        mongoTemplate.remove(query(where(SUPPLY_CHAIN_ID).is(supplyChainId)), LinkContent.class);
+    }
+
+    @Override
+    public List<LinkMetaBlock> findBySupplyChainId(UUID supplyChainId) {
+        return withLinks(supplyChainId, mongoTemplate.find(query(where(SUPPLY_CHAIN_ID).is(supplyChainId)), LinkMetaBlock.class));
+    }
+
+    @Override
+    public List<LinkMetaBlock> findBySupplyChainIdAndHash(UUID supplyChainId, String hash) {
+        List<LinkMetaBlock> linkMetaBlocks = new ArrayList<>(mongoTemplate.find(
+                query(where(SUPPLY_CHAIN_ID).is(supplyChainId).andOperator(hasHash(hash))), LinkMetaBlock.class));
+        
+        List<LinkContent> linkContents = mongoTemplate.find(
+                query(where(SUPPLY_CHAIN_ID).is(supplyChainId).andOperator(hasHash(hash))), LinkContent.class);
+        if (!linkContents.isEmpty()) {
+            Map<String, LinkContent> contentsByDigest = linkContents.stream()
+                    .collect(Collectors.toMap(LinkContent::getLinkDigest, content -> content));
+            mongoTemplate.find(query(where(SUPPLY_CHAIN_ID).is(supplyChainId)
+                        .and(LINK).exists(false)
+                        .and(LINK_DIGEST).in(contentsByDigest.keySet())), LinkMetaBlock.class)
+                .forEach(reference -> {
+                    reference.setLink(contentsByDigest.get(reference.getLinkDigest()).getLink());
+                    linkMetaBlocks.add(reference);
+                });
+        }
+        return linkMetaBlocks;
+    }
+    
+    @Override
+    public List<LinkMetaBlock> findForVerification(UUID supplyChainId) {
+        Query query = query(where(SUPPLY_CHAIN_ID).is(supplyChainId));
+        query.fields().include(ID, SIGNATURE, LINK, LINK_DIGEST);
+        Map<String, LinkMetaBlock> linkMetaBlocks = new LinkedHashMap<>();
+        try (Stream<LinkMetaBlock> stream = mongoTemplate.stream(query, LinkMetaBlock.class)) {
+            stream.forEach(linkMetaBlock -> {
+                linkMetaBlock.setSupplyChainId(supplyChainId);
+                linkMetaBlocks.putIfAbsent(linkMetaBlock.getId(), linkMetaBlock);
+            });
+        }
+        return withLinks(supplyChainId, new ArrayList<>(linkMetaBlocks.values()));
+    }
+    
+    private static Criteria hasHash(String hash) {
+        return new Criteria().orOperator(
+                where(LINK + ".materials.hash").is(hash), 
+                where(LINK + ".products.hash").is(hash));
+    }
+    
+    /*
+     * Set the links of the link meta blocks stored deduplicated. References without 
+     * link content are left out.
+     */
+    private List<LinkMetaBlock> withLinks(UUID supplyChainId, List<LinkMetaBlock> linkMetaBlocks) {
+        Set<String> digests = linkMetaBlocks.stream()
+                .filter(linkMetaBlock -> linkMetaBlock.getLink() == null)
+                .map(LinkMetaBlock::getLinkDigest)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (digests.isEmpty()) {
+            return linkMetaBlocks;
+        }
+        Map<String, LinkContent> contentsByDigest = mongoTemplate.find(
+                query(where(SUPPLY_CHAIN_ID).is(supplyChainId).and(LINK_DIGEST).in(digests)), LinkContent.class)
+                .stream()
+                .collect(Collectors.toMap(LinkContent::getLinkDigest, content -> content));
+        List<LinkMetaBlock> result = new ArrayList<>(linkMetaBlocks.size());
+        for (LinkMetaBlock linkMetaBlock : linkMetaBlocks) {
+            if (linkMetaBlock.getLink() == null) {
+                LinkContent content = contentsByDigest.get(linkMetaBlock.getLinkDigest());
+                if (content == null) {
+                    log.warn("no link content [{}] for link meta block of supply chain [{}]", linkMetaBlock.getLinkDigest(), supplyChainId);
+                    continue;
+                }
+                linkMetaBlock.setLink(content.getLink());
+            }
+            result.add(linkMetaBlock);
+        }
+        return result;
+    }
+
+}
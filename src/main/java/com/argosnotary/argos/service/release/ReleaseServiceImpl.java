@@ -47,6 +47,7 @@ import com.argosnotary.argos.service.nodes.NodeService;
 import com.argosnotary.argos.service.nodes.SupplyChainService;
 import com.argosnotary.argos.service.verification.VerificationProvider;
 import com.argosnotary.argos.service.verification.VerificationRunResult;
+import com.argosnotary.argos.service.verification.VerificationStateService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -66,6 +67,7 @@ public class ReleaseServiceImpl implements ReleaseService {
     private final NodeService nodeService;
     private final SupplyChainService supplyChainService;
     private final LinkMetaBlockService linkMetaBlockService;
+    private final VerificationStateService verificationStateService;
 
     @Override
     public ReleaseResult createRelease(UUID supplyChainId, List<Set<Artifact>> releaseArtifacts) {
@@ -134,6 +136,7 @@ public class ReleaseServiceImpl implements ReleaseService {
                         verificationRunResult);
                 releaseBuilder.release(released);
                 linkMetaBlockService.deleteBySupplyChainId(supplyChainId);
+                verificationStateService.remove(supplyChainId);
             }
             log.info("Artifacts released [{}] for supply chain [{}].", releaseArtifacts, supplyChainId);
             return releaseBuilder.build();
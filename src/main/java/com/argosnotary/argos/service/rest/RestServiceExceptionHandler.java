@@ -26,6 +26,8 @@ import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 
 import java.util.ArrayList;
@@ -34,6 +36,7 @@ import java.util.List;
 
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
@@ -46,6 +49,8 @@ import com.argosnotary.argos.domain.ArgosError;
 import com.argosnotary.argos.service.openapi.rest.model.RestError;
 import com.argosnotary.argos.service.openapi.rest.model.RestErrorMessage;
 import com.argosnotary.argos.service.rest.layout.LayoutValidationException;
+import com.argosnotary.argos.service.verification.VerificationLimitException;
+import com.argosnotary.argos.service.verification.VerificationLimitException.Limit;
 import com.fasterxml.jackson.databind.JsonMappingException;
 
 import jakarta.validation.ConstraintViolationException;
@@ -122,6 +127,12 @@ public class RestServiceExceptionHandler {
         }
     }
 
+    @ExceptionHandler(value = {VerificationLimitException.class})
+    public ResponseEntity<RestError> handleVerificationLimitException(VerificationLimitException ex) {
+        HttpStatus status = ex.getLimit() == Limit.CONCURRENCY ? SERVICE_UNAVAILABLE : UNPROCESSABLE_ENTITY;
+        return ResponseEntity.status(status).contentType(APPLICATION_JSON).body(createRestErrorMessage(ex.getMessage()));
+    }
+
     @ExceptionHandler(value = {AccessDeniedException.class})
     public ResponseEntity<RestError> handleAccessDeniedException(AccessDeniedException ex) {
         return ResponseEntity.status(FORBIDDEN).contentType(APPLICATION_JSON).body(createRestErrorMessage(ex.getMessage()));
@@ -33,6 +33,7 @@ import com.argosnotary.argos.domain.account.Account;
 import com.argosnotary.argos.domain.account.PersonalAccount;
 import com.argosnotary.argos.domain.crypto.KeyIdProvider;
 import com.argosnotary.argos.domain.crypto.KeyPair;
+import com.argosnotary.argos.domain.crypto.PublicKey;
 import com.argosnotary.argos.service.account.AccountSecurityContext;
 import com.argosnotary.argos.service.account.PersonalAccountService;
 import com.argosnotary.argos.service.auditlog.AuditLog;
@@ -72,6 +73,9 @@ public class PersonalAccountRestServiceImpl implements PersonalAccountRestServic
         if (!keyPair.getKeyId().equals(KeyIdProvider.computeKeyId(keyPair.getPub()))) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid key id : " + keyPair.getKeyId());
         }
+        if (PublicKey.getKeyAlgorithm(keyPair.getPub()).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unsupported key algorithm of key : " + keyPair.getKeyId());
+        }
     }
 
 	@Override
@@ -34,6 +34,7 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.argosnotary.argos.domain.account.Account;
 import com.argosnotary.argos.domain.account.ServiceAccount;
+import com.argosnotary.argos.domain.crypto.PublicKey;
 import com.argosnotary.argos.domain.roles.Permission;
 import com.argosnotary.argos.service.account.AccountSecurityContext;
 import com.argosnotary.argos.service.account.ServiceAccountService;
@@ -94,6 +95,10 @@ public class ServiceAccountRestServiceImpl implements ServiceAccountRestService
 		if (restServiceAccountKeyPair.getPassphrase() == null) {
     		throw passphraseNotSet(serviceAccount.getName());
     	}
+		
+		if (PublicKey.getKeyAlgorithm(restServiceAccountKeyPair.getPub()).isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unsupported key algorithm of key : " + restServiceAccountKeyPair.getKeyId());
+		}
         
     	ServiceAccount updatedAccount = serviceAccountService
     			.activateNewKey(
@@ -26,6 +26,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 
 import com.argosnotary.argos.domain.ArgosError;
@@ -49,6 +50,7 @@ public interface AttestationMapper {
 
 	DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SS'Z'");
 	
+	@Mapping(target = "canonicalDigest", ignore = true)
 	Attestation convertFromRestAttestation(RestAttestation restAttestation);
 	
     Envelope convertFromRestStatementEnvelop(RestEnvelope restEnvelop);
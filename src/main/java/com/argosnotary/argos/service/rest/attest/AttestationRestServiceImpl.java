@@ -63,10 +63,11 @@ public class AttestationRestServiceImpl implements AttestationRestService {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid supply chain"); 
 		}
 		
+		attestation.calculateCanonicalDigest();
 		// all signatures should be valid
-		attestation.getEnvelope().getSignatures().stream().filter(s -> !signatureValidatorService
-				.validateSignature(attestation.getEnvelope().getPayload(), s)).findAny().ifPresent(s -> {
-					throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("invalid signature with key id [%s]", s.getKeyId()));
+		signatureValidatorService.validateSignatures(attestation).stream().filter(result -> !result.isValid())
+				.findFirst().ifPresent(result -> {
+					throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("invalid signature with key id [%s]", result.getSignature().getKeyId()));
 					});
 
 		Attestation attest = attestationService.create(attestation);
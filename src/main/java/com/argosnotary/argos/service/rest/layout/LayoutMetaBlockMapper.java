@@ -33,6 +33,7 @@ import com.argosnotary.argos.service.openapi.rest.model.RestLayoutMetaBlock;
 public interface LayoutMetaBlockMapper {
 
     @Mapping(target = "supplyChainId", ignore = true)
+    @Mapping(target = "canonicalDigest", ignore = true)
     LayoutMetaBlock convertFromRestLayoutMetaBlock(RestLayoutMetaBlock metaBlock);
 
     Layout convertFromRestLayout(RestLayout restLayout);
@@ -48,6 +48,7 @@ import com.argosnotary.argos.service.openapi.rest.model.RestLayout;
 import com.argosnotary.argos.service.openapi.rest.model.RestLayoutMetaBlock;
 import com.argosnotary.argos.service.openapi.rest.model.RestReleaseConfiguration;
 import com.argosnotary.argos.service.roles.PermissionCheck;
+import com.argosnotary.argos.service.verification.VerificationStateService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -63,6 +64,7 @@ public class LayoutMetaBlockRestServiceImpl implements LayoutMetaBlockRestServic
     private final LayoutValidatorService validator;
     private final ApprovalConfigurationMapper approvalConfigurationMapper;
     private final ReleaseConfigurationMapper releaseConfigurationMapper;
+    private final VerificationStateService verificationStateService;
 
 
     @Override
@@ -80,8 +82,10 @@ public class LayoutMetaBlockRestServiceImpl implements LayoutMetaBlockRestServic
         log.info("createLayout for supplyChainId {}", supplyChainId);
         LayoutMetaBlock layoutMetaBlock = layoutMetaBlockConverter.convertFromRestLayoutMetaBlock(restLayoutMetaBlock);
         layoutMetaBlock.setSupplyChainId(supplyChainId);
+        layoutMetaBlock.calculateCanonicalDigest();
         validator.validate(layoutMetaBlock);
         layoutMetaBlockService.save(layoutMetaBlock);
+        verificationStateService.remove(supplyChainId);
         URI location = ServletUriComponentsBuilder.fromCurrentRequest().build().toUri();
         return ResponseEntity.created(location).body(layoutMetaBlockConverter.convertToRestLayoutMetaBlock(layoutMetaBlock));
     }
@@ -83,6 +83,10 @@ public class LayoutValidatorService {
                 report.addValidationMessage("keys",
                     "key with id " + key.getKeyId() + " does not match computed key id from public key");
             }
+            if (PublicKey.getKeyAlgorithm(key.getPub()).isEmpty()) {
+                report.addValidationMessage("keys",
+                    "key with id " + key.getKeyId() + " has an unsupported key algorithm");
+            }
         });
     }
 
@@ -117,13 +121,10 @@ public class LayoutValidatorService {
                     "layout can't be signed more than one time with the same keyId");
         }
 
-        layoutMetaBlock.getSignatures()
-                .forEach(signature -> {
-                	if(!signatureValidatorService.validateSignature(layoutMetaBlock.getLayout(), signature)) {
-                        report.addValidationMessage("signatures",
-                                "invalid signature with keyId "+signature.getKeyId());
-                	}
-                });
+        signatureValidatorService.validateSignatures(layoutMetaBlock).stream()
+                .filter(result -> !result.isValid())
+                .forEach(result -> report.addValidationMessage("signatures",
+                                "invalid signature with keyId "+result.getSignature().getKeyId()));
     }
 
     private void validateAutorizationKeyIds(LayoutValidationReport report, Layout layout) {
@@ -32,6 +32,9 @@ import com.argosnotary.argos.service.rest.ArtifactMapper;
 public interface LinkMetaBlockMapper {
 
     @Mapping(target = "supplyChainId", ignore = true)
+    @Mapping(target = "linkDigest", ignore = true)
+    @Mapping(target = "canonicalDigest", ignore = true)
+    @Mapping(target = "id", ignore = true)
     LinkMetaBlock convertFromRestLinkMetaBlock(RestLinkMetaBlock metaBlock);
 
     RestLinkMetaBlock convertToRestLinkMetaBlock(LinkMetaBlock metaBlock);
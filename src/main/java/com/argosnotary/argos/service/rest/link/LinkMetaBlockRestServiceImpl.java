@@ -30,6 +30,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.argosnotary.argos.domain.crypto.PublicKey;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
 import com.argosnotary.argos.domain.roles.Permission;
 import com.argosnotary.argos.service.auditlog.AuditLog;
@@ -38,6 +39,7 @@ import com.argosnotary.argos.service.nodes.SupplyChainService;
 import com.argosnotary.argos.service.openapi.rest.model.RestLinkMetaBlock;
 import com.argosnotary.argos.service.roles.PermissionCheck;
 import com.argosnotary.argos.service.verification.SignatureValidatorService;
+import com.argosnotary.argos.service.verification.VerificationStateService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -55,6 +57,8 @@ public class LinkMetaBlockRestServiceImpl implements LinkMetaBlockRestService {
     private final LinkMetaBlockMapper linkMetaBlockMapper;
 
     private final SignatureValidatorService signatureValidatorService;
+    
+    private final VerificationStateService verificationStateService;
 
     @Override
     @PermissionCheck(permissions = Permission.LINK_ADD)
@@ -66,11 +70,14 @@ public class LinkMetaBlockRestServiceImpl implements LinkMetaBlockRestService {
         }
 
         LinkMetaBlock linkMetaBlock = linkMetaBlockMapper.convertFromRestLinkMetaBlock(restLinkMetaBlock);
-        if (!signatureValidatorService.validateSignature(linkMetaBlock.getLink(), linkMetaBlock.getSignature())) {
+        linkMetaBlock.calculateDigests();
+        Optional<PublicKey> key = signatureValidatorService.getPublicKey(linkMetaBlock.getSignature());
+        if (!signatureValidatorService.validateSignature(linkMetaBlock, key)) {
         	throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid signature");
         }
         linkMetaBlock.setSupplyChainId(supplyChainId);
         LinkMetaBlock link = linkMetaBlockService.create(linkMetaBlock);
+        verificationStateService.addLink(link, key);
         return ResponseEntity.status(HttpStatus.CREATED).body(linkMetaBlockMapper.convertToRestLinkMetaBlock(link));
     }
 
@@ -29,6 +29,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 
 import com.argosnotary.argos.service.openapi.rest.api.VerificationApi;
 import com.argosnotary.argos.service.openapi.rest.model.RestArtifact;
+import com.argosnotary.argos.service.openapi.rest.model.RestVerificationArtifacts;
 import com.argosnotary.argos.service.openapi.rest.model.RestVerificationResult;
 
 import io.swagger.v3.oas.annotations.Parameter;
@@ -47,6 +48,12 @@ public interface VerificationRestService extends VerificationApi {
 	@Override
 	public ResponseEntity<RestVerificationResult> performVerification(
 			@Parameter(name = "supplyChainId", description = "supply chain id", required = true, in = ParameterIn.PATH) @PathVariable("supplyChainId") UUID supplyChainId,
-			@Parameter(name = "RestArtifact", description = "", required = true) @Valid @Size(max = 12288) @RequestBody List<RestArtifact> expectedProducts);
+			@Parameter(name = "RestArtifact", description = "", required = true) @Valid @Size(max = 12288) @RequestBody List<RestArtifact> expectedProducts,
+			@Parameter(name = "trace", description = "add a trace of the verification run with the timings of the verifications and rules to the result", in = ParameterIn.QUERY) @Valid @RequestParam(value = "trace", required = false, defaultValue = "false") Boolean trace);
+
+	@Override
+	public ResponseEntity<List<RestVerificationResult>> performBatchVerification(
+			@Parameter(name = "supplyChainId", description = "supply chain id", required = true, in = ParameterIn.PATH) @PathVariable("supplyChainId") UUID supplyChainId,
+			@Parameter(name = "RestVerificationArtifacts", description = "", required = true) @Valid @RequestBody RestVerificationArtifacts restVerificationArtifacts);
 
 }
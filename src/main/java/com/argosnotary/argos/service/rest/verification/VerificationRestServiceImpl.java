@@ -37,6 +37,7 @@ import com.argosnotary.argos.service.auditlog.AuditLog;
 import com.argosnotary.argos.service.layout.LayoutMetaBlockService;
 import com.argosnotary.argos.service.nodes.SupplyChainService;
 import com.argosnotary.argos.service.openapi.rest.model.RestArtifact;
+import com.argosnotary.argos.service.openapi.rest.model.RestVerificationArtifacts;
 import com.argosnotary.argos.service.openapi.rest.model.RestVerificationResult;
 import com.argosnotary.argos.service.rest.ArtifactMapper;
 import com.argosnotary.argos.service.roles.PermissionCheck;
@@ -73,7 +74,7 @@ public class VerificationRestServiceImpl implements VerificationRestService {
     @Override
     @PermissionCheck(permissions = Permission.READ)
     @AuditLog
-    public ResponseEntity<RestVerificationResult> performVerification(UUID supplyChainId, List<RestArtifact> expectedProducts) {
+    public ResponseEntity<RestVerificationResult> performVerification(UUID supplyChainId, List<RestArtifact> expectedProducts, Boolean trace) {
     	if (!supplyChainService.exists(supplyChainId)) {
     		return ResponseEntity.ok(
     				verificationResultMapper.mapToRestVerificationResult(VerificationRunResult.builder().runIsValid(false).build()));
@@ -84,6 +85,30 @@ public class VerificationRestServiceImpl implements VerificationRestService {
 
         Set<Artifact> products = expectedProducts.stream().map(artifactMapper::restArtifactToArtifact).collect(Collectors.toSet());
         return ResponseEntity.ok(
-        		verificationResultMapper.mapToRestVerificationResult(verificationService.performVerification(layoutMetaBlock, products)));
+        		verificationResultMapper.mapToRestVerificationResult(
+        				verificationService.performVerification(layoutMetaBlock, products, Boolean.TRUE.equals(trace))));
+    }
+
+    @Override
+    @PermissionCheck(permissions = Permission.READ)
+    @AuditLog
+    public ResponseEntity<List<RestVerificationResult>> performBatchVerification(UUID supplyChainId,
+            RestVerificationArtifacts restVerificationArtifacts) {
+        List<List<RestArtifact>> productSets = restVerificationArtifacts.getProductSets();
+        if (!supplyChainService.exists(supplyChainId)) {
+            RestVerificationResult invalid = verificationResultMapper.mapToRestVerificationResult(VerificationRunResult.builder().runIsValid(false).build());
+            return ResponseEntity.ok(productSets.stream().map(products -> invalid).toList());
+        }
+
+        LayoutMetaBlock layoutMetaBlock = layoutMetaBlockService.getLayout(supplyChainId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "no active layout could be found for supplychain:" + supplyChainId));
+
+        List<Set<Artifact>> products = productSets.stream()
+                .map(productSet -> productSet.stream().map(artifactMapper::restArtifactToArtifact).collect(Collectors.toSet()))
+                .toList();
+        log.info("Batch verification of [{}] product sets for supply chain [{}].", products.size(), supplyChainId);
+        return ResponseEntity.ok(verificationService.performVerifications(layoutMetaBlock, products).stream()
+                .map(verificationResultMapper::mapToRestVerificationResult)
+                .toList());
     }
 }
@@ -0,0 +1,107 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+import com.argosnotary.argos.domain.link.Artifact;
+
+/**
+ * The artifacts of a link classified on the patterns and prefixes of the rules. A combination 
+ * of a pattern and a prefix is matched against the artifacts on first use and the matches are
+ * kept, so patterns of rules that are never verified are not matched. The classification
+ * belongs to the artifact index of the link and is shared by the verification contexts of
+ * the link, an artifact uri is resolved once per prefix and matched once per pattern for 
+ * all these contexts. A match is a bit set on the ordinals of the artifact index.
+ */
+public class ArtifactClassification {
+    
+    private static final String NO_PREFIX = "";
+    
+    private final List<Artifact> artifacts;
+    
+    /* prefix -> the resolved paths and the matches per pattern, contexts are verified in parallel */
+    private final Map<String, PrefixMatches> matchesByPrefix = new ConcurrentHashMap<>();
+    
+    ArtifactClassification(List<Artifact> artifacts) {
+        this.artifacts = artifacts;
+    }
+    
+    /**
+     * @return the ordinals of the artifacts matching the pattern with the prefix, the returned 
+     * bit set is shared and should not be modified
+     */
+    public BitSet getMatches(String pattern, @Nullable String prefix) {
+        return matchesByPrefix.computeIfAbsent(toKey(prefix), PrefixMatches::new).getMatches(pattern);
+    }
+    
+    /**
+     * @return the artifacts matching the pattern with the prefix
+     */
+    public Set<Artifact> getArtifacts(String pattern, @Nullable String prefix) {
+        return getMatches(pattern, prefix).stream().mapToObj(artifacts::get).collect(Collectors.toSet());
+    }
+    
+    private static String toKey(@Nullable String prefix) {
+        return StringUtils.hasLength(prefix) ? prefix : NO_PREFIX;
+    }
+    
+    private final class PrefixMatches {
+        
+        /* the path relative to the prefix per ordinal, null if the artifact uri does not have the prefix */
+        private final Path[] paths;
+        
+        private final Map<String, BitSet> matchesByPattern = new ConcurrentHashMap<>();
+        
+        private PrefixMatches(String prefix) {
+            paths = new Path[artifacts.size()];
+            for (int ordinal = 0; ordinal < paths.length; ordinal++) {
+                Artifact artifact = artifacts.get(ordinal);
+                if (NO_PREFIX.equals(prefix) || artifact.getUri().startsWith(prefix)) {
+                    paths[ordinal] = ArtifactPaths.toPath(ArtifactsVerificationContext.getUri(artifact, prefix));
+                }
+            }
+        }
+        
+        private BitSet getMatches(String pattern) {
+            return matchesByPattern.computeIfAbsent(pattern, this::match);
+        }
+        
+        private BitSet match(String pattern) {
+            BitSet matches = new BitSet(paths.length);
+            for (int ordinal = 0; ordinal < paths.length; ordinal++) {
+                if (paths[ordinal] != null && ArtifactMatcher.matches(paths[ordinal], pattern)) {
+                    matches.set(ordinal);
+                }
+            }
+            return matches;
+        }
+    }
+
+}
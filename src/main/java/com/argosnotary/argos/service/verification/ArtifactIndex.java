@@ -0,0 +1,120 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.argosnotary.argos.domain.link.Artifact;
+
+/**
+ * Immutable view on the materials or products of a link, indexed on hash and on uri. Every
+ * distinct artifact has an ordinal, the position in the artifacts list. The index of a link is 
+ * built once and shared by the verification contexts of the link, which track the consumption 
+ * of the artifacts on these ordinals.
+ */
+public class ArtifactIndex {
+    
+    private final List<Artifact> artifactList;
+    
+    private final Map<Artifact, Integer> ordinals;
+    
+    private final Map<String, List<Artifact>> artifactsByHash;
+    
+    private final Map<String, Artifact> artifactsByUri;
+    
+    private final ArtifactClassification classification;
+    
+    private ArtifactIndex(Collection<Artifact> artifacts) {
+        List<Artifact> list = new ArrayList<>(artifacts.size());
+        Map<Artifact, Integer> byOrdinal = new HashMap<>();
+        Map<String, List<Artifact>> byHash = new HashMap<>();
+        Map<String, Artifact> byUri = new HashMap<>();
+        artifacts.forEach(artifact -> {
+            if (byOrdinal.putIfAbsent(artifact, list.size()) == null) {
+                list.add(artifact);
+                byHash.computeIfAbsent(artifact.getHash(), hash -> new ArrayList<>()).add(artifact);
+                byUri.putIfAbsent(artifact.getUri(), artifact);
+            }
+        });
+        this.artifactList = Collections.unmodifiableList(list);
+        this.ordinals = Collections.unmodifiableMap(byOrdinal);
+        this.artifactsByHash = Collections.unmodifiableMap(byHash);
+        this.artifactsByUri = Collections.unmodifiableMap(byUri);
+        this.classification = new ArtifactClassification(artifactList);
+    }
+    
+    public static ArtifactIndex of(Collection<Artifact> artifacts) {
+        return new ArtifactIndex(artifacts == null ? List.of() : artifacts);
+    }
+    
+    public Set<Artifact> getArtifacts() {
+        return ordinals.keySet();
+    }
+    
+    /**
+     * @return the distinct artifacts, the position of an artifact is its ordinal
+     */
+    public List<Artifact> getArtifactList() {
+        return artifactList;
+    }
+    
+    /**
+     * @return the ordinal of the artifact or -1 if the artifact is not in the index
+     */
+    public int ordinalOf(Object artifact) {
+        Integer ordinal = ordinals.get(artifact);
+        return ordinal == null ? -1 : ordinal;
+    }
+    
+    /**
+     * @return the matches of the artifacts on the patterns of the rules, classified on first use
+     */
+    public ArtifactClassification getClassification() {
+        return classification;
+    }
+    
+    public int size() {
+        return artifactList.size();
+    }
+    
+    public boolean contains(Artifact artifact) {
+        return ordinals.containsKey(artifact);
+    }
+    
+    public boolean containsUri(String uri) {
+        return artifactsByUri.containsKey(uri);
+    }
+    
+    public Optional<Artifact> getArtifactByUri(String uri) {
+        return Optional.ofNullable(artifactsByUri.get(uri));
+    }
+    
+    public List<Artifact> getArtifactsByHash(String hash) {
+        return artifactsByHash.getOrDefault(hash, List.of());
+    }
+
+}
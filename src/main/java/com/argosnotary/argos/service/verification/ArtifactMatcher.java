@@ -22,14 +22,33 @@ package com.argosnotary.argos.service.verification;
 import lombok.AllArgsConstructor;
 
 import java.nio.file.FileSystems;
-import java.nio.file.Paths;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import static lombok.AccessLevel.PRIVATE;
 
 @AllArgsConstructor(access = PRIVATE)
 public class ArtifactMatcher {
+    
+    private static final int MAX_CACHED_PATTERNS = 1024;
+    
+    /* compiling a glob into a regex is expensive, the patterns of a layout are few and reused for every artifact */
+    private static final Cache<String, PathMatcher> PATH_MATCHERS = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_PATTERNS)
+            .build();
 
     public static boolean matches(String uri, String pattern) {
-        return FileSystems.getDefault().getPathMatcher("glob:" + pattern).matches(Paths.get(uri));
+        return matches(ArtifactPaths.toPath(uri), pattern);
+    }
+    
+    public static boolean matches(Path path, String pattern) {
+        return PATH_MATCHERS.get(pattern, ArtifactMatcher::compile).matches(path);
+    }
+    
+    private static PathMatcher compile(String pattern) {
+        return FileSystems.getDefault().getPathMatcher("glob:" + pattern);
     }
 }
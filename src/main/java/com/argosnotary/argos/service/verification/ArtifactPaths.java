@@ -0,0 +1,144 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import lombok.AllArgsConstructor;
+
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * String level equivalents of the {@link java.nio.file.Path} operations on artifact uris.
+ * Uris without redundant slashes, "." or ".." segments are handled on the string, all other
+ * uris and non unix file systems fall back to {@link java.nio.file.Path} so the results are
+ * always the same.
+ */
+@AllArgsConstructor(access = PRIVATE)
+public class ArtifactPaths {
+    
+    private static final char SEPARATOR = '/';
+    
+    private static final String PARENT = "..";
+    
+    private static final boolean UNIX_SEPARATOR = "/".equals(FileSystems.getDefault().getSeparator());
+    
+    /**
+     * Same as {@code Paths.get(prefix).relativize(Paths.get(uri)).toString()}.
+     * 
+     * @param prefix the prefix, the uri should start with this prefix
+     * @param uri the uri to relativize
+     * @return the uri relative to the prefix
+     */
+    public static String relativize(String prefix, String uri) {
+        int prefixLength = prefix.length();
+        if (prefixLength > 1 && prefix.charAt(prefixLength - 1) == SEPARATOR) {
+            prefixLength--;
+        }
+        if (!UNIX_SEPARATOR || !uri.startsWith(prefix) || !isSimple(prefix, prefixLength) || !isSimple(uri, uri.length())) {
+            return Paths.get(prefix).relativize(Paths.get(uri)).toString();
+        }
+        if (uri.length() == prefixLength) {
+            return "";
+        }
+        if (uri.charAt(prefixLength) == SEPARATOR) {
+            return uri.substring(prefixLength + 1);
+        }
+        // the last name of the prefix is only the start of a name in the uri
+        return PARENT + SEPARATOR + uri.substring(prefix.lastIndexOf(SEPARATOR, prefixLength - 1) + 1);
+    }
+    
+    /**
+     * Same as {@code Paths.get(prefix, uri).toString()}.
+     * 
+     * @param prefix the prefix
+     * @param uri the uri to append to the prefix
+     * @return the joined uri
+     */
+    public static String join(String prefix, String uri) {
+        String joined;
+        if (uri.isEmpty()) {
+            joined = prefix;
+        } else if (prefix.isEmpty()) {
+            joined = uri;
+        } else {
+            joined = prefix + SEPARATOR + uri;
+        }
+        if (!UNIX_SEPARATOR || !isNormalized(joined)) {
+            return Paths.get(prefix, uri).toString();
+        }
+        return joined;
+    }
+    
+    /**
+     * The path of an artifact uri for the glob matchers of the rules, the only place an 
+     * artifact uri is parsed into a {@link java.nio.file.Path}.
+     * 
+     * @param uri the uri, relative to the prefix of a rule if the rule has one
+     * @return the path of the uri
+     */
+    public static Path toPath(String uri) {
+        return Paths.get(uri);
+    }
+    
+    /*
+     * non empty, no redundant or trailing slashes and no "." or ".." names
+     */
+    private static boolean isSimple(String uri, int length) {
+        if (length == 0 || uri.charAt(length - 1) == SEPARATOR) {
+            return false;
+        }
+        int nameStart = uri.charAt(0) == SEPARATOR ? 1 : 0;
+        for (int i = nameStart; i <= length; i++) {
+            if (i == length || uri.charAt(i) == SEPARATOR) {
+                int nameLength = i - nameStart;
+                if (nameLength == 0 
+                        || (nameLength == 1 && uri.charAt(nameStart) == '.')
+                        || (nameLength == 2 && uri.startsWith(PARENT, nameStart))) {
+                    return false;
+                }
+                nameStart = i + 1;
+            } else if (uri.charAt(i) == '\0') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /*
+     * the path string would be the same after parsing, no redundant or trailing slashes
+     */
+    private static boolean isNormalized(String uri) {
+        int length = uri.length();
+        if (length > 1 && uri.charAt(length - 1) == SEPARATOR) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = uri.charAt(i);
+            if (c == '\0' || (c == SEPARATOR && i + 1 < length && uri.charAt(i + 1) == SEPARATOR)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
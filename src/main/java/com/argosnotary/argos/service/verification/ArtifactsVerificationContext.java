@@ -19,6 +19,7 @@
  */
 package com.argosnotary.argos.service.verification;
 
+import com.argosnotary.argos.domain.layout.ArtifactType;
 import com.argosnotary.argos.domain.link.Artifact;
 import com.argosnotary.argos.domain.link.Link;
 
@@ -29,39 +30,91 @@ import lombok.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.util.StringUtils;
 
-import java.nio.file.Paths;
-import java.util.HashSet;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-@Builder
-@Getter
+/**
+ * The artifacts of a link under verification. The artifacts and their ordinals come from the 
+ * artifact index of the link, consumption is tracked in bit sets on these ordinals. Only the 
+ * artifact selections handed out by a context can be consumed.
+ */
 public class ArtifactsVerificationContext {
 
+    @Getter
     private final Map<String, Link> linksMap;
     
+    @Getter
     private final Link link;
     
-    @NonNull
-    private Set<Artifact> notConsumedArtifacts;
+    private final ArtifactIndex index;
+    
+    private final List<Artifact> artifacts;
+    
+    private final BitSet notConsumed;
+    
+    private final BitSet consumed;
+    
+    /* shared by the artifacts contexts of a step, the index of a link is built on first use */
+    @Getter
+    private final Map<Link, Map<ArtifactType, ArtifactIndex>> artifactIndexes;
     
-    @Builder.Default
-    private Set<Artifact> consumedArtifacts = new HashSet<>();
+    /**
+     * @param notConsumedArtifacts the index of the artifacts to verify
+     * @param artifactIndexes the artifact indexes shared with other contexts, a new map if null
+     */
+    @Builder
+    private ArtifactsVerificationContext(Map<String, Link> linksMap, Link link, @NonNull ArtifactIndex notConsumedArtifacts,
+            @Nullable Map<Link, Map<ArtifactType, ArtifactIndex>> artifactIndexes) {
+        this.linksMap = linksMap;
+        this.link = link;
+        this.index = notConsumedArtifacts;
+        this.artifacts = notConsumedArtifacts.getArtifactList();
+        this.notConsumed = new BitSet(artifacts.size());
+        this.notConsumed.set(0, artifacts.size());
+        this.consumed = new BitSet(artifacts.size());
+        this.artifactIndexes = artifactIndexes == null ? new IdentityHashMap<>() : artifactIndexes;
+    }
 
     public Set<Artifact> getFilteredArtifacts(String pattern) {
         return getFilteredArtifacts(pattern, null);
     }
 
     public Set<Artifact> getFilteredArtifacts(String pattern, String prefix) {
-        return filterArtifacts(notConsumedArtifacts, pattern, prefix);
+        BitSet filtered = (BitSet) index.getClassification().getMatches(pattern, prefix).clone();
+        filtered.and(notConsumed);
+        return new OrdinalArtifactSet(filtered);
+    }
+    
+    public Set<Artifact> getNotConsumedArtifacts() {
+        return new OrdinalArtifactSet((BitSet) notConsumed.clone());
+    }
+    
+    public Set<Artifact> getConsumedArtifacts() {
+        return new OrdinalArtifactSet((BitSet) consumed.clone());
+    }
+    
+    public boolean isAllConsumed() {
+        return notConsumed.isEmpty();
     }
 
-    public static Set<Artifact> filterArtifacts(Set<Artifact> artifacts, String pattern, @Nullable String prefix) {
-        return artifacts.stream()
-        		.filter(artifact -> hasPrefix(artifact, prefix))
-        		.filter(artifact -> ArtifactMatcher.matches(getUri(artifact, prefix), pattern)).collect(Collectors.toSet());
+    public static Set<Artifact> filterArtifacts(Collection<Artifact> artifactsToFilter, String pattern, @Nullable String prefix) {
+        return artifactsToFilter.stream()
+        		.filter(artifact -> matches(artifact, pattern, prefix))
+        		.collect(Collectors.toSet());
+    }
+    
+    public static boolean matches(Artifact artifact, String pattern, @Nullable String prefix) {
+        return hasPrefix(artifact, prefix) && ArtifactMatcher.matches(getUri(artifact, prefix), pattern);
     }
     
     private static boolean hasPrefix(Artifact artifact, @Nullable String prefix) {
@@ -70,7 +123,7 @@ public class ArtifactsVerificationContext {
 
     public static String getUri(Artifact artifact, String prefix) {
         if (StringUtils.hasLength(prefix) && artifact.getUri().startsWith(prefix)) {
-            return Paths.get(prefix).relativize(Paths.get(artifact.getUri())).toString();
+            return ArtifactPaths.relativize(prefix, artifact.getUri());
         } else {
             return artifact.getUri();
         }
@@ -83,16 +136,95 @@ public class ArtifactsVerificationContext {
         return Optional.of(linksMap.get(stepName));
     }
 
+    public ArtifactIndex getArtifactIndex(Link indexedLink, ArtifactType type) {
+        return getArtifactIndex(artifactIndexes, indexedLink, type);
+    }
+    
+    static ArtifactIndex getArtifactIndex(Map<Link, Map<ArtifactType, ArtifactIndex>> artifactIndexes, Link indexedLink, ArtifactType type) {
+        return artifactIndexes
+                .computeIfAbsent(indexedLink, l -> new EnumMap<>(ArtifactType.class))
+                .computeIfAbsent(type, t -> ArtifactIndex.of(t == ArtifactType.PRODUCTS ? indexedLink.getProducts() : indexedLink.getMaterials()));
+    }
+    
+    public ArtifactIndex getMaterialsIndex() {
+        return getArtifactIndex(link, ArtifactType.MATERIALS);
+    }
+    
+    public ArtifactIndex getProductsIndex() {
+        return getArtifactIndex(link, ArtifactType.PRODUCTS);
+    }
+
     public Set<Artifact> getMaterials() {
-        return new HashSet<>(link.getMaterials());
+        return getMaterialsIndex().getArtifacts();
     }
     
     public Set<Artifact> getProducts() {
-        return new HashSet<>(link.getProducts());
+        return getProductsIndex().getArtifacts();
     }
     
-    public void consume(Set<Artifact> artifacts) {
-        notConsumedArtifacts.removeAll(artifacts);
-        consumedArtifacts.addAll(artifacts);
+    /**
+     * @param artifactsToConsume a selection of the artifacts of this context, as returned by 
+     * {@link #getFilteredArtifacts(String, String)}
+     */
+    public void consume(Set<Artifact> artifactsToConsume) {
+        if (!(artifactsToConsume instanceof OrdinalArtifactSet selection) || selection.getContext() != this) {
+            throw new IllegalArgumentException("only artifacts selected from this context can be consumed");
+        }
+        notConsumed.andNot(selection.ordinals);
+        consumed.or(selection.ordinals);
+    }
+    
+    /*
+     * read only view on a selection of the artifacts of a context
+     */
+    private final class OrdinalArtifactSet extends AbstractSet<Artifact> {
+        
+        private final BitSet ordinals;
+        
+        private OrdinalArtifactSet(BitSet ordinals) {
+            this.ordinals = ordinals;
+        }
+        
+        private ArtifactsVerificationContext getContext() {
+            return ArtifactsVerificationContext.this;
+        }
+
+        @Override
+        public Iterator<Artifact> iterator() {
+            return new Iterator<>() {
+                private int next = ordinals.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Artifact next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    Artifact artifact = artifacts.get(next);
+                    next = ordinals.nextSetBit(next + 1);
+                    return artifact;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ordinals.cardinality();
+        }
+        
+        @Override
+        public boolean isEmpty() {
+            return ordinals.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            int ordinal = index.ordinalOf(o);
+            return ordinal >= 0 && ordinals.get(ordinal);
+        }
     }
 }
@@ -21,7 +21,6 @@ package com.argosnotary.argos.service.verification;
 
 import static com.argosnotary.argos.service.verification.Verification.Priority.EXPECTED_END_PRODUCTS;
 
-import java.nio.file.Paths;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -65,14 +64,10 @@ public class ExpectedEndProductsVerification implements Verification {
         Set<Artifact> matchedArtifacts = new HashSet<>();
         for (MatchRule rule : expectedEndProducts) {
             Link link = linksMap.get(rule.getDestinationStepName());
-            Set<Artifact> tempArtifacts = new HashSet<>();
-            if (rule.getDestinationType().equals(ArtifactType.MATERIALS)) {
-                tempArtifacts.addAll(link.getMaterials());
-            } else {
-                tempArtifacts.addAll(link.getProducts());
-            }
+            List<Artifact> destinationArtifacts = rule.getDestinationType().equals(ArtifactType.MATERIALS) 
+                    ? link.getMaterials() : link.getProducts();
             matchedArtifacts.addAll(ArtifactsVerificationContext
-                    .filterArtifacts(tempArtifacts, rule.getPattern(), rule.getDestinationPathPrefix())
+                    .filterArtifacts(destinationArtifacts, rule.getPattern(), rule.getDestinationPathPrefix())
                     .stream()
                     .map(artifact -> normalize(artifact, rule.getSourcePathPrefix(), rule.getDestinationPathPrefix())).collect(Collectors.toSet()));            
             
@@ -83,8 +78,11 @@ public class ExpectedEndProductsVerification implements Verification {
     private Artifact normalize(Artifact artifact, String srcPrefix, String destPrefix) {
         String uri = ArtifactsVerificationContext.getUri(artifact, destPrefix);
         if (StringUtils.hasLength(srcPrefix)) {
-            uri = Paths.get(srcPrefix, uri).toString();
-        }            
+            uri = ArtifactPaths.join(srcPrefix, uri);
+        }
+        if (uri.equals(artifact.getUri())) {
+            return artifact;
+        }
         return Artifact.builder()
                 .hash(artifact.getHash())
                 .uri(uri).build();
@@ -55,6 +55,6 @@ public class LayoutAuthorizedKeyIdVerification implements Verification {
     }
 
     private static boolean layoutWasNotSignedByAuthorizedFunctionary(VerificationContext context, Signature signature) {
-        return !context.getLayoutMetaBlock().getLayout().getAuthorizedKeyIds().contains(signature.getKeyId());
+        return !context.getLayoutPlan().isLayoutAuthorized(signature.getKeyId());
     }
 }
@@ -40,17 +40,13 @@ public class LayoutMetaBlockSignatureVerification implements Verification {
         return LAYOUT_METABLOCK_SIGNATURE;
     }
 
+    /*
+     * the contexts of a run share the layout meta block, its signatures are checked once per run
+     */
     @Override
     public VerificationRunResult verify(VerificationContext context) {
-        return verify(context.getLayoutMetaBlock());
-    }
-
-    private VerificationRunResult verify(LayoutMetaBlock layoutMetaBlock) {
-        boolean isValid = layoutMetaBlock
-                .getSignatures()
-                .stream()
-                .allMatch(signature -> signatureValidatorService.validateSignature(layoutMetaBlock.getLayout(), signature));
-                        
+        boolean isValid = context.getLinkValidations()
+                .isLayoutSignatureValid(() -> isValid(context.getLayoutMetaBlock()));
         if (!isValid) {
             log.info("failed LayoutMetaBlockSignatureVerification");
         }
@@ -59,4 +55,10 @@ public class LayoutMetaBlockSignatureVerification implements Verification {
                 .build();
 
     }
+
+    private boolean isValid(LayoutMetaBlock layoutMetaBlock) {
+        return signatureValidatorService.validateSignatures(layoutMetaBlock)
+                .stream()
+                .allMatch(SignatureValidationResult::isValid);
+    }
 }
@@ -0,0 +1,162 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.argosnotary.argos.domain.crypto.PublicKey;
+import com.argosnotary.argos.domain.layout.ArtifactType;
+import com.argosnotary.argos.domain.layout.Layout;
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
+import com.argosnotary.argos.domain.layout.Step;
+import com.argosnotary.argos.domain.layout.rule.MatchRule;
+import com.argosnotary.argos.domain.layout.rule.Rule;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * A layout compiled for verification, the lookups the verifications need are 
+ * derived once from the layout instead of for every verification context.
+ */
+@Getter
+public class LayoutPlan {
+    
+    private final LayoutMetaBlock layoutMetaBlock;
+    
+    private final List<Step> steps;
+    
+    private final Map<String, Step> stepsByName;
+    
+    private final List<List<Step>> stepsToVerifyPerDepth;
+    
+    @Getter(AccessLevel.NONE)
+    private final Set<String> authorizedKeyIds;
+    
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Set<String>> authorizedKeyIdsByStep;
+    
+    @Getter(AccessLevel.NONE)
+    private final Map<String, PublicKey> keysById;
+    
+    @Getter(AccessLevel.NONE)
+    private final Map<String, List<Rule>> expectedMaterialsByStep;
+    
+    @Getter(AccessLevel.NONE)
+    private final Map<String, List<Rule>> expectedProductsByStep;
+    
+    @Getter(AccessLevel.NONE)
+    private final Map<String, List<String>> linkedStepsByStep;
+    
+    private LayoutPlan(LayoutMetaBlock layoutMetaBlock) {
+        Layout layout = layoutMetaBlock.getLayout();
+        this.layoutMetaBlock = layoutMetaBlock;
+        this.steps = nonNull(layout.getSteps());
+        this.authorizedKeyIds = Set.copyOf(nonNull(layout.getAuthorizedKeyIds()));
+        
+        Map<String, PublicKey> keys = new HashMap<>();
+        nonNull(layout.getKeys()).forEach(key -> keys.putIfAbsent(key.getKeyId(), key));
+        this.keysById = Collections.unmodifiableMap(keys);
+        
+        Map<String, Step> byName = new LinkedHashMap<>();
+        Map<String, Set<String>> keyIdsByStep = new HashMap<>();
+        Map<String, List<Rule>> materials = new HashMap<>();
+        Map<String, List<Rule>> products = new HashMap<>();
+        Map<String, List<String>> linkedSteps = new HashMap<>();
+        for (Step step : steps) {
+            byName.putIfAbsent(step.getName(), step);
+            keyIdsByStep.putIfAbsent(step.getName(), new HashSet<>(nonNull(step.getAuthorizedKeyIds())));
+            materials.putIfAbsent(step.getName(), nonNull(step.getExpectedMaterials()));
+            products.putIfAbsent(step.getName(), nonNull(step.getExpectedProducts()));
+            linkedSteps.putIfAbsent(step.getName(), getLinkedSteps(step));
+        }
+        this.stepsByName = Collections.unmodifiableMap(byName);
+        this.authorizedKeyIdsByStep = Collections.unmodifiableMap(keyIdsByStep);
+        this.expectedMaterialsByStep = Collections.unmodifiableMap(materials);
+        this.expectedProductsByStep = Collections.unmodifiableMap(products);
+        this.linkedStepsByStep = Collections.unmodifiableMap(linkedSteps);
+        this.stepsToVerifyPerDepth = VerificationContextsProvider.getStepsToVerifyPerDepth(steps);
+    }
+    
+    public static LayoutPlan compile(LayoutMetaBlock layoutMetaBlock) {
+        return new LayoutPlan(layoutMetaBlock);
+    }
+    
+    public Optional<PublicKey> getPublicKey(String keyId) {
+        return Optional.ofNullable(keysById.get(keyId));
+    }
+    
+    /**
+     * @return true if the layout may be signed with the key
+     */
+    public boolean isLayoutAuthorized(String keyId) {
+        return authorizedKeyIds.contains(keyId);
+    }
+    
+    /**
+     * @return true if the step exists and links of the step may be signed with the key
+     */
+    public boolean isAuthorized(String stepName, String keyId) {
+        Set<String> keyIds = authorizedKeyIdsByStep.get(stepName);
+        return keyIds != null && keyIds.contains(keyId);
+    }
+    
+    /**
+     * @return the expected materials or products rules of a step, empty if none
+     */
+    public List<Rule> getExpectedRules(String stepName, ArtifactType type) {
+        Map<String, List<Rule>> rules = type == ArtifactType.PRODUCTS ? expectedProductsByStep : expectedMaterialsByStep;
+        return rules.getOrDefault(stepName, List.of());
+    }
+    
+    /**
+     * @return the step and the destination steps of the match rules of the step, the steps of 
+     * which the links are read when the rules of the step are verified
+     */
+    public List<String> getLinkedSteps(String stepName) {
+        List<String> linkedSteps = linkedStepsByStep.get(stepName);
+        return linkedSteps == null ? Collections.singletonList(stepName) : linkedSteps;
+    }
+    
+    private static List<String> getLinkedSteps(Step step) {
+        Set<String> linkedSteps = new LinkedHashSet<>();
+        linkedSteps.add(step.getName());
+        Stream.concat(nonNull(step.getExpectedMaterials()).stream(), nonNull(step.getExpectedProducts()).stream())
+            .filter(MatchRule.class::isInstance)
+            .map(rule -> ((MatchRule) rule).getDestinationStepName())
+            .forEach(linkedSteps::add);
+        return Collections.unmodifiableList(new ArrayList<>(linkedSteps));
+    }
+    
+    private static <T> List<T> nonNull(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.stereotype.Component;
+
+import com.argosnotary.argos.domain.crypto.Signature;
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compiled layout plans per supply chain and layout signatures. A changed layout has other
+ * signatures and so gets a new plan, a layout without signatures is never cached.
+ */
+@Component
+@Slf4j
+public class LayoutPlanCache {
+    
+    private final Cache<String, LayoutPlan> plans;
+    
+    public LayoutPlanCache(VerificationProperties verificationProperties) {
+        this.plans = Caffeine.newBuilder()
+                .maximumSize(verificationProperties.getLayoutPlanCacheSize())
+                .build();
+    }
+    
+    public LayoutPlan getPlan(LayoutMetaBlock layoutMetaBlock) {
+        List<Signature> signatures = layoutMetaBlock.getSignatures();
+        if (signatures == null || signatures.isEmpty()) {
+            return LayoutPlan.compile(layoutMetaBlock);
+        }
+        return plans.get(getKey(layoutMetaBlock), key -> {
+            log.info("compile layout plan for supply chain [{}]", layoutMetaBlock.getSupplyChainId());
+            return LayoutPlan.compile(layoutMetaBlock);
+        });
+    }
+    
+    static String getKey(LayoutMetaBlock layoutMetaBlock) {
+        String signatures = layoutMetaBlock.getSignatures().stream()
+                .map(signature -> signature.getKeyId() + ":" + signature.getSig())
+                .sorted()
+                .collect(Collectors.joining(";"));
+        return layoutMetaBlock.getSupplyChainId() + "/" + DigestUtils.sha256Hex(signatures.getBytes(UTF_8));
+    }
+
+}
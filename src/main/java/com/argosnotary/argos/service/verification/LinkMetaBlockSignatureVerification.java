@@ -21,12 +21,8 @@ package com.argosnotary.argos.service.verification;
 
 import static com.argosnotary.argos.service.verification.Verification.Priority.LINK_METABLOCK_SIGNATURE;
 
-import java.util.Optional;
-
 import org.springframework.stereotype.Component;
 
-import com.argosnotary.argos.domain.crypto.PublicKey;
-import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
 
 import lombok.RequiredArgsConstructor;
@@ -48,16 +44,15 @@ public class LinkMetaBlockSignatureVerification implements Verification {
     @Override
     public VerificationRunResult verify(VerificationContext context) {
         context.removeLinkMetaBlocks(context.getLinkMetaBlocks().stream()
-                .filter(linkMetaBlock -> !okay(context.getLayoutMetaBlock(), linkMetaBlock)).toList());
+                .filter(linkMetaBlock -> !context.getLinkValidations()
+                        .isSignatureValid(linkMetaBlock, () -> okay(context.getLayoutPlan(), linkMetaBlock)))
+                .toList());
         return VerificationRunResult.okay();
     }
 
-    private boolean okay(LayoutMetaBlock layoutMetaBlock, LinkMetaBlock linkMetaBlock) {
-        return signatureValidatorService.validateSignature(linkMetaBlock.getLink(), linkMetaBlock.getSignature(), getPublicKeyById(layoutMetaBlock, linkMetaBlock.getSignature().getKeyId()));
-    }
-
-    private Optional<PublicKey> getPublicKeyById(LayoutMetaBlock layoutMetaBlock, String keyId) {
-        return layoutMetaBlock.getLayout().getKeys().stream().filter(publicKey -> publicKey.getKeyId().equals(keyId)).findFirst();
+    private boolean okay(LayoutPlan layoutPlan, LinkMetaBlock linkMetaBlock) {
+        return signatureValidatorService.validateSignature(linkMetaBlock, 
+                layoutPlan.getPublicKey(linkMetaBlock.getSignature().getKeyId()));
     }
 
 }
@@ -0,0 +1,126 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import com.argosnotary.argos.domain.layout.ArtifactType;
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+
+/**
+ * Memo of the link meta block checks of one verification run. The same link meta block
+ * instance is part of many verification contexts, each check is done at most once per run.
+ * Results found in the supply chain verification state are used without checking again.
+ * The results of the rules of a step are kept per combination of the links the rules read, 
+ * so the rules verified while the contexts are searched are not verified again for a context.
+ * The signatures of the layout meta block of the run are checked once for all contexts.
+ */
+public class LinkValidations {
+    
+    private final SupplyChainVerificationState state;
+    
+    private final Map<LinkMetaBlock, Boolean> signatureValidations = Collections.synchronizedMap(new IdentityHashMap<>());
+    
+    private final Map<LinkMetaBlock, Boolean> authorizations = Collections.synchronizedMap(new IdentityHashMap<>());
+    
+    private final Map<LinkMetaBlock, Optional<Map<ArtifactType, ArtifactIndex>>> artifactIndexes = Collections.synchronizedMap(new IdentityHashMap<>());
+    
+    /* step and link digests of the linked steps -> valid */
+    private final Map<String, Boolean> stepValidations = new ConcurrentHashMap<>();
+    
+    /* null if the signatures of the layout meta block are not checked in this run */
+    private volatile Boolean layoutSignatureValidation;
+    
+    public LinkValidations() {
+        this(null);
+    }
+    
+    /**
+     * @param state the link checks done when the links were added, can be null
+     */
+    public LinkValidations(SupplyChainVerificationState state) {
+        this.state = state;
+    }
+    
+    public boolean isSignatureValid(LinkMetaBlock linkMetaBlock, BooleanSupplier check) {
+        return signatureValidations.computeIfAbsent(linkMetaBlock, 
+                l -> Optional.ofNullable(state == null ? null : state.getSignatureValidation(l)).orElseGet(check::getAsBoolean));
+    }
+    
+    /**
+     * @return true if the signature of the link meta block is checked in this run or when it was added
+     */
+    public boolean hasSignatureValidation(LinkMetaBlock linkMetaBlock) {
+        return signatureValidations.containsKey(linkMetaBlock) || (state != null && state.getSignatureValidation(linkMetaBlock) != null);
+    }
+    
+    /**
+     * Keep the result of a signature check done outside of this memo, an earlier result is kept.
+     */
+    public void addSignatureValidation(LinkMetaBlock linkMetaBlock, boolean valid) {
+        signatureValidations.putIfAbsent(linkMetaBlock, valid);
+    }
+    
+    public boolean isAuthorized(LinkMetaBlock linkMetaBlock, BooleanSupplier check) {
+        return authorizations.computeIfAbsent(linkMetaBlock, 
+                l -> Optional.ofNullable(state == null ? null : state.getAuthorization(l)).orElseGet(check::getAsBoolean));
+    }
+    
+    /**
+     * @return the artifact indexes of the link of the link meta block built when the link was added, empty if not available
+     */
+    public Optional<Map<ArtifactType, ArtifactIndex>> getArtifactIndexes(LinkMetaBlock linkMetaBlock) {
+        if (state == null) {
+            return Optional.empty();
+        }
+        return artifactIndexes.computeIfAbsent(linkMetaBlock, l -> Optional.ofNullable(state.getArtifactIndexes(l)));
+    }
+
+    /**
+     * @param key identifies the step and the links of the steps read by its rules
+     * @return the result of the rules of the step with these links, null if not verified in this run
+     */
+    public Boolean getStepValidation(String key) {
+        return stepValidations.get(key);
+    }
+    
+    public void addStepValidation(String key, boolean valid) {
+        stepValidations.put(key, valid);
+    }
+    
+    public boolean isLayoutSignatureValid(BooleanSupplier check) {
+        Boolean valid = layoutSignatureValidation;
+        if (valid == null) {
+            synchronized (this) {
+                if (layoutSignatureValidation == null) {
+                    layoutSignatureValidation = check.getAsBoolean();
+                }
+                valid = layoutSignatureValidation;
+            }
+        }
+        return valid;
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import org.springframework.stereotype.Component;
+
+import com.argosnotary.argos.domain.ArgosError;
+import com.argosnotary.argos.domain.crypto.PublicKey;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Parsed public keys by key id. The same functionary keys check the signatures of many links,
+ * so the encoded key is parsed once. A key id with other encoded key bytes is parsed again and 
+ * replaces the cached key. Hits and misses are published as the cache metrics of publicKeys.
+ */
+@Component
+public class PublicKeyCache {
+    
+    static final String CACHE_NAME = "publicKeys";
+    
+    private record ParsedKey(byte[] pub, java.security.PublicKey publicKey) {}
+    
+    private final Cache<String, ParsedKey> keys;
+    
+    public PublicKeyCache(VerificationProperties verificationProperties, MeterRegistry meterRegistry) {
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(verificationProperties.getPublicKeyCacheSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, keys, CACHE_NAME);
+    }
+    
+    public java.security.PublicKey get(PublicKey key) {
+        ParsedKey parsedKey = keys.get(key.getKeyId(), keyId -> parse(key));
+        if (!Arrays.equals(parsedKey.pub(), key.getPub())) {
+            parsedKey = parse(key);
+            keys.put(key.getKeyId(), parsedKey);
+        }
+        return parsedKey.publicKey();
+    }
+    
+    private static ParsedKey parse(PublicKey key) {
+        try {
+            return new ParsedKey(key.getPub().clone(), PublicKey.instance(key.getPub()));
+        } catch (GeneralSecurityException | IOException e) {
+            throw new ArgosError(e.getMessage(), e);
+        }
+    }
+
+}
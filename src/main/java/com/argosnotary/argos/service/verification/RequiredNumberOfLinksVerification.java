@@ -21,13 +21,15 @@ package com.argosnotary.argos.service.verification;
 
 import static com.argosnotary.argos.service.verification.Verification.Priority.REQUIRED_NUMBER_OF_LINKS;
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toSet;
 
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Component;
 
+import com.argosnotary.argos.domain.crypto.Signature;
 import com.argosnotary.argos.domain.layout.Step;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
 
@@ -44,21 +46,24 @@ public class RequiredNumberOfLinksVerification implements Verification {
     @Override
     public VerificationRunResult verify(VerificationContext context) {
 
-        return context.getLayoutMetaBlock().getLayout().getSteps()
+        Map<String, Set<LinkMetaBlock>> stepLinkMetaBlockMap = context.getStepNameLinkMetaBlockMap();
+        return context.getLayoutPlan().getSteps()
                 .stream()
-                .filter(step -> !isValid(step, context))
+                .filter(step -> !isValid(step, stepLinkMetaBlockMap))
                 .findFirst()
                 .map(segment -> VerificationRunResult.builder().verification(this.getPriority()).runIsValid(false).build())
                 .orElse(VerificationRunResult.okay());
 
     }
 
-    private Boolean isValid(Step step, VerificationContext context) {
-        Map<String, Set<LinkMetaBlock>> stepLinkMetaBlockMap = context.getStepNameLinkMetaBlockMap();
-        
-        Map<Integer, Set<LinkMetaBlock>> linkMetaBlockMap = stepLinkMetaBlockMap
+    /*
+     * the link meta blocks of a link are counted by their distinct signatures, so the complete 
+     * links are not hashed
+     */
+    private Boolean isValid(Step step, Map<String, Set<LinkMetaBlock>> stepLinkMetaBlockMap) {
+        Map<String, Set<Signature>> linkMetaBlockMap = stepLinkMetaBlockMap
                 .get(step.getName()).stream()
-                .collect(groupingBy(f -> f.getLink().hashCode(), Collectors.toSet()));
+                .collect(groupingBy(LinkMetaBlock::getLinkDigest, mapping(LinkMetaBlock::getSignature, toSet())));
         if (linkMetaBlockMap.size() == 1) {
             return isValid(linkMetaBlockMap.values().iterator().next(), step);
         } else {
@@ -67,8 +72,8 @@ public class RequiredNumberOfLinksVerification implements Verification {
         }
     }
 
-    private boolean isValid(Set<LinkMetaBlock> linkMetaBlocks, Step step) {
-        log.info("[{}] links for step [{}] and should be at least [{}]", linkMetaBlocks.size(), step.getName(), step.getRequiredNumberOfLinks());
-        return linkMetaBlocks.size() >= step.getRequiredNumberOfLinks();
+    private boolean isValid(Set<Signature> signatures, Step step) {
+        log.info("[{}] links for step [{}] and should be at least [{}]", signatures.size(), step.getName(), step.getRequiredNumberOfLinks());
+        return signatures.size() >= step.getRequiredNumberOfLinks();
     }
 }
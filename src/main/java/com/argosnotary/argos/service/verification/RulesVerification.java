@@ -22,11 +22,15 @@ package com.argosnotary.argos.service.verification;
 import static com.argosnotary.argos.service.verification.Verification.Priority.RULES;
 
 import java.util.EnumMap;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 
 import org.springframework.stereotype.Component;
@@ -35,12 +39,15 @@ import com.argosnotary.argos.domain.layout.ArtifactType;
 import com.argosnotary.argos.domain.layout.Step;
 import com.argosnotary.argos.domain.layout.rule.Rule;
 import com.argosnotary.argos.domain.layout.rule.RuleType;
-import com.argosnotary.argos.domain.link.Artifact;
 import com.argosnotary.argos.domain.link.Link;
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+import com.argosnotary.argos.service.verification.VerificationTrace.ContextTrace;
+import com.argosnotary.argos.service.verification.VerificationTrace.RuleEntry;
 import com.argosnotary.argos.service.verification.rules.RuleVerification;
 import com.argosnotary.argos.service.verification.rules.RuleVerificationContext;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -51,9 +58,20 @@ import lombok.extern.slf4j.Slf4j;
 @ToString
 public class RulesVerification implements Verification {
 
+    /* never set, for the sequential verification of the steps */
+    private static final AtomicBoolean NOT_CANCELLED = new AtomicBoolean();
+
     private final List<RuleVerification> ruleVerificationList;
+    
+    private final VerificationProperties verificationProperties;
 
     private Map<RuleType, RuleVerification> rulesVerificationMap = new EnumMap<>(RuleType.class);
+    
+    private boolean stepsInParallel;
+    
+    /* only when the contexts are verified sequentially, otherwise the steps are forked in the pool of the contexts */
+    @ToString.Exclude
+    private ForkJoinPool forkJoinPool;
 
     @Override
     public Priority getPriority() {
@@ -63,60 +81,181 @@ public class RulesVerification implements Verification {
     @PostConstruct
     public void init() {
         ruleVerificationList.forEach(ruleVerification -> rulesVerificationMap.put(ruleVerification.getRuleType(), ruleVerification));
+        stepsInParallel = verificationProperties.getStepParallelism() > 1;
+        if (stepsInParallel && verificationProperties.getParallelism() > 1) {
+            log.info("rules of steps are verified in parallel in the pool of the verification contexts");
+        } else if (stepsInParallel) {
+            forkJoinPool = new ForkJoinPool(verificationProperties.getStepParallelism());
+            log.info("rules of steps are verified with parallelism [{}]", verificationProperties.getStepParallelism());
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdownNow();
+        }
     }
 
     @Override
     public VerificationRunResult verify(VerificationContext verificationContext) {
-        Map<String, Link> linksMap = verificationContext.getStepLinkMap();
+        Map<String, LinkMetaBlock> linkMetaBlocks = verificationContext.getStepLinkMetaBlockMap();
+        LayoutPlan layoutPlan = verificationContext.getLayoutPlan();
+        LinkValidations linkValidations = verificationContext.getLinkValidations();
+        ContextTrace trace = verificationContext.getTrace();
+        List<Step> steps = layoutPlan.getSteps();
         
-        return verificationContext
-                .getLayoutMetaBlock()
-                .getLayout().getSteps().stream()
-                .map(step -> verifyStep(
-                        linksMap,
-                        step))
-                .filter(result1 -> !result1)
-                .findFirst()
-                .map(result2 -> VerificationRunResult.builder().verification(this.getPriority()).runIsValid(false).build())
-                .orElse(VerificationRunResult.builder().verification(this.getPriority()).runIsValid(true).build());
+        boolean valid = !stepsInParallel || steps.size() < 2 || (forkJoinPool == null && !ForkJoinTask.inForkJoinPool())
+                ? steps.stream().allMatch(step -> verifyStep(layoutPlan, linkValidations, linkMetaBlocks, step, trace, NOT_CANCELLED))
+                : verifyParallel(steps, (step, cancelled) -> verifyStep(layoutPlan, linkValidations, linkMetaBlocks, step, trace, cancelled));
+        return VerificationRunResult.builder().verification(this.getPriority()).runIsValid(valid).build();
+    }
+    
+    /*
+     * The steps only read the link meta blocks map, so they are verified independently. The first 
+     * invalid step cancels the verification of the other steps. The steps are forked in the pool 
+     * of the calling thread when the contexts are verified in parallel, a joining thread executes 
+     * the step tasks so no thread waits on another pool.
+     */
+    private boolean verifyParallel(List<Step> steps, BiPredicate<Step, AtomicBoolean> stepVerification) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<ForkJoinTask<Boolean>> tasks = steps.stream()
+                .map(step -> ForkJoinTask.adapt(() -> {
+                    boolean valid = !cancelled.get() && stepVerification.test(step, cancelled);
+                    if (!valid) {
+                        cancelled.set(true);
+                    }
+                    return valid;
+                }))
+                .toList();
+        return forkJoinPool == null 
+                ? invokeAll(tasks) 
+                : forkJoinPool.invoke(ForkJoinTask.adapt(() -> invokeAll(tasks)));
+    }
+    
+    private static boolean invokeAll(List<ForkJoinTask<Boolean>> tasks) {
+        return ForkJoinTask.invokeAll(tasks).stream().allMatch(ForkJoinTask::join);
+    }
+
+    /**
+     * Verify the expected materials and products rules of a step.
+     * 
+     * @param layoutPlan the compiled layout of the step
+     * @param linkValidations the link checks of the run, provides the artifact indexes built when the links were added
+     * @param linkMetaBlocks the link meta block per step name, should contain at least the step and the destination 
+     * steps of its match rules
+     * @param step the step to verify
+     * @return true if all rules are valid and all artifacts are consumed
+     */
+    public boolean verifyStep(LayoutPlan layoutPlan, LinkValidations linkValidations, Map<String, LinkMetaBlock> linkMetaBlocks, Step step) {
+        return verifyStep(layoutPlan, linkValidations, linkMetaBlocks, step, null);
     }
 
-    private boolean verifyStep(Map<String, Link> linksMap, Step step) {
-        Link link = linksMap.get(step.getName());
-        if (link == null) {
+    /**
+     * Verify the expected materials and products rules of a step and add the rule timings to the trace.
+     * 
+     * @param trace the trace of the verification context, can be null
+     */
+    public boolean verifyStep(LayoutPlan layoutPlan, LinkValidations linkValidations, Map<String, LinkMetaBlock> linkMetaBlocks, Step step, 
+            ContextTrace trace) {
+        return verifyStep(layoutPlan, linkValidations, linkMetaBlocks, step, trace, NOT_CANCELLED);
+    }
+    
+    /*
+     * The result of a step is kept in the link validations of the run by the link digests of the 
+     * linked steps, a traced context verifies the rules again to trace them. A result of a 
+     * cancelled verification is not kept.
+     */
+    private boolean verifyStep(LayoutPlan layoutPlan, LinkValidations linkValidations, Map<String, LinkMetaBlock> linkMetaBlocks, Step step, 
+            ContextTrace trace, AtomicBoolean cancelled) {
+        LinkMetaBlock linkMetaBlock = linkMetaBlocks.get(step.getName());
+        if (linkMetaBlock == null) {
             log.warn("no links for step [{}]", step.getName());
             return false;
         }
-        return verifyLink(linksMap, step, link);
+        String key = getStepKey(layoutPlan, linkMetaBlocks, step);
+        Boolean verified = trace == null ? linkValidations.getStepValidation(key) : null;
+        if (verified != null) {
+            return verified;
+        }
+        boolean valid = verifyLink(layoutPlan, linkValidations, linkMetaBlocks, step, linkMetaBlock.getLink(), trace, cancelled);
+        if (!cancelled.get()) {
+            linkValidations.addStepValidation(key, valid);
+        }
+        return valid;
+    }
+    
+    private static String getStepKey(LayoutPlan layoutPlan, Map<String, LinkMetaBlock> linkMetaBlocks, Step step) {
+        StringBuilder key = new StringBuilder(step.getName());
+        for (String stepName : layoutPlan.getLinkedSteps(step.getName())) {
+            LinkMetaBlock linkMetaBlock = linkMetaBlocks.get(stepName);
+            key.append('/').append(linkMetaBlock == null ? null : linkMetaBlock.getLinkDigest());
+        }
+        return key.toString();
     }
 
-    private boolean verifyLink(Map<String, Link> linksMap, Step step, Link link) {
-        return  verifyArtifactsByType(linksMap, step, new HashSet<>(link.getMaterials()), link, ArtifactType.MATERIALS)
-                && verifyArtifactsByType(linksMap, step, new HashSet<>(link.getProducts()), link, ArtifactType.PRODUCTS);
+    private boolean verifyLink(LayoutPlan layoutPlan, LinkValidations linkValidations, Map<String, LinkMetaBlock> linkMetaBlocks, Step step, 
+            Link link, ContextTrace trace, AtomicBoolean cancelled) {
+        Map<String, Link> linksMap = new HashMap<>();
+        Map<Link, Map<ArtifactType, ArtifactIndex>> artifactIndexes = new IdentityHashMap<>();
+        for (String stepName : layoutPlan.getLinkedSteps(step.getName())) {
+            LinkMetaBlock linkMetaBlock = linkMetaBlocks.get(stepName);
+            if (linkMetaBlock != null) {
+                linksMap.put(stepName, linkMetaBlock.getLink());
+                linkValidations.getArtifactIndexes(linkMetaBlock)
+                    .ifPresent(indexes -> artifactIndexes.put(linkMetaBlock.getLink(), new EnumMap<>(indexes)));
+            }
+        }
+        return  verifyArtifactsByType(linksMap, artifactIndexes, step, link, 
+                    layoutPlan.getExpectedRules(step.getName(), ArtifactType.MATERIALS), ArtifactType.MATERIALS, trace, cancelled)
+                && verifyArtifactsByType(linksMap, artifactIndexes, step, link, 
+                    layoutPlan.getExpectedRules(step.getName(), ArtifactType.PRODUCTS), ArtifactType.PRODUCTS, trace, cancelled);
     }
 
-    private boolean verifyArtifactsByType(Map<String, Link> linksMap, Step step,
-            Set<Artifact> artifacts, Link link, ArtifactType type) {
+    private boolean verifyArtifactsByType(Map<String, Link> linksMap, Map<Link, Map<ArtifactType, ArtifactIndex>> artifactIndexes,
+            Step step, Link link, List<Rule> rules, ArtifactType type, ContextTrace trace, AtomicBoolean cancelled) {
         ArtifactsVerificationContext artifactsContext = ArtifactsVerificationContext.builder()
                 .link(link)
-                .notConsumedArtifacts(artifacts)
+                .notConsumedArtifacts(ArtifactsVerificationContext.getArtifactIndex(artifactIndexes, link, type))
                 .linksMap(linksMap)
+                .artifactIndexes(artifactIndexes)
                 .build();
 
-        return getExpectedArtifactRulesByType(step, type).stream()
-                .map(rule -> verifyRule(rule, ruleVerifier -> {
+        return rules.stream()
+                .map(rule -> !cancelled.get() && verifyRule(rule, ruleVerifier -> {
                     log.info("verify expected [{}] [{}] for step [{}]", type, rule.getRuleType(), step.getName());
                     RuleVerificationContext<Rule> context = RuleVerificationContext.builder()
                             .rule(rule)
                             .artifactsContext(artifactsContext)
                             .build();
-                    return ruleVerifier.verify(context);
+                    return trace == null 
+                            ? ruleVerifier.verify(context) 
+                            : verifyTraced(ruleVerifier, context, step, type, trace);
                 }))
                 .filter(valid -> !valid)
                 .findFirst()
                 .orElseGet(() -> validateNotConsumedArtifacts(artifactsContext));        
     }
 
+    private static boolean verifyTraced(RuleVerification ruleVerifier, RuleVerificationContext<Rule> context, 
+            Step step, ArtifactType type, ContextTrace trace) {
+        int notConsumedArtifacts = context.getArtifactsContext().getNotConsumedArtifacts().size();
+        long start = System.nanoTime();
+        boolean valid = ruleVerifier.verify(context);
+        long durationNanos = System.nanoTime() - start;
+        trace.addRule(RuleEntry.builder()
+                .stepName(step.getName())
+                .artifactType(type)
+                .ruleType(context.getRule().getRuleType())
+                .pattern(context.getRule().getPattern())
+                .notConsumedArtifacts(notConsumedArtifacts)
+                .consumedArtifacts(notConsumedArtifacts - context.getArtifactsContext().getNotConsumedArtifacts().size())
+                .valid(valid)
+                .durationMicros(VerificationTrace.toMicros(durationNanos))
+                .build());
+        return valid;
+    }
+
     private boolean verifyRule(Rule rule, Predicate<RuleVerification> ruleVerifyFunction) {
         return Optional.ofNullable(rulesVerificationMap.get(rule.getRuleType()))
                 .map(ruleVerifyFunction::test)
@@ -126,24 +265,8 @@ public class RulesVerification implements Verification {
                 });
     }
     
-    private List<Rule> getExpectedArtifactRulesByType(Step step, ArtifactType type){
-        if(type == ArtifactType.PRODUCTS) {
-            if (step.getExpectedProducts() != null) {
-                return step.getExpectedProducts();
-            } else {
-                return List.of();
-            }
-        } else {
-            if (step.getExpectedMaterials() != null) {
-                return step.getExpectedMaterials();
-            } else {
-                return List.of();
-            }
-        }
-    }
-    
     private boolean validateNotConsumedArtifacts(ArtifactsVerificationContext artifactsContext) {
-        if (!artifactsContext.getNotConsumedArtifacts().isEmpty()) {
+        if (!artifactsContext.isAllConsumed()) {
             artifactsContext.getNotConsumedArtifacts().stream().forEach(artifact -> 
                 log.info("Not consumed artifact [{}]", artifact));
             return false;
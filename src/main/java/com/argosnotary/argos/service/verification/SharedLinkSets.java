@@ -0,0 +1,131 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+
+/**
+ * The link sets of the verification contexts shared by the runs of a batch. The link sets
+ * are generated on first use and only as far as a run iterates, a next run replays the 
+ * generated link sets before it continues the generation. At most a maximum number of link
+ * sets is kept, the first run iterating past them continues on the shared generation and 
+ * later runs generate the link sets after the kept link sets again. Not thread safe, the 
+ * link sets are iterated on the thread of the batch.
+ */
+class SharedLinkSets {
+    
+    static final int MAX_SHARED = 1000;
+    
+    private final Supplier<Iterator<Set<LinkMetaBlock>>> generator;
+    
+    private final int maxShared;
+    
+    private final List<Set<LinkMetaBlock>> generated = new ArrayList<>();
+    
+    private Iterator<Set<LinkMetaBlock>> source;
+    
+    private boolean sourceTaken;
+    
+    SharedLinkSets(Supplier<Iterator<Set<LinkMetaBlock>>> generator) {
+        this(generator, MAX_SHARED);
+    }
+    
+    SharedLinkSets(Supplier<Iterator<Set<LinkMetaBlock>>> generator, int maxShared) {
+        this.generator = generator;
+        this.maxShared = maxShared;
+    }
+    
+    Stream<Set<LinkMetaBlock>> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+    
+    Iterator<Set<LinkMetaBlock>> iterator() {
+        return new Iterator<>() {
+            
+            private int index = 0;
+            
+            private Iterator<Set<LinkMetaBlock>> own;
+
+            @Override
+            public boolean hasNext() {
+                if (own != null) {
+                    return own.hasNext();
+                }
+                if (index < generated.size()) {
+                    return true;
+                }
+                if (generated.size() < maxShared) {
+                    return getSource().hasNext();
+                }
+                own = takeSource();
+                return own.hasNext();
+            }
+
+            @Override
+            public Set<LinkMetaBlock> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (own != null) {
+                    return own.next();
+                }
+                if (index == generated.size()) {
+                    generated.add(source.next());
+                }
+                return generated.get(index++);
+            }
+        };
+    }
+    
+    private Iterator<Set<LinkMetaBlock>> getSource() {
+        if (source == null) {
+            source = generator.get();
+        }
+        return source;
+    }
+    
+    /*
+     * the shared generation is positioned after the kept link sets until a run takes it, 
+     * other runs skip the kept link sets of a new generation
+     */
+    private Iterator<Set<LinkMetaBlock>> takeSource() {
+        if (!sourceTaken) {
+            sourceTaken = true;
+            return getSource();
+        }
+        Iterator<Set<LinkMetaBlock>> regenerated = generator.get();
+        for (int i = 0; i < maxShared && regenerated.hasNext(); i++) {
+            regenerated.next();
+        }
+        return regenerated;
+    }
+
+}
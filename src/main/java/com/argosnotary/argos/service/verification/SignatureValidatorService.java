@@ -19,25 +19,67 @@
  */
 package com.argosnotary.argos.service.verification;
 
+import static java.util.stream.Collectors.toSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
 
 import org.springframework.stereotype.Component;
 
+import com.argosnotary.argos.domain.ArgosError;
+import com.argosnotary.argos.domain.attest.Attestation;
 import com.argosnotary.argos.domain.attest.Statement;
 import com.argosnotary.argos.domain.crypto.PublicKey;
 import com.argosnotary.argos.domain.crypto.Signature;
+import com.argosnotary.argos.domain.crypto.signing.CanonicalDigest;
 import com.argosnotary.argos.domain.crypto.signing.SignatureValidator;
 import com.argosnotary.argos.domain.layout.Layout;
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
 import com.argosnotary.argos.domain.link.Link;
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
 import com.argosnotary.argos.service.account.AccountService;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Component
+@Slf4j
 @RequiredArgsConstructor
 public class SignatureValidatorService {
 
 	private final AccountService accountService;
+	
+	private final PublicKeyCache publicKeyCache;
+	
+	private final VerificationProperties verificationProperties;
+	
+	private ExecutorService executorService;
+
+	@PostConstruct
+	public void init() {
+		if (verificationProperties.getSignatureParallelism() > 1) {
+			executorService = new ForkJoinPool(verificationProperties.getSignatureParallelism());
+			log.info("signatures of a batch are validated with parallelism [{}]", verificationProperties.getSignatureParallelism());
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (executorService != null) {
+			executorService.shutdownNow();
+		}
+	}
 
 	public boolean validateSignature(Layout layout, Signature signature) {
 		Optional<PublicKey> key = getPublicKey(signature);
@@ -50,15 +92,15 @@ public class SignatureValidatorService {
 	}
 
 	public boolean validateSignature(Layout layout, Signature signature, Optional<PublicKey> key) {
-		return key.isPresent() && SignatureValidator.isValid(layout, signature, key.get());
+		return key.isPresent() && SignatureValidator.isValid(layout, signature, publicKeyCache.get(key.get()));
 	}
 
 	public boolean validateSignature(Link link, Signature signature, Optional<PublicKey> key) {
-		return key.isPresent() && SignatureValidator.isValid(link, signature, key.get());
+		return key.isPresent() && SignatureValidator.isValid(link, signature, publicKeyCache.get(key.get()));
 	}
 
 	public boolean validateSignature(Statement statement, Signature signature, Optional<PublicKey> key) {
-		return key.isPresent() && SignatureValidator.isValid(statement, signature, key.get());
+		return key.isPresent() && SignatureValidator.isValid(statement, signature, publicKeyCache.get(key.get()));
 	}
 
 	public boolean validateSignature(Statement statement, Signature signature) {
@@ -66,9 +108,138 @@ public class SignatureValidatorService {
 		return validateSignature(statement, signature, key);
 	}
 
+	/*
+	 * The validations of the signed meta blocks use the canonical digest of the meta block 
+	 * when it is calculated in this process with the hash algorithm of the signature, otherwise 
+	 * the signed object is serialized again. The canonical digests are not stored, so a signature
+	 * is never checked against a digest read from the database.
+	 */
+
+	public boolean validateSignature(LinkMetaBlock linkMetaBlock) {
+		return validateSignature(linkMetaBlock, getPublicKey(linkMetaBlock.getSignature()));
+	}
+
+	public boolean validateSignature(LinkMetaBlock linkMetaBlock, Optional<PublicKey> key) {
+		Signature signature = linkMetaBlock.getSignature();
+		return hasDigestFor(linkMetaBlock.getCanonicalDigest(), signature) 
+				? validateSignature(linkMetaBlock.getCanonicalDigest(), signature, key) 
+				: validateSignature(linkMetaBlock.getLink(), signature, key);
+	}
+
+	public boolean validateSignature(LayoutMetaBlock layoutMetaBlock, Signature signature) {
+		return validateSignature(layoutMetaBlock, signature, getPublicKey(signature));
+	}
+
+	public boolean validateSignature(Attestation attestation, Signature signature) {
+		return validateSignature(attestation, signature, getPublicKey(signature));
+	}
+
+	/*
+	 * The batch validations find the keys of all signatures with one query and validate 
+	 * the signatures at the same time when signature parallelism is more than 1. The
+	 * results are in the order of the signatures.
+	 */
+
+	/**
+	 * @return the result of each signature of the layout meta block
+	 */
+	public List<SignatureValidationResult> validateSignatures(LayoutMetaBlock layoutMetaBlock) {
+		List<Signature> signatures = layoutMetaBlock.getSignatures();
+		return validateSignatures(signatures, Function.identity(), findPublicKeys(signatures), 
+				(signature, key) -> validateSignature(layoutMetaBlock, signature, key));
+	}
+
+	/**
+	 * @return the result of each signature of the envelope of the attestation
+	 */
+	public List<SignatureValidationResult> validateSignatures(Attestation attestation) {
+		List<Signature> signatures = attestation.getEnvelope().getSignatures();
+		return validateSignatures(signatures, Function.identity(), findPublicKeys(signatures), 
+				(signature, key) -> validateSignature(attestation, signature, key));
+	}
+
+	/**
+	 * @return the result of the signature of each link meta block, validated with the keys of the accounts
+	 */
+	public List<SignatureValidationResult> validateSignatures(List<LinkMetaBlock> linkMetaBlocks) {
+		return validateSignatures(linkMetaBlocks, 
+				findPublicKeys(linkMetaBlocks.stream().map(LinkMetaBlock::getSignature).toList()));
+	}
+
+	/**
+	 * @param keys finds the key of a key id, for example the keys of a layout
+	 * @return the result of the signature of each link meta block
+	 */
+	public List<SignatureValidationResult> validateSignatures(List<LinkMetaBlock> linkMetaBlocks, 
+			Function<String, Optional<PublicKey>> keys) {
+		return validateSignatures(linkMetaBlocks, LinkMetaBlock::getSignature, keys, 
+				(linkMetaBlock, key) -> validateSignature(linkMetaBlock, key));
+	}
+
+	private <T> List<SignatureValidationResult> validateSignatures(List<T> signedObjects, Function<T, Signature> signatureOf,
+			Function<String, Optional<PublicKey>> keys, BiPredicate<T, Optional<PublicKey>> validation) {
+		Function<T, SignatureValidationResult> validate = signed -> {
+			Signature signature = signatureOf.apply(signed);
+			return SignatureValidationResult.builder()
+					.signature(signature)
+					.valid(validation.test(signed, keys.apply(signature.getKeyId())))
+					.build();
+		};
+		if (executorService == null || signedObjects.size() < 2) {
+			return signedObjects.stream().map(validate).toList();
+		}
+		List<Future<SignatureValidationResult>> futures = signedObjects.stream()
+				.map(signed -> executorService.submit(() -> validate.apply(signed)))
+				.toList();
+		try {
+			List<SignatureValidationResult> results = new ArrayList<>(futures.size());
+			for (Future<SignatureValidationResult> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ArgosError("signature validation interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new ArgosError(e.getCause().getMessage(), e.getCause());
+		} finally {
+			futures.forEach(future -> future.cancel(false));
+		}
+	}
+
+	private boolean validateSignature(LayoutMetaBlock layoutMetaBlock, Signature signature, Optional<PublicKey> key) {
+		return hasDigestFor(layoutMetaBlock.getCanonicalDigest(), signature) 
+				? validateSignature(layoutMetaBlock.getCanonicalDigest(), signature, key) 
+				: validateSignature(layoutMetaBlock.getLayout(), signature, key);
+	}
 
-	private Optional<PublicKey> getPublicKey(Signature signature) {
+	private boolean validateSignature(Attestation attestation, Signature signature, Optional<PublicKey> key) {
+		return hasDigestFor(attestation.getCanonicalDigest(), signature) 
+				? validateSignature(attestation.getCanonicalDigest(), signature, key) 
+				: validateSignature(attestation.getEnvelope().getPayload(), signature, key);
+	}
+
+	private boolean validateSignature(CanonicalDigest canonicalDigest, Signature signature, Optional<PublicKey> key) {
+		return key.isPresent() && SignatureValidator.isValid(canonicalDigest, signature, publicKeyCache.get(key.get()));
+	}
+
+	private static boolean hasDigestFor(CanonicalDigest canonicalDigest, Signature signature) {
+		return canonicalDigest != null && canonicalDigest.isFor(signature);
+	}
+
+	/**
+	 * @return the key of the account of the key id of the signature
+	 */
+	public Optional<PublicKey> getPublicKey(Signature signature) {
 		return accountService.findPublicKeyByKeyId(signature.getKeyId());
 	}
 
+	private Function<String, Optional<PublicKey>> findPublicKeys(Collection<Signature> signatures) {
+		Map<String, PublicKey> keys = accountService.findPublicKeysByKeyIds(signatures.stream().map(Signature::getKeyId).collect(toSet()));
+		return keyId -> Optional.ofNullable(keys.get(keyId));
+	}
+
 }
@@ -21,10 +21,7 @@ package com.argosnotary.argos.service.verification;
 
 import static com.argosnotary.argos.service.verification.Verification.Priority.STEP_AUTHORIZED_KEYID;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Component;
 
@@ -43,16 +40,12 @@ public class StepAuthorizedKeyIdVerification implements Verification {
 
     @Override
     public VerificationRunResult verify(VerificationContext context) {
-        Map<String,List<String>> stepAndKeyIds = new HashMap<>();
-        context
-            .getLayoutMetaBlock()
-            .getLayout()
-            .getSteps().forEach(step -> stepAndKeyIds.put(step.getName(), step.getAuthorizedKeyIds()));
-
+        LayoutPlan layoutPlan = context.getLayoutPlan();
         List<LinkMetaBlock> failedLinkAuthorizedKeyIdVerifications = context
                 .getLinkMetaBlocks()
                 .stream()
-                .filter(linkMetaBlock -> linkIsNotSignedByAuthorizedFunctionary(stepAndKeyIds, linkMetaBlock))
+                .filter(linkMetaBlock -> !context.getLinkValidations()
+                        .isAuthorized(linkMetaBlock, () -> !linkIsNotSignedByAuthorizedFunctionary(layoutPlan, linkMetaBlock)))
                 .toList();
 
         if (!failedLinkAuthorizedKeyIdVerifications.isEmpty()) {
@@ -65,9 +58,8 @@ public class StepAuthorizedKeyIdVerification implements Verification {
         return VerificationRunResult.okay();
     }
 
-    private static boolean linkIsNotSignedByAuthorizedFunctionary(Map<String,List<String>> stepAndKeyIds, LinkMetaBlock linkMetaBlock) {
-        return !stepAndKeyIds.get(linkMetaBlock.getLink().getStepName())
-                .contains(linkMetaBlock.getSignature().getKeyId());
+    private static boolean linkIsNotSignedByAuthorizedFunctionary(LayoutPlan layoutPlan, LinkMetaBlock linkMetaBlock) {
+        return !layoutPlan.isAuthorized(linkMetaBlock.getLink().getStepName(), linkMetaBlock.getSignature().getKeyId());
     }
 
 }
@@ -0,0 +1,94 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.argosnotary.argos.domain.layout.ArtifactType;
+import com.argosnotary.argos.domain.link.Link;
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+
+import lombok.Getter;
+
+/**
+ * The results of the step local link checks of a supply chain, done when the links
+ * were added. The results are only valid for the layout plan they were checked with.
+ * Link meta blocks are looked up by link digest and signature, so the link meta blocks 
+ * loaded for a verification run find the results of the equal link meta blocks that were added.
+ * The link digests are calculated from the link when it is added and again when a run loads 
+ * it, so a link changed in the database does not find the results of the added link.
+ */
+public class SupplyChainVerificationState {
+    
+    @Getter
+    private final LayoutPlan layoutPlan;
+    
+    private final Map<String, Boolean> signatureValidations = new ConcurrentHashMap<>();
+    
+    private final Map<String, Boolean> authorizations = new ConcurrentHashMap<>();
+    
+    /* link digest -> artifact indexes of the link */
+    private final Map<String, Map<ArtifactType, ArtifactIndex>> artifactIndexes = new ConcurrentHashMap<>();
+    
+    public SupplyChainVerificationState(LayoutPlan layoutPlan) {
+        this.layoutPlan = layoutPlan;
+    }
+    
+    void addLink(LinkMetaBlock linkMetaBlock, boolean authorized, boolean signatureValid) {
+        String key = getKey(linkMetaBlock);
+        authorizations.put(key, authorized);
+        signatureValidations.put(key, signatureValid);
+        if (authorized && signatureValid) {
+            Link link = linkMetaBlock.getLink();
+            artifactIndexes.computeIfAbsent(linkMetaBlock.getLinkDigest(), digest -> {
+                Map<ArtifactType, ArtifactIndex> indexes = new EnumMap<>(ArtifactType.class);
+                indexes.put(ArtifactType.MATERIALS, ArtifactIndex.of(link.getMaterials()));
+                indexes.put(ArtifactType.PRODUCTS, ArtifactIndex.of(link.getProducts()));
+                return indexes;
+            });
+        }
+    }
+    
+    Boolean getSignatureValidation(LinkMetaBlock linkMetaBlock) {
+        return signatureValidations.get(getKey(linkMetaBlock));
+    }
+    
+    Boolean getAuthorization(LinkMetaBlock linkMetaBlock) {
+        return authorizations.get(getKey(linkMetaBlock));
+    }
+    
+    /*
+     * the digest covers the signed content, so together with the signature it identifies the checks
+     */
+    private static String getKey(LinkMetaBlock linkMetaBlock) {
+        return linkMetaBlock.getLinkDigest() + "/" + linkMetaBlock.getSignature().getKeyId() + "/" + linkMetaBlock.getSignature().getSig();
+    }
+    
+    Map<ArtifactType, ArtifactIndex> getArtifactIndexes(LinkMetaBlock linkMetaBlock) {
+        return artifactIndexes.get(linkMetaBlock.getLinkDigest());
+    }
+    
+    public int size() {
+        return authorizations.size();
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.argosnotary.argos.domain.ArgosError;
+import com.argosnotary.argos.service.verification.VerificationLimitException.Limit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Limits the number of verification runs on this node. At most max-concurrent-verifications 
+ * runs are active, at most max-queued-verifications runs wait for the queue-timeout. Other 
+ * runs are refused immediately.
+ */
+@Component
+@Slf4j
+public class VerificationAdmission {
+    
+    private final VerificationProperties verificationProperties;
+    
+    private final Semaphore permits;
+    
+    private final AtomicInteger queued = new AtomicInteger();
+    
+    public VerificationAdmission(VerificationProperties verificationProperties, MeterRegistry meterRegistry) {
+        this.verificationProperties = verificationProperties;
+        this.permits = verificationProperties.getMaxConcurrentVerifications() > 0 
+                ? new Semaphore(verificationProperties.getMaxConcurrentVerifications(), true) 
+                : null;
+        if (permits != null) {
+            Gauge.builder("argos.verification.active", () -> verificationProperties.getMaxConcurrentVerifications() - permits.availablePermits())
+                .description("active verification runs").register(meterRegistry);
+            Gauge.builder("argos.verification.queued", queued::get)
+                .description("verification runs waiting for admission").register(meterRegistry);
+        }
+    }
+    
+    /**
+     * Run the verification when admitted.
+     * 
+     * @throws VerificationLimitException when the verification is not admitted
+     */
+    public <T> T admit(Supplier<T> verification) {
+        if (permits == null) {
+            return verification.get();
+        }
+        acquire();
+        try {
+            return verification.get();
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private void acquire() {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (queued.incrementAndGet() > verificationProperties.getMaxQueuedVerifications()) {
+            queued.decrementAndGet();
+            throw refused("the verification queue is full");
+        }
+        try {
+            if (!permits.tryAcquire(verificationProperties.getQueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw refused("waited " + verificationProperties.getQueueTimeout() + " for admission");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ArgosError("waiting for verification admission interrupted", e);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+    
+    private VerificationLimitException refused(String reason) {
+        log.warn("verification refused, [{}] verifications are running: [{}]", 
+                verificationProperties.getMaxConcurrentVerifications(), reason);
+        return new VerificationLimitException(Limit.CONCURRENCY, 
+                "too many verifications in progress, " + reason + ", try again later");
+    }
+
+}
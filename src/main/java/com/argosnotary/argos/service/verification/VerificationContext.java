@@ -23,14 +23,17 @@ import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
 import com.argosnotary.argos.domain.link.Artifact;
 import com.argosnotary.argos.domain.link.Link;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
+import com.argosnotary.argos.service.verification.VerificationTrace.ContextTrace;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.ToString;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -46,41 +49,98 @@ public class VerificationContext {
     
     @Getter
     private final Set<Artifact> artifactsToRelease;
+    
+    @Getter
+    @ToString.Exclude
+    private final LinkValidations linkValidations;
+    
+    @ToString.Exclude
+    private LayoutPlan layoutPlan;
+    
+    @Getter
+    @ToString.Exclude
+    private final ContextTrace trace;
+    
+    /* 
+     * derived from the link meta blocks, reset when link meta blocks are removed, the link meta 
+     * blocks of a step are kept in an identity set as the equality of a link meta block compares 
+     * the complete link
+     */
+    @ToString.Exclude
+    private Map<String, Set<LinkMetaBlock>> stepNameLinkMetaBlockMap;
 
+    /**
+     * @param linkValidations the link checks memo shared by the contexts of a run, a new one if null
+     * @param layoutPlan the compiled layout meta block, compiled on first use if null
+     * @param trace the trace of the context, null if the run is not traced
+     */
     @Builder
     public VerificationContext(@NonNull List<LinkMetaBlock> linkMetaBlocks, 
-            @NonNull LayoutMetaBlock layoutMetaBlock, Set<Artifact> productsToVerify) {
+            @NonNull LayoutMetaBlock layoutMetaBlock, Set<Artifact> productsToVerify, LinkValidations linkValidations,
+            LayoutPlan layoutPlan, ContextTrace trace) {
         this.linkMetaBlocks = new ArrayList<>(linkMetaBlocks);
         this.originalLinkMetaBlocks = new ArrayList<>(linkMetaBlocks);
         this.layoutMetaBlock = layoutMetaBlock;
         this.artifactsToRelease = new HashSet<>(productsToVerify);
+        this.linkValidations = linkValidations == null ? new LinkValidations() : linkValidations;
+        this.layoutPlan = layoutPlan;
+        this.trace = trace;
     }
     
+    public LayoutPlan getLayoutPlan() {
+        if (layoutPlan == null) {
+            layoutPlan = LayoutPlan.compile(layoutMetaBlock);
+        }
+        return layoutPlan;
+    }
+    
+    /**
+     * @param linkMetaBlocksToRemove link meta blocks of this context, removed by identity
+     */
     public void removeLinkMetaBlocks(List<LinkMetaBlock> linkMetaBlocksToRemove) {
-        linkMetaBlocks.removeAll(linkMetaBlocksToRemove);
+        if (!linkMetaBlocksToRemove.isEmpty()) {
+            Set<LinkMetaBlock> toRemove = newIdentitySet();
+            toRemove.addAll(linkMetaBlocksToRemove);
+            linkMetaBlocks.removeIf(toRemove::contains);
+            stepNameLinkMetaBlockMap = null;
+        }
     }
     
     public Map<String, Set<LinkMetaBlock>> getStepNameLinkMetaBlockMap() {
-        Map<String, Set<LinkMetaBlock>> stepNameLinkMetaBlockMap = new HashMap<>();
-        layoutMetaBlock.getLayout().getSteps()
-        .forEach(step -> stepNameLinkMetaBlockMap
-                .putIfAbsent(step.getName(), new HashSet<>()));
-        linkMetaBlocks.forEach(l -> {
-            if (stepNameLinkMetaBlockMap.get(l.getLink().getStepName()) != null) {
-                stepNameLinkMetaBlockMap.get(l.getLink().getStepName()).add(l);
-            }
-        });
+        if (stepNameLinkMetaBlockMap == null) {
+            Map<String, Set<LinkMetaBlock>> stepMap = new HashMap<>();
+            getLayoutPlan().getSteps()
+            .forEach(step -> stepMap
+                    .putIfAbsent(step.getName(), newIdentitySet()));
+            linkMetaBlocks.forEach(l -> {
+                if (stepMap.get(l.getLink().getStepName()) != null) {
+                    stepMap.get(l.getLink().getStepName()).add(l);
+                }
+            });
+            stepNameLinkMetaBlockMap = stepMap;
+        }
         return stepNameLinkMetaBlockMap;
     }
     
     public Map<String, Link> getStepLinkMap() {
-        Map<String, Set<LinkMetaBlock>> stepLinkMetaBlockMap = getStepNameLinkMetaBlockMap();
         Map<String, Link> stepLinkMap = new HashMap<>();        
-        stepLinkMetaBlockMap.entrySet().forEach(entry -> {
-            Link link = entry.getValue().isEmpty() ? null : stepLinkMetaBlockMap.get(entry.getKey()).iterator().next().getLink();
-            stepLinkMap.put(entry.getKey(), link);
-        });
+        getStepLinkMetaBlockMap().forEach((stepName, linkMetaBlock) -> 
+            stepLinkMap.put(stepName, linkMetaBlock == null ? null : linkMetaBlock.getLink()));
         return stepLinkMap;
     }
     
+    /**
+     * @return per step name one of the link meta blocks of the step, null if the step has no link meta blocks
+     */
+    public Map<String, LinkMetaBlock> getStepLinkMetaBlockMap() {
+        Map<String, LinkMetaBlock> stepLinkMetaBlockMap = new HashMap<>();        
+        getStepNameLinkMetaBlockMap().forEach((stepName, linkMetaBlocks) -> 
+            stepLinkMetaBlockMap.put(stepName, linkMetaBlocks.isEmpty() ? null : linkMetaBlocks.iterator().next()));
+        return stepLinkMetaBlockMap;
+    }
+    
+    static Set<LinkMetaBlock> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+    
 }
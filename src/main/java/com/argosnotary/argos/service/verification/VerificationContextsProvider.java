@@ -20,28 +20,35 @@
 package com.argosnotary.argos.service.verification;
 
 import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.toSet;
+import static java.util.stream.Collectors.toMap;
 
 import java.util.ArrayList;
-import java.util.EnumMap;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.springframework.stereotype.Component;
 
+import com.argosnotary.argos.domain.crypto.PublicKey;
 import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
-import com.argosnotary.argos.domain.layout.rule.RuleType;
+import com.argosnotary.argos.domain.layout.Step;
+import com.argosnotary.argos.domain.layout.rule.MatchRule;
 import com.argosnotary.argos.domain.link.Artifact;
-import com.argosnotary.argos.domain.link.Link;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
 import com.argosnotary.argos.service.mongodb.link.LinkMetaBlockRepository;
-import com.argosnotary.argos.service.verification.rules.RuleVerification;
 
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -52,63 +59,328 @@ public class VerificationContextsProvider {
 
     private final LinkMetaBlockRepository linkMetaBlockRepository;
 
-    private final List<RuleVerification> ruleVerificationList;
+    private final SignatureValidatorService signatureValidatorService;
 
-    private Map<RuleType, RuleVerification> rulesVerificationMap = new EnumMap<>(RuleType.class);
-
-    @PostConstruct
-    public void init() {
-        ruleVerificationList.forEach(ruleVerification -> rulesVerificationMap.put(ruleVerification.getRuleType(), ruleVerification));
-    }
+    private final RulesVerification rulesVerification;
+    
+    private final VerificationStateService verificationStateService;
 
     /**
-     * Create a list of Verification contexts starting with the end products.
+     * Create a lazy stream of Verification contexts, one for every combination of
+     * distinct links per step which passes the step local checks.
+     * 
+     * The combinations are searched depth first per step. A partial combination is
+     * rejected as soon as a step in it fails, so the combinations below it are never built.
      * 
      * @param layoutMetaBlock
      * @param artifactsToRelease List of expected product artifacts
-     * @return List of VerificationContexts
+     * @return Stream of VerificationContexts
+     */
+    public Stream<VerificationContext> createPossibleVerificationContexts(LayoutMetaBlock layoutMetaBlock, Set<Artifact> artifactsToRelease) {
+        return createPossibleVerificationContexts(LayoutPlan.compile(layoutMetaBlock), artifactsToRelease);
+    }
+    
+    /**
+     * Create a lazy stream of Verification contexts for a compiled layout.
+     * 
+     * @param layoutPlan the compiled layout meta block
+     * @param artifactsToRelease List of expected product artifacts
+     * @return Stream of VerificationContexts
      */
-    public List<VerificationContext> createPossibleVerificationContexts(LayoutMetaBlock layoutMetaBlock, Set<Artifact> artifactsToRelease) {
-        Set<Set<LinkMetaBlock>> linkMetaBlockSets = new HashSet<>();
-        // create context
-        Set<LinkMetaBlock> links = new HashSet<>(linkMetaBlockRepository.findBySupplyChainId(layoutMetaBlock.getSupplyChainId()));
-        if (!links.isEmpty()) {
-            // get links for other steps
-            links.addAll(linkMetaBlockRepository.findBySupplyChainId(
-                    layoutMetaBlock.getSupplyChainId()));
-            // permutate
-            linkMetaBlockSets = permutateOnSteps(links);
+    public Stream<VerificationContext> createPossibleVerificationContexts(LayoutPlan layoutPlan, Set<Artifact> artifactsToRelease) {
+        return createPossibleVerificationContexts(layoutPlan, findLinks(layoutPlan.getLayoutMetaBlock().getSupplyChainId()), artifactsToRelease);
+    }
+    
+    /**
+     * The digests of the links are calculated again from the loaded links, the checks of 
+     * a run only use digests of the content they verify.
+     * 
+     * @param supplyChainId
+     * @return the link meta blocks of the supply chain
+     */
+    public List<LinkMetaBlock> findLinks(UUID supplyChainId) {
+        List<LinkMetaBlock> links = linkMetaBlockRepository.findForVerification(supplyChainId);
+        links.forEach(linkMetaBlock -> {
+            if (!linkMetaBlock.calculateDigests()) {
+                log.warn("stored digests of the link meta block [{}] for step [{}] do not match its link", 
+                        linkMetaBlock.getId(), linkMetaBlock.getLink().getStepName());
+            }
+        });
+        return links;
+    }
+    
+    /**
+     * Create a lazy stream of Verification contexts for a compiled layout and the links of its supply chain.
+     * 
+     * @param layoutPlan the compiled layout meta block
+     * @param links the link meta blocks of the supply chain
+     * @param artifactsToRelease List of expected product artifacts
+     * @return Stream of VerificationContexts
+     */
+    public Stream<VerificationContext> createPossibleVerificationContexts(LayoutPlan layoutPlan, Collection<LinkMetaBlock> links, 
+            Set<Artifact> artifactsToRelease) {
+        LinkValidations linkValidations = createLinkValidations(layoutPlan);
+        return createPossibleLinkSets(layoutPlan, links, linkValidations, VerificationLimits.NONE, null)
+                .map(linkSet -> createVerificationContext(layoutPlan, linkSet, artifactsToRelease, linkValidations, null));
+    }
+    
+    /**
+     * @return the link checks memo of a run, with the checks done when the links were added
+     */
+    public LinkValidations createLinkValidations(LayoutPlan layoutPlan) {
+        return new LinkValidations(verificationStateService.getState(layoutPlan));
+    }
+    
+    /**
+     * Create a lazy stream of the link meta block sets of the verification contexts. The
+     * link sets do not depend on the products to verify, so they can be shared by runs 
+     * for other products.
+     * 
+     * @param layoutPlan the compiled layout meta block
+     * @param links the link meta blocks of the supply chain
+     * @param linkValidations the link checks memo of the run
+     * @param limits the limits of the run, checked for every partial link combination
+     * @param trace counts the pruned link combinations, can be null
+     * @return Stream of link meta block sets
+     */
+    Stream<Set<LinkMetaBlock>> createPossibleLinkSets(LayoutPlan layoutPlan, Collection<LinkMetaBlock> links, 
+            LinkValidations linkValidations, VerificationLimits limits, VerificationTrace trace) {
+        LayoutMetaBlock layoutMetaBlock = layoutPlan.getLayoutMetaBlock();
+        if (links.isEmpty()) {
+            log.info("no links found for supply chain [{}]", layoutMetaBlock.getSupplyChainId());
+            return Stream.empty();
         }
 
-        log.info("processExpProductsMatchRules resulted in: {} possible verificationContexts", linkMetaBlockSets.size());
+        validateSignatures(layoutPlan, links, linkValidations);
+        
+        List<Step> steps = layoutPlan.getSteps();
+        List<List<Set<LinkMetaBlock>>> stepCandidates = steps.stream()
+                .map(step -> getStepCandidates(layoutPlan, step, links, linkValidations))
+                .toList();
+        
+        log.info("possible link sets per step: {}", stepCandidates.stream().map(List::size).toList());
         
-        return linkMetaBlockSets
+        List<List<Step>> stepsToVerifyPerDepth = layoutPlan.getStepsToVerifyPerDepth();
+        
+        /*
+         * the link meta block per step of the partial combination, the entries of the steps 
+         * deeper than the current depth are left from an earlier combination and are not read
+         * by the steps verified at the current depth
+         */
+        Map<String, LinkMetaBlock> chosenLinks = new HashMap<>();
+        return permutateOnSteps(stepCandidates, limits, (depth, chosen) -> {
+                    chosenLinks.put(steps.get(depth).getName(), chosen.get(depth).iterator().next());
+                    boolean valid = stepsToVerifyPerDepth.get(depth)
+                        .stream()
+                        .allMatch(step -> rulesVerification.verifyStep(layoutPlan, linkValidations, chosenLinks, step));
+                    if (!valid && trace != null) {
+                        trace.addPrunedCombination();
+                    }
+                    return valid;
+                });
+    }
+    
+    /**
+     * @param trace the trace of the run, a context trace is added to it, can be null
+     */
+    public VerificationContext createVerificationContext(LayoutPlan layoutPlan, Set<LinkMetaBlock> linkSet, 
+            Set<Artifact> artifactsToRelease, LinkValidations linkValidations, VerificationTrace trace) {
+        return VerificationContext
+                .builder()
+                .layoutMetaBlock(layoutPlan.getLayoutMetaBlock())
+                .layoutPlan(layoutPlan)
+                .linkMetaBlocks(new ArrayList<>(linkSet))
+                .productsToVerify(artifactsToRelease)
+                .linkValidations(linkValidations)
+                .trace(trace == null ? null : trace.addContext()).build();
+    }
+    
+    /*
+     * The distinct links for a step by link digest, each with the link meta blocks that are
+     * signed with a valid and authorized key and at least the required number of links.
+     * The results of the checks are kept in the link validations of the run, so the link 
+     * verifications of the contexts do not repeat them. Links checked when they were added
+     * are not checked again. Link meta blocks with the same link digest and signature count as 
+     * one link, the candidates are kept in identity sets as the equality of a link meta block 
+     * compares the complete link.
+     */
+    private List<Set<LinkMetaBlock>> getStepCandidates(LayoutPlan layoutPlan, Step step, Collection<LinkMetaBlock> links,
+            LinkValidations linkValidations) {
+        return links.stream()
+                .filter(linkMetaBlock -> step.getName().equals(linkMetaBlock.getLink().getStepName()))
+                .filter(linkMetaBlock -> linkValidations.isAuthorized(linkMetaBlock, () -> isAuthorized(layoutPlan, step, linkMetaBlock)))
+                .filter(linkMetaBlock -> linkValidations.isSignatureValid(linkMetaBlock, () -> isSignatureValid(layoutPlan, linkMetaBlock)))
+                .collect(groupingBy(LinkMetaBlock::getLinkDigest, 
+                        toMap(LinkMetaBlock::getSignature, Function.identity(), (linkMetaBlock, duplicate) -> linkMetaBlock)))
+                .values()
                 .stream()
-                .map(linkSet -> VerificationContext
-                        .builder()
-                        .layoutMetaBlock(layoutMetaBlock)
-                        .linkMetaBlocks(new ArrayList<>(linkSet))
-                        .productsToVerify(artifactsToRelease).build())
+                .map(VerificationContextsProvider::toIdentitySet)
+                .filter(linkMetaBlocks -> linkMetaBlocks.size() >= step.getRequiredNumberOfLinks())
                 .toList();
     }
     
-    static Set<Set<LinkMetaBlock>> permutateOnSteps(Set<LinkMetaBlock> linkMetaBlocks) {
-        Set<Set<LinkMetaBlock>> tempSets = new HashSet<>();
-        tempSets.add(new HashSet<>());
-        Map<String, Map<Link, Set<LinkMetaBlock>>> stepSets = linkMetaBlocks.stream()
-                .collect(groupingBy(linkMetaBlock -> linkMetaBlock.getLink().getStepName(),
-                        groupingBy(LinkMetaBlock::getLink, toSet())));
-        for (Entry<String, Map<Link, Set<LinkMetaBlock>>> stepEntry : stepSets.entrySet()) {
-            Set<Set<LinkMetaBlock>> newTempSets = new HashSet<>();
-            for (Entry<Link, Set<LinkMetaBlock>> linkEntry : stepEntry.getValue().entrySet()) {
-                for (Set<LinkMetaBlock> set : tempSets) {
-                    Set<LinkMetaBlock> newSet = new HashSet<>(set);
-                    newSet.addAll(linkEntry.getValue());
-                    newTempSets.add(newSet);
+    /*
+     * The signatures of the authorized links which are not checked yet are validated as
+     * one batch, the step candidates use the results kept in the link validations.
+     */
+    private void validateSignatures(LayoutPlan layoutPlan, Collection<LinkMetaBlock> links, LinkValidations linkValidations) {
+        List<LinkMetaBlock> linksToValidate = links.stream()
+                .filter(linkMetaBlock -> layoutPlan.isAuthorized(linkMetaBlock.getLink().getStepName(), linkMetaBlock.getSignature().getKeyId()))
+                .filter(linkMetaBlock -> !linkValidations.hasSignatureValidation(linkMetaBlock))
+                .toList();
+        if (linksToValidate.isEmpty()) {
+            return;
+        }
+        List<SignatureValidationResult> results = signatureValidatorService.validateSignatures(linksToValidate, layoutPlan::getPublicKey);
+        for (int i = 0; i < linksToValidate.size(); i++) {
+            LinkMetaBlock linkMetaBlock = linksToValidate.get(i);
+            if (!results.get(i).isValid()) {
+                log.info("LinkMetaBlock for step [{}] has an invalid signature", linkMetaBlock.getLink().getStepName());
+            }
+            linkValidations.addSignatureValidation(linkMetaBlock, results.get(i).isValid());
+        }
+    }
+    
+    private static boolean isAuthorized(LayoutPlan layoutPlan, Step step, LinkMetaBlock linkMetaBlock) {
+        if (!layoutPlan.isAuthorized(step.getName(), linkMetaBlock.getSignature().getKeyId())) {
+            log.info("LinkMetaBlock for step [{}] is signed with the not authorized key [{}]",
+                    step.getName(), linkMetaBlock.getSignature().getKeyId());
+            return false;
+        }
+        return true;
+    }
+    
+    private boolean isSignatureValid(LayoutPlan layoutPlan, LinkMetaBlock linkMetaBlock) {
+        Optional<PublicKey> publicKey = layoutPlan.getPublicKey(linkMetaBlock.getSignature().getKeyId());
+        if (!signatureValidatorService.validateSignature(linkMetaBlock, publicKey)) {
+            log.info("LinkMetaBlock for step [{}] has an invalid signature", linkMetaBlock.getLink().getStepName());
+            return false;
+        }
+        return true;
+    }
+    
+    /*
+     * The rules of a step can be verified at the depth at which the step itself and all 
+     * destination steps of its match rules are part of the partial combination.
+     */
+    static List<List<Step>> getStepsToVerifyPerDepth(List<Step> steps) {
+        Map<String, Integer> stepIndexes = new HashMap<>();
+        for (int i = 0; i < steps.size(); i++) {
+            stepIndexes.put(steps.get(i).getName(), i);
+        }
+        List<List<Step>> stepsPerDepth = new ArrayList<>();
+        steps.forEach(step -> stepsPerDepth.add(new ArrayList<>()));
+        for (Step step : steps) {
+            int depth = Stream.concat(step.getExpectedMaterials().stream(), step.getExpectedProducts().stream())
+                    .filter(MatchRule.class::isInstance)
+                    .map(rule -> ((MatchRule) rule).getDestinationStepName())
+                    .map(stepIndexes::get)
+                    .filter(index -> index != null)
+                    .reduce(stepIndexes.get(step.getName()), Math::max);
+            stepsPerDepth.get(depth).add(step);
+        }
+        return stepsPerDepth;
+    }
+    
+    /**
+     * Lazily combine one candidate link set of every step.
+     * 
+     * @param stepCandidates per step the candidate link meta block sets
+     * @param partialCheck called with the depth and the partial combination after each step is 
+     * added, the combination is skipped when it returns false
+     * @return Stream of combined link meta block sets
+     */
+    static Stream<Set<LinkMetaBlock>> permutateOnSteps(List<List<Set<LinkMetaBlock>>> stepCandidates, 
+            BiPredicate<Integer, List<Set<LinkMetaBlock>>> partialCheck) {
+        return permutateOnSteps(stepCandidates, VerificationLimits.NONE, partialCheck);
+    }
+    
+    /**
+     * @param limits checked before every partial check, a {@link VerificationLimitException} stops the search
+     */
+    static Stream<Set<LinkMetaBlock>> permutateOnSteps(List<List<Set<LinkMetaBlock>>> stepCandidates, 
+            VerificationLimits limits, BiPredicate<Integer, List<Set<LinkMetaBlock>>> partialCheck) {
+        if (stepCandidates.isEmpty()) {
+            return Stream.of(VerificationContext.newIdentitySet());
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                new StepCombinations(stepCandidates, limits, partialCheck), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+    
+    private static Set<LinkMetaBlock> toIdentitySet(Map<?, LinkMetaBlock> linkMetaBlocks) {
+        Set<LinkMetaBlock> identitySet = VerificationContext.newIdentitySet();
+        identitySet.addAll(linkMetaBlocks.values());
+        return identitySet;
+    }
+    
+    private static class StepCombinations implements Iterator<Set<LinkMetaBlock>> {
+        
+        private final List<List<Set<LinkMetaBlock>>> stepCandidates;
+        
+        private final VerificationLimits limits;
+        
+        private final BiPredicate<Integer, List<Set<LinkMetaBlock>>> partialCheck;
+        
+        private final int[] cursors;
+        
+        private final List<Set<LinkMetaBlock>> chosen = new ArrayList<>();
+        
+        private Set<LinkMetaBlock> next;
+        
+        private boolean exhausted = false;
+        
+        StepCombinations(List<List<Set<LinkMetaBlock>>> stepCandidates, VerificationLimits limits, 
+                BiPredicate<Integer, List<Set<LinkMetaBlock>>> partialCheck) {
+            this.stepCandidates = stepCandidates;
+            this.limits = limits;
+            this.partialCheck = partialCheck;
+            this.cursors = new int[stepCandidates.size()];
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !exhausted) {
+                next = advance();
+                exhausted = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Set<LinkMetaBlock> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Set<LinkMetaBlock> combination = next;
+            next = null;
+            return combination;
+        }
+        
+        private Set<LinkMetaBlock> advance() {
+            int depth = chosen.size();
+            if (depth == stepCandidates.size()) {
+                // the previous combination was returned, continue with the next candidate of the last step
+                chosen.remove(--depth);
+            }
+            while (depth >= 0) {
+                List<Set<LinkMetaBlock>> candidates = stepCandidates.get(depth);
+                if (cursors[depth] < candidates.size()) {
+                    limits.addCombination();
+                    chosen.add(candidates.get(cursors[depth]++));
+                    if (!partialCheck.test(depth, chosen)) {
+                        chosen.remove(depth);
+                    } else if (depth == stepCandidates.size() - 1) {
+                        Set<LinkMetaBlock> combination = VerificationContext.newIdentitySet();
+                        chosen.forEach(combination::addAll);
+                        return combination;
+                    } else {
+                        cursors[++depth] = 0;
+                    }
+                } else if (--depth >= 0) {
+                    chosen.remove(depth);
                 }
             }
-            tempSets = newTempSets;
+            return null;
         }
-        return tempSets;
     }
 }
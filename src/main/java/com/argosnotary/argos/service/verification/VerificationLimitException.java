@@ -0,0 +1,48 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import com.argosnotary.argos.domain.ArgosError;
+
+import lombok.Getter;
+
+/**
+ * A verification run is refused or stopped because it exceeds one of the limits configured 
+ * with the argos.verification properties.
+ */
+@Getter
+public class VerificationLimitException extends ArgosError {
+
+    public enum Limit {
+        /** more verification contexts than max-contexts or more checked link combinations than max-combinations */
+        CONTEXTS,
+        /** the run took longer than the time-budget */
+        TIME,
+        /** max-concurrent-verifications are running and the queue is full or the wait timed out */
+        CONCURRENCY
+    }
+    
+    private final Limit limit;
+
+    public VerificationLimitException(Limit limit, String message) {
+        super(message, Level.WARNING);
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import com.argosnotary.argos.service.verification.VerificationLimitException.Limit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The time budget, the maximum number of verification contexts and the maximum number of 
+ * checked link combinations of a verification run. The limits are shared by the runs of a batch
+ * and started again for every run. The search for the contexts checks the limits on every 
+ * partial link combination, so a run is also stopped when all combinations are pruned and no 
+ * context is produced. The counters are updated on the thread generating the contexts, the 
+ * time budget is also checked on the threads verifying the contexts.
+ */
+@Slf4j
+class VerificationLimits {
+    
+    /* no limits, for searches outside a verification run */
+    static final VerificationLimits NONE = new VerificationLimits(null, 0, 0);
+    
+    private final Duration timeBudget;
+    
+    private final int maxContexts;
+    
+    private final long maxCombinations;
+    
+    private volatile Instant deadline;
+    
+    private int contexts;
+    
+    private long combinations;
+    
+    VerificationLimits(VerificationProperties verificationProperties) {
+        this(verificationProperties.getTimeBudget(), verificationProperties.getMaxContexts(), verificationProperties.getMaxCombinations());
+    }
+    
+    private VerificationLimits(Duration timeBudget, int maxContexts, long maxCombinations) {
+        this.timeBudget = timeBudget;
+        this.maxContexts = maxContexts;
+        this.maxCombinations = maxCombinations;
+    }
+    
+    void start() {
+        deadline = timeBudget == null ? null : Instant.now().plus(timeBudget);
+        contexts = 0;
+        combinations = 0;
+    }
+    
+    /**
+     * @return the deadline of the current run, null when there is no time budget
+     */
+    Instant getDeadline() {
+        return deadline;
+    }
+    
+    boolean isExpired() {
+        Instant currentDeadline = deadline;
+        return currentDeadline != null && !Instant.now().isBefore(currentDeadline);
+    }
+    
+    void checkTime() {
+        if (isExpired()) {
+            throw timedOut();
+        }
+    }
+    
+    VerificationLimitException timedOut() {
+        log.warn("verification run exceeded the time budget of [{}]", timeBudget);
+        return new VerificationLimitException(Limit.TIME, "verification run exceeded the time budget of " + timeBudget);
+    }
+    
+    /**
+     * called for every partial link combination checked by the search, pruned combinations included
+     */
+    void addCombination() {
+        checkTime();
+        if (maxCombinations > 0 && ++combinations > maxCombinations) {
+            log.warn("verification run exceeded the maximum of [{}] checked link combinations", maxCombinations);
+            throw new VerificationLimitException(Limit.CONTEXTS, 
+                    "verification run exceeded the maximum of " + maxCombinations + " checked link combinations");
+        }
+    }
+    
+    /**
+     * called for every context of the run, before the context is created
+     */
+    void addContext() {
+        if (maxContexts > 0 && ++contexts > maxContexts) {
+            log.warn("verification run exceeded the maximum of [{}] verification contexts", maxContexts);
+            throw new VerificationLimitException(Limit.CONTEXTS, 
+                    "verification run exceeded the maximum of " + maxContexts + " verification contexts");
+        }
+    }
+
+}
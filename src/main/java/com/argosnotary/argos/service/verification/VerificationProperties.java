@@ -0,0 +1,91 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Settings of the verification engine, configured with the argos.verification properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "argos.verification")
+@Data
+public class VerificationProperties {
+    
+    public enum EvaluationMode {
+        /** stop at the first valid verification context */
+        FIRST_VALID,
+        /** verify all possible verification contexts */
+        ALL
+    }
+    
+    private EvaluationMode evaluationMode = EvaluationMode.FIRST_VALID;
+    
+    /** number of verification contexts verified at the same time, 1 verifies on the calling thread */
+    private int parallelism = 1;
+    
+    /** 
+     * number of steps of a verification context of which the rules are verified at the same time, 1 verifies on the calling thread,
+     * when the contexts are verified in parallel more than 1 forks the steps in the pool of the contexts 
+     */
+    private int stepParallelism = 1;
+    
+    /** number of signatures of a batch validated at the same time, 1 validates on the calling thread */
+    private int signatureParallelism = 1;
+    
+    /** maximum duration of a verification run, no limit when not set */
+    private Duration timeBudget;
+    
+    /** maximum number of verification contexts of a verification run, 0 is no limit */
+    private int maxContexts;
+    
+    /** 
+     * maximum number of partial link combinations checked by the search for the verification contexts of a run,
+     * pruned combinations included, 0 is no limit
+     */
+    private long maxCombinations;
+    
+    /** maximum number of verification runs active on this node, 0 is no limit */
+    private int maxConcurrentVerifications = 16;
+    
+    /** maximum number of verification runs waiting for one of the active runs to finish */
+    private int maxQueuedVerifications = 64;
+    
+    /** maximum time a verification run waits in the queue */
+    private Duration queueTimeout = Duration.ofSeconds(10);
+    
+    /** maximum number of compiled layouts kept in memory */
+    private int layoutPlanCacheSize = 256;
+    
+    /** maximum number of supply chains of which the link checks done at link creation are kept in memory */
+    private int stateCacheSize = 1024;
+    
+    /** maximum number of verification results kept in memory, 0 disables the cache */
+    private int resultCacheSize = 1024;
+    
+    /** maximum number of parsed public keys kept in memory */
+    private int publicKeyCacheSize = 1024;
+
+}
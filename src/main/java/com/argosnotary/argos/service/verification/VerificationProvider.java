@@ -19,19 +19,36 @@
  */
 package com.argosnotary.argos.service.verification;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import org.springframework.stereotype.Component;
 
+import com.argosnotary.argos.domain.ArgosError;
 import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
 import com.argosnotary.argos.domain.layout.rule.MatchRule;
 import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+import com.argosnotary.argos.service.verification.VerificationProperties.EvaluationMode;
+import com.argosnotary.argos.service.verification.VerificationTrace.ContextTrace;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -44,43 +61,235 @@ public class VerificationProvider {
 
     private final VerificationContextsProvider verificationContextsProvider;
 
+    private final VerificationProperties verificationProperties;
+    
+    private final LayoutPlanCache layoutPlanCache;
+    
+    private final VerificationResultCache verificationResultCache;
+    
+    private final VerificationAdmission verificationAdmission;
+    
+    private ExecutorService executorService;
+
     @PostConstruct
     public void init() {
         verifications.sort(Comparator.comparing(Verification::getPriority));
         log.info("active verifications:");
         verifications.forEach(verification -> log.info("{} : {}", verification.getPriority(), verification.getClass().getSimpleName()));
+        if (verificationProperties.getParallelism() > 1) {
+            executorService = new ForkJoinPool(verificationProperties.getParallelism());
+            log.info("verification contexts are evaluated with parallelism [{}]", verificationProperties.getParallelism());
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
     }
 
     public VerificationRunResult verifyRun(LayoutMetaBlock layoutMetaBlock, Set<Artifact> productsToVerify) {
-    	
-    	if (!expectedProductsComplete(layoutMetaBlock, productsToVerify)) {
-    		return VerificationRunResult.valid(false);
-    	}
+        return verifyRun(layoutMetaBlock, productsToVerify, false);
+    }
+    
+    /**
+     * @param trace if true the result contains a trace of the run, traced runs are not cached 
+     * and do not share generated link sets so the trace covers the complete run
+     */
+    public VerificationRunResult verifyRun(LayoutMetaBlock layoutMetaBlock, Set<Artifact> productsToVerify, boolean trace) {
+        return verifyRuns(layoutMetaBlock, List.of(productsToVerify), trace).get(0);
+    }
+    
+    /**
+     * Verify several product sets against the same layout. The layout plan, the links, the link 
+     * checks and the generated link sets of the verification contexts are shared by the runs.
+     * 
+     * @param layoutMetaBlock the layout of the supply chain
+     * @param productSets the product sets to verify
+     * @return the result per product set in the order of the product sets
+     */
+    public List<VerificationRunResult> verifyRuns(LayoutMetaBlock layoutMetaBlock, List<Set<Artifact>> productSets) {
+        return verifyRuns(layoutMetaBlock, productSets, false);
+    }
+    
+    private List<VerificationRunResult> verifyRuns(LayoutMetaBlock layoutMetaBlock, List<Set<Artifact>> productSets, boolean trace) {
+        if (productSets.stream().noneMatch(products -> expectedProductsComplete(layoutMetaBlock, products))) {
+            return productSets.stream().map(products -> VerificationRunResult.valid(false)).toList();
+        }
+        return verificationAdmission.admit(() -> evaluateRuns(layoutMetaBlock, productSets, trace));
+    }
+    
+    private List<VerificationRunResult> evaluateRuns(LayoutMetaBlock layoutMetaBlock, List<Set<Artifact>> productSets, boolean trace) {
+        LayoutPlan layoutPlan = layoutPlanCache.getPlan(layoutMetaBlock);
+        List<LinkMetaBlock> links = verificationContextsProvider.findLinks(layoutMetaBlock.getSupplyChainId());
+        LinkValidations linkValidations = verificationContextsProvider.createLinkValidations(layoutPlan);
+        VerificationLimits limits = new VerificationLimits(verificationProperties);
+        SharedLinkSets linkSets = new SharedLinkSets(() -> verificationContextsProvider
+                .createPossibleLinkSets(layoutPlan, links, linkValidations, limits, null).iterator());
         
-        List<VerificationContext> possibleVerificationContexts = verificationContextsProvider
-                .createPossibleVerificationContexts(layoutMetaBlock, productsToVerify);
-
-        List<VerificationRunResult> verificationRunResults = possibleVerificationContexts
-                .stream()
-                .map(context -> verifications
-                        .stream()
-                        .map(verification -> verification.verify(context))
-                        .filter(result -> !result.isRunIsValid())
-                        .findFirst().orElse(VerificationRunResult
-                                .builder()
-                                .runIsValid(true)
-                                .validLinkMetaBlocks(context.getOriginalLinkMetaBlocks())
-                                .build())
-                ).toList();
-
-        return verificationRunResults
-                .stream()
-                .map(verificationRunResult -> {
-                    log.info("context validity: {}", verificationRunResult.isRunIsValid());
-                    return verificationRunResult;
-                })
-                .filter(VerificationRunResult::isRunIsValid)
-                .findFirst().orElse(VerificationRunResult.valid(false));
+        List<VerificationRunResult> results = new ArrayList<>();
+        for (Set<Artifact> productsToVerify : productSets) {
+            if (!expectedProductsComplete(layoutMetaBlock, productsToVerify)) {
+                results.add(VerificationRunResult.valid(false));
+            } else if (trace) {
+                results.add(evaluateTraced(layoutPlan, links, productsToVerify, linkValidations, limits));
+            } else {
+                results.add(verificationResultCache.get(layoutMetaBlock, links, productsToVerify, 
+                        () -> evaluate(layoutPlan, linkSets.stream(), productsToVerify, linkValidations, limits)));
+            }
+        }
+        return results;
+    }
+    
+    private VerificationRunResult evaluateTraced(LayoutPlan layoutPlan, List<LinkMetaBlock> links, 
+            Set<Artifact> productsToVerify, LinkValidations linkValidations, VerificationLimits limits) {
+        long start = System.nanoTime();
+        VerificationTrace trace = new VerificationTrace();
+        VerificationRunResult result = evaluate(layoutPlan, 
+                verificationContextsProvider.createPossibleLinkSets(layoutPlan, links, linkValidations, limits, trace), 
+                productsToVerify, linkValidations, limits, trace);
+        trace.setDurationMicros(VerificationTrace.toMicros(System.nanoTime() - start));
+        return result.toBuilder().trace(trace).build();
+    }
+    
+    private VerificationRunResult evaluate(LayoutPlan layoutPlan, Stream<Set<LinkMetaBlock>> linkSets, 
+            Set<Artifact> productsToVerify, LinkValidations linkValidations, VerificationLimits limits) {
+        return evaluate(layoutPlan, linkSets, productsToVerify, linkValidations, limits, null);
+    }
+    
+    /*
+     * The limits are started for the run, the search for the contexts checks them for every 
+     * partial link combination and stops the run when one of them is exceeded.
+     */
+    private VerificationRunResult evaluate(LayoutPlan layoutPlan, Stream<Set<LinkMetaBlock>> linkSets, 
+            Set<Artifact> productsToVerify, LinkValidations linkValidations, VerificationLimits limits, VerificationTrace trace) {
+        limits.start();
+        Iterator<VerificationContext> contexts = linkSets
+                .peek(linkSet -> limits.addContext())
+                .map(linkSet -> verificationContextsProvider.createVerificationContext(layoutPlan, linkSet, productsToVerify, linkValidations, trace))
+                .iterator();
+        
+        VerificationRunResult result = executorService == null 
+                ? evaluate(contexts, limits) 
+                : evaluateParallel(contexts, limits);
+        
+        log.info("verification run valid [{}] after [{}] evaluated and [{}] skipped contexts in mode [{}]", 
+                result.isRunIsValid(), result.getEvaluatedContexts(), result.getSkippedContexts(), verificationProperties.getEvaluationMode());
+        return result;
+    }
+    
+    /*
+     * A context is generated when the previous one is verified, so no generated context is 
+     * skipped. The iterator is not asked for a next context after a valid one, that would 
+     * search the next combination of links only to count it.
+     */
+    private VerificationRunResult evaluate(Iterator<VerificationContext> contexts, VerificationLimits limits) {
+        int evaluatedContexts = 0;
+        VerificationRunResult validResult = null;
+        while (contexts.hasNext()) {
+            limits.checkTime();
+            VerificationRunResult verificationRunResult = verify(contexts.next(), new AtomicBoolean(), limits);
+            evaluatedContexts++;
+            log.info("context validity: {}", verificationRunResult.isRunIsValid());
+            if (verificationRunResult.isRunIsValid() && validResult == null) {
+                validResult = verificationRunResult;
+                if (verificationProperties.getEvaluationMode() == EvaluationMode.FIRST_VALID) {
+                    break;
+                }
+            }
+        }
+        return withContexts(validResult, evaluatedContexts, 0);
+    }
+    
+    /*
+     * Contexts are generated on the calling thread and at most parallelism contexts 
+     * are verified at the same time. The first valid result cancels the remaining work, 
+     * the contexts still in progress are reported as skipped.
+     */
+    private VerificationRunResult evaluateParallel(Iterator<VerificationContext> contexts, VerificationLimits limits) {
+        CompletionService<VerificationRunResult> completionService = new ExecutorCompletionService<>(executorService);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<Future<VerificationRunResult>> futures = new ArrayList<>();
+        int inProgress = 0;
+        int evaluatedContexts = 0;
+        VerificationRunResult validResult = null;
+        try {
+            while (true) {
+                limits.checkTime();
+                while (inProgress < verificationProperties.getParallelism() && contexts.hasNext()) {
+                    VerificationContext context = contexts.next();
+                    futures.add(completionService.submit(() -> verify(context, cancelled, limits)));
+                    inProgress++;
+                }
+                if (inProgress == 0) {
+                    return withContexts(validResult, evaluatedContexts, 0);
+                }
+                Instant deadline = limits.getDeadline();
+                Future<VerificationRunResult> future = deadline == null 
+                        ? completionService.take() 
+                        : completionService.poll(Duration.between(Instant.now(), deadline).toMillis(), TimeUnit.MILLISECONDS);
+                if (future == null) {
+                    throw limits.timedOut();
+                }
+                inProgress--;
+                evaluatedContexts++;
+                VerificationRunResult verificationRunResult = future.get();
+                log.info("context validity: {}", verificationRunResult.isRunIsValid());
+                if (verificationRunResult.isRunIsValid() && validResult == null) {
+                    validResult = verificationRunResult;
+                    if (verificationProperties.getEvaluationMode() == EvaluationMode.FIRST_VALID) {
+                        return withContexts(validResult, evaluatedContexts, inProgress);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ArgosError("verification run interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ArgosError(e.getCause().getMessage(), e.getCause());
+        } finally {
+            cancelled.set(true);
+            futures.forEach(future -> future.cancel(false));
+        }
+    }
+    
+    /*
+     * a cancelled context is not verified any further, a context verified after the deadline of 
+     * the run stops the run
+     */
+    private VerificationRunResult verify(VerificationContext context, AtomicBoolean cancelled, VerificationLimits limits) {
+        ContextTrace trace = context.getTrace();
+        for (Verification verification : verifications) {
+            if (cancelled.get()) {
+                return VerificationRunResult.valid(false);
+            }
+            limits.checkTime();
+            long start = System.nanoTime();
+            VerificationRunResult result = verification.verify(context);
+            if (trace != null) {
+                trace.addVerification(verification.getPriority(), result.isRunIsValid(), System.nanoTime() - start);
+            }
+            if (!result.isRunIsValid()) {
+                return result;
+            }
+        }
+        if (trace != null) {
+            trace.setValid(true);
+        }
+        return VerificationRunResult
+                .builder()
+                .runIsValid(true)
+                .validLinkMetaBlocks(context.getOriginalLinkMetaBlocks())
+                .build();
+    }
+    
+    private static VerificationRunResult withContexts(VerificationRunResult result, int evaluatedContexts, int skippedContexts) {
+        return (result == null ? VerificationRunResult.valid(false) : result)
+                .toBuilder().evaluatedContexts(evaluatedContexts).skippedContexts(skippedContexts).build();
     }
     
     /* Check if all expected end products Match Rules are used */
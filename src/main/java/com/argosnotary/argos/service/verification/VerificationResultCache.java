@@ -0,0 +1,141 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.stereotype.Component;
+
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
+import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Results of verification runs keyed by the layout signatures, the digests and signatures of the 
+ * links and the products to verify. A run with the same layout, links and products gets 
+ * the same result. Hits and misses are published as the cache metrics of verificationResults.
+ * 
+ * The keys also contain the generation of the supply chain. Invalidating a supply chain starts 
+ * a new generation, the results of the earlier generations are not found anymore and are 
+ * evicted by the size limit of the cache.
+ */
+@Component
+@Slf4j
+public class VerificationResultCache {
+    
+    static final String CACHE_NAME = "verificationResults";
+    
+    private final Cache<String, VerificationRunResult> results;
+    
+    private final Cache<UUID, Long> generations;
+    
+    /* a new generation is higher than all earlier generations, also of evicted supply chains */
+    private final AtomicLong lastGeneration = new AtomicLong();
+    
+    public VerificationResultCache(VerificationProperties verificationProperties, MeterRegistry meterRegistry) {
+        this.results = Caffeine.newBuilder()
+                .maximumSize(verificationProperties.getResultCacheSize())
+                .recordStats()
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(verificationProperties.getResultCacheSize())
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, CACHE_NAME);
+    }
+    
+    /**
+     * Get the cached result or verify and cache the result. Runs stopped by a verification 
+     * limit have no result, so they are not cached.
+     */
+    public VerificationRunResult get(LayoutMetaBlock layoutMetaBlock, Collection<LinkMetaBlock> links, 
+            Set<Artifact> productsToVerify, Supplier<VerificationRunResult> verification) {
+        Optional<String> key = getKey(layoutMetaBlock, getGeneration(layoutMetaBlock.getSupplyChainId()), links, productsToVerify);
+        if (key.isEmpty()) {
+            return verification.get();
+        }
+        VerificationRunResult cached = results.getIfPresent(key.get());
+        if (cached != null) {
+            log.info("cached verification result valid [{}] for supply chain [{}]", cached.isRunIsValid(), layoutMetaBlock.getSupplyChainId());
+            return cached;
+        }
+        VerificationRunResult result = verification.get();
+        results.put(key.get(), result);
+        return result;
+    }
+    
+    /**
+     * Remove the results of a supply chain, called when its links or layout change. A run 
+     * which started before does not add its result to the new generation.
+     */
+    public void invalidate(UUID supplyChainId) {
+        generations.put(supplyChainId, lastGeneration.incrementAndGet());
+    }
+    
+    private long getGeneration(UUID supplyChainId) {
+        return generations.get(supplyChainId, id -> lastGeneration.incrementAndGet());
+    }
+    
+    /*
+     * No key for layouts without signatures, they are not cached. The links are identified 
+     * by the digests calculated from their content and by their signatures.
+     */
+    static Optional<String> getKey(LayoutMetaBlock layoutMetaBlock, long generation, Collection<LinkMetaBlock> links, 
+            Set<Artifact> productsToVerify) {
+        if (layoutMetaBlock.getSignatures() == null || layoutMetaBlock.getSignatures().isEmpty()) {
+            return Optional.empty();
+        }
+        Stream<String> linkSet = links.stream()
+                .map(linkMetaBlock -> lengthPrefixed(linkMetaBlock.getLinkDigest()) 
+                        + lengthPrefixed(linkMetaBlock.getSignature().getKeyId()) 
+                        + lengthPrefixed(linkMetaBlock.getSignature().getSig()));
+        Stream<String> products = productsToVerify.stream()
+                .map(artifact -> lengthPrefixed(artifact.getHash()) + lengthPrefixed(artifact.getUri()));
+        return Optional.of(generation + "/" + LayoutPlanCache.getKey(layoutMetaBlock) + "/" + digest(linkSet) + "/" + digest(products));
+    }
+    
+    /*
+     * the values are length prefixed, so uris with separators can not be mistaken for other products
+     */
+    private static String digest(Stream<String> values) {
+        return DigestUtils.sha256Hex(values.map(VerificationResultCache::lengthPrefixed).sorted()
+                .collect(Collectors.joining()).getBytes(UTF_8));
+    }
+    
+    private static String lengthPrefixed(String value) {
+        return value == null ? "-1:" : value.length() + ":" + value;
+    }
+
+}
@@ -28,11 +28,21 @@ import lombok.Builder;
 import lombok.Getter;
 
 @Getter
-@Builder
+@Builder(toBuilder = true)
 public class VerificationRunResult {
     private boolean runIsValid;
     private final List<LinkMetaBlock> validLinkMetaBlocks;
     private Priority verification;
+    private int evaluatedContexts;
+    /** 
+     * the generated contexts of which the verification was cancelled because a valid context 
+     * was found, contexts are generated lazily so contexts that were never generated are not counted. 
+     * Only a parallel run generates contexts ahead of their verification, a sequential run 
+     * always reports 0.
+     */
+    private int skippedContexts;
+    /** the trace of the run, only when requested */
+    private VerificationTrace trace;
 
     public static VerificationRunResult valid(boolean runIsValid) {
         return VerificationRunResult.builder().runIsValid(runIsValid).build();
@@ -29,5 +29,12 @@ public interface VerificationService {
 	public boolean getVerification(List<String> artifactHashes, List<String> paths);
 	
 	public VerificationRunResult performVerification(LayoutMetaBlock layoutMetaBlock, Set<Artifact> expectedProducts);
+	
+	/**
+	 * @param trace if true the result contains a trace of the run, the result cache is not used
+	 */
+	public VerificationRunResult performVerification(LayoutMetaBlock layoutMetaBlock, Set<Artifact> expectedProducts, boolean trace);
+	
+	public List<VerificationRunResult> performVerifications(LayoutMetaBlock layoutMetaBlock, List<Set<Artifact>> expectedProductSets);
 
 }
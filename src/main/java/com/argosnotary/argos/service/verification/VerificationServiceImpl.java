@@ -50,4 +50,14 @@ public class VerificationServiceImpl implements VerificationService {
 	public VerificationRunResult performVerification(LayoutMetaBlock layoutMetaBlock, Set<Artifact> expectedProduct) {
         return verificationProvider.verifyRun(layoutMetaBlock, expectedProduct);
 	}
+
+	@Override
+	public VerificationRunResult performVerification(LayoutMetaBlock layoutMetaBlock, Set<Artifact> expectedProduct, boolean trace) {
+		return verificationProvider.verifyRun(layoutMetaBlock, expectedProduct, trace);
+	}
+
+	@Override
+	public List<VerificationRunResult> performVerifications(LayoutMetaBlock layoutMetaBlock, List<Set<Artifact>> expectedProductSets) {
+		return verificationProvider.verifyRuns(layoutMetaBlock, expectedProductSets);
+	}
 }
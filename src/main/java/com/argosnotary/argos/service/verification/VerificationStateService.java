@@ -0,0 +1,126 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.argosnotary.argos.domain.crypto.PublicKey;
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+import com.argosnotary.argos.service.layout.LayoutMetaBlockService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the verification state of supply chains up to date when links are added, so
+ * a verification run only has to check the links it did not see before and the rules 
+ * between the steps. The state is a cache, a run checks every link it does not 
+ * find in the state of the current layout plan itself.
+ */
+@Component
+@Slf4j
+public class VerificationStateService {
+    
+    private final LayoutMetaBlockService layoutMetaBlockService;
+    
+    private final LayoutPlanCache layoutPlanCache;
+    
+    private final SignatureValidatorService signatureValidatorService;
+    
+    private final VerificationResultCache verificationResultCache;
+    
+    private final Cache<UUID, SupplyChainVerificationState> states;
+    
+    public VerificationStateService(LayoutMetaBlockService layoutMetaBlockService, LayoutPlanCache layoutPlanCache,
+            SignatureValidatorService signatureValidatorService, VerificationResultCache verificationResultCache,
+            VerificationProperties verificationProperties) {
+        this.layoutMetaBlockService = layoutMetaBlockService;
+        this.layoutPlanCache = layoutPlanCache;
+        this.signatureValidatorService = signatureValidatorService;
+        this.verificationResultCache = verificationResultCache;
+        this.states = Caffeine.newBuilder()
+                .maximumSize(verificationProperties.getStateCacheSize())
+                .build();
+    }
+    
+    /**
+     * Check a new link against the active layout of its supply chain and add the 
+     * results to the state. The cached verification results of the supply chain are removed,
+     * nothing is checked when the supply chain has no layout.
+     * 
+     * @param linkMetaBlock the stored link meta block
+     */
+    public void addLink(LinkMetaBlock linkMetaBlock) {
+        addLink(linkMetaBlock, Optional.empty());
+    }
+    
+    /**
+     * Check a new link of which the signature is already validated with a key. The signature 
+     * is only validated again when the layout has another key for the key id.
+     * 
+     * @param linkMetaBlock the stored link meta block
+     * @param validatedKey the key the signature of the link meta block is valid for, empty if not validated
+     */
+    public void addLink(LinkMetaBlock linkMetaBlock, Optional<PublicKey> validatedKey) {
+        UUID supplyChainId = linkMetaBlock.getSupplyChainId();
+        verificationResultCache.invalidate(supplyChainId);
+        layoutMetaBlockService.getLayout(supplyChainId).ifPresent(layoutMetaBlock -> {
+            LayoutPlan layoutPlan = layoutPlanCache.getPlan(layoutMetaBlock);
+            String keyId = linkMetaBlock.getSignature().getKeyId();
+            boolean authorized = layoutPlan.isAuthorized(linkMetaBlock.getLink().getStepName(), keyId);
+            Optional<PublicKey> layoutKey = layoutPlan.getPublicKey(keyId);
+            boolean signatureValid = (layoutKey.isPresent() && layoutKey.equals(validatedKey)) 
+                    || signatureValidatorService.validateSignature(linkMetaBlock, layoutKey);
+            getOrCreateState(supplyChainId, layoutPlan).addLink(linkMetaBlock, authorized, signatureValid);
+            log.info("link for step [{}] added to the verification state of supply chain [{}], authorized [{}] signature valid [{}]", 
+                    linkMetaBlock.getLink().getStepName(), supplyChainId, authorized, signatureValid);
+        });
+    }
+    
+    /**
+     * @return the state of the supply chain of the layout plan, null if there is no state 
+     * or it was build with another layout
+     */
+    public SupplyChainVerificationState getState(LayoutPlan layoutPlan) {
+        LayoutMetaBlock layoutMetaBlock = layoutPlan.getLayoutMetaBlock();
+        SupplyChainVerificationState state = states.getIfPresent(layoutMetaBlock.getSupplyChainId());
+        return state != null && state.getLayoutPlan() == layoutPlan ? state : null;
+    }
+    
+    /**
+     * Remove the state and the cached verification results of a supply chain, called 
+     * when its links are deleted or its layout changes.
+     */
+    public void remove(UUID supplyChainId) {
+        states.invalidate(supplyChainId);
+        verificationResultCache.invalidate(supplyChainId);
+    }
+    
+    private SupplyChainVerificationState getOrCreateState(UUID supplyChainId, LayoutPlan layoutPlan) {
+        return states.asMap().compute(supplyChainId, (id, state) -> 
+            state != null && state.getLayoutPlan() == layoutPlan ? state : new SupplyChainVerificationState(layoutPlan));
+    }
+
+}
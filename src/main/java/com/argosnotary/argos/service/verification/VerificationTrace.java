@@ -0,0 +1,183 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.argosnotary.argos.domain.layout.ArtifactType;
+import com.argosnotary.argos.domain.layout.rule.RuleType;
+import com.argosnotary.argos.service.verification.Verification.Priority;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Trace of a verification run, the generated and pruned link combinations and per verification
+ * context the durations of the verifications and rules. Contexts are traced while they are 
+ * verified in parallel, so the entries are kept in concurrent queues. The number of traced 
+ * contexts and the number of entries of a context are limited, a trace that reached a limit 
+ * is marked as truncated.
+ */
+public class VerificationTrace {
+    
+    static final int MAX_CONTEXTS = 100;
+    
+    static final int MAX_ENTRIES = 1000;
+    
+    @Getter
+    @Setter
+    private long durationMicros;
+    
+    private final int maxContexts;
+    
+    private final int maxEntries;
+    
+    private final AtomicInteger generatedContexts = new AtomicInteger();
+    
+    private final AtomicInteger prunedCombinations = new AtomicInteger();
+    
+    private final Queue<ContextTrace> contexts = new ConcurrentLinkedQueue<>();
+    
+    public VerificationTrace() {
+        this(MAX_CONTEXTS, MAX_ENTRIES);
+    }
+    
+    VerificationTrace(int maxContexts, int maxEntries) {
+        this.maxContexts = maxContexts;
+        this.maxEntries = maxEntries;
+    }
+    
+    /**
+     * @return the trace of the context, null when the maximum number of traced contexts is reached
+     */
+    public ContextTrace addContext() {
+        if (generatedContexts.incrementAndGet() > maxContexts) {
+            return null;
+        }
+        ContextTrace contextTrace = new ContextTrace(maxEntries);
+        contexts.add(contextTrace);
+        return contextTrace;
+    }
+    
+    public void addPrunedCombination() {
+        prunedCombinations.incrementAndGet();
+    }
+    
+    public int getGeneratedContexts() {
+        return generatedContexts.get();
+    }
+    
+    public int getPrunedCombinations() {
+        return prunedCombinations.get();
+    }
+    
+    public List<ContextTrace> getContexts() {
+        return List.copyOf(contexts);
+    }
+    
+    /**
+     * @return true when contexts were generated that are not traced
+     */
+    public boolean isTruncated() {
+        return generatedContexts.get() > maxContexts;
+    }
+    
+    static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+    
+    public static class ContextTrace {
+        
+        @Getter
+        @Setter
+        private volatile boolean valid;
+        
+        private final int maxEntries;
+        
+        private final AtomicInteger entries = new AtomicInteger();
+        
+        private final Queue<VerificationEntry> verifications = new ConcurrentLinkedQueue<>();
+        
+        private final Queue<RuleEntry> rules = new ConcurrentLinkedQueue<>();
+        
+        ContextTrace(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+        
+        public void addVerification(Priority verification, boolean valid, long durationNanos) {
+            if (entries.incrementAndGet() <= maxEntries) {
+                verifications.add(VerificationEntry.builder()
+                        .verification(verification)
+                        .valid(valid)
+                        .durationMicros(toMicros(durationNanos)).build());
+            }
+        }
+        
+        public void addRule(RuleEntry ruleEntry) {
+            if (entries.incrementAndGet() <= maxEntries) {
+                rules.add(ruleEntry);
+            }
+        }
+        
+        /**
+         * @return true when entries were added that are not traced
+         */
+        public boolean isTruncated() {
+            return entries.get() > maxEntries;
+        }
+        
+        public List<VerificationEntry> getVerifications() {
+            return List.copyOf(verifications);
+        }
+        
+        public List<RuleEntry> getRules() {
+            return List.copyOf(rules);
+        }
+    }
+    
+    @Getter
+    @Builder
+    public static class VerificationEntry {
+        private final Priority verification;
+        private final boolean valid;
+        private final long durationMicros;
+    }
+    
+    @Getter
+    @Builder
+    public static class RuleEntry {
+        private final String stepName;
+        private final ArtifactType artifactType;
+        private final RuleType ruleType;
+        private final String pattern;
+        /** the not consumed artifacts before the rule was verified */
+        private final int notConsumedArtifacts;
+        /** the artifacts consumed by the rule */
+        private final int consumedArtifacts;
+        private final boolean valid;
+        private final long durationMicros;
+    }
+
+}
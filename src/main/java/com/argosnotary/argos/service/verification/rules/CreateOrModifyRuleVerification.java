@@ -22,17 +22,13 @@ package com.argosnotary.argos.service.verification.rules;
 import com.argosnotary.argos.domain.layout.rule.Rule;
 import com.argosnotary.argos.domain.layout.rule.RuleType;
 import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.service.verification.ArtifactIndex;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.stereotype.Component;
 
-import static java.util.stream.Collectors.groupingBy;
-
-import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Component
 @Slf4j
@@ -45,29 +41,13 @@ public class CreateOrModifyRuleVerification implements RuleVerification {
     @Override
     public boolean verify(RuleVerificationContext<? extends Rule> context) {
     	Set<Artifact> filteredArtifacts = context.getFilteredArtifacts();
+        ArtifactIndex materials = context.getMaterialsIndex();
+        ArtifactIndex products = context.getProductsIndex();
         
-        // consume modified artifacts
-    	Set<String> uris = context.getFilteredArtifacts().stream().map(Artifact::getUri).collect(Collectors.toSet());
-
-        Map<String, Set<Artifact>> uriMap = Stream.concat(
-                context.getMaterials().stream().filter(artifact -> uris.contains(artifact.getUri())), 
-                context.getProducts().stream().filter(artifact -> uris.contains(artifact.getUri())))
-                .collect(groupingBy(Artifact::getUri, Collectors.toSet()));
-
-        Set<String> modifiedArtifactUris = uriMap.values().stream()
-                .filter(artifacts -> artifacts.size() == 2)
-                .map(artifacts -> artifacts
-                		.iterator()
-                		.next().getUri()).collect(Collectors.toSet());
-        
-        Set<Artifact> notModifiedFilteredArtifacts = filteredArtifacts.stream()
-        		.filter(artifact -> !modifiedArtifactUris.contains(artifact.getUri()))
-        		.collect(Collectors.toSet());
-        
-        // consume created artifacts
-        Set<String> createdUris = context.getProducts().stream().map(Artifact::getUri).collect(Collectors.toSet());
-        createdUris.removeAll(context.getMaterials().stream().map(Artifact::getUri).collect(Collectors.toSet()));        
-        if (notModifiedFilteredArtifacts.stream().map(Artifact::getUri).allMatch(createdUris::contains)) {
+        // consume modified and created artifacts
+        if (filteredArtifacts.stream().map(Artifact::getUri)
+                .allMatch(uri -> ModifyRuleVerification.isModified(uri, materials, products)
+                        || (products.containsUri(uri) && !materials.containsUri(uri)))) {
             context.consume(filteredArtifacts);
             logInfo(log, filteredArtifacts);
             return true;
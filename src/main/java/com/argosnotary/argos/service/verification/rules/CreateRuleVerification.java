@@ -22,13 +22,13 @@ package com.argosnotary.argos.service.verification.rules;
 import com.argosnotary.argos.domain.layout.rule.Rule;
 import com.argosnotary.argos.domain.layout.rule.RuleType;
 import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.service.verification.ArtifactIndex;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.stereotype.Component;
 
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Component
 @Slf4j
@@ -41,12 +41,12 @@ public class CreateRuleVerification implements RuleVerification {
     @Override
     public boolean verify(RuleVerificationContext<? extends Rule> context) {
         Set<Artifact> filteredArtifacts = context.getFilteredArtifacts();
+        ArtifactIndex materials = context.getMaterialsIndex();
+        ArtifactIndex products = context.getProductsIndex();
         
-        Set<String> uris = context.getProducts().stream().map(Artifact::getUri).collect(Collectors.toSet());
-        
-        uris.removeAll(context.getMaterials().stream().map(Artifact::getUri).collect(Collectors.toSet()));
-        
-        if (filteredArtifacts.stream().map(Artifact::getUri).allMatch(uris::contains)) {
+        // created artifacts are in the products and not in the materials
+        if (filteredArtifacts.stream().map(Artifact::getUri)
+                .allMatch(uri -> products.containsUri(uri) && !materials.containsUri(uri))) {
             context.consume(filteredArtifacts);
             logInfo(log, filteredArtifacts);
             return true;
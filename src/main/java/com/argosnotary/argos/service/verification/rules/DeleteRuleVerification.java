@@ -22,12 +22,12 @@ package com.argosnotary.argos.service.verification.rules;
 import com.argosnotary.argos.domain.layout.rule.Rule;
 import com.argosnotary.argos.domain.layout.rule.RuleType;
 import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.service.verification.ArtifactIndex;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.stereotype.Component;
 
-import java.util.HashSet;
 import java.util.Set;
 
 @Component
@@ -43,9 +43,9 @@ public class DeleteRuleVerification implements RuleVerification {
         // deleteRule filteredMaterials must not be in filteredProducts
         // example pattern **/*.java not in filteredProducts but exists in filteredMaterials
         Set<Artifact> filteredArtifacts = context.getFilteredArtifacts();
-        Set<Artifact> complement = new HashSet<>(context.getMaterials());
-        complement.removeAll(context.getProducts());
-        if (filteredArtifacts.stream().allMatch(complement::contains)) {
+        ArtifactIndex materials = context.getMaterialsIndex();
+        ArtifactIndex products = context.getProductsIndex();
+        if (filteredArtifacts.stream().allMatch(artifact -> materials.contains(artifact) && !products.contains(artifact))) {
             context.consume(filteredArtifacts);
             logInfo(log, filteredArtifacts);
             return true;
@@ -19,12 +19,8 @@
  */
 package com.argosnotary.argos.service.verification.rules;
 
-import static com.argosnotary.argos.domain.layout.ArtifactType.PRODUCTS;
-
-import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Component;
 
@@ -33,6 +29,7 @@ import com.argosnotary.argos.domain.layout.rule.Rule;
 import com.argosnotary.argos.domain.layout.rule.RuleType;
 import com.argosnotary.argos.domain.link.Artifact;
 import com.argosnotary.argos.domain.link.Link;
+import com.argosnotary.argos.service.verification.ArtifactIndex;
 import com.argosnotary.argos.service.verification.ArtifactsVerificationContext;
 
 import lombok.extern.slf4j.Slf4j;
@@ -53,15 +50,8 @@ public class MatchRuleVerification implements RuleVerification {
         Optional<Link> optionalLink = context.getLinkByStepName(rule.getDestinationStepName());
         
         if (optionalLink.isPresent()) {
-            Link link = optionalLink.get();
-            Set<Artifact> filteredDestinationArtifacts = null;
-            if (rule.getDestinationType() == PRODUCTS) {
-                filteredDestinationArtifacts = new HashSet<>(link.getProducts());                
-            } else {
-                filteredDestinationArtifacts = new HashSet<>(link.getMaterials());
-            }
-            filteredDestinationArtifacts = ArtifactsVerificationContext.filterArtifacts(filteredDestinationArtifacts, rule.getPattern(), rule.getDestinationPathPrefix());
-            if (verifyArtifacts(filteredArtifacts, filteredDestinationArtifacts)) {
+            ArtifactIndex destinationArtifacts = context.getArtifactIndex(optionalLink.get(), rule.getDestinationType());
+            if (verifyArtifacts(filteredArtifacts, destinationArtifacts, rule)) {
                 context.consume(filteredArtifacts);
                 logInfo(log, filteredArtifacts);
                 return true;
@@ -75,14 +65,16 @@ public class MatchRuleVerification implements RuleVerification {
         }
     }
 
-    private boolean verifyArtifacts(Set<Artifact> filteredSourceArtifacts, Set<Artifact> filteredDestinationArtifacts) {
+    /*
+     * every source artifact should have a destination artifact with the same hash
+     * which matches the pattern with the destination prefix
+     */
+    private boolean verifyArtifacts(Set<Artifact> filteredSourceArtifacts, ArtifactIndex destinationArtifacts, MatchRule rule) {
         return filteredSourceArtifacts
                 .stream()
-                .map(Artifact::getHash)
-                .allMatch(filteredDestinationArtifacts
+                .allMatch(source -> destinationArtifacts.getArtifactsByHash(source.getHash())
                         .stream()
-                        .map(Artifact::getHash)
-                        .collect(Collectors.toSet())::contains);
-    }    
+                        .anyMatch(destination -> ArtifactsVerificationContext.matches(destination, rule.getPattern(), rule.getDestinationPathPrefix())));
+    }
 
 }
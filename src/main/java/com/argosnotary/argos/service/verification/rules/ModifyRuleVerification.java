@@ -22,17 +22,13 @@ package com.argosnotary.argos.service.verification.rules;
 import com.argosnotary.argos.domain.layout.rule.Rule;
 import com.argosnotary.argos.domain.layout.rule.RuleType;
 import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.service.verification.ArtifactIndex;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import static java.util.stream.Collectors.groupingBy;
 
 @Component
 @Slf4j
@@ -45,25 +41,25 @@ public class ModifyRuleVerification implements RuleVerification {
     @Override
     public boolean verify(RuleVerificationContext<? extends Rule> context) {
         Set<Artifact> filteredArtifacts = context.getFilteredArtifacts();
+        ArtifactIndex materials = context.getMaterialsIndex();
+        ArtifactIndex products = context.getProductsIndex();
         
-        Set<String> uris = context.getFilteredArtifacts().stream().map(Artifact::getUri).collect(Collectors.toSet());
-
-        Map<String, Set<Artifact>> uriMap = Stream.concat(
-                context.getMaterials().stream().filter(artifact -> uris.contains(artifact.getUri())), 
-                context.getProducts().stream().filter(artifact -> uris.contains(artifact.getUri())))
-                .collect(groupingBy(Artifact::getUri, Collectors.toSet()));
-
-        return uriMap.values().stream()
-                .filter(artifacts -> artifacts.size() != 2)
-                .map(artifacts -> {
-                    logErrors(log, filteredArtifacts);
-                    return false;
-                })
-                .findFirst()
-                .orElseGet(() -> {
-                    context.consume(filteredArtifacts);
-                    logInfo(log, filteredArtifacts);
-                    return true;
-                });
+        if (filteredArtifacts.stream().map(Artifact::getUri).allMatch(uri -> isModified(uri, materials, products))) {
+            context.consume(filteredArtifacts);
+            logInfo(log, filteredArtifacts);
+            return true;
+        } else {
+            logErrors(log, filteredArtifacts);
+            return false;
+        }
+    }
+    
+    /*
+     * a modified artifact is in the materials and in the products with another hash
+     */
+    static boolean isModified(String uri, ArtifactIndex materials, ArtifactIndex products) {
+        return materials.getArtifactByUri(uri)
+                .flatMap(material -> products.getArtifactByUri(uri).filter(product -> !product.equals(material)))
+                .isPresent();
     }
 }
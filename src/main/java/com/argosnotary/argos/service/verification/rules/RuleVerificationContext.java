@@ -22,9 +22,11 @@ package com.argosnotary.argos.service.verification.rules;
 import java.util.Optional;
 import java.util.Set;
 
+import com.argosnotary.argos.domain.layout.ArtifactType;
 import com.argosnotary.argos.domain.layout.rule.Rule;
 import com.argosnotary.argos.domain.link.Artifact;
 import com.argosnotary.argos.domain.link.Link;
+import com.argosnotary.argos.service.verification.ArtifactIndex;
 import com.argosnotary.argos.service.verification.ArtifactsVerificationContext;
 
 import lombok.Builder;
@@ -59,6 +61,18 @@ public class RuleVerificationContext<R extends Rule> {
         return artifactsContext.getLinkByStepName(stepName);
     }
     
+    public ArtifactIndex getArtifactIndex(Link link, ArtifactType type) {
+        return artifactsContext.getArtifactIndex(link, type);
+    }
+    
+    public ArtifactIndex getMaterialsIndex() {
+        return artifactsContext.getMaterialsIndex();
+    }
+    
+    public ArtifactIndex getProductsIndex() {
+        return artifactsContext.getProductsIndex();
+    }
+    
     public Set<Artifact> getMaterials() {
         return artifactsContext.getMaterials();
     }
@@ -54,7 +54,12 @@ public class CryptoHelper {
 	}
 
     public static Signature sign(KeyPair keyPair, char[] keyPassphrase, String jsonRepresentation) {
-    	Signature sig = Signature.builder().keyId(keyPair.getKeyId()).build();
+    	return sign(keyPair, keyPassphrase, jsonRepresentation, KeyAlgorithm.EC, HashAlgorithm.SHA384);
+    }
+
+    public static Signature sign(KeyPair keyPair, char[] keyPassphrase, String jsonRepresentation, 
+    		KeyAlgorithm keyAlgorithm, HashAlgorithm hashAlgorithm) {
+    	Signature sig = Signature.builder().keyId(keyPair.getKeyId()).keyAlgorithm(keyAlgorithm).hashAlgorithm(hashAlgorithm).build();
     	try {
 			sig.setSig(createSignature(decryptPrivateKey(keyPair, keyPassphrase), jsonRepresentation, sig.getAlgorithm()));
 		} catch (GeneralSecurityException e) {
@@ -83,7 +88,11 @@ public class CryptoHelper {
     }
     
 	public static KeyPair createKeyPair(char[] passphrase) throws NoSuchAlgorithmException, OperatorCreationException, PemGenerationException {
-		KeyPairGenerator generator = KeyPairGenerator.getInstance(KeyAlgorithm.EC.name());
+		return createKeyPair(passphrase, KeyAlgorithm.EC);
+	}
+    
+	public static KeyPair createKeyPair(char[] passphrase, KeyAlgorithm keyAlgorithm) throws NoSuchAlgorithmException, OperatorCreationException, PemGenerationException {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance(keyAlgorithm.name());
 		java.security.KeyPair keyPair = generator.generateKeyPair();
         JceOpenSSLPKCS8EncryptorBuilder encryptorBuilder = new JceOpenSSLPKCS8EncryptorBuilder(PKCS8Generator.AES_256_CBC).setProvider("BC");  
         OutputEncryptor encryptor = encryptorBuilder
@@ -29,6 +29,7 @@ import java.security.GeneralSecurityException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.Optional;
 
 import org.bouncycastle.operator.OperatorCreationException;
 import org.bouncycastle.util.io.pem.PemGenerationException;
@@ -63,6 +64,21 @@ class KeyPairTest {
 		
 	}
 	
+	@Test
+	void createEd25519KeyPair() throws OperatorCreationException, GeneralSecurityException, IOException {
+		KeyPair keyPair = CryptoHelper.createKeyPair("test".toCharArray(), KeyAlgorithm.ED25519);
+		assertThat(PublicKey.getKeyAlgorithm(keyPair.getPub()), is(Optional.of(KeyAlgorithm.ED25519)));
+		assertThat(KeyIdProvider.computeKeyId(PublicKey.instance(keyPair.getPub())), is(keyPair.getKeyId()));
+		assertThat(KeyIdProvider.computeKeyId(keyPair.getPub()), is(keyPair.getKeyId()));
+	}
+	
+	@Test
+	void getKeyAlgorithm() throws OperatorCreationException, GeneralSecurityException, PemGenerationException {
+		assertThat(PublicKey.getKeyAlgorithm(CryptoHelper.createKeyPair("test".toCharArray()).getPub()), is(Optional.of(KeyAlgorithm.EC)));
+		assertThat(PublicKey.getKeyAlgorithm("publicKey".getBytes()), is(Optional.empty()));
+		assertThat(PublicKey.getKeyAlgorithm(null), is(Optional.empty()));
+	}
+	
 	@Test
     void toStringTest() throws NoSuchAlgorithmException, InvalidAlgorithmParameterException, OperatorCreationException, PemGenerationException {
         KeyPair keyPair = new KeyPair("keyId", "publicKey".getBytes(), "encryptedPrivateKey".getBytes());
@@ -19,11 +19,13 @@
  */
 package com.argosnotary.argos.domain.crypto.signing;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.security.GeneralSecurityException;
@@ -54,7 +56,23 @@ class JsonSigningSerializerTest {
 
     @Test
     void serializeLink() throws IOException {
-        String serialized = new JsonSigningSerializer().serialize(Link.builder()
+        String serialized = new JsonSigningSerializer().serialize(createLink());
+        String expectedJson = getExpectedJson("/expectedLinkSigning.json");
+        assertThat(serialized, is(expectedJson));
+    }
+
+    @Test
+    void serializeLinkToOutputStream() throws IOException {
+        Link link = createLink();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new JsonSigningSerializer().serialize(link, outputStream);
+        assertThat(outputStream.toByteArray(), is(getExpectedJson("/expectedLinkSigning.json").getBytes(UTF_8)));
+        // the link itself is not sorted
+        assertThat(link.getMaterials().get(0).getUri(), is("zbc.jar"));
+    }
+
+    private Link createLink() {
+        return Link.builder()
                 .stepName("stepName")
                 .materials(Arrays.asList(
                         Artifact.builder().uri("zbc.jar").hash("hash1").build(),
@@ -62,15 +80,27 @@ class JsonSigningSerializerTest {
                 .products(Arrays.asList(
                         Artifact.builder().uri("_abc.jar").hash("hash4").build(),
                         Artifact.builder().uri("_bc.jar").hash("hash3").build()))
-                .build());
-        String expectedJson = getExpectedJson("/expectedLinkSigning.json");
-        assertThat(serialized, is(expectedJson));
+                .build();
     }
 
     @Test
     void serializeLayout() throws IOException, GeneralSecurityException {
-    	
-    	Layout layout = Layout.builder()
+        String serialized = new JsonSigningSerializer().serialize(createLayout());
+        String expectedJson = getExpectedJson("/expectedLayoutSigning.json");
+        assertThat(serialized, is(expectedJson));
+    }
+
+    @Test
+    void serializeLayoutToOutputStream() throws IOException {
+        Layout layout = createLayout();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new JsonSigningSerializer().serialize(layout, outputStream);
+        assertThat(outputStream.toByteArray(), is(getExpectedJson("/expectedLayoutSigning.json").getBytes(UTF_8)));
+        assertThat(layout.getSteps().get(0).getName(), is("stepb"));
+    }
+
+    private Layout createLayout() {
+    	return Layout.builder()
                 .keys(Arrays.asList(new PublicKey("keyId", Base64.getDecoder().decode(PUBLIC_KEY))))
                 .expectedEndProducts(singletonList(MatchRule.builder()
                         .destinationType(ArtifactType.PRODUCTS)
@@ -108,9 +138,6 @@ class JsonSigningSerializerTest {
                         ))
                 .authorizedKeyIds(Arrays.asList("key2", "key1"))
                 .build();
-        String serialized = new JsonSigningSerializer().serialize(layout);
-        String expectedJson = getExpectedJson("/expectedLayoutSigning.json");
-        assertThat(serialized, is(expectedJson));
     }
 
     private String getExpectedJson(String name) throws IOException {
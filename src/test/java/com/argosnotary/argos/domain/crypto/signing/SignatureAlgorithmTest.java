@@ -20,8 +20,11 @@
 package com.argosnotary.argos.domain.crypto.signing;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.security.GeneralSecurityException;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -43,4 +46,12 @@ class SignatureAlgorithmTest {
         assertEquals("Combination of algorithms [EC] and [SHA256] not supported", exception.getMessage());
 	}
 
+	@Test
+	void testGetAlgorithmEd25519() throws GeneralSecurityException {
+		assertEquals(SignatureAlgorithm.ED25519, SignatureAlgorithm.getAlgorithm(KeyAlgorithm.ED25519, HashAlgorithm.SHA512));
+		assertFalse(SignatureAlgorithm.ED25519.isPreHashedSupported());
+		assertThrows(GeneralSecurityException.class, () -> SignatureAlgorithm.ED25519.getPreHashedStringValue());
+		assertThrows(GeneralSecurityException.class, () -> SignatureAlgorithm.getAlgorithm(KeyAlgorithm.ED25519, HashAlgorithm.SHA384));
+	}
+
 }
@@ -24,9 +24,11 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.security.GeneralSecurityException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
@@ -111,6 +113,44 @@ class SignatureValidatorTest {
                 .link(link).build();
         assertThat(SignatureValidator.isValid(linkMetaBlock.getLink(), linkMetaBlock.getSignature(), ecPair), is(true));
     }
+    
+    @Test
+    void isValidWithCanonicalDigest() throws GeneralSecurityException, IOException {
+        Signature signature = CryptoHelper.sign(ecPair, "test".toCharArray(), serializer.serialize(link));
+        java.security.PublicKey publicKey = PublicKey.instance(ecPair.getPub());
+        assertThat(SignatureValidator.isValid(CanonicalDigest.of(link, HashAlgorithm.SHA384), signature, publicKey), is(true));
+        Link otherLink = Link.builder().stepName("other").build();
+        assertThat(SignatureValidator.isValid(CanonicalDigest.of(otherLink, HashAlgorithm.SHA384), signature, publicKey), is(false));
+        CanonicalDigest sha256Digest = CanonicalDigest.of(link, HashAlgorithm.SHA256);
+        ArgosError argosError = assertThrows(ArgosError.class, () -> SignatureValidator.isValid(sha256Digest, signature, publicKey));
+        assertThat(argosError.getMessage(), is("digest with [SHA256] can not be used for a signature with [SHA384]"));
+    }
+    
+    @Test
+    void isValidEd25519() throws GeneralSecurityException, IOException, OperatorCreationException {
+        KeyPair ed25519Pair = CryptoHelper.createKeyPair("test".toCharArray(), KeyAlgorithm.ED25519);
+        Signature signature = CryptoHelper.sign(ed25519Pair, "test".toCharArray(), serializer.serialize(link), KeyAlgorithm.ED25519, HashAlgorithm.SHA512);
+        assertThat(SignatureValidator.isValid(link, signature, (PublicKey) ed25519Pair), is(true));
+        assertThat(SignatureValidator.isValid(link, signature, PublicKey.instance(ed25519Pair.getPub())), is(true));
+        assertThat(SignatureValidator.isValid(Link.builder().stepName("other").build(), signature, (PublicKey) ed25519Pair), is(false));
+        
+        // Ed25519 signatures are not verified against a digest
+        assertThat(CanonicalDigest.isSupported(signature), is(false));
+        LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder().link(link).signature(signature).build();
+        linkMetaBlock.calculateDigests();
+        assertThat(linkMetaBlock.getCanonicalDigest(), is((CanonicalDigest) null));
+        CanonicalDigest canonicalDigest = CanonicalDigest.of(link, HashAlgorithm.SHA512);
+        java.security.PublicKey publicKey = PublicKey.instance(ed25519Pair.getPub());
+        assertThrows(ArgosError.class, () -> SignatureValidator.isValid(canonicalDigest, signature, publicKey));
+    }
+    
+    @Test
+    void isValidWithParsedKey() throws GeneralSecurityException, IOException {
+        Signature signature = CryptoHelper.sign(ecPair, "test".toCharArray(), serializer.serialize(link));
+        assertThat(SignatureValidator.isValid(link, signature, PublicKey.instance(ecPair.getPub())), is(true));
+        Signature sigLayout = CryptoHelper.sign(ecPair, "test".toCharArray(), serializer.serialize(layout));
+        assertThat(SignatureValidator.isValid(layout, sigLayout, PublicKey.instance(ecPair.getPub())), is(true));
+    }
 
     @Test
     void isNotValid() throws InvalidKeyException, SignatureException, NoSuchAlgorithmException {
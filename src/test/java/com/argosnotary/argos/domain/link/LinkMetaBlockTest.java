@@ -0,0 +1,133 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.domain.link;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.argosnotary.argos.domain.crypto.HashAlgorithm;
+import com.argosnotary.argos.domain.crypto.Signature;
+import com.argosnotary.argos.domain.crypto.signing.CanonicalDigest;
+
+class LinkMetaBlockTest {
+    
+    private static final Artifact ARTIFACT_1 = new Artifact("uri1", "hash1");
+    private static final Artifact ARTIFACT_2 = new Artifact("uri2", "hash2");
+
+    @Test
+    void getLinkDigestShouldBeComputedWhenNotStored() {
+        Link link = createLink(ARTIFACT_1, ARTIFACT_2);
+        LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder().link(link).build();
+        assertThat(linkMetaBlock.getLinkDigest(), is(LinkMetaBlock.calculateLinkDigest(link)));
+        assertThat(linkMetaBlock.getLinkDigest().length(), is(64));
+    }
+
+    @Test
+    void getLinkDigestShouldReturnStoredDigest() {
+        LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder().link(createLink(ARTIFACT_1)).linkDigest("digest").build();
+        assertThat(linkMetaBlock.getLinkDigest(), is("digest"));
+    }
+
+    @Test
+    void calculateLinkDigestShouldUseCanonicalOrder() {
+        assertThat(LinkMetaBlock.calculateLinkDigest(createLink(ARTIFACT_1, ARTIFACT_2)), 
+                is(LinkMetaBlock.calculateLinkDigest(createLink(ARTIFACT_2, ARTIFACT_1))));
+    }
+
+    @Test
+    void calculateLinkDigestShouldDifferForDifferentContent() {
+        assertThat(LinkMetaBlock.calculateLinkDigest(createLink(ARTIFACT_1)), 
+                not(LinkMetaBlock.calculateLinkDigest(createLink(ARTIFACT_2))));
+        Link otherStep = createLink(ARTIFACT_1);
+        otherStep.setStepName("other");
+        assertThat(LinkMetaBlock.calculateLinkDigest(createLink(ARTIFACT_1)), 
+                not(LinkMetaBlock.calculateLinkDigest(otherStep)));
+    }
+
+    @Test
+    void calculateDigestsShouldSetLinkAndCanonicalDigest() {
+        Link link = createLink(ARTIFACT_2, ARTIFACT_1);
+        LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder().link(link)
+                .signature(Signature.builder().hashAlgorithm(HashAlgorithm.SHA384).build()).build();
+        linkMetaBlock.calculateDigests();
+        assertThat(linkMetaBlock.getLinkDigest(), is(LinkMetaBlock.calculateLinkDigest(link)));
+        assertThat(linkMetaBlock.getCanonicalDigest(), is(CanonicalDigest.of(link, HashAlgorithm.SHA384)));
+        assertThat(linkMetaBlock.getCanonicalDigest().getDigest().length(), is(96));
+    }
+
+    @Test
+    void calculateDigestsWithoutSignature() {
+        LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder().link(createLink(ARTIFACT_1)).build();
+        linkMetaBlock.calculateDigests();
+        assertThat(linkMetaBlock.getLinkDigest(), is(LinkMetaBlock.calculateLinkDigest(createLink(ARTIFACT_1))));
+        assertThat(linkMetaBlock.getCanonicalDigest(), nullValue());
+    }
+
+    @Test
+    void calculateDigestsShouldReplaceStoredDigests() {
+        Link link = createLink(ARTIFACT_1);
+        Signature signature = Signature.builder().hashAlgorithm(HashAlgorithm.SHA384).build();
+        LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder().link(link).signature(signature).build();
+        linkMetaBlock.calculateDigests();
+        LinkMetaBlock stored = LinkMetaBlock.builder().link(createLink(ARTIFACT_1)).signature(signature)
+                .linkDigest(linkMetaBlock.getLinkDigest())
+                .canonicalDigest(stored(linkMetaBlock.getCanonicalDigest())).build();
+        assertThat(stored.getCanonicalDigest().isCalculated(), is(false));
+        assertThat(stored.calculateDigests(), is(true));
+        assertThat(stored.getCanonicalDigest().isCalculated(), is(true));
+        
+        // the link is changed after the digests were stored
+        LinkMetaBlock changed = LinkMetaBlock.builder().link(createLink(ARTIFACT_2)).signature(signature)
+                .linkDigest(linkMetaBlock.getLinkDigest())
+                .canonicalDigest(stored(linkMetaBlock.getCanonicalDigest())).build();
+        assertThat(changed.calculateDigests(), is(false));
+        assertThat(changed.getLinkDigest(), is(LinkMetaBlock.calculateLinkDigest(createLink(ARTIFACT_2))));
+        assertThat(changed.getCanonicalDigest(), is(CanonicalDigest.of(createLink(ARTIFACT_2), HashAlgorithm.SHA384)));
+    }
+
+    @Test
+    void equalsShouldIgnoreDigest() {
+        LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder().link(createLink(ARTIFACT_1)).build();
+        LinkMetaBlock stored = LinkMetaBlock.builder().link(createLink(ARTIFACT_1)).linkDigest("digest").build();
+        assertThat(linkMetaBlock.equals(stored), is(true));
+    }
+    
+    /*
+     * a digest as read from the database
+     */
+    private static CanonicalDigest stored(CanonicalDigest canonicalDigest) {
+        CanonicalDigest stored = new CanonicalDigest();
+        stored.setHashAlgorithm(canonicalDigest.getHashAlgorithm());
+        stored.setDigest(canonicalDigest.getDigest());
+        return stored;
+    }
+    
+    private static Link createLink(Artifact... artifacts) {
+        return Link.builder().stepName("step").materials(new ArrayList<>(List.of(artifacts))).build();
+    }
+
+}
@@ -24,10 +24,12 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -108,6 +110,21 @@ class AccountServiceTest {
 		assertThat(accountService.findByKeyIds(Set.of(kp1.getKeyId())), is(List.of(sa1)));
 	}
 	
+	@Test
+	void testFindPublicKeysByKeyIds() {
+		ServiceAccount sa2 = ServiceAccount.builder().name("sa2").inactiveKeyPairs(Set.of(kp2)).build();
+		Set<String> keyIds = Set.of(kp1.getKeyId(), kp2.getKeyId());
+		when(personalAccountRepository.findByKeyIds(keyIds)).thenReturn(new ArrayList<>(List.of(pa1)));
+		when(serviceAccountRepository.findByKeyIds(keyIds)).thenReturn(List.of(sa2));
+		assertThat(accountService.findPublicKeysByKeyIds(keyIds), is(Map.of(kp1.getKeyId(), (PublicKey) kp1)));
+	}
+	
+	@Test
+	void testFindPublicKeysByKeyIdsEmpty() {
+		assertThat(accountService.findPublicKeysByKeyIds(Set.of()), is(Map.of()));
+		verifyNoInteractions(personalAccountRepository, serviceAccountRepository);
+	}
+	
 	@Test
 	void testFindByKeyIdsReverse() {
 		when(personalAccountRepository.findByKeyIds(Set.of(kp1.getKeyId()))).thenReturn(new ArrayList<>(List.of(sa1)));
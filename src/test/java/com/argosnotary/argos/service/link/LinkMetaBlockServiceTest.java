@@ -19,28 +19,67 @@
  */
 package com.argosnotary.argos.service.link;
 
-import static org.junit.jupiter.api.Assertions.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.domain.link.Link;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
+import com.argosnotary.argos.service.link.LinkProperties.StorageMode;
+import com.argosnotary.argos.service.mongodb.link.LinkMetaBlockRepository;
 
+@ExtendWith(MockitoExtension.class)
 class LinkMetaBlockServiceTest {
+	
+	@Mock
+	private LinkMetaBlockRepository linkMetaBlockRepository;
+	
+	private LinkProperties linkProperties;
+	
+	private LinkMetaBlockService linkMetaBlockService;
+	
+	private LinkMetaBlock linkMetaBlock;
 
 	@BeforeEach
 	void setUp() throws Exception {
+		linkProperties = new LinkProperties();
+		linkMetaBlockService = new LinkMetaBlockServiceImpl(linkMetaBlockRepository, linkProperties);
+		linkMetaBlock = LinkMetaBlock.builder()
+				.supplyChainId(UUID.randomUUID())
+				.link(Link.builder().stepName("step").materials(List.of(new Artifact("uri", "hash"))).build())
+				.build();
 	}
 
 	@Test
 	void testSave() {
+		when(linkMetaBlockRepository.insert(linkMetaBlock)).thenReturn(linkMetaBlock);
+		assertThat(linkMetaBlockService.create(linkMetaBlock), is(linkMetaBlock));
+		assertThat(linkMetaBlock.getLinkDigest(), is(LinkMetaBlock.calculateLinkDigest(linkMetaBlock.getLink())));
+	}
+
+	@Test
+	void testSaveDeduplicated() {
+		linkProperties.setStorageMode(StorageMode.DEDUPLICATED);
+		when(linkMetaBlockRepository.insertDeduplicated(linkMetaBlock)).thenReturn(linkMetaBlock);
+		assertThat(linkMetaBlockService.create(linkMetaBlock), is(linkMetaBlock));
+		assertThat(linkMetaBlock.getLinkDigest(), is(LinkMetaBlock.calculateLinkDigest(linkMetaBlock.getLink())));
 	}
 	
 	@Test
 	void testDeleteBySupplyChainId() {
+		linkMetaBlockService.deleteBySupplyChainId(linkMetaBlock.getSupplyChainId());
+		verify(linkMetaBlockRepository).deleteBySupplyChainId(linkMetaBlock.getSupplyChainId());
 	}
 	
 	@Test
@@ -19,8 +19,11 @@
  */
 package com.argosnotary.argos.service.mongodb.link;
 
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 import java.io.IOException;
 import java.util.List;
@@ -30,6 +33,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MongoDBContainer;
@@ -38,6 +43,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import com.argosnotary.argos.domain.crypto.Signature;
 import com.argosnotary.argos.domain.link.Artifact;
 import com.argosnotary.argos.domain.link.Link;
+import com.argosnotary.argos.domain.link.LinkContent;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
 import com.argosnotary.argos.service.ArgosTestContainers;
 
@@ -59,6 +65,8 @@ class LinkRepositoryTest {
 
 	@Autowired LinkMetaBlockRepository linkMetaBlockRepository;
 	
+	@Autowired MongoTemplate mongoTemplate;
+	
 	private static final String STEP_NAME = "stepName";
     private static final String STEP_NAME_NEW = "stepNameNew";
     private static final UUID SUPPLY_CHAIN_ID = UUID.randomUUID();
@@ -111,6 +119,7 @@ class LinkRepositoryTest {
                 .link(l4)
                 .build();
     	linkMetaBlockRepository.deleteAll();
+    	mongoTemplate.remove(new Query(), LinkContent.class);
         createDataSet();
     }
     
@@ -140,6 +149,57 @@ class LinkRepositoryTest {
         assertThat(blocks, hasSize(1));
     }
     
+    @Test
+    void insertDeduplicatedShouldStoreLinkOnce() {
+        UUID supplyChainId = UUID.randomUUID();
+        linkMetaBlockRepository.insertDeduplicated(deduplicated(supplyChainId, l3));
+        linkMetaBlockRepository.insertDeduplicated(deduplicated(supplyChainId, l3));
+        linkMetaBlockRepository.insertDeduplicated(deduplicated(supplyChainId, l2));
+        
+        assertThat(mongoTemplate.find(query(where("supplyChainId").is(supplyChainId)), LinkContent.class), hasSize(2));
+        List<LinkMetaBlock> blocks = linkMetaBlockRepository.findBySupplyChainId(supplyChainId);
+        assertThat(blocks, hasSize(3));
+        assertThat(blocks.stream().filter(block -> l3.equals(block.getLink())).count(), is(2L));
+        assertThat(linkMetaBlockRepository.findBySupplyChainIdAndHash(supplyChainId, HASH_4), hasSize(2));
+        assertThat(linkMetaBlockRepository.findBySupplyChainIdAndHash(supplyChainId, HASH_1), hasSize(1));
+        
+        linkMetaBlockRepository.deleteBySupplyChainId(supplyChainId);
+        assertThat(linkMetaBlockRepository.findBySupplyChainId(supplyChainId), hasSize(0));
+        assertThat(mongoTemplate.find(query(where("supplyChainId").is(supplyChainId)), LinkContent.class), hasSize(0));
+    }
+    
+    @Test
+    void findBySupplyChainIdShouldReturnDocumentAndDeduplicatedLinks() {
+        linkMetaBlockRepository.insertDeduplicated(deduplicated(SUPPLY_CHAIN_ID, l3));
+        List<LinkMetaBlock> blocks = linkMetaBlockRepository.findBySupplyChainId(SUPPLY_CHAIN_ID);
+        assertThat(blocks, hasSize(4));
+        assertThat(linkMetaBlockRepository.findBySupplyChainIdAndHash(SUPPLY_CHAIN_ID, HASH_3), hasSize(2));
+    }
+    
+    @Test
+    void findForVerificationShouldReturnEachDocumentOnce() {
+        linkMetaBlockRepository.insertDeduplicated(deduplicated(SUPPLY_CHAIN_ID, l3));
+        List<LinkMetaBlock> blocks = linkMetaBlockRepository.findForVerification(SUPPLY_CHAIN_ID);
+        assertThat(blocks, hasSize(4));
+        assertThat(blocks.stream().map(LinkMetaBlock::getId).distinct().count(), is(4L));
+        assertThat(blocks.stream().allMatch(block -> SUPPLY_CHAIN_ID.equals(block.getSupplyChainId()) 
+                && block.getLink() != null && block.getSignature() != null), is(true));
+        assertThat(blocks.stream().filter(block -> l3.equals(block.getLink())).count(), is(2L));
+        // the canonical digests are not stored
+        assertThat(blocks.stream().filter(block -> block.getCanonicalDigest() != null).count(), is(0L));
+    }
+    
+    private LinkMetaBlock deduplicated(UUID supplyChainId, Link link) {
+        LinkMetaBlock linkMetaBlock = LinkMetaBlock
+                .builder()
+                .supplyChainId(supplyChainId)
+                .signature(createSignature())
+                .link(link)
+                .build();
+        linkMetaBlock.calculateDigests();
+        return linkMetaBlock;
+    }
+    
 
     void createDataSet() {
         linkMetaBlockRepository.save(lb1);
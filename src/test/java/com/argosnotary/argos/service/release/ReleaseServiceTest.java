@@ -57,6 +57,7 @@ import com.argosnotary.argos.service.nodes.NodeService;
 import com.argosnotary.argos.service.nodes.SupplyChainService;
 import com.argosnotary.argos.service.verification.VerificationProvider;
 import com.argosnotary.argos.service.verification.VerificationRunResult;
+import com.argosnotary.argos.service.verification.VerificationStateService;
 
 @ExtendWith(MockitoExtension.class)
 class ReleaseServiceTest {
@@ -104,10 +105,12 @@ class ReleaseServiceTest {
     private LinkMetaBlockService linkMetaBlockService;
 	@Mock
     private PublicKey key;
+	@Mock
+    private VerificationStateService verificationStateService;
 
 	@BeforeEach
 	void setUp() throws Exception {
-		releaseService = new ReleaseServiceImpl(verificationProvider,layoutMetaBlockService,releaseRepository,releaseDossierRepository,accountService,nodeService, supplyChainService,linkMetaBlockService);
+		releaseService = new ReleaseServiceImpl(verificationProvider,layoutMetaBlockService,releaseRepository,releaseDossierRepository,accountService,nodeService, supplyChainService,linkMetaBlockService,verificationStateService);
 		a11 = new Artifact("hash11", "uri11");
 		a12 = new Artifact("hash12", "uri12");
 		a21 = new Artifact("hash21", "uri21");
@@ -184,6 +187,7 @@ class ReleaseServiceTest {
 		assertEquals(release.getReleasedProductsHashes(), res.getRelease().getReleasedProductsHashes());
 		assertEquals(release.getReleasedProductsHashesHash(), res.getRelease().getReleasedProductsHashesHash());
 		verify(linkMetaBlockService).deleteBySupplyChainId(SUPPLYCHAIN_ID);
+		verify(verificationStateService).remove(SUPPLYCHAIN_ID);
 		verify(releaseRepository).save(any());
 	}
 	
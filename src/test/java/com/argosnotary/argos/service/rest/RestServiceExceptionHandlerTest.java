@@ -47,6 +47,8 @@ import com.argosnotary.argos.service.openapi.rest.model.RestError;
 import com.argosnotary.argos.service.openapi.rest.model.RestErrorMessage;
 import com.argosnotary.argos.service.openapi.rest.model.RestErrorMessage.TypeEnum;
 import com.argosnotary.argos.service.rest.layout.LayoutValidationException;
+import com.argosnotary.argos.service.verification.VerificationLimitException;
+import com.argosnotary.argos.service.verification.VerificationLimitException.Limit;
 import com.fasterxml.jackson.databind.JsonMappingException;
 
 import jakarta.validation.ConstraintViolation;
@@ -183,6 +185,23 @@ class RestServiceExceptionHandlerTest {
         assertThat(response.getBody().getMessages().size(), is(1));
     }
 
+    @Test
+    void handleVerificationLimitException() {
+        ResponseEntity<RestError> response = handler.handleVerificationLimitException(
+                new VerificationLimitException(Limit.CONTEXTS, "too many contexts"));
+        assertThat(response.getStatusCode().value(), is(422));
+        assertThat(response.getBody().getMessages().get(0).getMessage(), is("too many contexts"));
+        assertThat(response.getBody().getMessages().get(0).getType(), is(TypeEnum.OTHER));
+    }
+
+    @Test
+    void handleVerificationLimitExceptionConcurrency() {
+        ResponseEntity<RestError> response = handler.handleVerificationLimitException(
+                new VerificationLimitException(Limit.CONCURRENCY, "try again later"));
+        assertThat(response.getStatusCode().value(), is(503));
+        assertThat(response.getBody().getMessages().get(0).getMessage(), is("try again later"));
+    }
+
     @Test
     void handleArgosErrorERROR() {
         when(argosError.getLevel()).thenReturn(ArgosError.Level.ERROR);
@@ -46,6 +46,8 @@ import org.springframework.web.server.ResponseStatusException;
 import com.argosnotary.argos.domain.account.PersonalAccount;
 import com.argosnotary.argos.domain.account.PersonalAccount.Profile;
 import com.argosnotary.argos.domain.crypto.CryptoHelper;
+import com.argosnotary.argos.domain.crypto.KeyAlgorithm;
+import com.argosnotary.argos.domain.crypto.KeyIdProvider;
 import com.argosnotary.argos.domain.crypto.KeyPair;
 // import com.argosnotary.argos.service.account.AccountSearchParams;
 import com.argosnotary.argos.service.account.AccountSecurityContext;
@@ -145,6 +147,22 @@ class PersonalAccountRestServiceTest {
         verify(accountService).activateNewKey(personalAccount, keyPair);
     }
 
+    @Test
+    void storeEd25519KeyShouldReturnSuccess() throws NoSuchAlgorithmException, OperatorCreationException, PemGenerationException {
+        KeyPair ed25519KeyPair = CryptoHelper.createKeyPair(PRIVAT_KEY_PASSPHRASE, KeyAlgorithm.ED25519);
+        when(accountSecurityContext.getAuthenticatedAccount()).thenReturn(Optional.of(personalAccount));
+        assertThat(service.createKey(keyPairMapper.convertToRestKeyPair(ed25519KeyPair)).getStatusCode().value(), is(204));
+        verify(accountService).activateNewKey(personalAccount, ed25519KeyPair);
+    }
+
+    @Test
+    void storeKeyWithUnsupportedAlgorithmShouldReturnException() {
+        byte[] pub = "publicKey".getBytes();
+        RestKeyPair rkp = new RestKeyPair(keyPair.getEncryptedPrivateKey(), KeyIdProvider.computeKeyId(pub), pub);
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> service.createKey(rkp));
+        assertEquals(String.format("400 BAD_REQUEST \"unsupported key algorithm of key : %s\"", rkp.getKeyId()), exception.getMessage());
+    }
+
     @Test
     void storeInvalidKeyShouldReturnException() {
     	restKeyPair.setKeyId("invalid");
@@ -116,6 +116,16 @@ class ServiceAccountRestServiceTest {
 		
 	}
 
+	@Test
+	void testCreateServiceAccountKeyByIdUnsupportedKeyAlgorithm() {
+    	UUID sa1ProjectId = sa1.getProjectId();
+    	UUID sa1Id = sa1.getId();
+		when(serviceAccountService.findById(sa1.getId())).thenReturn(Optional.of(sa1));
+		rskp.setPub("publicKey".getBytes());
+		ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> serviceAccountRestService.createServiceAccountKeyById(sa1ProjectId, sa1Id, rskp));
+        assertThat(exception.getMessage(), is(String.format("400 BAD_REQUEST \"unsupported key algorithm of key : %s\"", rskp.getKeyId())));
+	}
+
 	@Test
 	void testCreateServiceAccountKeyByIdWrongProjectId() {
 		ServletRequestAttributes servletRequestAttributes = new ServletRequestAttributes(httpServletRequest);
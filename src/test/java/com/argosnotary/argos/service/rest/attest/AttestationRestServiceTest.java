@@ -44,6 +44,7 @@ import com.argosnotary.argos.domain.attest.AttestationData;
 import com.argosnotary.argos.service.attest.AttestationService;
 import com.argosnotary.argos.service.nodes.SupplyChainService;
 import com.argosnotary.argos.service.openapi.rest.model.RestAttestation;
+import com.argosnotary.argos.service.verification.SignatureValidationResult;
 import com.argosnotary.argos.service.verification.SignatureValidatorService;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -95,8 +96,9 @@ class AttestationRestServiceTest {
 	void testCreateAttestation() {
 		when(attestationService.create(at2)).thenReturn(at2);
 		when(supplyChainService.exists(SUPPLY_CHAIN_ID)).thenReturn(true);
-		when(signatureValidatorService.validateSignature(at2.getEnvelope().getPayload(), at2.getEnvelope().getSignatures().get(1))).thenReturn(true);
-		when(signatureValidatorService.validateSignature(at2.getEnvelope().getPayload(), at2.getEnvelope().getSignatures().get(0))).thenReturn(true);
+		when(signatureValidatorService.validateSignatures(at2)).thenReturn(List.of(
+				SignatureValidationResult.builder().signature(at2.getEnvelope().getSignatures().get(0)).valid(true).build(),
+				SignatureValidationResult.builder().signature(at2.getEnvelope().getSignatures().get(1)).valid(true).build()));
 		ResponseEntity<RestAttestation> resp = attestationRestService.createAttestation(SUPPLY_CHAIN_ID, rat2);
 		assertThat(resp.getStatusCode().value(), is(201));
 		assertEquals(rat2, resp.getBody());
@@ -106,7 +108,9 @@ class AttestationRestServiceTest {
 	@Test
 	void testCreateAttestationSigNotValid() {
 		when(supplyChainService.exists(SUPPLY_CHAIN_ID)).thenReturn(true);
-		when(signatureValidatorService.validateSignature(at2.getEnvelope().getPayload(), at2.getEnvelope().getSignatures().get(0))).thenReturn(false);
+		when(signatureValidatorService.validateSignatures(at2)).thenReturn(List.of(
+				SignatureValidationResult.builder().signature(at2.getEnvelope().getSignatures().get(0)).valid(false).build(),
+				SignatureValidationResult.builder().signature(at2.getEnvelope().getSignatures().get(1)).valid(true).build()));
 		
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
         	attestationRestService.createAttestation(SUPPLY_CHAIN_ID, rat2);
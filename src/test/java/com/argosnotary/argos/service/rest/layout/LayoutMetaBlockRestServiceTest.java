@@ -64,6 +64,7 @@ import com.argosnotary.argos.service.layout.LayoutMetaBlockService;
 import com.argosnotary.argos.service.openapi.rest.model.RestApprovalConfiguration;
 import com.argosnotary.argos.service.openapi.rest.model.RestLayoutMetaBlock;
 import com.argosnotary.argos.service.openapi.rest.model.RestReleaseConfiguration;
+import com.argosnotary.argos.service.verification.VerificationStateService;
 
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -99,6 +100,9 @@ class LayoutMetaBlockRestServiceTest {
     @Mock
     private LayoutValidatorService validator;
 
+    @Mock
+    private VerificationStateService verificationStateService;
+
     private RestApprovalConfiguration restApprovalConfiguration;
 
     private ApprovalConfiguration approvalConfiguration;
@@ -121,7 +125,7 @@ class LayoutMetaBlockRestServiceTest {
 
     @BeforeEach
     void setUp() throws URISyntaxException {
-        service = new LayoutMetaBlockRestServiceImpl(converter, layoutMetaBlockService, validator, approvalConfigurationMapper, releaseConfigurationMapper);
+        service = new LayoutMetaBlockRestServiceImpl(converter, layoutMetaBlockService, validator, approvalConfigurationMapper, releaseConfigurationMapper, verificationStateService);
         ArtifactCollectorSpecification spec = ArtifactCollectorSpecification.builder().context(Map.of("applicationName", "bla")).uri(new URI("bla")).name("spec").type(ArtifactCollectorSpecification.CollectorType.XLDEPLOY).build();
         approvalConfiguration = ApprovalConfiguration.builder()
         		.artifactCollectorSpecifications(List.of(spec))
@@ -146,6 +150,7 @@ class LayoutMetaBlockRestServiceTest {
         assertThat(Objects.requireNonNull(responseEntity.getHeaders().getLocation()).getPath(), is(""));
         verify(layoutMetaBlockService).save(layoutMetaBlock);
         verify(validator).validate(layoutMetaBlock);
+        verify(verificationStateService).remove(SUPPLY_CHAIN_ID);
 
     }
 
@@ -43,6 +43,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.argosnotary.argos.domain.crypto.CryptoHelper;
+import com.argosnotary.argos.domain.crypto.KeyIdProvider;
 import com.argosnotary.argos.domain.crypto.KeyPair;
 import com.argosnotary.argos.domain.crypto.PublicKey;
 import com.argosnotary.argos.domain.crypto.Signature;
@@ -52,6 +53,7 @@ import com.argosnotary.argos.domain.layout.Step;
 import com.argosnotary.argos.domain.layout.rule.MatchRule;
 import com.argosnotary.argos.service.account.AccountService;
 import com.argosnotary.argos.service.nodes.SupplyChainService;
+import com.argosnotary.argos.service.verification.SignatureValidationResult;
 import com.argosnotary.argos.service.verification.SignatureValidatorService;
 
 @ExtendWith(MockitoExtension.class)
@@ -120,10 +122,11 @@ class LayoutValidatorServiceTest {
         when(accountService.keyPairExists(publicKey1.getKeyId())).thenReturn(true);
         when(accountService.keyPairExists(publicKey2.getKeyId())).thenReturn(true);
         
-        when(signatureValidatorService.validateSignature(layout, signature)).thenReturn(true);
+        when(signatureValidatorService.validateSignatures(layoutMetaBlock))
+                .thenReturn(List.of(SignatureValidationResult.builder().signature(signature).valid(true).build()));
 
         service.validate(layoutMetaBlock);
-        verify(signatureValidatorService).validateSignature(layout, signature);
+        verify(signatureValidatorService).validateSignatures(layoutMetaBlock);
     }
 
     private void mockPublicKeys() {
@@ -146,7 +149,8 @@ class LayoutValidatorServiceTest {
         when(accountService.keyPairExists(publicKey1.getKeyId())).thenReturn(true);
         when(accountService.keyPairExists(publicKey2.getKeyId())).thenReturn(true);
         
-        when(signatureValidatorService.validateSignature(layout, signature)).thenReturn(true);
+        when(signatureValidatorService.validateSignatures(layoutMetaBlock))
+                .thenReturn(List.of(SignatureValidationResult.builder().signature(signature).valid(true).build()));
 
         LayoutValidationException layoutValidationException = assertThrows(LayoutValidationException.class, () -> {
             service.validate(layoutMetaBlock);
@@ -229,6 +233,27 @@ class LayoutValidatorServiceTest {
 
     }
 
+    @Test
+    void validateUnsupportedPublicKey() {
+        byte[] pub = "publicKey".getBytes();
+        PublicKey unsupportedPublicKey = new PublicKey(KeyIdProvider.computeKeyId(pub), pub);
+
+        when(layout.getKeys()).thenReturn(List.of(unsupportedPublicKey));
+
+        when(layoutMetaBlock.getSupplyChainId()).thenReturn(SUPPLY_CHAIN_ID);
+        when(supplyChainService.exists(SUPPLY_CHAIN_ID)).thenReturn(true);
+        when(layout.getAuthorizedKeyIds()).thenReturn(singletonList(unsupportedPublicKey.getKeyId()));
+        when(layout.getSteps()).thenReturn(singletonList(step));
+        when(step.getAuthorizedKeyIds()).thenReturn(singletonList(unsupportedPublicKey.getKeyId()));
+        when(accountService.keyPairExists(unsupportedPublicKey.getKeyId())).thenReturn(true);
+        LayoutValidationException layoutValidationException = assertThrows(LayoutValidationException.class, () -> {
+            service.validate(layoutMetaBlock);
+        });
+        assertThat(layoutValidationException.getValidationMessages(), hasSize(1));
+        assertThat(layoutValidationException.getValidationMessages().get(0).getField(), is("keys"));
+        assertThat(layoutValidationException.getValidationMessages().get(0).getMessage(), is(String.format("key with id %s has an unsupported key algorithm", unsupportedPublicKey.getKeyId())));
+    }
+
     @Test
     void validateKey2NotFound() {
         when(layoutMetaBlock.getSupplyChainId()).thenReturn(SUPPLY_CHAIN_ID);
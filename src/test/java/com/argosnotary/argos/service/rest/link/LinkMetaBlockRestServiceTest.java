@@ -40,14 +40,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.argosnotary.argos.domain.crypto.PublicKey;
 import com.argosnotary.argos.domain.crypto.Signature;
-import com.argosnotary.argos.domain.link.Link;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
 import com.argosnotary.argos.domain.nodes.SupplyChain;
 import com.argosnotary.argos.service.link.LinkMetaBlockService;
 import com.argosnotary.argos.service.nodes.SupplyChainService;
 import com.argosnotary.argos.service.openapi.rest.model.RestLinkMetaBlock;
 import com.argosnotary.argos.service.verification.SignatureValidatorService;
+import com.argosnotary.argos.service.verification.VerificationStateService;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -68,6 +69,9 @@ class LinkMetaBlockRestServiceTest {
     @Mock
     private SignatureValidatorService signatureValidatorService;
 
+    @Mock
+    private VerificationStateService verificationStateService;
+
     @Mock
     private RestLinkMetaBlock restLinkMetaBlock;
 
@@ -79,30 +83,30 @@ class LinkMetaBlockRestServiceTest {
     @Mock
     private SupplyChain supplyChain;
 
-    @Mock
-    private Signature signature;
-
-    @Mock
-    private Link link;
-
     @BeforeEach
     void setUp() {
-        restService = new LinkMetaBlockRestServiceImpl(linkMetaBlockService, supplyChainService, converter, signatureValidatorService);
+        restService = new LinkMetaBlockRestServiceImpl(linkMetaBlockService, supplyChainService, converter, signatureValidatorService, verificationStateService);
 
     }
 
     @Test
     void createLinkValidSignature() {
 
-        when(linkMetaBlock.getLink()).thenReturn(link);
-        when(linkMetaBlock.getSignature()).thenReturn(signature);
+        Signature signature = Signature.builder().keyId("keyId").build();
+        Optional<PublicKey> key = Optional.of(new PublicKey("keyId", new byte[] {1}));
         when(converter.convertFromRestLinkMetaBlock(restLinkMetaBlock)).thenReturn(linkMetaBlock);
         when(supplyChainService.exists(SUPPLY_CHAIN_ID)).thenReturn(true);
-        when(signatureValidatorService.validateSignature(link, signature)).thenReturn(true);
+        when(linkMetaBlock.getSignature()).thenReturn(signature);
+        when(signatureValidatorService.getPublicKey(signature)).thenReturn(key);
+        when(signatureValidatorService.validateSignature(linkMetaBlock, key)).thenReturn(true);
+        when(linkMetaBlockService.create(linkMetaBlock)).thenReturn(linkMetaBlock);
         assertThat(restService.createLink(SUPPLY_CHAIN_ID, restLinkMetaBlock).getStatusCodeValue(), is(201));
         verify(linkMetaBlock).setSupplyChainId(SUPPLY_CHAIN_ID);
         verify(linkMetaBlockService).create(linkMetaBlock);
-        verify(signatureValidatorService).validateSignature(link, signature);
+        // the state does not validate the signature again with the same key
+        verify(verificationStateService).addLink(linkMetaBlock, key);
+        verify(linkMetaBlock).calculateDigests();
+        verify(signatureValidatorService).validateSignature(linkMetaBlock, key);
     }
 
     @Test
@@ -21,6 +21,8 @@ package com.argosnotary.argos.service.rest.verification;
 
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
@@ -45,10 +47,13 @@ import com.argosnotary.argos.domain.link.Artifact;
 import com.argosnotary.argos.service.layout.LayoutMetaBlockService;
 import com.argosnotary.argos.service.nodes.SupplyChainService;
 import com.argosnotary.argos.service.openapi.rest.model.RestArtifact;
+import com.argosnotary.argos.service.openapi.rest.model.RestVerificationArtifacts;
 import com.argosnotary.argos.service.openapi.rest.model.RestVerificationResult;
 import com.argosnotary.argos.service.rest.ArtifactMapper;
+import com.argosnotary.argos.service.verification.Verification.Priority;
 import com.argosnotary.argos.service.verification.VerificationRunResult;
 import com.argosnotary.argos.service.verification.VerificationService;
+import com.argosnotary.argos.service.verification.VerificationTrace;
 
 @ExtendWith(MockitoExtension.class)
 class VerificationRestServiceTest {
@@ -107,10 +112,31 @@ class VerificationRestServiceTest {
         when(supplyChainService.exists(SUPPLYCHAIN_ID)).thenReturn(true);
         when(layoutMetaBlockService.getLayout(SUPPLYCHAIN_ID))
                 .thenReturn(Optional.of(layoutMetaBlockMetaBlock));
-        when(verificationService.performVerification(layoutMetaBlockMetaBlock, Set.of(artifact))).thenReturn(runResult);
-        ResponseEntity<RestVerificationResult> result = verificationRestService.performVerification(SUPPLYCHAIN_ID, List.of(restArtifact));
+        when(verificationService.performVerification(layoutMetaBlockMetaBlock, Set.of(artifact), false)).thenReturn(runResult);
+        ResponseEntity<RestVerificationResult> result = verificationRestService.performVerification(SUPPLYCHAIN_ID, List.of(restArtifact), null);
         assertThat(result.getStatusCode(), is(HttpStatus.OK));
         assertThat(result.getBody().getRunIsValid(), is(true));
+        assertThat(result.getBody().getTrace(), is(nullValue()));
+    }
+
+    @Test
+    void performVerificationWithTraceShouldReturnTrace() {
+        VerificationTrace trace = new VerificationTrace();
+        trace.addContext().addVerification(Priority.RULES, true, 2000);
+        trace.addPrunedCombination();
+        VerificationRunResult runResult = VerificationRunResult.okay().toBuilder().trace(trace).build();
+        when(supplyChainService.exists(SUPPLYCHAIN_ID)).thenReturn(true);
+        when(layoutMetaBlockService.getLayout(SUPPLYCHAIN_ID))
+                .thenReturn(Optional.of(layoutMetaBlockMetaBlock));
+        when(verificationService.performVerification(layoutMetaBlockMetaBlock, Set.of(artifact), true)).thenReturn(runResult);
+        ResponseEntity<RestVerificationResult> result = verificationRestService.performVerification(SUPPLYCHAIN_ID, List.of(restArtifact), true);
+        assertThat(result.getStatusCode(), is(HttpStatus.OK));
+        assertThat(result.getBody().getTrace().getGeneratedContexts(), is(1));
+        assertThat(result.getBody().getTrace().getPrunedCombinations(), is(1));
+        assertThat(result.getBody().getTrace().getTruncated(), is(false));
+        assertThat(result.getBody().getTrace().getContexts().get(0).getTruncated(), is(false));
+        assertThat(result.getBody().getTrace().getContexts().get(0).getVerifications().get(0).getVerification(), is("RULES"));
+        assertThat(result.getBody().getTrace().getContexts().get(0).getVerifications().get(0).getDurationMicros(), is(2L));
     }
 
     @Test
@@ -119,11 +145,46 @@ class VerificationRestServiceTest {
         when(layoutMetaBlockService.getLayout(SUPPLYCHAIN_ID))
                 .thenReturn(Optional.empty());
         List<RestArtifact> l =singletonList(restArtifact);
-        ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> verificationRestService.performVerification(SUPPLYCHAIN_ID, l));
+        ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> verificationRestService.performVerification(SUPPLYCHAIN_ID, l, false));
         assertThat(error.getStatusCode().value(), is(400));
     }
 
 
+    @Test
+    void performBatchVerificationShouldReturnResultPerProductSet() {
+        Artifact artifact2 = Artifact.builder().hash("hash2").uri("uri2").build();
+        when(supplyChainService.exists(SUPPLYCHAIN_ID)).thenReturn(true);
+        when(layoutMetaBlockService.getLayout(SUPPLYCHAIN_ID))
+                .thenReturn(Optional.of(layoutMetaBlockMetaBlock));
+        when(verificationService.performVerifications(layoutMetaBlockMetaBlock, List.of(Set.of(artifact), Set.of(artifact2))))
+            .thenReturn(List.of(VerificationRunResult.okay(), VerificationRunResult.valid(false)));
+        RestVerificationArtifacts restVerificationArtifacts = new RestVerificationArtifacts(
+                List.of(List.of(restArtifact), List.of(new RestArtifact("hash2", "uri2"))));
+        ResponseEntity<List<RestVerificationResult>> result = verificationRestService.performBatchVerification(SUPPLYCHAIN_ID, restVerificationArtifacts);
+        assertThat(result.getStatusCode(), is(HttpStatus.OK));
+        assertThat(result.getBody().stream().map(RestVerificationResult::getRunIsValid).toList(), contains(true, false));
+    }
+
+    @Test
+    void performBatchVerificationWithUnknownSupplyChainShouldReturnInvalid() {
+        when(supplyChainService.exists(SUPPLYCHAIN_ID)).thenReturn(false);
+        RestVerificationArtifacts restVerificationArtifacts = new RestVerificationArtifacts(
+                List.of(List.of(restArtifact), List.of(restArtifact)));
+        ResponseEntity<List<RestVerificationResult>> result = verificationRestService.performBatchVerification(SUPPLYCHAIN_ID, restVerificationArtifacts);
+        assertThat(result.getBody().stream().map(RestVerificationResult::getRunIsValid).toList(), contains(false, false));
+    }
+
+    @Test
+    void performBatchVerificationWithNoLayoutShouldReturnError() {
+        when(supplyChainService.exists(SUPPLYCHAIN_ID)).thenReturn(true);
+        when(layoutMetaBlockService.getLayout(SUPPLYCHAIN_ID))
+                .thenReturn(Optional.empty());
+        RestVerificationArtifacts restVerificationArtifacts = new RestVerificationArtifacts(List.of(List.of(restArtifact)));
+        ResponseStatusException error = assertThrows(ResponseStatusException.class, 
+                () -> verificationRestService.performBatchVerification(SUPPLYCHAIN_ID, restVerificationArtifacts));
+        assertThat(error.getStatusCode().value(), is(400));
+    }
+
     @Test
     void getVerification() {
         when(verificationService.getVerification(List.of("hash"), List.of("path"))).thenReturn(true);
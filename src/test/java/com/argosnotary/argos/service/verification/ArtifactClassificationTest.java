@@ -0,0 +1,93 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.argosnotary.argos.domain.layout.ArtifactType;
+import com.argosnotary.argos.domain.layout.rule.MatchRule;
+import com.argosnotary.argos.domain.layout.rule.Rule;
+import com.argosnotary.argos.domain.layout.rule.RuleType;
+import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.domain.link.Link;
+
+class ArtifactClassificationTest {
+    
+    private Artifact artifact1 = new Artifact("someDir/some.jar", "hash1");
+    private Artifact artifact2 = new Artifact("someDir/some.html", "hash2");
+    private Artifact artifact3 = new Artifact("someDir/sub/someOther.jar", "hash3");
+    private Artifact artifact4 = new Artifact("root.html", "hash4");
+    
+    private List<Artifact> artifacts = List.of(artifact1, artifact2, artifact3, artifact4);
+    
+    private Rule allowJars = new Rule(RuleType.ALLOW, "**.jar");
+    private Rule allowAll = new Rule(RuleType.ALLOW, "**");
+    private Rule requireHtml = new Rule(RuleType.REQUIRE, "*.html");
+    private MatchRule matchWithPrefix = MatchRule.builder()
+            .pattern("*.jar")
+            .sourcePathPrefix("someDir")
+            .destinationType(ArtifactType.PRODUCTS)
+            .destinationStepName("step")
+            .build();
+    
+    @Test
+    void getArtifactsShouldBeEqualToFilterArtifacts() {
+        ArtifactClassification classification = ArtifactIndex.of(artifacts).getClassification();
+        
+        assertThat(classification.getArtifacts(allowJars.getPattern(), null), 
+                is(ArtifactsVerificationContext.filterArtifacts(Set.copyOf(artifacts), "**.jar", null)));
+        assertThat(classification.getArtifacts(allowAll.getPattern(), null), 
+                is(ArtifactsVerificationContext.filterArtifacts(Set.copyOf(artifacts), "**", null)));
+        assertThat(classification.getArtifacts(requireHtml.getPattern(), null), is(Set.of(artifact4)));
+        assertThat(classification.getArtifacts(matchWithPrefix.getPattern(), matchWithPrefix.getSourcePathPrefix()), is(Set.of(artifact1)));
+        assertThat(classification.getArtifacts("*.jar", ""), is(Set.of()));
+    }
+    
+    @Test
+    void getMatchesShouldBeKeptPerPatternAndPrefix() {
+        ArtifactIndex index = ArtifactIndex.of(artifacts);
+        BitSet matches = index.getClassification().getMatches("**.jar", null);
+        assertThat(index.getClassification().getMatches("**.jar", ""), sameInstance(matches));
+        assertThat(index.getClassification().getMatches("**.jar", "someDir"), not(sameInstance(matches)));
+    }
+    
+    @Test
+    void getFilteredArtifactsShouldSkipConsumedArtifacts() {
+        Link link = Link.builder().stepName("step").materials(List.of()).products(List.copyOf(artifacts)).build();
+        ArtifactsVerificationContext context = ArtifactsVerificationContext.builder()
+                .link(link)
+                .notConsumedArtifacts(ArtifactIndex.of(artifacts))
+                .build();
+        context.consume(context.getFilteredArtifacts("someDir/some.jar"));
+        assertThat(context.getFilteredArtifacts("**.jar"), is(Set.of(artifact3)));
+        assertThat(context.getFilteredArtifacts("**"), is(Set.of(artifact2, artifact3, artifact4)));
+        assertThat(context.getFilteredArtifacts("*.html"), is(Set.of(artifact4)));
+    }
+
+}
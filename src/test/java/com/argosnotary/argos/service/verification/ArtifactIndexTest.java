@@ -0,0 +1,86 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.argosnotary.argos.domain.layout.ArtifactType;
+import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.domain.link.Link;
+
+class ArtifactIndexTest {
+    
+    private Artifact artifact1 = new Artifact("dir/some.jar", "hash1");
+    private Artifact artifact2 = new Artifact("dir/other.jar", "hash1");
+    private Artifact artifact3 = new Artifact("dir/some.html", "hash3");
+
+    @Test
+    void indexShouldFindArtifactsByHashAndUri() {
+        ArtifactIndex index = ArtifactIndex.of(List.of(artifact1, artifact2, artifact3));
+        assertThat(index.getArtifactsByHash("hash1"), containsInAnyOrder(artifact1, artifact2));
+        assertThat(index.getArtifactsByHash("hash2"), empty());
+        assertThat(index.getArtifactByUri("dir/some.html"), is(Optional.of(artifact3)));
+        assertThat(index.getArtifactByUri("dir/none.html"), is(Optional.empty()));
+        assertThat(index.containsUri("dir/other.jar"), is(true));
+        assertThat(index.contains(artifact1), is(true));
+        assertThat(index.contains(new Artifact("dir/some.jar", "hash2")), is(false));
+    }
+    
+    @Test
+    void indexShouldAssignAnOrdinalPerDistinctArtifact() {
+        ArtifactIndex index = ArtifactIndex.of(List.of(artifact1, artifact2, artifact1, artifact3));
+        assertThat(index.getArtifactList(), contains(artifact1, artifact2, artifact3));
+        assertThat(index.size(), is(3));
+        assertThat(index.ordinalOf(new Artifact("dir/other.jar", "hash1")), is(1));
+        assertThat(index.ordinalOf(new Artifact("dir/none.jar", "hash1")), is(-1));
+        assertThat(index.getArtifactsByHash("hash1"), contains(artifact1, artifact2));
+    }
+    
+    @Test
+    void indexShouldBeImmutable() {
+        ArtifactIndex index = ArtifactIndex.of(List.of(artifact1));
+        Set<Artifact> artifacts = index.getArtifacts();
+        assertThrows(UnsupportedOperationException.class, () -> artifacts.add(artifact2));
+    }
+    
+    @Test
+    void artifactIndexShouldBeBuiltOncePerLink() {
+        Link link = Link.builder().stepName("step").materials(List.of(artifact1)).products(List.of(artifact2)).build();
+        ArtifactsVerificationContext context = ArtifactsVerificationContext.builder()
+                .link(link)
+                .notConsumedArtifacts(ArtifactIndex.of(Set.of(artifact1)))
+                .build();
+        assertThat(context.getMaterialsIndex(), sameInstance(context.getArtifactIndex(link, ArtifactType.MATERIALS)));
+        assertThat(context.getProducts(), is(Set.of(artifact2)));
+    }
+
+}
@@ -42,5 +42,13 @@ class ArtifactMatcherTest {
         assertTrue(ArtifactMatcher.matches("foo/bar", "*/*"));
         assertTrue(ArtifactMatcher.matches("foo/bar", "foo/*"));
     }
+    
+    @Test
+    void matchesWithSamePatternReused() {
+        assertTrue(ArtifactMatcher.matches("target/argos.jar", "**/*.jar"));
+        assertFalse(ArtifactMatcher.matches("argos.jar", "**/*.jar"));
+        assertTrue(ArtifactMatcher.matches("src/main/argos.jar", "**/*.jar"));
+        assertFalse(ArtifactMatcher.matches("src/main/argos.java", "**/*.jar"));
+    }
 
 }
@@ -0,0 +1,133 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+class ArtifactPathsTest {
+    
+    private static final String[] NAMES = {"a", "b", "ab", "a.b", ".", "..", "", "some.jar", "dir"};
+    
+    private static final int RUNS = 20000;
+    
+    private final Random random = new Random(20250101L);
+
+    @Test
+    void relativize() {
+        assertThat(ArtifactPaths.relativize("someDir", "someDir/some.jar"), is("some.jar"));
+        assertThat(ArtifactPaths.relativize("someDir/", "someDir/sub/some.jar"), is("sub/some.jar"));
+        assertThat(ArtifactPaths.relativize("some", "someDir/some.jar"), is("../someDir/some.jar"));
+        assertThat(ArtifactPaths.relativize("someDir", "someDir"), is(""));
+        assertThat(ArtifactPaths.relativize("someDir", "someDir//./some.jar"), is("some.jar"));
+    }
+    
+    @Test
+    void join() {
+        assertThat(ArtifactPaths.join("someDir", "some.jar"), is("someDir/some.jar"));
+        assertThat(ArtifactPaths.join("someDir/", "some.jar"), is("someDir/some.jar"));
+        assertThat(ArtifactPaths.join("someDir", ""), is("someDir"));
+        assertThat(ArtifactPaths.join("/", "some.jar"), is("/some.jar"));
+    }
+    
+    @Test
+    void toPath() {
+        assertThat(ArtifactPaths.toPath("someDir//some.jar"), is(Paths.get("someDir/some.jar")));
+        assertThat(ArtifactPaths.toPath(ArtifactPaths.relativize("someDir", "someDir/some.jar")), is(Paths.get("some.jar")));
+    }
+    
+    @Test
+    void relativizeShouldBeEqualToPathRelativize() {
+        for (int run = 0; run < RUNS; run++) {
+            String prefix = randomPath();
+            String uri = random.nextInt(4) == 0 ? randomPath() : prefix + randomSuffix();
+            if (!prefix.isEmpty() && uri.startsWith(prefix)) {
+                assertSameResult(prefix + " " + uri,
+                        () -> Paths.get(prefix).relativize(Paths.get(uri)).toString(),
+                        () -> ArtifactPaths.relativize(prefix, uri));
+            }
+        }
+    }
+    
+    @Test
+    void joinShouldBeEqualToPathsGet() {
+        for (int run = 0; run < RUNS; run++) {
+            String prefix = randomPath();
+            String uri = randomPath();
+            assertSameResult(prefix + " " + uri,
+                    () -> Paths.get(prefix, uri).toString(),
+                    () -> ArtifactPaths.join(prefix, uri));
+        }
+    }
+    
+    private void assertSameResult(String input, Supplier<String> expected, Supplier<String> actual) {
+        String expectedResult;
+        try {
+            expectedResult = expected.get();
+        } catch (RuntimeException e) {
+            expectedResult = e.getClass().getName();
+        }
+        String actualResult;
+        try {
+            actualResult = actual.get();
+        } catch (RuntimeException e) {
+            actualResult = e.getClass().getName();
+        }
+        assertThat(input, actualResult, is(expectedResult));
+    }
+    
+    private String randomPath() {
+        StringBuilder path = new StringBuilder();
+        if (random.nextInt(5) == 0) {
+            path.append('/');
+        }
+        return path.append(randomNames()).toString();
+    }
+    
+    private String randomSuffix() {
+        switch (random.nextInt(3)) {
+            case 0: return "";
+            case 1: return "/" + randomNames();
+            default: return randomNames();
+        }
+    }
+    
+    private String randomNames() {
+        StringBuilder names = new StringBuilder();
+        int count = random.nextInt(5);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                names.append(random.nextInt(8) == 0 ? "//" : "/");
+            }
+            names.append(NAMES[random.nextInt(NAMES.length)]);
+        }
+        if (random.nextInt(6) == 0) {
+            names.append('/');
+        }
+        return names.toString();
+    }
+
+}
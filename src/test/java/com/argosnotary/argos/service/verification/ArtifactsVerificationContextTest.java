@@ -91,33 +91,33 @@ class ArtifactsVerificationContextTest {
         linksMap.put(step2.getName(), null);
         
         verificationContext1 = ArtifactsVerificationContext.builder()
-                .notConsumedArtifacts(Set.of(artifact1, artifact2))
+                .notConsumedArtifacts(ArtifactIndex.of(Set.of(artifact1, artifact2)))
                 .link(link)
                 .linksMap(linksMap)
                 .build();
         verificationContext2 = ArtifactsVerificationContext.builder()
-                .notConsumedArtifacts(Set.of(artifact1, artifact2))
+                .notConsumedArtifacts(ArtifactIndex.of(Set.of(artifact1, artifact2)))
                 .link(link)
                 .linksMap(linksMap)
                 .build();
         verificationContext3 = ArtifactsVerificationContext.builder()
-                .notConsumedArtifacts(Set.of(artifact1, artifact2))
+                .notConsumedArtifacts(ArtifactIndex.of(Set.of(artifact1, artifact2)))
                 .link(link)
                 .linksMap(linksMap)
                 .build();
         verificationContext4 = ArtifactsVerificationContext.builder()
-                .notConsumedArtifacts(Set.of(artifact1, artifact2, artifact3, artifact4))
+                .notConsumedArtifacts(ArtifactIndex.of(Set.of(artifact1, artifact2, artifact3, artifact4)))
                 .link(link)
                 .linksMap(linksMap)
                 //.rule(ruleWithPrefix)
                 .build();
         verificationContext5 = ArtifactsVerificationContext.builder()
-                .notConsumedArtifacts(Set.of(artifact1, artifact2, artifact3, artifact4))
+                .notConsumedArtifacts(ArtifactIndex.of(Set.of(artifact1, artifact2, artifact3, artifact4)))
                 .link(link)
                 .linksMap(linksMap)
                 .build();
         verificationContext6 = ArtifactsVerificationContext.builder()
-                .notConsumedArtifacts(Set.of(artifact1, artifact2, artifact3, artifact4, artifact5))
+                .notConsumedArtifacts(ArtifactIndex.of(Set.of(artifact1, artifact2, artifact3, artifact4, artifact5)))
                 .link(link)
                 .linksMap(linksMap)
                 .build();
@@ -157,6 +157,48 @@ class ArtifactsVerificationContextTest {
         assertThat(verificationContext1.getLinkByStepName(step.getName()), is(Optional.of(link)));
     }
     
+    @Test
+    void consumeShouldMoveArtifactsToConsumed() {
+        Set<Artifact> filtered = verificationContext4.getFilteredArtifacts(patternWithSuffix, prefix);
+        verificationContext4.consume(filtered);
+        assertThat(verificationContext4.getConsumedArtifacts(), is(Set.of(artifact1, artifact3)));
+        assertThat(verificationContext4.getNotConsumedArtifacts(), is(Set.of(artifact2, artifact4)));
+        assertThat(verificationContext4.getFilteredArtifacts(patternAllMatch), is(Set.of(artifact2, artifact4)));
+        assertThat(verificationContext4.isAllConsumed(), is(false));
+        
+        verificationContext4.consume(verificationContext4.getFilteredArtifacts("*.html", prefix));
+        assertThat(verificationContext4.getNotConsumedArtifacts(), empty());
+        assertThat(verificationContext4.isAllConsumed(), is(true));
+    }
+    
+    @Test
+    void consumeArtifactsNotSelectedFromTheContextShouldThrow() {
+        Set<Artifact> artifacts = Set.of(artifact1);
+        Set<Artifact> selectedFromOtherContext = verificationContext2.getFilteredArtifacts(patternAllMatch);
+        assertThrows(IllegalArgumentException.class, () -> verificationContext1.consume(artifacts));
+        assertThrows(IllegalArgumentException.class, () -> verificationContext1.consume(selectedFromOtherContext));
+        assertThat(verificationContext1.getNotConsumedArtifacts(), is(Set.of(artifact1, artifact2)));
+        assertThat(verificationContext1.getConsumedArtifacts(), empty());
+    }
+    
+    @Test
+    void selectionShouldContainEqualArtifacts() {
+        Set<Artifact> artifacts = verificationContext1.getFilteredArtifacts(patternWithPrefix);
+        assertThat(artifacts.contains(new Artifact("someDir/some.jar", "hash")), is(true));
+        assertThat(artifacts.contains(artifact2), is(false));
+        assertThat(artifacts.contains(artifact5), is(false));
+    }
+    
+    @Test
+    void duplicateArtifactsShouldBeVerifiedOnce() {
+        ArtifactsVerificationContext context = ArtifactsVerificationContext.builder()
+                .notConsumedArtifacts(ArtifactIndex.of(List.of(artifact1, artifact1, artifact2)))
+                .link(link)
+                .build();
+        assertThat(context.getNotConsumedArtifacts().size(), is(2));
+        assertThat(context.getFilteredArtifacts(patternAllMatch), is(Set.of(artifact1, artifact2)));
+    }
+    
     @Test
     void nonNull() {
         Throwable exception = assertThrows(java.lang.NullPointerException.class, () -> {
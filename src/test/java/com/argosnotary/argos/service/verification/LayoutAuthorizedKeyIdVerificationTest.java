@@ -32,6 +32,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.argosnotary.argos.domain.crypto.Signature;
+import com.argosnotary.argos.domain.layout.Layout;
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
 
 @ExtendWith(MockitoExtension.class)
 class LayoutAuthorizedKeyIdVerificationTest {
@@ -60,7 +62,9 @@ class LayoutAuthorizedKeyIdVerificationTest {
     void verifyWithCorrectKeyIdShouldReturnValidResponse() {
         when(signature.getKeyId()).thenReturn(KEY_1);
         when(context.getLayoutMetaBlock().getSignatures()).thenReturn(singletonList(signature));
-        when(context.getLayoutMetaBlock().getLayout().getAuthorizedKeyIds()).thenReturn(singletonList(KEY_1));
+        LayoutPlan layoutPlan = LayoutPlan.compile(LayoutMetaBlock.builder()
+                .layout(Layout.builder().authorizedKeyIds(singletonList(KEY_1)).build()).build());
+        when(context.getLayoutPlan()).thenReturn(layoutPlan);
         VerificationRunResult result = layoutAuthorizedKeyIdVerification.verify(context);
         assertThat(result.isRunIsValid(), is(true));
     }
@@ -69,7 +73,9 @@ class LayoutAuthorizedKeyIdVerificationTest {
     void verifyWithInCorrectKeyIdShouldReturnInValidResponse() {
         when(signature.getKeyId()).thenReturn(KEY_1);
         when(context.getLayoutMetaBlock().getSignatures()).thenReturn(singletonList(signature));
-        when(context.getLayoutMetaBlock().getLayout().getAuthorizedKeyIds()).thenReturn(singletonList(KEY_2));
+        LayoutPlan layoutPlan = LayoutPlan.compile(LayoutMetaBlock.builder()
+                .layout(Layout.builder().authorizedKeyIds(singletonList(KEY_2)).build()).build());
+        when(context.getLayoutPlan()).thenReturn(layoutPlan);
         VerificationRunResult result = layoutAuthorizedKeyIdVerification.verify(context);
         assertThat(result.isRunIsValid(), is(false));
     }
@@ -21,11 +21,14 @@ package com.argosnotary.argos.service.verification;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.security.GeneralSecurityException;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 import org.bouncycastle.operator.OperatorCreationException;
 import org.bouncycastle.util.io.pem.PemGenerationException;
@@ -46,6 +49,8 @@ import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
 import com.argosnotary.argos.domain.layout.Step;
 import com.argosnotary.argos.service.account.AccountService;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class LayoutMetaBlockSignatureVerificationTest {
     private char[] PASSPHRASE = "test".toCharArray();
@@ -78,7 +83,7 @@ class LayoutMetaBlockSignatureVerificationTest {
 
     @BeforeEach
     void setUp() throws GeneralSecurityException, OperatorCreationException, PemGenerationException {
-    	signatureValidatorService = new SignatureValidatorService(accountService);
+    	signatureValidatorService = new SignatureValidatorService(accountService, new PublicKeyCache(new VerificationProperties(), new SimpleMeterRegistry()), new VerificationProperties());
         verification = new LayoutMetaBlockSignatureVerification(signatureValidatorService);
         
         Step step = Step.builder().build();
@@ -124,23 +129,37 @@ class LayoutMetaBlockSignatureVerificationTest {
 
     @Test
     void verifyOkay() throws GeneralSecurityException {
+        when(context.getLinkValidations()).thenReturn(new LinkValidations());
         when(context.getLayoutMetaBlock()).thenReturn(layoutMetaBlock);
-        when(accountService.findPublicKeyByKeyId(signature.getKeyId())).thenReturn(Optional.of(pair));
+        when(accountService.findPublicKeysByKeyIds(Set.of(signature.getKeyId()))).thenReturn(Map.of(signature.getKeyId(), pair));
     	
         assertThat(verification.verify(context).isRunIsValid(), is(true));
     }
 
+    @Test
+    void verifyShouldCheckTheSignaturesOncePerRun() throws GeneralSecurityException {
+        when(context.getLinkValidations()).thenReturn(new LinkValidations());
+        when(context.getLayoutMetaBlock()).thenReturn(layoutMetaBlock3);
+        when(accountService.findPublicKeysByKeyIds(Set.of(keyId, keyId2))).thenReturn(Map.of(keyId, pair, keyId2, pair2));
+        
+        assertThat(verification.verify(context).isRunIsValid(), is(false));
+        assertThat(verification.verify(context).isRunIsValid(), is(false));
+        verify(accountService, times(1)).findPublicKeysByKeyIds(Set.of(keyId, keyId2));
+    }
+
     @Test
     void verifyNotOkay() throws GeneralSecurityException {
+        when(context.getLinkValidations()).thenReturn(new LinkValidations());
         when(context.getLayoutMetaBlock()).thenReturn(layoutMetaBlock3);
-        when(accountService.findPublicKeyByKeyId(signature.getKeyId())).thenReturn(Optional.of(pair));
+        when(accountService.findPublicKeysByKeyIds(Set.of(keyId, keyId2))).thenReturn(Map.of(keyId, pair, keyId2, pair2));
         assertThat(verification.verify(context).isRunIsValid(), is(false));
     }
 
     @Test
     void verifyKeyNotFound() {
+        when(context.getLinkValidations()).thenReturn(new LinkValidations());
         when(context.getLayoutMetaBlock()).thenReturn(layoutMetaBlock2);
-        when(accountService.findPublicKeyByKeyId(signature.getKeyId())).thenReturn(Optional.empty());
+        when(accountService.findPublicKeysByKeyIds(Set.of(keyId, keyId2))).thenReturn(Map.of(keyId, pair));
         assertThat(verification.verify(context).isRunIsValid(), is(false));
     }
 }
@@ -0,0 +1,75 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.argosnotary.argos.domain.crypto.Signature;
+import com.argosnotary.argos.domain.layout.Layout;
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
+
+class LayoutPlanCacheTest {
+    
+    private static final UUID SUPPLY_CHAIN_ID = UUID.randomUUID();
+    
+    private LayoutPlanCache layoutPlanCache;
+
+    @BeforeEach
+    void setUp() {
+        layoutPlanCache = new LayoutPlanCache(new VerificationProperties());
+    }
+
+    @Test
+    void getPlanWithSameSignaturesShouldReturnSamePlan() {
+        LayoutPlan plan = layoutPlanCache.getPlan(createLayoutMetaBlock("sig"));
+        assertThat(layoutPlanCache.getPlan(createLayoutMetaBlock("sig")), sameInstance(plan));
+    }
+
+    @Test
+    void getPlanWithChangedSignaturesShouldReturnNewPlan() {
+        LayoutPlan plan = layoutPlanCache.getPlan(createLayoutMetaBlock("sig"));
+        assertThat(layoutPlanCache.getPlan(createLayoutMetaBlock("otherSig")), not(sameInstance(plan)));
+    }
+
+    @Test
+    void getPlanWithoutSignaturesShouldNotCache() {
+        LayoutMetaBlock layoutMetaBlock = LayoutMetaBlock.builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .layout(Layout.builder().build()).build();
+        LayoutPlan plan = layoutPlanCache.getPlan(layoutMetaBlock);
+        assertThat(layoutPlanCache.getPlan(layoutMetaBlock), not(sameInstance(plan)));
+    }
+    
+    private static LayoutMetaBlock createLayoutMetaBlock(String sig) {
+        return LayoutMetaBlock.builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .signatures(List.of(Signature.builder().keyId("keyId").sig(sig).build()))
+                .layout(Layout.builder().build()).build();
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.argosnotary.argos.domain.crypto.PublicKey;
+import com.argosnotary.argos.domain.layout.ArtifactType;
+import com.argosnotary.argos.domain.layout.Layout;
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
+import com.argosnotary.argos.domain.layout.Step;
+import com.argosnotary.argos.domain.layout.rule.MatchRule;
+import com.argosnotary.argos.domain.layout.rule.Rule;
+import com.argosnotary.argos.domain.layout.rule.RuleType;
+
+class LayoutPlanTest {
+    
+    private static final String STEP_NAME = "step1";
+    
+    private Rule rule;
+    
+    private PublicKey publicKey;
+    
+    private LayoutMetaBlock layoutMetaBlock;
+    
+    private LayoutPlan layoutPlan;
+
+    @BeforeEach
+    void setUp() {
+        rule = new Rule(RuleType.CREATE, "**");
+        publicKey = new PublicKey("keyId", new byte[] {1});
+        Step step = Step.builder()
+                .name(STEP_NAME)
+                .authorizedKeyIds(List.of("stepKeyId"))
+                .expectedProducts(List.of(rule))
+                .build();
+        layoutMetaBlock = LayoutMetaBlock.builder()
+                .layout(Layout.builder()
+                        .authorizedKeyIds(List.of("keyId"))
+                        .keys(List.of(publicKey))
+                        .steps(List.of(step)).build())
+                .build();
+        layoutPlan = LayoutPlan.compile(layoutMetaBlock);
+    }
+
+    @Test
+    void compile() {
+        assertThat(layoutPlan.getLayoutMetaBlock(), sameInstance(layoutMetaBlock));
+        assertThat(layoutPlan.getSteps(), is(layoutMetaBlock.getLayout().getSteps()));
+        assertThat(layoutPlan.getStepsByName().keySet(), contains(STEP_NAME));
+        assertThat(layoutPlan.getStepsToVerifyPerDepth(), contains(List.of(layoutMetaBlock.getLayout().getSteps().get(0))));
+    }
+
+    @Test
+    void getPublicKey() {
+        assertThat(layoutPlan.getPublicKey("keyId").get(), sameInstance(publicKey));
+        assertThat(layoutPlan.getPublicKey("other").isPresent(), is(false));
+    }
+
+    @Test
+    void isLayoutAuthorized() {
+        assertThat(layoutPlan.isLayoutAuthorized("keyId"), is(true));
+        assertThat(layoutPlan.isLayoutAuthorized("stepKeyId"), is(false));
+    }
+
+    @Test
+    void isAuthorized() {
+        assertThat(layoutPlan.isAuthorized(STEP_NAME, "stepKeyId"), is(true));
+        assertThat(layoutPlan.isAuthorized(STEP_NAME, "keyId"), is(false));
+        assertThat(layoutPlan.isAuthorized("unknown", "stepKeyId"), is(false));
+    }
+
+    @Test
+    void getExpectedRules() {
+        assertThat(layoutPlan.getExpectedRules(STEP_NAME, ArtifactType.PRODUCTS), contains(rule));
+        assertThat(layoutPlan.getExpectedRules(STEP_NAME, ArtifactType.MATERIALS), empty());
+        assertThat(layoutPlan.getExpectedRules("unknown", ArtifactType.PRODUCTS), empty());
+    }
+
+    @Test
+    void getLinkedSteps() {
+        Step step = Step.builder()
+                .name("step2")
+                .expectedMaterials(List.of(new MatchRule("**", null, ArtifactType.PRODUCTS, null, STEP_NAME)))
+                .expectedProducts(List.of(rule, new MatchRule("**", null, ArtifactType.MATERIALS, null, STEP_NAME)))
+                .build();
+        LayoutPlan plan = LayoutPlan.compile(LayoutMetaBlock.builder()
+                .layout(Layout.builder().steps(List.of(layoutMetaBlock.getLayout().getSteps().get(0), step)).build())
+                .build());
+        assertThat(plan.getLinkedSteps(STEP_NAME), contains(STEP_NAME));
+        assertThat(plan.getLinkedSteps("step2"), contains("step2", STEP_NAME));
+        assertThat(plan.getLinkedSteps("unknown"), contains("unknown"));
+    }
+
+    @Test
+    void compileEmptyLayout() {
+        LayoutPlan plan = LayoutPlan.compile(LayoutMetaBlock.builder().layout(Layout.builder().build()).build());
+        assertThat(plan.getSteps(), empty());
+        assertThat(plan.isLayoutAuthorized("keyId"), is(false));
+    }
+
+}
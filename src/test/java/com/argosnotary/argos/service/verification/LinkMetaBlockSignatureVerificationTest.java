@@ -22,6 +22,7 @@ package com.argosnotary.argos.service.verification;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -50,6 +51,8 @@ import com.argosnotary.argos.domain.link.Link;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
 import com.argosnotary.argos.service.account.AccountService;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class LinkMetaBlockSignatureVerificationTest {
     private char[] PASSPHRASE = "test".toCharArray();
@@ -85,7 +88,7 @@ class LinkMetaBlockSignatureVerificationTest {
 
     @BeforeEach
     void setUp() throws OperatorCreationException, PemGenerationException, GeneralSecurityException {
-    	signatureValidatorService = new SignatureValidatorService(accountService);
+    	signatureValidatorService = new SignatureValidatorService(accountService, new PublicKeyCache(new VerificationProperties(), new SimpleMeterRegistry()), new VerificationProperties());
         verification = new LinkMetaBlockSignatureVerification(signatureValidatorService);
 
         link = Link.builder()
@@ -120,30 +123,55 @@ class LinkMetaBlockSignatureVerificationTest {
 
     @Test
     void verifyOkay() throws GeneralSecurityException {
+        when(context.getLinkValidations()).thenReturn(new LinkValidations());
         when(context.getLinkMetaBlocks()).thenReturn(List.of(linkMetaBlock));
         layout = Layout.builder().keys(List.of(domainPublicKey)).build();
-        when(context.getLayoutMetaBlock()).thenReturn(layoutMetaBlock);
         when(layoutMetaBlock.getLayout()).thenReturn(layout);
+        LayoutPlan layoutPlan = LayoutPlan.compile(layoutMetaBlock);
+        when(context.getLayoutPlan()).thenReturn(layoutPlan);
         assertThat(verification.verify(context).isRunIsValid(), is(true));
         verify(context).removeLinkMetaBlocks(Collections.emptyList());
     }
 
     @Test
     void verifyNotValid() throws GeneralSecurityException {
+        when(context.getLinkValidations()).thenReturn(new LinkValidations());
         when(context.getLinkMetaBlocks()).thenReturn(List.of(linkMetaBlock2));
         layout = Layout.builder().keys(List.of(domainPublicKey, domainPublicKey2)).build();
-        when(context.getLayoutMetaBlock()).thenReturn(layoutMetaBlock);
         when(layoutMetaBlock.getLayout()).thenReturn(layout);
+        LayoutPlan layoutPlan = LayoutPlan.compile(layoutMetaBlock);
+        when(context.getLayoutPlan()).thenReturn(layoutPlan);
         assertThat(verification.verify(context).isRunIsValid(), is(true));
         verify(context).removeLinkMetaBlocks(List.of(linkMetaBlock2));
     }
 
+    @Test
+    void verifyShouldCheckLinkOncePerRun() throws GeneralSecurityException {
+        when(context.getLinkValidations()).thenReturn(new LinkValidations());
+        when(context.getLinkMetaBlocks()).thenReturn(List.of(linkMetaBlock));
+        when(layoutMetaBlock.getLayout())
+            .thenReturn(Layout.builder().keys(List.of(domainPublicKey)).build())
+            .thenReturn(Layout.builder().keys(Collections.emptyList()).build());
+        LayoutPlan layoutPlan = LayoutPlan.compile(layoutMetaBlock);
+        LayoutPlan layoutPlanWithoutKeys = LayoutPlan.compile(layoutMetaBlock);
+        when(context.getLayoutPlan())
+            .thenReturn(layoutPlan)
+            .thenReturn(layoutPlanWithoutKeys);
+        assertThat(verification.verify(context).isRunIsValid(), is(true));
+        // the memo of the run is used, the layout plan is not read again
+        assertThat(verification.verify(context).isRunIsValid(), is(true));
+        verify(context, times(2)).removeLinkMetaBlocks(Collections.emptyList());
+        verify(context, times(1)).getLayoutPlan();
+    }
+
     @Test
     void verifyKeyNotFound() throws GeneralSecurityException {
+        when(context.getLinkValidations()).thenReturn(new LinkValidations());
         when(context.getLinkMetaBlocks()).thenReturn(List.of(linkMetaBlock));
         layout = Layout.builder().keys(Collections.emptyList()).build();
-        when(context.getLayoutMetaBlock()).thenReturn(layoutMetaBlock);
         when(layoutMetaBlock.getLayout()).thenReturn(layout);
+        LayoutPlan layoutPlan = LayoutPlan.compile(layoutMetaBlock);
+        when(context.getLayoutPlan()).thenReturn(layoutPlan);
         assertThat(verification.verify(context).isRunIsValid(), is(true));
         verify(context).removeLinkMetaBlocks(List.of(linkMetaBlock));
     }
@@ -0,0 +1,82 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.argosnotary.argos.domain.ArgosError;
+import com.argosnotary.argos.domain.crypto.CryptoHelper;
+import com.argosnotary.argos.domain.crypto.KeyPair;
+import com.argosnotary.argos.domain.crypto.PublicKey;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PublicKeyCacheTest {
+    
+    private static final char[] PASSPHRASE = "test".toCharArray();
+    
+    private SimpleMeterRegistry meterRegistry;
+    
+    private PublicKeyCache publicKeyCache;
+    
+    private KeyPair pair;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        publicKeyCache = new PublicKeyCache(new VerificationProperties(), meterRegistry);
+        pair = CryptoHelper.createKeyPair(PASSPHRASE);
+    }
+
+    @Test
+    void getWithSameKeyShouldReturnCachedKey() throws Exception {
+        java.security.PublicKey publicKey = publicKeyCache.get(pair);
+        assertThat(publicKey, is(PublicKey.instance(pair.getPub())));
+        assertThat(publicKeyCache.get(new PublicKey(pair.getKeyId(), pair.getPub())), sameInstance(publicKey));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", PublicKeyCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count(), is(1.0));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", PublicKeyCache.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count(), is(1.0));
+    }
+
+    @Test
+    void getWithOtherKeyForKeyIdShouldParseKey() throws Exception {
+        KeyPair other = CryptoHelper.createKeyPair(PASSPHRASE);
+        java.security.PublicKey publicKey = publicKeyCache.get(pair);
+        java.security.PublicKey otherKey = publicKeyCache.get(new PublicKey(pair.getKeyId(), other.getPub()));
+        assertThat(otherKey, not(publicKey));
+        assertThat(otherKey, is(PublicKey.instance(other.getPub())));
+        assertThat(publicKeyCache.get(new PublicKey(pair.getKeyId(), other.getPub())), sameInstance(otherKey));
+    }
+
+    @Test
+    void getWithInvalidKeyShouldThrowError() {
+        PublicKey invalid = new PublicKey("keyId", new byte[] {1, 2, 3});
+        assertThrows(ArgosError.class, () -> publicKeyCache.get(invalid));
+    }
+
+}
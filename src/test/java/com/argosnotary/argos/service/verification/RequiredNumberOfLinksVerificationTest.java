@@ -23,6 +23,7 @@ import com.argosnotary.argos.domain.crypto.Signature;
 import com.argosnotary.argos.domain.layout.Layout;
 import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
 import com.argosnotary.argos.domain.layout.Step;
+import com.argosnotary.argos.domain.link.Artifact;
 import com.argosnotary.argos.domain.link.Link;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
 import org.junit.jupiter.api.BeforeEach;
@@ -135,6 +136,24 @@ class RequiredNumberOfLinksVerificationTest {
         assertThat(result.isRunIsValid(), is(false));
     }
     
+    @Test
+    void verifyWithDifferentLinksForStepShouldReturnInValid() {
+        LinkMetaBlock otherLink = LinkMetaBlock.builder()
+                .signature(SIGNATURE_3)
+                .link(Link.builder()
+                        .stepName(STEP_NAME1)
+                        .materials(List.of(new Artifact("uri", "hash")))
+                        .build())
+                .build();
+        context = VerificationContext.builder()
+                .layoutMetaBlock(layoutMetaBlock)
+                .linkMetaBlocks(List.of(linkMetaBlock1, linkMetaBlock2, otherLink, linkMetaBlock3, linkMetaBlock4))
+                .productsToVerify(Set.of())
+                .build();
+        VerificationRunResult result = requiredNumberOfLinksVerification.verify(context);
+        assertThat(result.isRunIsValid(), is(false));
+    }
+
     @Test
     void verifyWithSegmentNotFoundReturnInValid() {
         step2.setRequiredNumberOfLinks(2);
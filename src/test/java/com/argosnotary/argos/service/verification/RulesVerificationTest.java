@@ -22,12 +22,18 @@ package com.argosnotary.argos.service.verification;
 import static com.argosnotary.argos.service.verification.Verification.Priority.RULES;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -63,6 +69,8 @@ class RulesVerificationTest {
 
     @Mock
     private RulesVerification verification;
+    
+    private VerificationProperties verificationProperties;
 
     private VerificationContext verificationContext;
     
@@ -102,7 +110,8 @@ class RulesVerificationTest {
 
     @BeforeEach
     void setUp() {
-        verification = new RulesVerification(List.of(allowRuleVerification, disAllowRuleVerification));
+        verificationProperties = new VerificationProperties();
+        verification = new RulesVerification(List.of(allowRuleVerification, disAllowRuleVerification), verificationProperties);
         verification.init();
         
     }
@@ -206,9 +215,99 @@ class RulesVerificationTest {
 
     }
 
+    @Test
+    void verifyStepsInParallel() {
+        useStepParallelism(4);
+        List<Step> steps = createSteps(allowAllRule, allowAllRule, allowAllRule);
+        setupMocks(steps);
+        assertThat(verification.verify(verificationContext).isRunIsValid(), is(true));
+        verification.shutdown();
+    }
+
+    @Test
+    void verifyStepsInParallelWithInvalidStep() {
+        useStepParallelism(4);
+        List<Step> steps = createSteps(allowAllRule, allowRuleWithNotFound, allowAllRule);
+        setupMocks(steps);
+        assertThat(verification.verify(verificationContext).isRunIsValid(), is(false));
+        verification.shutdown();
+    }
+
+    @Test
+    void verifyStepsInParallelWithMissingLink() {
+        useStepParallelism(2);
+        List<Step> steps = new ArrayList<>(createSteps(allowAllRule, allowAllRule));
+        steps.add(Step.builder().name("noLink").expectedMaterials(List.of(allowAllRule)).expectedProducts(List.of(allowAllRule)).build());
+        setupMocks(steps);
+        assertThat(verification.verify(verificationContext).isRunIsValid(), is(false));
+        verification.shutdown();
+    }
+    
+    @Test
+    void verifyStepsInParallelInThePoolOfTheContexts() throws Exception {
+        verificationProperties.setParallelism(2);
+        useStepParallelism(4);
+        List<Step> steps = createSteps(allowAllRule, allowRuleWithNotFound, allowAllRule);
+        setupMocks(steps);
+        ForkJoinPool contextsPool = new ForkJoinPool(2);
+        assertThat(contextsPool.submit(() -> verification.verify(verificationContext).isRunIsValid()).get(), is(false));
+        contextsPool.shutdownNow();
+    }
+    
+    @Test
+    void verifyStepShouldVerifyTheRulesOnceForTheSameLinks() {
+        RuleVerification ruleVerification = spy(new AllowRuleVerification());
+        verification = new RulesVerification(List.of(ruleVerification), verificationProperties);
+        verification.init();
+        List<Step> steps = createSteps(allowAllRule);
+        LayoutPlan layoutPlan = LayoutPlan.compile(LayoutMetaBlock.builder()
+                .layout(Layout.builder().steps(steps).build()).build());
+        LinkValidations linkValidations = new LinkValidations();
+        LinkMetaBlock otherLinkMetaBlock = LinkMetaBlock.builder().link(Link.builder()
+                .materials(List.of(artifact2))
+                .products(List.of(artifact1))
+                .stepName(STEP_NAME + 0).build()).build();
+        linkMetaBlocks.get(0).calculateDigests();
+        otherLinkMetaBlock.calculateDigests();
+        
+        assertThat(verification.verifyStep(layoutPlan, linkValidations, Map.of(STEP_NAME + 0, linkMetaBlocks.get(0)), steps.get(0)), is(true));
+        assertThat(verification.verifyStep(layoutPlan, linkValidations, Map.of(STEP_NAME + 0, linkMetaBlocks.get(0)), steps.get(0)), is(true));
+        verify(ruleVerification, times(2)).verify(any());
+        
+        assertThat(verification.verifyStep(layoutPlan, linkValidations, Map.of(STEP_NAME + 0, otherLinkMetaBlock), steps.get(0)), is(true));
+        verify(ruleVerification, times(4)).verify(any());
+    }
+    
+    private void useStepParallelism(int stepParallelism) {
+        verificationProperties.setStepParallelism(stepParallelism);
+        verification = new RulesVerification(List.of(allowRuleVerification, disAllowRuleVerification), verificationProperties);
+        verification.init();
+    }
+    
+    private List<Step> createSteps(Rule... rules) {
+        List<Step> steps = new ArrayList<>();
+        linkMetaBlocks = new ArrayList<>();
+        for (int i = 0; i < rules.length; i++) {
+            steps.add(Step.builder()
+                    .name(STEP_NAME + i)
+                    .expectedMaterials(List.of(rules[i]))
+                    .expectedProducts(List.of(rules[i])).build());
+            linkMetaBlocks.add(LinkMetaBlock
+                    .builder().link(Link.builder()
+                            .materials(List.of(artifact1))
+                            .products(List.of(artifact2))
+                            .stepName(STEP_NAME + i).build()).build());
+        }
+        return steps;
+    }
+
     private void setupMocks() {
+        setupMocks(Collections.singletonList(step));
+    }
+
+    private void setupMocks(List<Step> steps) {
         when(layoutMetaBlock.getLayout()).thenReturn(layout);
-        when(layout.getSteps()).thenReturn(Collections.singletonList(step));
+        when(layout.getSteps()).thenReturn(steps);
         verificationContext = VerificationContext
                 .builder()
                 .layoutMetaBlock(layoutMetaBlock)
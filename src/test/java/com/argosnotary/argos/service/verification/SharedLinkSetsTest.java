@@ -0,0 +1,79 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+
+class SharedLinkSetsTest {
+    
+    private final Set<LinkMetaBlock> linkSet1 = Set.of(LinkMetaBlock.builder().build());
+    
+    private final Set<LinkMetaBlock> linkSet2 = Set.of();
+    
+    private final Set<LinkMetaBlock> linkSet3 = Set.of(LinkMetaBlock.builder().supplyChainId(UUID.randomUUID()).build());
+
+    @Test
+    void streamShouldReplayGeneratedLinkSets() {
+        AtomicInteger generations = new AtomicInteger();
+        AtomicInteger pulled = new AtomicInteger();
+        SharedLinkSets linkSets = new SharedLinkSets(() -> {
+            generations.incrementAndGet();
+            return List.of(linkSet1, linkSet2).stream().peek(linkSet -> pulled.incrementAndGet()).iterator();
+        });
+        assertThat(generations.get(), is(0));
+        
+        assertThat(linkSets.stream().findFirst().get(), is(linkSet1));
+        assertThat(pulled.get(), is(1));
+        
+        assertThat(linkSets.stream().toList(), contains(linkSet1, linkSet2));
+        assertThat(linkSets.stream().toList(), contains(linkSet1, linkSet2));
+        assertThat(generations.get(), is(1));
+        assertThat(pulled.get(), is(2));
+    }
+
+    @Test
+    void streamShouldGenerateLinkSetsAfterTheMaximumAgain() {
+        AtomicInteger generations = new AtomicInteger();
+        SharedLinkSets linkSets = new SharedLinkSets(() -> {
+            generations.incrementAndGet();
+            return List.of(linkSet1, linkSet2, linkSet3).iterator();
+        }, 1);
+        
+        assertThat(linkSets.stream().limit(2).toList(), contains(linkSet1, linkSet2));
+        assertThat(generations.get(), is(1));
+        
+        assertThat(linkSets.stream().toList(), contains(linkSet1, linkSet2, linkSet3));
+        assertThat(generations.get(), is(2));
+        assertThat(linkSets.stream().findFirst().get(), is(linkSet1));
+        assertThat(generations.get(), is(2));
+    }
+
+}
@@ -22,6 +22,7 @@ package com.argosnotary.argos.service.verification;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.security.GeneralSecurityException;
@@ -30,6 +31,8 @@ import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 import org.bouncycastle.operator.OperatorCreationException;
 import org.bouncycastle.util.io.pem.PemGenerationException;
@@ -43,17 +46,23 @@ import com.argosnotary.argos.domain.attest.Attestation;
 import com.argosnotary.argos.domain.attest.AttestationData;
 import com.argosnotary.argos.domain.attest.Envelope;
 import com.argosnotary.argos.domain.crypto.CryptoHelper;
+import com.argosnotary.argos.domain.crypto.HashAlgorithm;
 import com.argosnotary.argos.domain.crypto.KeyIdProvider;
 import com.argosnotary.argos.domain.crypto.KeyPair;
 import com.argosnotary.argos.domain.crypto.PublicKey;
 import com.argosnotary.argos.domain.crypto.Signature;
+import com.argosnotary.argos.domain.crypto.signing.CanonicalDigest;
 import com.argosnotary.argos.domain.crypto.signing.JsonSigningSerializer;
 import com.argosnotary.argos.domain.layout.Layout;
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
 import com.argosnotary.argos.domain.layout.Step;
 import com.argosnotary.argos.domain.link.Artifact;
 import com.argosnotary.argos.domain.link.Link;
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
 import com.argosnotary.argos.service.account.AccountService;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 
 @ExtendWith(MockitoExtension.class)
 class SignatureValidatorServiceTest {
@@ -93,7 +102,7 @@ class SignatureValidatorServiceTest {
 
     @BeforeEach
     void setUp() throws GeneralSecurityException, OperatorCreationException, PemGenerationException {
-    	service = new SignatureValidatorService(accountService);
+    	service = new SignatureValidatorService(accountService, new PublicKeyCache(new VerificationProperties(), new SimpleMeterRegistry()), new VerificationProperties());
     	
     	Step step = Step.builder().build();
 
@@ -210,4 +219,136 @@ class SignatureValidatorServiceTest {
     }
     
 
+    @Test
+    void validLinkMetaBlockSignatureWithCanonicalDigest() {
+        when(accountService.findPublicKeyByKeyId(keyId)).thenReturn(Optional.of(pair));
+        LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder().link(link).signature(linkSignature).build();
+        linkMetaBlock.calculateDigests();
+        assertThat(service.validateSignature(linkMetaBlock), is(true));
+        
+        // the stored digest is checked instead of the link
+        linkMetaBlock.setCanonicalDigest(CanonicalDigest.of(Link.builder().stepName("other").build(), HashAlgorithm.SHA384));
+        assertThat(service.validateSignature(linkMetaBlock), is(false));
+        
+        // a digest with another hash algorithm is not used
+        linkMetaBlock.setCanonicalDigest(CanonicalDigest.of(Link.builder().stepName("other").build(), HashAlgorithm.SHA256));
+        assertThat(service.validateSignature(linkMetaBlock), is(true));
+    }
+    
+    @Test
+    void linkMetaBlockSignatureWithStoredCanonicalDigest() {
+        when(accountService.findPublicKeyByKeyId(keyId)).thenReturn(Optional.of(pair));
+        LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder().link(link).signature(linkSignature).build();
+        linkMetaBlock.calculateDigests();
+        CanonicalDigest storedDigest = new CanonicalDigest();
+        storedDigest.setHashAlgorithm(linkMetaBlock.getCanonicalDigest().getHashAlgorithm());
+        storedDigest.setDigest(linkMetaBlock.getCanonicalDigest().getDigest());
+        
+        // the content of the stored link is changed, the stored digest and signature are not
+        Link changedLink = Link.builder()
+                .products(singletonList(Artifact.builder().hash("other").uri("/path/tofile2").build()))
+                .materials(link.getMaterials()).build();
+        LinkMetaBlock changed = LinkMetaBlock.builder().link(changedLink).signature(linkSignature)
+                .linkDigest(linkMetaBlock.getLinkDigest()).canonicalDigest(storedDigest).build();
+        // a digest read from the database is not used
+        assertThat(service.validateSignature(changed), is(false));
+        assertThat(changed.calculateDigests(), is(false));
+        assertThat(service.validateSignature(changed), is(false));
+        
+        LinkMetaBlock unchanged = LinkMetaBlock.builder().link(link).signature(linkSignature)
+                .linkDigest(linkMetaBlock.getLinkDigest()).canonicalDigest(storedDigest).build();
+        assertThat(service.validateSignature(unchanged), is(true));
+    }
+    
+    @Test
+    void linkMetaBlockSignatureWithoutKey() {
+        LinkMetaBlock linkMetaBlock = LinkMetaBlock.builder().link(link).signature(linkSignature).build();
+        linkMetaBlock.calculateDigests();
+        assertThat(service.validateSignature(linkMetaBlock, Optional.empty()), is(false));
+    }
+    
+    @Test
+    void layoutMetaBlockSignatureWithCanonicalDigest() {
+        when(accountService.findPublicKeyByKeyId(keyId)).thenReturn(Optional.of(pair));
+        LayoutMetaBlock layoutMetaBlock = LayoutMetaBlock.builder().layout(layout).signatures(List.of(layoutSignature)).build();
+        layoutMetaBlock.calculateCanonicalDigest();
+        assertThat(layoutMetaBlock.getCanonicalDigest(), is(CanonicalDigest.of(layout, HashAlgorithm.SHA384)));
+        assertThat(service.validateSignature(layoutMetaBlock, layoutSignature), is(true));
+        
+        LayoutMetaBlock layoutMetaBlock2 = LayoutMetaBlock.builder().layout(layout2).signatures(List.of(layoutSignature2)).build();
+        layoutMetaBlock2.calculateCanonicalDigest();
+        assertThat(service.validateSignature(layoutMetaBlock2, layoutSignature2), is(false));
+        
+        // a layout changed in the database with the stored digest of the signed layout
+        CanonicalDigest storedDigest = new CanonicalDigest();
+        storedDigest.setHashAlgorithm(HashAlgorithm.SHA384);
+        storedDigest.setDigest(layoutMetaBlock.getCanonicalDigest().getDigest());
+        LayoutMetaBlock changed = LayoutMetaBlock.builder().layout(layout2).signatures(List.of(layoutSignature))
+                .canonicalDigest(storedDigest).build();
+        assertThat(service.validateSignature(changed, layoutSignature), is(false));
+    }
+    
+    @Test
+    void attestationSignatureWithCanonicalDigest() {
+        Envelope e = DATA_MAP.get("at1").getEnvelope();
+        when(accountService.findPublicKeyByKeyId(e.getSignatures().get(0).getKeyId())).thenReturn(Optional.of(AttestationData.ecPair));
+        Attestation attestation = Attestation.builder().supplyChainId(UUID.randomUUID()).envelope(e).build();
+        attestation.calculateCanonicalDigest();
+        assertThat(attestation.getCanonicalDigest(), is(CanonicalDigest.of(e.getPayload(), HashAlgorithm.SHA384)));
+        assertThat(service.validateSignature(attestation, e.getSignatures().get(0)), is(true));
+    }
+
+    @Test
+    void validateSignaturesOfLayoutMetaBlock() {
+        Signature otherSignature = CryptoHelper.sign(pair2, PASSPHRASE, new JsonSigningSerializer().serialize(layout));
+        when(accountService.findPublicKeysByKeyIds(Set.of(keyId, keyId2))).thenReturn(Map.of(keyId, pair));
+        LayoutMetaBlock layoutMetaBlock = LayoutMetaBlock.builder().layout(layout).signatures(List.of(layoutSignature, otherSignature)).build();
+        layoutMetaBlock.calculateCanonicalDigest();
+        List<SignatureValidationResult> results = service.validateSignatures(layoutMetaBlock);
+        assertThat(results.stream().map(SignatureValidationResult::getSignature).toList(), is(List.of(layoutSignature, otherSignature)));
+        // the key of the other signature is not found
+        assertThat(results.stream().map(SignatureValidationResult::isValid).toList(), is(List.of(true, false)));
+        verify(accountService).findPublicKeysByKeyIds(Set.of(keyId, keyId2));
+    }
+    
+    @Test
+    void validateSignaturesOfAttestation() {
+        Envelope e = DATA_MAP.get("at1").getEnvelope();
+        String attestationKeyId = e.getSignatures().get(0).getKeyId();
+        when(accountService.findPublicKeysByKeyIds(Set.of(attestationKeyId))).thenReturn(Map.of(attestationKeyId, AttestationData.ecPair));
+        Attestation attestation = Attestation.builder().supplyChainId(UUID.randomUUID()).envelope(e).build();
+        assertThat(service.validateSignatures(attestation).stream().allMatch(SignatureValidationResult::isValid), is(true));
+    }
+    
+    @Test
+    void validateSignaturesOfLinkMetaBlocks() {
+        when(accountService.findPublicKeysByKeyIds(Set.of(keyId))).thenReturn(Map.of(keyId, pair));
+        List<LinkMetaBlock> linkMetaBlocks = List.of(
+                LinkMetaBlock.builder().link(link).signature(linkSignature).build(),
+                LinkMetaBlock.builder().link(link).signature(linkSignature2).build());
+        assertThat(service.validateSignatures(linkMetaBlocks).stream().map(SignatureValidationResult::isValid).toList(), is(List.of(true, false)));
+    }
+    
+    @Test
+    void validateSignaturesOfLinkMetaBlocksInParallel() {
+        VerificationProperties verificationProperties = new VerificationProperties();
+        verificationProperties.setSignatureParallelism(2);
+        SignatureValidatorService parallelService = new SignatureValidatorService(accountService, 
+                new PublicKeyCache(verificationProperties, new SimpleMeterRegistry()), verificationProperties);
+        parallelService.init();
+        try {
+            List<LinkMetaBlock> linkMetaBlocks = List.of(
+                    LinkMetaBlock.builder().link(link).signature(linkSignature).build(),
+                    LinkMetaBlock.builder().link(link).signature(linkSignature2).build(),
+                    LinkMetaBlock.builder().link(link).signature(linkSignature).build(),
+                    LinkMetaBlock.builder().link(link).signature(Signature.builder().keyId(keyId2).build()).build());
+            linkMetaBlocks.get(0).calculateDigests();
+            List<SignatureValidationResult> results = parallelService.validateSignatures(linkMetaBlocks, 
+                    id -> keyId.equals(id) ? Optional.of(pair) : Optional.empty());
+            assertThat(results.stream().map(SignatureValidationResult::isValid).toList(), is(List.of(true, false, true, false)));
+        } finally {
+            parallelService.shutdown();
+        }
+    }
+
 }
@@ -39,6 +39,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.argosnotary.argos.domain.crypto.PublicKey;
+import com.argosnotary.argos.domain.layout.Layout;
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
 import com.argosnotary.argos.domain.layout.Step;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
 
@@ -76,11 +78,14 @@ class StepAuthorizedKeyIdVerificationTest {
 
     @Test
     void verifyWithCorrectKeyIdShouldReturnValidResponse() {
+        when(context.getLinkValidations()).thenReturn(new LinkValidations());
         when(context.getLinkMetaBlocks()).thenReturn(Collections.singletonList(linkMetaBlock));
         when(linkMetaBlock.getLink().getStepName()).thenReturn(STEP_NAME);
-        when(context.getLayoutMetaBlock().getLayout().getSteps()).thenReturn(Collections.singletonList(step));
         when(step.getAuthorizedKeyIds()).thenReturn(Collections.singletonList("keyId"));
         when(step.getName()).thenReturn("stepName");
+        LayoutPlan layoutPlan = LayoutPlan.compile(LayoutMetaBlock.builder()
+                .layout(Layout.builder().steps(Collections.singletonList(step)).build()).build());
+        when(context.getLayoutPlan()).thenReturn(layoutPlan);
         when(linkMetaBlock.getSignature().getKeyId()).thenReturn("keyId");
         VerificationRunResult result = stepAuthorizedKeyIdVerification.verify(context);
         verify(context, times(0)).removeLinkMetaBlocks(listArgumentCaptor.capture());
@@ -89,9 +94,12 @@ class StepAuthorizedKeyIdVerificationTest {
 
     @Test
     void verifyWithCorrectIncorrectKeyIdShouldReturnInValidResponse() {
+        when(context.getLinkValidations()).thenReturn(new LinkValidations());
         when(context.getLinkMetaBlocks()).thenReturn(Collections.singletonList(linkMetaBlock));
-        when(context.getLayoutMetaBlock().getLayout().getSteps()).thenReturn(Collections.singletonList(step));
         when(step.getAuthorizedKeyIds()).thenReturn(Collections.singletonList("keyId"));
+        LayoutPlan layoutPlan = LayoutPlan.compile(LayoutMetaBlock.builder()
+                .layout(Layout.builder().steps(Collections.singletonList(step)).build()).build());
+        when(context.getLayoutPlan()).thenReturn(layoutPlan);
         when(linkMetaBlock.getSignature().getKeyId()).thenReturn("unTrustedKeyId");
         VerificationRunResult result = stepAuthorizedKeyIdVerification.verify(context);
         verify(context).removeLinkMetaBlocks(listArgumentCaptor.capture());
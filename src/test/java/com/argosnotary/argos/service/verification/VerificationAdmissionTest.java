@@ -0,0 +1,130 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.argosnotary.argos.service.verification.VerificationLimitException.Limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VerificationAdmissionTest {
+    
+    private VerificationProperties verificationProperties;
+    
+    private SimpleMeterRegistry meterRegistry;
+    
+    private CountDownLatch started;
+    
+    private CountDownLatch finish;
+    
+    @BeforeEach
+    void setUp() {
+        verificationProperties = new VerificationProperties();
+        verificationProperties.setMaxConcurrentVerifications(1);
+        meterRegistry = new SimpleMeterRegistry();
+        started = new CountDownLatch(1);
+        finish = new CountDownLatch(1);
+    }
+
+    @Test
+    void admitShouldRunVerification() {
+        VerificationAdmission admission = new VerificationAdmission(verificationProperties, meterRegistry);
+        assertThat(admission.admit(() -> "result"), is("result"));
+        assertThat(admission.admit(() -> "result"), is("result"));
+    }
+
+    @Test
+    void admitWithFullQueueShouldFailFast() throws Exception {
+        verificationProperties.setMaxQueuedVerifications(0);
+        VerificationAdmission admission = new VerificationAdmission(verificationProperties, meterRegistry);
+        CompletableFuture<String> running = runBlocked(admission);
+        
+        VerificationLimitException exception = assertThrows(VerificationLimitException.class, () -> admission.admit(() -> "result"));
+        assertThat(exception.getLimit(), is(Limit.CONCURRENCY));
+        assertThat(exception.getMessage(), is("too many verifications in progress, the verification queue is full, try again later"));
+        assertThat(meterRegistry.get("argos.verification.active").gauge().value(), is(1.0));
+        
+        finish.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS), is("blocked"));
+        assertThat(admission.admit(() -> "result"), is("result"));
+        assertThat(meterRegistry.get("argos.verification.active").gauge().value(), is(0.0));
+    }
+
+    @Test
+    void admitShouldFailAfterQueueTimeout() throws Exception {
+        verificationProperties.setMaxQueuedVerifications(1);
+        verificationProperties.setQueueTimeout(Duration.ofMillis(10));
+        VerificationAdmission admission = new VerificationAdmission(verificationProperties, meterRegistry);
+        CompletableFuture<String> running = runBlocked(admission);
+        
+        VerificationLimitException exception = assertThrows(VerificationLimitException.class, () -> admission.admit(() -> "result"));
+        assertThat(exception.getLimit(), is(Limit.CONCURRENCY));
+        assertThat(meterRegistry.get("argos.verification.queued").gauge().value(), is(0.0));
+        finish.countDown();
+        running.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void admitShouldWaitInQueue() throws Exception {
+        verificationProperties.setMaxQueuedVerifications(1);
+        verificationProperties.setQueueTimeout(Duration.ofSeconds(5));
+        VerificationAdmission admission = new VerificationAdmission(verificationProperties, meterRegistry);
+        CompletableFuture<String> running = runBlocked(admission);
+        
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> admission.admit(() -> "queued"));
+        finish.countDown();
+        assertThat(queued.get(5, TimeUnit.SECONDS), is("queued"));
+        assertThat(running.get(5, TimeUnit.SECONDS), is("blocked"));
+    }
+
+    @Test
+    void admitWithoutLimitShouldNotRegisterGauges() {
+        verificationProperties.setMaxConcurrentVerifications(0);
+        VerificationAdmission admission = new VerificationAdmission(verificationProperties, meterRegistry);
+        assertThat(admission.admit(() -> "result"), is("result"));
+        assertThat(meterRegistry.find("argos.verification.active").gauge() == null, is(true));
+    }
+    
+    private CompletableFuture<String> runBlocked(VerificationAdmission admission) throws InterruptedException {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> admission.admit(() -> {
+            started.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "blocked";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+        return running;
+    }
+
+}
@@ -22,6 +22,7 @@ package com.argosnotary.argos.service.verification;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -92,6 +93,14 @@ class VerificationContextTest {
         assertThat(verificationContext.getStepNameLinkMetaBlockMap().get(STEP_NAME), empty());
     }
     
+    @Test
+    void removeLinkMetaBlocksShouldRemoveByIdentity() {
+        LinkMetaBlock copy = LinkMetaBlock.builder().link(Link.builder().stepName(STEP_NAME).build()).build();
+        verificationContext.removeLinkMetaBlocks(List.of(copy));
+        assertThat(verificationContext.getLinkMetaBlocks(), hasSize(1));
+        assertThat(verificationContext.getLinkMetaBlocks().get(0), sameInstance(linkMetaBlocks.get(0)));
+    }
+    
     @Test
     void getStepNameLinkMetaBlockMap() {
         when(layoutMetaBlock.getLayout()).thenReturn(layout);
@@ -19,19 +19,29 @@
  */
 package com.argosnotary.argos.service.verification;
 
+import static java.util.stream.Collectors.toSet;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -39,6 +49,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.argosnotary.argos.domain.crypto.PublicKey;
 import com.argosnotary.argos.domain.crypto.Signature;
 import com.argosnotary.argos.domain.layout.ArtifactType;
 import com.argosnotary.argos.domain.layout.Layout;
@@ -46,10 +57,12 @@ import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
 import com.argosnotary.argos.domain.layout.Step;
 import com.argosnotary.argos.domain.layout.rule.MatchRule;
 import com.argosnotary.argos.domain.layout.rule.Rule;
+import com.argosnotary.argos.domain.layout.rule.RuleType;
 import com.argosnotary.argos.domain.link.Artifact;
 import com.argosnotary.argos.domain.link.Link;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
 import com.argosnotary.argos.service.mongodb.link.LinkMetaBlockRepository;
+import com.argosnotary.argos.service.verification.VerificationLimitException.Limit;
 import com.argosnotary.argos.service.verification.rules.AllowRuleVerification;
 import com.argosnotary.argos.service.verification.rules.CreateRuleVerification;
 import com.argosnotary.argos.service.verification.rules.DeleteRuleVerification;
@@ -64,41 +77,30 @@ class VerificationContextsProviderTest {
     private static final String STEP_NAME_1 = "stepName1";
     private static final String STEP_NAME_2 = "stepName2";
     private static final String STEP_NAME_3 = "stepName3";
+    private static final String KEY_ID = "keyId";
+    private static final String OTHER_KEY_ID = "otherKeyId";
     private static final UUID SUPPLY_CHAIN_ID = UUID.randomUUID();
 
     @Mock
     private LinkMetaBlockRepository linkMetaBlockRepository;
 
-    @Mock
-    private LayoutMetaBlock layoutMetaBlock;
 
     @Mock
-    private Layout layout;
 
-    @Mock
-    private Step step1;
+    private VerificationStateService verificationStateService;
 
     @Mock
-    private Step step2;
+    private SignatureValidatorService signatureValidatorService;
 
-    @Mock
-    private Step step3;
+    private PublicKey publicKey = new PublicKey(KEY_ID, new byte[] {1});
+
+    private Signature signature = Signature.builder().keyId(KEY_ID).sig("sig").build();
 
     private List<Artifact> artifacts;
     private List<Artifact> artifacts2;
 
-    private List<MatchRule> matchRule;
-
-    private List<Rule> matchRulesForProductsStep1;
-
     private LinkMetaBlock linkMetaBlockFromInput;
 
-    private LinkMetaBlock linkMetaBlockFromRunId1_1;
-
-    private LinkMetaBlock linkMetaBlockFromRunId1_2;
-
-    private VerificationContextsProvider verificationContextsProvider;
-
     private LinkMetaBlock linkMetaBlockFromInput2;
 
     private LinkMetaBlock linkMetaBlockFromMatchRuleSegment2_1;
@@ -107,80 +109,28 @@ class VerificationContextsProviderTest {
 
     private LinkMetaBlock linkMetaBlockFromMatchRuleSegment3;
 
+    private VerificationContextsProvider verificationContextsProvider;
+
     @BeforeEach
     void setup() {
-        createMatchRules();
         createArtifacts();
 
-        linkMetaBlockFromInput = LinkMetaBlock
-                .builder()
-                .supplyChainId(SUPPLY_CHAIN_ID)
-                .link(Link.builder()
-                        .stepName(STEP_NAME_1)
-                        .materials(artifacts)
-                        .products(artifacts)
-                        .build()
-                ).build();
-
-        linkMetaBlockFromInput2 = LinkMetaBlock
-                .builder()
-                .supplyChainId(SUPPLY_CHAIN_ID)
-                .link(Link.builder()
-                        .stepName(STEP_NAME_1)
-                        .materials(artifacts)
-                        .products(artifacts2)
-                        .build()
-                ).build();
-
-        linkMetaBlockFromMatchRuleSegment2_1 = LinkMetaBlock
-                .builder()
-                .supplyChainId(SUPPLY_CHAIN_ID)
-                .link(Link.builder()
-                        .stepName(STEP_NAME_2)
-                        .materials(artifacts)
-                        .products(artifacts)
-                        .build()
-                ).build();
-
-        linkMetaBlockFromMatchRuleSegment3 = LinkMetaBlock
-                .builder()
-                .supplyChainId(SUPPLY_CHAIN_ID)
-                .link(Link.builder()
-                        .stepName(STEP_NAME_3)
-                        .materials(artifacts)
-                        .products(artifacts)
-                        .build()
-                ).build();
-
-        linkMetaBlockFromRunId1_1 = LinkMetaBlock
-                .builder()
-                .supplyChainId(SUPPLY_CHAIN_ID)
-                .link(Link.builder()
-                        .stepName(STEP_NAME_2)
-                        .materials(artifacts)
-                        .products(artifacts)
-                        .build()
-                ).build();
-
-        linkMetaBlockFromRunId1_2 = LinkMetaBlock
-                .builder()
-                .supplyChainId(SUPPLY_CHAIN_ID)
-                .link(Link.builder()
-                        .stepName(STEP_NAME_2)
-                        .materials(artifacts)
-                        .products(artifacts2)
-                        .build()
-                ).build();
+        linkMetaBlockFromInput = createLinkMetaBlock(STEP_NAME_1, artifacts, artifacts, signature);
+        linkMetaBlockFromInput2 = createLinkMetaBlock(STEP_NAME_1, artifacts, artifacts2, signature);
+        linkMetaBlockFromMatchRuleSegment2_1 = createLinkMetaBlock(STEP_NAME_2, artifacts, artifacts, signature);
+        linkMetaBlockFromMatchRuleSegment2_2 = createLinkMetaBlock(STEP_NAME_2, artifacts, artifacts2, signature);
+        linkMetaBlockFromMatchRuleSegment3 = createLinkMetaBlock(STEP_NAME_3, artifacts, artifacts, signature);
 
-        verificationContextsProvider = new VerificationContextsProvider(linkMetaBlockRepository, List.of(
+        RulesVerification rulesVerification = new RulesVerification(List.of(
                 new AllowRuleVerification(), 
                 new CreateRuleVerification(),
                 new DeleteRuleVerification(),
                 new DisallowRuleVerification(),
                 new MatchRuleVerification(),
                 new ModifyRuleVerification(),
-                new RequireRuleVerification()));
-        verificationContextsProvider.init();
+                new RequireRuleVerification()), new VerificationProperties());
+        rulesVerification.init();
+        verificationContextsProvider = new VerificationContextsProvider(linkMetaBlockRepository, signatureValidatorService, rulesVerification, verificationStateService);
     }
 
     private void createArtifacts() {
@@ -198,71 +148,103 @@ class VerificationContextsProviderTest {
         artifacts2 = List.of(artifact1, artifact2);
     }
 
-    private void createMatchRules() {
-        MatchRule matchFilterProduct = MatchRule.builder()
-                .destinationType(ArtifactType.PRODUCTS)
-                .destinationStepName(STEP_NAME_1)
-                .pattern("**/*.jar")
-                .build();
+    private static LinkMetaBlock createLinkMetaBlock(String stepName, List<Artifact> materials, List<Artifact> products, Signature signature) {
+        return LinkMetaBlock
+                .builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .signature(signature)
+                .link(Link.builder()
+                        .stepName(stepName)
+                        .materials(new ArrayList<>(materials))
+                        .products(new ArrayList<>(products))
+                        .build()
+                ).build();
+    }
+
+    private static Step.StepBuilder stepBuilder(String stepName, Rule... productRules) {
+        return Step.builder()
+                .name(stepName)
+                .authorizedKeyIds(List.of(KEY_ID))
+                .requiredNumberOfLinks(1)
+                .expectedMaterials(List.of(new Rule(RuleType.ALLOW, "**")))
+                .expectedProducts(productRules.length == 0 ? List.of(new Rule(RuleType.ALLOW, "**")) : List.of(productRules));
+    }
+
+    private LayoutMetaBlock createLayoutMetaBlock(Step... steps) {
+        Layout layout = Layout.builder()
+                .keys(List.of(publicKey))
+                .expectedEndProducts(List.of(MatchRule.builder()
+                        .destinationType(ArtifactType.PRODUCTS)
+                        .destinationStepName(STEP_NAME_1)
+                        .pattern("**/*.jar")
+                        .build()))
+                .steps(List.of(steps)).build();
+        return LayoutMetaBlock.builder().supplyChainId(SUPPLY_CHAIN_ID).layout(layout).build();
+    }
 
-        MatchRule matchFilterMaterials = MatchRule.builder()
-                .destinationType(ArtifactType.MATERIALS)
-                .destinationStepName(STEP_NAME_1)
-                .pattern("**/*.jar")
+    private static MatchRule matchRule(String destinationStepName) {
+        return MatchRule.builder()
+                .destinationStepName(destinationStepName).pattern("**/*.jar")
+                .destinationType(ArtifactType.PRODUCTS)
                 .build();
+    }
 
-        matchRule = List.of(matchFilterProduct, matchFilterMaterials);
+    private void mockLinks(LinkMetaBlock... linkMetaBlocks) {
+        when(linkMetaBlockRepository.findForVerification(SUPPLY_CHAIN_ID)).thenReturn(List.of(linkMetaBlocks));
     }
 
-    private void createMatchRuleMaterials() {
+    private void mockValidSignatures() {
+        mockSignatures(true);
+    }
 
-        MatchRule matchFilterMaterials = MatchRule.builder()
-                .destinationType(ArtifactType.MATERIALS)
-                .destinationStepName(STEP_NAME_1)
-                .pattern("**/*.jar")
-                .build();
+    private void mockSignatures(boolean valid) {
+        when(signatureValidatorService.validateSignatures(anyList(), any())).thenAnswer(invocation -> {
+            List<LinkMetaBlock> linkMetaBlocks = invocation.getArgument(0);
+            Function<String, Optional<PublicKey>> keys = invocation.getArgument(1);
+            return linkMetaBlocks.stream().map(linkMetaBlock -> SignatureValidationResult.builder()
+                    .signature(linkMetaBlock.getSignature())
+                    .valid(valid && keys.apply(linkMetaBlock.getSignature().getKeyId()).equals(Optional.of(publicKey)))
+                    .build()).toList();
+        });
+    }
 
-        matchRule = List.of(matchFilterMaterials);
+    private List<VerificationContext> createContexts(LayoutMetaBlock layoutMetaBlock) {
+        return verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, new HashSet<>(artifacts)).toList();
     }
 
     @Test
-    void createPossibleVerificationContextsWithMultipleStepsAndMultipleEqualLinkSets() {
-        setupMocksForSingleLink();
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, new HashSet<>(artifacts));
+    void createPossibleVerificationContextsWithSingleLink() {
+        mockLinks(linkMetaBlockFromInput);
+        mockValidSignatures();
+        List<VerificationContext> verificationContexts = createContexts(createLayoutMetaBlock(stepBuilder(STEP_NAME_1).build()));
         assertThat(verificationContexts, hasSize(1));
+        assertThat(verificationContexts.get(0).getLinkMetaBlocks(), is(List.of(linkMetaBlockFromInput)));
     }
 
     @Test
-    void createPossibleVerificationContextsSingleStepAndMultipleEqualLinkSets() {
-        setupMocksForSingleStep();
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, new HashSet<>(artifacts));
+    void createPossibleVerificationContextsSingleStepAndMultipleLinkSets() {
+        mockLinks(linkMetaBlockFromInput, linkMetaBlockFromInput2);
+        mockValidSignatures();
+        List<VerificationContext> verificationContexts = createContexts(createLayoutMetaBlock(stepBuilder(STEP_NAME_1).build()));
         assertThat(verificationContexts, hasSize(2));
     }
 
-
     @Test
-    void createPossibleVerificationContextsWithNonMatchingArtifacts() {
-        when(layoutMetaBlock.getSupplyChainId()).thenReturn(SUPPLY_CHAIN_ID);
-        when(linkMetaBlockRepository.findBySupplyChainId(SUPPLY_CHAIN_ID))
-                .thenReturn(List.of());
-        
-        Artifact wrongArtifact = Artifact.builder().uri("/wrong.exe").hash("hash").build();
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, Set.of(wrongArtifact));
+    void createPossibleVerificationContextsWithoutLinks() {
+        mockLinks();
+        List<VerificationContext> verificationContexts = createContexts(createLayoutMetaBlock(stepBuilder(STEP_NAME_1).build()));
         assertThat(verificationContexts, hasSize(0));
     }
 
-    @Test
-    void createPossibleVerificationContextsWithMatchinMaterialArtifacts() {
-        setupMocksForSingleLink();
-        createMatchRuleMaterials();
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, new HashSet<>(artifacts));
-        assertThat(verificationContexts, hasSize(1));
-    }
-
     @Test
     void createPossibleVerificationContextsWithMultipleSegmentsShouldReturnOneVerificationContext() {
-        setupMocksForMultipleSteps();
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, new HashSet<>(artifacts));
+        mockLinks(linkMetaBlockFromInput, linkMetaBlockFromMatchRuleSegment2_1, linkMetaBlockFromMatchRuleSegment3);
+        mockValidSignatures();
+        LayoutMetaBlock layoutMetaBlock = createLayoutMetaBlock(
+                stepBuilder(STEP_NAME_1, matchRule(STEP_NAME_2), matchRule(STEP_NAME_3)).build(),
+                stepBuilder(STEP_NAME_2).build(),
+                stepBuilder(STEP_NAME_3).build());
+        List<VerificationContext> verificationContexts = createContexts(layoutMetaBlock);
         assertThat(verificationContexts, hasSize(1));
         VerificationContext verificationContext = verificationContexts.iterator().next();
         assertThat(verificationContext.getLinkMetaBlocks(), hasSize(3));
@@ -272,51 +254,116 @@ class VerificationContextsProviderTest {
     }
 
     @Test
-        // with hop mean that from segment one upstream segment 2 is resolved and then from segment 2 segment 3 is resolved
-    void createPossibleVerificationContextsWithMultipleSegmentsWithHopShouldReturnOneVerificationContext() {
+    void createPossibleVerificationContextsWithMultipleSegmentsShouldReturnTwoVerificationContexts() {
+        mockLinks(linkMetaBlockFromInput, linkMetaBlockFromMatchRuleSegment2_1, linkMetaBlockFromMatchRuleSegment2_2, linkMetaBlockFromMatchRuleSegment3);
+        mockValidSignatures();
+        LayoutMetaBlock layoutMetaBlock = createLayoutMetaBlock(
+                stepBuilder(STEP_NAME_1, matchRule(STEP_NAME_2)).build(),
+                stepBuilder(STEP_NAME_2).build(),
+                stepBuilder(STEP_NAME_3).build());
+        assertThat(createContexts(layoutMetaBlock), hasSize(2));
+    }
 
-        MatchRule matchRule4StepOne2StepTwo = MatchRule.builder()
-                .destinationStepName(STEP_NAME_2).pattern("**/*.jar")
-                .destinationType(ArtifactType.PRODUCTS)
-                .build();
+    @Test
+    void createPossibleVerificationContextsShouldShareLinkValidations() {
+        mockLinks(linkMetaBlockFromInput, linkMetaBlockFromMatchRuleSegment2_1, linkMetaBlockFromMatchRuleSegment2_2, linkMetaBlockFromMatchRuleSegment3);
+        mockValidSignatures();
+        LayoutMetaBlock layoutMetaBlock = createLayoutMetaBlock(
+                stepBuilder(STEP_NAME_1, matchRule(STEP_NAME_2)).build(),
+                stepBuilder(STEP_NAME_2).build(),
+                stepBuilder(STEP_NAME_3).build());
+        List<VerificationContext> verificationContexts = createContexts(layoutMetaBlock);
+        assertThat(verificationContexts, hasSize(2));
+        LinkValidations linkValidations = verificationContexts.get(0).getLinkValidations();
+        assertThat(verificationContexts.get(1).getLinkValidations(), sameInstance(linkValidations));
+        // every link is checked once while the candidates were selected
+        assertThat(linkValidations.isSignatureValid(linkMetaBlockFromInput, () -> false), is(true));
+        assertThat(linkValidations.isAuthorized(linkMetaBlockFromMatchRuleSegment3, () -> false), is(true));
+        // as one batch
+        verify(signatureValidatorService).validateSignatures(argThat(linkMetaBlocks -> linkMetaBlocks.size() == 4), any());
+        verify(signatureValidatorService, never()).validateSignature(any(LinkMetaBlock.class), any());
+    }
 
-        MatchRule matchRule4StepTwo2StepThree = MatchRule.builder()
-                .destinationStepName(STEP_NAME_3).pattern("**/*.jar")
-                .destinationType(ArtifactType.PRODUCTS)
-                .build();
+    @Test
+    void createPossibleVerificationContextsShouldPruneFailingStepRules() {
+        mockLinks(linkMetaBlockFromInput, linkMetaBlockFromMatchRuleSegment2_1, linkMetaBlockFromMatchRuleSegment2_2, linkMetaBlockFromMatchRuleSegment3);
+        mockValidSignatures();
+        // the second variant of step 2 has a not consumed product
+        LayoutMetaBlock layoutMetaBlock = createLayoutMetaBlock(
+                stepBuilder(STEP_NAME_1, matchRule(STEP_NAME_2)).build(),
+                stepBuilder(STEP_NAME_2, matchRule(STEP_NAME_3)).build(),
+                stepBuilder(STEP_NAME_3).build());
+        List<VerificationContext> verificationContexts = createContexts(layoutMetaBlock);
+        assertThat(verificationContexts, hasSize(1));
+        assertThat(verificationContexts.get(0).getLinkMetaBlocks().contains(linkMetaBlockFromMatchRuleSegment2_1), is(true));
+    }
 
-        matchRulesForProductsStep1 = List.of(matchRule4StepOne2StepTwo);
-        List<Rule> matchRulesForProductsStep2 = List.of(matchRule4StepTwo2StepThree);
-        
-        Step step1 = Step.builder().name(STEP_NAME_1).expectedProducts(matchRulesForProductsStep1).build();
-        Step step2 = Step.builder().name(STEP_NAME_2).expectedProducts(matchRulesForProductsStep2).build();
-        Step step3 = Step.builder().name(STEP_NAME_3).build();
-        
-        Layout layout = Layout.builder().expectedEndProducts(matchRule).steps(List.of(step1, step2, step3)).build();        
-        LayoutMetaBlock layoutMetaBlock = LayoutMetaBlock.builder().supplyChainId(SUPPLY_CHAIN_ID).layout(layout).build();
-        
-        Map<String, EnumMap<ArtifactType, Set<Artifact>>> stepMap1 = new HashMap<>();
-        
-        
-        
+    @Test
+    void createPossibleVerificationContextsShouldPruneNotAuthorizedLinks() {
+        LinkMetaBlock notAuthorized = createLinkMetaBlock(STEP_NAME_1, artifacts, artifacts2, Signature.builder().keyId(OTHER_KEY_ID).build());
+        mockLinks(linkMetaBlockFromInput, notAuthorized);
+        mockValidSignatures();
+        List<VerificationContext> verificationContexts = createContexts(createLayoutMetaBlock(stepBuilder(STEP_NAME_1).build()));
+        assertThat(verificationContexts, hasSize(1));
+        assertThat(verificationContexts.get(0).getLinkMetaBlocks(), is(List.of(linkMetaBlockFromInput)));
+    }
+
+    @Test
+    void createPossibleVerificationContextsShouldPruneInvalidSignatures() {
+        mockLinks(linkMetaBlockFromInput);
+        mockSignatures(false);
+        assertThat(createContexts(createLayoutMetaBlock(stepBuilder(STEP_NAME_1).build())), hasSize(0));
+    }
 
-        when(linkMetaBlockRepository.findBySupplyChainId(SUPPLY_CHAIN_ID))
-                .thenReturn(List.of(linkMetaBlockFromInput, linkMetaBlockFromMatchRuleSegment2_1, linkMetaBlockFromMatchRuleSegment3));
+    @Test
+    void createPossibleVerificationContextsShouldPruneNotEnoughLinks() {
+        mockLinks(linkMetaBlockFromInput, linkMetaBlockFromMatchRuleSegment2_1);
+        mockValidSignatures();
+        LayoutMetaBlock layoutMetaBlock = createLayoutMetaBlock(
+                stepBuilder(STEP_NAME_1).build(),
+                stepBuilder(STEP_NAME_2).requiredNumberOfLinks(2).build());
+        assertThat(createContexts(layoutMetaBlock), hasSize(0));
+    }
 
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, new HashSet<>(artifacts));
+    @Test
+    void createPossibleVerificationContextsShouldCountCopiesOfALinkWithTheSameSignatureOnce() {
+        LinkMetaBlock copy = createLinkMetaBlock(STEP_NAME_1, artifacts, artifacts, signature);
+        mockLinks(linkMetaBlockFromInput, copy);
+        mockValidSignatures();
+        assertThat(createContexts(createLayoutMetaBlock(stepBuilder(STEP_NAME_1).requiredNumberOfLinks(2).build())), hasSize(0));
+        List<VerificationContext> verificationContexts = createContexts(createLayoutMetaBlock(stepBuilder(STEP_NAME_1).build()));
         assertThat(verificationContexts, hasSize(1));
-        VerificationContext verificationContext = verificationContexts.iterator().next();
-        assertThat(verificationContext.getLinkMetaBlocks(), hasSize(3));
-        assertThat(verificationContext.getLinkMetaBlocks().contains(linkMetaBlockFromInput), is(true));
-        assertThat(verificationContext.getLinkMetaBlocks().contains(linkMetaBlockFromMatchRuleSegment2_1), is(true));
-        assertThat(verificationContext.getLinkMetaBlocks().contains(linkMetaBlockFromMatchRuleSegment3), is(true));
+        assertThat(verificationContexts.get(0).getLinkMetaBlocks(), hasSize(1));
+    }
+    
+    @Test
+    void createPossibleVerificationContextsShouldSkipUnknownSteps() {
+        mockLinks(linkMetaBlockFromInput, linkMetaBlockFromMatchRuleSegment2_1, linkMetaBlockFromMatchRuleSegment2_2);
+        mockValidSignatures();
+        List<VerificationContext> verificationContexts = createContexts(createLayoutMetaBlock(stepBuilder(STEP_NAME_1).build()));
+        assertThat(verificationContexts, hasSize(1));
+        assertThat(verificationContexts.get(0).getLinkMetaBlocks(), is(List.of(linkMetaBlockFromInput)));
     }
 
     @Test
-    void createPossibleVerificationContextsWithMultipleSegmentsWithHopShouldReturnFourVerificationContexts() {
-        setupMocksWithHopMultipleSets();
-        List<VerificationContext> verificationContexts = verificationContextsProvider.createPossibleVerificationContexts(layoutMetaBlock, new HashSet<>(artifacts));
-        assertThat(verificationContexts, hasSize(2));
+    void findLinksShouldCalculateTheDigestsOfTheLoadedLinks() {
+        linkMetaBlockFromInput.calculateDigests();
+        String storedDigest = linkMetaBlockFromInput.getLinkDigest();
+        // the link is changed after the digest was stored
+        linkMetaBlockFromInput.getLink().setProducts(new ArrayList<>(artifacts2));
+        mockLinks(linkMetaBlockFromInput);
+        List<LinkMetaBlock> links = verificationContextsProvider.findLinks(SUPPLY_CHAIN_ID);
+        assertThat(links.get(0).getLinkDigest(), not(storedDigest));
+        assertThat(links.get(0).getLinkDigest(), is(LinkMetaBlock.calculateLinkDigest(linkMetaBlockFromInput.getLink())));
+    }
+
+    @Test
+    void getStepsToVerifyPerDepth() {
+        Step step1 = stepBuilder(STEP_NAME_1, matchRule(STEP_NAME_3)).build();
+        Step step2 = stepBuilder(STEP_NAME_2, matchRule(STEP_NAME_1), matchRule("unknown")).build();
+        Step step3 = stepBuilder(STEP_NAME_3).build();
+        assertThat(VerificationContextsProvider.getStepsToVerifyPerDepth(List.of(step1, step2, step3)), 
+                is(List.of(List.of(), List.of(step2), List.of(step1, step3))));
     }
     
     @Test
@@ -326,7 +373,6 @@ class VerificationContextsProviderTest {
         Artifact artifact21 = new Artifact("file21", "hash121");
         Artifact artifact22 = new Artifact("file22", "hash122");
         Artifact artifact31 = new Artifact("file31", "hash211");
-        Artifact artifact32 = new Artifact("file32", "hash212");
 
         Link link11 = Link.builder().stepName("step1").materials(List.of(artifact11)).build();
         Link link12 = Link.builder().stepName("step1").materials(List.of(artifact12)).build();
@@ -342,7 +388,9 @@ class VerificationContextsProviderTest {
         expectedSets.add(Set.of(block12, block21));
         expectedSets.add(Set.of(block12, block22));
 
-        Set<Set<LinkMetaBlock>> actualSets = VerificationContextsProvider.permutateOnSteps(Set.of(block11, block12, block21, block22));
+        Set<Set<LinkMetaBlock>> actualSets = VerificationContextsProvider.permutateOnSteps(List.of(
+                List.of(Set.of(block11), Set.of(block12)),
+                List.of(Set.of(block21), Set.of(block22))), (depth, chosen) -> true).map(Set::copyOf).collect(toSet());
         
         assertThat(actualSets, is(expectedSets));
 
@@ -358,103 +406,106 @@ class VerificationContextsProviderTest {
         expectedSets.add(Set.of(block11, block22, block31, block32));
         expectedSets.add(Set.of(block12, block22, block31, block32));
 
-        actualSets = VerificationContextsProvider.permutateOnSteps(
-                Set.of(block11, block12, block21, block22, block31, block32));
+        actualSets = VerificationContextsProvider.permutateOnSteps(List.of(
+                List.of(Set.of(block11), Set.of(block12)),
+                List.of(Set.of(block21), Set.of(block22)),
+                List.of(Set.of(block31, block32))), (depth, chosen) -> true).map(Set::copyOf).collect(toSet());
         
         assertThat(actualSets, is(expectedSets));
     }
     
     @Test
-    void permutateOnStepsAndWithMultipleLinks() {
-        Artifact artifact111 = new Artifact("file111", "hash111");
-        Artifact artifact112 = new Artifact("file112", "hash112");
-        Artifact artifact121 = new Artifact("file121", "hash121");
-        Artifact artifact122 = new Artifact("file122", "hash122");
-
-        Link link111 = Link.builder().stepName("step11").materials(List.of(artifact111)).build();
-        Link link112 = Link.builder().stepName("step11").materials(List.of(artifact112)).build();
-        Link link121 = Link.builder().stepName("step12").materials(List.of(artifact121)).build();
-        Link link122 = Link.builder().stepName("step12").materials(List.of(artifact122)).build();
-        LinkMetaBlock block111 = LinkMetaBlock.builder().link(link111).build();
-        LinkMetaBlock block112 = LinkMetaBlock.builder().link(link112).build();
-        LinkMetaBlock block121 = LinkMetaBlock.builder().link(link121).build();
-        LinkMetaBlock block122 = LinkMetaBlock.builder().link(link122).build();
-        Set<Set<LinkMetaBlock>> expectedSets = new HashSet<>();
-        expectedSets.add(Set.of(block111));
-        expectedSets.add(Set.of(block112));
-        Set<Set<LinkMetaBlock>> actualSets = VerificationContextsProvider.permutateOnSteps(Set.of(block111, block112));
+    void permutateOnStepsShouldNotBuildPrunedCombinations() {
+        LinkMetaBlock block11 = LinkMetaBlock.builder().link(Link.builder().stepName("step1").build()).build();
+        LinkMetaBlock block12 = LinkMetaBlock.builder().link(Link.builder().stepName("step1").products(List.of(artifacts.get(0))).build()).build();
+        LinkMetaBlock block21 = LinkMetaBlock.builder().link(Link.builder().stepName("step2").build()).build();
+        LinkMetaBlock block22 = LinkMetaBlock.builder().link(Link.builder().stepName("step2").products(List.of(artifacts.get(0))).build()).build();
+        AtomicInteger checks = new AtomicInteger();
         
-        assertThat(actualSets, is(expectedSets));
+        Set<Set<LinkMetaBlock>> actualSets = VerificationContextsProvider.permutateOnSteps(List.of(
+                List.of(Set.of(block11), Set.of(block12)),
+                List.of(Set.of(block21), Set.of(block22))), (depth, chosen) -> {
+                    checks.incrementAndGet();
+                    return !chosen.get(depth).contains(block11);
+                }).map(Set::copyOf).collect(toSet());
         
-        expectedSets = new HashSet<>();
-        expectedSets.add(Set.of(block111, block121));
-        expectedSets.add(Set.of(block112, block121));
-        expectedSets.add(Set.of(block111, block122));
-        expectedSets.add(Set.of(block112, block122));
-        actualSets = VerificationContextsProvider.permutateOnSteps(Set.of(block111, block112, block121, block122));
+        assertThat(actualSets, is(Set.of(Set.of(block12, block21), Set.of(block12, block22))));
+        // block11 is rejected at the first step, so its combinations with step 2 are never checked
+        assertThat(checks.get(), is(4));
+    }
+    
+    @Test
+    void permutateOnStepsShouldBeLazy() {
+        LinkMetaBlock block11 = LinkMetaBlock.builder().link(Link.builder().stepName("step1").build()).build();
+        LinkMetaBlock block12 = LinkMetaBlock.builder().link(Link.builder().stepName("step1").products(List.of(artifacts.get(0))).build()).build();
+        AtomicInteger checks = new AtomicInteger();
         
-        assertThat(actualSets, is(expectedSets));
+        Optional<Set<LinkMetaBlock>> first = VerificationContextsProvider.permutateOnSteps(List.of(
+                List.of(Set.of(block11), Set.of(block12))), (depth, chosen) -> checks.incrementAndGet() > 0).findFirst();
+        
+        assertThat(first, is(Optional.of(Set.of(block11))));
+        assertThat(checks.get(), is(1));
     }
-
-
-    private void setupMocksForSingleStep() {
-        when(layoutMetaBlock.getSupplyChainId()).thenReturn(SUPPLY_CHAIN_ID);
-        when(linkMetaBlockRepository
-                .findBySupplyChainId(SUPPLY_CHAIN_ID))
-                .thenReturn(List.of(linkMetaBlockFromInput, linkMetaBlockFromInput2));
+    
+    @Test
+    void permutateOnStepsShouldStopAtMaxCombinationsWhenAllCombinationsArePruned() {
+        List<List<Set<LinkMetaBlock>>> stepCandidates = createStepCandidates(3, 10);
+        VerificationProperties properties = new VerificationProperties();
+        properties.setMaxCombinations(50);
+        VerificationLimits limits = new VerificationLimits(properties);
+        limits.start();
+        AtomicInteger checks = new AtomicInteger();
+        
+        // every combination is pruned at the last step, so no combination is produced
+        VerificationLimitException exception = assertThrows(VerificationLimitException.class, 
+                () -> VerificationContextsProvider.permutateOnSteps(stepCandidates, limits, 
+                        (depth, chosen) -> checks.incrementAndGet() > 0 && depth < 2).findFirst());
+        
+        assertThat(exception.getLimit(), is(Limit.CONTEXTS));
+        assertThat(exception.getMessage(), is("verification run exceeded the maximum of 50 checked link combinations"));
+        assertThat(checks.get(), is(50));
     }
-
-    void setupMocksForSingleLink() {
-        when(layoutMetaBlock.getSupplyChainId()).thenReturn(SUPPLY_CHAIN_ID);
-        when(linkMetaBlockRepository.findBySupplyChainId(SUPPLY_CHAIN_ID))
-                .thenReturn(List.of(linkMetaBlockFromInput));
+    
+    @Test
+    void permutateOnStepsShouldStopAtTheDeadlineWhenAllCombinationsArePruned() {
+        List<List<Set<LinkMetaBlock>>> stepCandidates = createStepCandidates(3, 10);
+        VerificationProperties properties = new VerificationProperties();
+        properties.setTimeBudget(Duration.ZERO);
+        VerificationLimits limits = new VerificationLimits(properties);
+        limits.start();
+        AtomicInteger checks = new AtomicInteger();
+        
+        VerificationLimitException exception = assertThrows(VerificationLimitException.class, 
+                () -> VerificationContextsProvider.permutateOnSteps(stepCandidates, limits, 
+                        (depth, chosen) -> checks.incrementAndGet() > 0 && depth < 2).findFirst());
+        
+        assertThat(exception.getLimit(), is(Limit.TIME));
+        assertThat(checks.get(), is(0));
     }
-
-    void setupMocksForMultipleSteps() {
-        MatchRule matchRule4StepOne2StepTwo = MatchRule.builder()
-                .destinationStepName(STEP_NAME_2).pattern("**/*.jar")
-                .destinationType(ArtifactType.PRODUCTS)
-                .build();
-
-        MatchRule matchRule4StepOne2StepThree = MatchRule.builder()
-                .destinationStepName(STEP_NAME_3).pattern("**/*.jar")
-                .destinationType(ArtifactType.PRODUCTS)
-                .build();
-        matchRulesForProductsStep1 = List.of(matchRule4StepOne2StepTwo, matchRule4StepOne2StepThree);
-        when(layoutMetaBlock.getSupplyChainId()).thenReturn(SUPPLY_CHAIN_ID);
-        when(linkMetaBlockRepository.findBySupplyChainId(SUPPLY_CHAIN_ID))
-            .thenReturn(List.of(linkMetaBlockFromInput, linkMetaBlockFromMatchRuleSegment2_1, linkMetaBlockFromMatchRuleSegment3));
+    
+    private static List<List<Set<LinkMetaBlock>>> createStepCandidates(int steps, int candidatesPerStep) {
+        List<List<Set<LinkMetaBlock>>> stepCandidates = new ArrayList<>();
+        for (int step = 0; step < steps; step++) {
+            List<Set<LinkMetaBlock>> candidates = new ArrayList<>();
+            for (int candidate = 0; candidate < candidatesPerStep; candidate++) {
+                candidates.add(Set.of(LinkMetaBlock.builder().supplyChainId(UUID.randomUUID())
+                        .link(Link.builder().stepName("step" + step).build()).build()));
+            }
+            stepCandidates.add(candidates);
+        }
+        return stepCandidates;
     }
-
-    private void setupMocksWithHopMultipleSets() {
-
-        linkMetaBlockFromMatchRuleSegment2_2 = LinkMetaBlock
-                .builder()
-                .supplyChainId(SUPPLY_CHAIN_ID)
-                .link(Link.builder()
-                        .stepName(STEP_NAME_2)
-                        .materials(new ArrayList<>(artifacts))
-                        .products(new ArrayList<>(artifacts2))
-                        .build()
-                ).build();
-
-        MatchRule matchRule4StepOne2StepTwo = MatchRule.builder()
-                .destinationStepName(STEP_NAME_2).pattern("**/*.jar")
-                .destinationType(ArtifactType.PRODUCTS)
-                .build();
-
-        MatchRule matchRule4StepTwo2StepThree = MatchRule.builder()
-                .destinationStepName(STEP_NAME_3).pattern("**/*.jar")
-                .destinationType(ArtifactType.PRODUCTS)
-                .build();
-
-        matchRulesForProductsStep1 = List.of(matchRule4StepOne2StepTwo);
-        List<Rule> matchRulesForProductsStep2 = List.of(matchRule4StepTwo2StepThree);
-
-        when(layoutMetaBlock.getSupplyChainId()).thenReturn(SUPPLY_CHAIN_ID);
-
-        when(linkMetaBlockRepository.findBySupplyChainId(SUPPLY_CHAIN_ID))
-                .thenReturn(List.of(linkMetaBlockFromInput, linkMetaBlockFromMatchRuleSegment2_1, linkMetaBlockFromMatchRuleSegment2_2, linkMetaBlockFromMatchRuleSegment3));
+    
+    @Test
+    void permutateOnStepsWithoutSteps() {
+        assertThat(VerificationContextsProvider.permutateOnSteps(List.of(), (depth, chosen) -> true).toList(), is(List.of(Set.of())));
+    }
+    
+    @Test
+    void permutateOnStepsWithStepWithoutCandidates() {
+        LinkMetaBlock block11 = LinkMetaBlock.builder().link(Link.builder().stepName("step1").build()).build();
+        assertThat(VerificationContextsProvider.permutateOnSteps(List.of(
+                List.of(Set.of(block11)), List.of()), (depth, chosen) -> true).toList(), hasSize(0));
     }
 
-}
\ No newline at end of file
+}
@@ -21,12 +21,15 @@ package com.argosnotary.argos.service.verification;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -54,6 +57,9 @@ import com.argosnotary.argos.domain.link.Link;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
 import com.argosnotary.argos.service.account.AccountService;
 import com.argosnotary.argos.service.mongodb.link.LinkMetaBlockRepository;
+import com.argosnotary.argos.service.verification.VerificationTrace.ContextTrace;
+import com.argosnotary.argos.service.verification.VerificationTrace.RuleEntry;
+import com.argosnotary.argos.service.verification.VerificationTrace.VerificationEntry;
 import com.argosnotary.argos.service.verification.rules.AllowRuleVerification;
 import com.argosnotary.argos.service.verification.rules.CreateOrModifyRuleVerification;
 import com.argosnotary.argos.service.verification.rules.CreateRuleVerification;
@@ -64,6 +70,8 @@ import com.argosnotary.argos.service.verification.rules.ModifyRuleVerification;
 import com.argosnotary.argos.service.verification.rules.RequireRuleVerification;
 import com.argosnotary.argos.service.verification.rules.RuleVerification;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class VerificationProviderTest {
 	private static final UUID SUPPLY_CHAIN_ID = UUID.randomUUID();
@@ -71,6 +79,11 @@ class VerificationProviderTest {
 	
 	@Mock
 	LinkMetaBlockRepository linkMetaBlockRepository;
+
+	
+	@Mock
+	
+	private VerificationStateService verificationStateService;
     
     @Mock
     private AccountService accountService;
@@ -93,9 +106,11 @@ class VerificationProviderTest {
 
     private VerificationProvider verificationProvider;
 
+    private VerificationProperties verificationProperties = new VerificationProperties();
+
     @BeforeEach
     void setup() throws NoSuchAlgorithmException, OperatorCreationException, PemGenerationException {
-    	signatureValidatorService = new SignatureValidatorService(accountService);
+    	signatureValidatorService = new SignatureValidatorService(accountService, new PublicKeyCache(new VerificationProperties(), new SimpleMeterRegistry()), new VerificationProperties());
     	kp1 = CryptoHelper.createKeyPair(PASSWORD);
     	kp2 = CryptoHelper.createKeyPair(PASSWORD);
     	kp3 = CryptoHelper.createKeyPair(PASSWORD);
@@ -164,7 +179,7 @@ class VerificationProviderTest {
     			new MatchRuleVerification(), 
     			new ModifyRuleVerification(), 
     			new RequireRuleVerification()));
-    	RulesVerification ruleVer = new RulesVerification(ruleVerificationList);
+    	RulesVerification ruleVer = new RulesVerification(ruleVerificationList, verificationProperties);
     	ruleVer.init();
         verifications = new ArrayList<>(List.of(
         		new LayoutAuthorizedKeyIdVerification(), 
@@ -175,9 +190,10 @@ class VerificationProviderTest {
         		new RequiredNumberOfLinksVerification(), 
         		ruleVer,
         		new ExpectedEndProductsVerification()));
-    	verificationContextsProvider = new VerificationContextsProvider(linkMetaBlockRepository, ruleVerificationList);
-    	verificationContextsProvider.init();
-        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider);
+    	verificationContextsProvider = new VerificationContextsProvider(linkMetaBlockRepository, signatureValidatorService, ruleVer, verificationStateService);
+        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider, verificationProperties, new LayoutPlanCache(verificationProperties),
+                new VerificationResultCache(verificationProperties, new SimpleMeterRegistry()),
+                new VerificationAdmission(verificationProperties, new SimpleMeterRegistry()));
         verificationProvider.init();
         Link link = Link.builder()
         		.stepName("build")
@@ -221,17 +237,60 @@ class VerificationProviderTest {
     @Test
     void verifyShouldProduceVerificationRunResult() {
         Artifact artifact = new Artifact("target/argos-test-0.0.1-SNAPSHOT.jar", "49e73a11c5e689db448d866ce08848ac5886cac8aa31156ea4de37427aca6162");
-    	when(linkMetaBlockRepository.findBySupplyChainId(SUPPLY_CHAIN_ID)).thenReturn(List.of(buildStepLink, testStepLink));
-        when(accountService.findPublicKeyByKeyId(kp1.getKeyId())).thenReturn(Optional.of(kp1));
+    	when(linkMetaBlockRepository.findForVerification(SUPPLY_CHAIN_ID)).thenReturn(List.of(buildStepLink, testStepLink));
+        when(accountService.findPublicKeysByKeyIds(Set.of(kp1.getKeyId()))).thenReturn(Map.of(kp1.getKeyId(), kp1));
         assertThat(verificationProvider.verifyRun(layoutMetaBlock, Set.of(artifact)).isRunIsValid(), is(true));
     }
 
     @Test
     void verifyWithWrongHashShouldProduceFalseVerificationRunResult() {
     	Artifact artifact = new Artifact("target/argos-test-0.0.1-SNAPSHOT.jar", "0123456789012345678901234567890012345678901234567890123456789012");
-    	when(linkMetaBlockRepository.findBySupplyChainId(SUPPLY_CHAIN_ID)).thenReturn(List.of(buildStepLink, testStepLink));
+    	when(linkMetaBlockRepository.findForVerification(SUPPLY_CHAIN_ID)).thenReturn(List.of(buildStepLink, testStepLink));
     	VerificationRunResult res = verificationProvider.verifyRun(layoutMetaBlock, Set.of(artifact));
         assertThat(res.isRunIsValid(), is(false));
     }
 
-}
\ No newline at end of file
+    @Test
+    void verifyRunsShouldProduceResultPerProductSet() {
+        Artifact artifact = new Artifact("target/argos-test-0.0.1-SNAPSHOT.jar", "49e73a11c5e689db448d866ce08848ac5886cac8aa31156ea4de37427aca6162");
+        Artifact wrongHash = new Artifact("target/argos-test-0.0.1-SNAPSHOT.jar", "0123456789012345678901234567890012345678901234567890123456789012");
+        Artifact unknown = new Artifact("target/unknown.jar", "49e73a11c5e689db448d866ce08848ac5886cac8aa31156ea4de37427aca6162");
+        when(linkMetaBlockRepository.findForVerification(SUPPLY_CHAIN_ID)).thenReturn(List.of(buildStepLink, testStepLink));
+        when(accountService.findPublicKeysByKeyIds(Set.of(kp1.getKeyId()))).thenReturn(Map.of(kp1.getKeyId(), kp1));
+        List<VerificationRunResult> results = verificationProvider.verifyRuns(layoutMetaBlock, 
+                List.of(Set.of(wrongHash), Set.of(artifact), Set.of(unknown)));
+        assertThat(results.stream().map(VerificationRunResult::isRunIsValid).toList(), contains(false, true, false));
+        // the links are loaded once for all product sets
+        verify(linkMetaBlockRepository).findForVerification(SUPPLY_CHAIN_ID);
+    }
+
+    @Test
+    void verifyRunWithTraceShouldProduceTrace() {
+        Artifact artifact = new Artifact("target/argos-test-0.0.1-SNAPSHOT.jar", "49e73a11c5e689db448d866ce08848ac5886cac8aa31156ea4de37427aca6162");
+        when(linkMetaBlockRepository.findForVerification(SUPPLY_CHAIN_ID)).thenReturn(List.of(buildStepLink, testStepLink));
+        when(accountService.findPublicKeysByKeyIds(Set.of(kp1.getKeyId()))).thenReturn(Map.of(kp1.getKeyId(), kp1));
+        assertThat(verificationProvider.verifyRun(layoutMetaBlock, Set.of(artifact)).getTrace(), is(nullValue()));
+        
+        // traced runs bypass the result cache
+        VerificationRunResult result = verificationProvider.verifyRun(layoutMetaBlock, Set.of(artifact), true);
+        assertThat(result.isRunIsValid(), is(true));
+        VerificationTrace trace = result.getTrace();
+        assertThat(trace.getGeneratedContexts(), is(1));
+        assertThat(trace.getPrunedCombinations(), is(0));
+        ContextTrace contextTrace = trace.getContexts().get(0);
+        assertThat(contextTrace.isValid(), is(true));
+        assertThat(contextTrace.getVerifications().stream().map(VerificationEntry::getVerification).toList(), 
+                contains(verifications.stream().map(Verification::getPriority).toArray()));
+        RuleEntry requireRule = contextTrace.getRules().get(0);
+        assertThat(requireRule.getStepName(), is("build"));
+        assertThat(requireRule.getArtifactType(), is(ArtifactType.MATERIALS));
+        assertThat(requireRule.getRuleType(), is(RuleType.REQUIRE));
+        assertThat(requireRule.getNotConsumedArtifacts(), is(3));
+        assertThat(requireRule.getConsumedArtifacts(), is(1));
+        RuleEntry allowRule = contextTrace.getRules().get(1);
+        assertThat(allowRule.getRuleType(), is(RuleType.ALLOW));
+        assertThat(allowRule.getConsumedArtifacts(), is(2));
+        assertThat(contextTrace.getRules().size(), is(15));
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.argosnotary.argos.domain.crypto.Signature;
+import com.argosnotary.argos.domain.layout.Layout;
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
+import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.domain.link.Link;
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+import com.argosnotary.argos.service.verification.VerificationLimitException.Limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VerificationResultCacheTest {
+    
+    private static final UUID SUPPLY_CHAIN_ID = UUID.randomUUID();
+    
+    private SimpleMeterRegistry meterRegistry;
+    
+    private VerificationResultCache verificationResultCache;
+    
+    private LayoutMetaBlock layoutMetaBlock;
+    
+    private List<LinkMetaBlock> links;
+    
+    private Set<Artifact> products;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        verificationResultCache = new VerificationResultCache(new VerificationProperties(), meterRegistry);
+        layoutMetaBlock = createLayoutMetaBlock("layoutSig");
+        links = List.of(createLinkMetaBlock("sig1"), createLinkMetaBlock("sig2"));
+        products = Set.of(Artifact.builder().uri("file").hash("hash").build());
+    }
+
+    @Test
+    void getWithSameInputShouldReturnCachedResult() {
+        VerificationRunResult result = verificationResultCache.get(layoutMetaBlock, links, products, VerificationRunResult::okay);
+        assertThat(verificationResultCache.get(createLayoutMetaBlock("layoutSig"), List.of(links.get(1), links.get(0)), 
+                Set.of(Artifact.builder().uri("file").hash("hash").build()), 
+                () -> VerificationRunResult.valid(false)), sameInstance(result));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", VerificationResultCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count(), is(1.0));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", VerificationResultCache.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count(), is(1.0));
+    }
+
+    @Test
+    void getWithChangedInputShouldVerify() {
+        VerificationRunResult result = verificationResultCache.get(layoutMetaBlock, links, products, VerificationRunResult::okay);
+        assertThat(verificationResultCache.get(createLayoutMetaBlock("otherSig"), links, products, VerificationRunResult::okay), 
+                not(sameInstance(result)));
+        assertThat(verificationResultCache.get(layoutMetaBlock, List.of(links.get(0)), products, VerificationRunResult::okay), 
+                not(sameInstance(result)));
+        assertThat(verificationResultCache.get(layoutMetaBlock, links, 
+                Set.of(Artifact.builder().uri("file").hash("otherHash").build()), VerificationRunResult::okay), 
+                not(sameInstance(result)));
+    }
+
+    @Test
+    void getWithSeparatorsInUrisShouldNotMixUpProducts() {
+        Set<Artifact> twoProducts = Set.of(Artifact.builder().uri("a").hash("h1").build(), Artifact.builder().uri("b").hash("h2").build());
+        VerificationRunResult result = verificationResultCache.get(layoutMetaBlock, links, twoProducts, VerificationRunResult::okay);
+        Set<Artifact> oneProduct = Set.of(Artifact.builder().uri("a;h2:b").hash("h1").build());
+        assertThat(verificationResultCache.get(layoutMetaBlock, links, oneProduct, VerificationRunResult::okay), 
+                not(sameInstance(result)));
+    }
+
+    @Test
+    void getWithChangedLinkContentShouldVerify() {
+        VerificationRunResult result = verificationResultCache.get(layoutMetaBlock, links, products, VerificationRunResult::okay);
+        // the same signatures with another link
+        LinkMetaBlock changed = createLinkMetaBlock("sig1");
+        changed.getLink().setStepName("other");
+        assertThat(verificationResultCache.get(layoutMetaBlock, List.of(changed, links.get(1)), products, VerificationRunResult::okay), 
+                not(sameInstance(result)));
+    }
+
+    @Test
+    void invalidate() {
+        VerificationRunResult result = verificationResultCache.get(layoutMetaBlock, links, products, VerificationRunResult::okay);
+        verificationResultCache.invalidate(SUPPLY_CHAIN_ID);
+        VerificationRunResult afterInvalidate = verificationResultCache.get(layoutMetaBlock, links, products, VerificationRunResult::okay);
+        assertThat(afterInvalidate, not(sameInstance(result)));
+        assertThat(verificationResultCache.get(layoutMetaBlock, links, products, VerificationRunResult::okay), 
+                sameInstance(afterInvalidate));
+    }
+
+    @Test
+    void invalidateShouldNotAffectOtherSupplyChains() {
+        LayoutMetaBlock otherLayoutMetaBlock = createLayoutMetaBlock("layoutSig");
+        otherLayoutMetaBlock.setSupplyChainId(UUID.randomUUID());
+        VerificationRunResult result = verificationResultCache.get(otherLayoutMetaBlock, links, products, VerificationRunResult::okay);
+        verificationResultCache.invalidate(SUPPLY_CHAIN_ID);
+        assertThat(verificationResultCache.get(otherLayoutMetaBlock, links, products, VerificationRunResult::okay), 
+                sameInstance(result));
+    }
+
+    @Test
+    void getWithExceededLimitShouldNotCache() {
+        assertThrows(VerificationLimitException.class, () -> verificationResultCache.get(layoutMetaBlock, links, products, 
+                () -> { throw new VerificationLimitException(Limit.TIME, "time budget exceeded"); }));
+        assertThat(verificationResultCache.get(layoutMetaBlock, links, products, VerificationRunResult::okay).isRunIsValid(), is(true));
+    }
+
+    @Test
+    void getWithoutLayoutSignaturesShouldNotCache() {
+        LayoutMetaBlock unsigned = LayoutMetaBlock.builder().supplyChainId(SUPPLY_CHAIN_ID).layout(Layout.builder().build()).build();
+        VerificationRunResult result = verificationResultCache.get(unsigned, links, products, VerificationRunResult::okay);
+        assertThat(verificationResultCache.get(unsigned, links, products, VerificationRunResult::okay), not(sameInstance(result)));
+    }
+    
+    private static LayoutMetaBlock createLayoutMetaBlock(String sig) {
+        return LayoutMetaBlock.builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .signatures(List.of(Signature.builder().keyId("keyId").sig(sig).build()))
+                .layout(Layout.builder().build())
+                .build();
+    }
+    
+    private static LinkMetaBlock createLinkMetaBlock(String sig) {
+        return LinkMetaBlock.builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .signature(Signature.builder().keyId("keyId").sig(sig).build())
+                .link(Link.builder().stepName("step").build())
+                .build();
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.argosnotary.argos.domain.crypto.PublicKey;
+import com.argosnotary.argos.domain.crypto.Signature;
+import com.argosnotary.argos.domain.layout.ArtifactType;
+import com.argosnotary.argos.domain.layout.Layout;
+import com.argosnotary.argos.domain.layout.LayoutMetaBlock;
+import com.argosnotary.argos.domain.layout.Step;
+import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.domain.link.Link;
+import com.argosnotary.argos.domain.link.LinkMetaBlock;
+import com.argosnotary.argos.service.layout.LayoutMetaBlockService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class VerificationStateServiceTest {
+    
+    private static final UUID SUPPLY_CHAIN_ID = UUID.randomUUID();
+    private static final String STEP_NAME = "step1";
+    private static final String KEY_ID = "keyId";
+    
+    @Mock
+    private LayoutMetaBlockService layoutMetaBlockService;
+    
+    @Mock
+    private SignatureValidatorService signatureValidatorService;
+    
+    private LayoutPlanCache layoutPlanCache;
+    
+    private VerificationStateService verificationStateService;
+    
+    private PublicKey publicKey;
+    
+    private LayoutMetaBlock layoutMetaBlock;
+
+    @BeforeEach
+    void setUp() {
+        VerificationProperties verificationProperties = new VerificationProperties();
+        layoutPlanCache = new LayoutPlanCache(verificationProperties);
+        verificationStateService = new VerificationStateService(layoutMetaBlockService, layoutPlanCache, 
+                signatureValidatorService, new VerificationResultCache(verificationProperties, new SimpleMeterRegistry()), verificationProperties);
+        publicKey = new PublicKey(KEY_ID, new byte[] {1});
+        layoutMetaBlock = createLayoutMetaBlock("layoutSig");
+    }
+
+    @Test
+    void addLinkShouldKeepLinkChecks() {
+        LinkMetaBlock linkMetaBlock = createLinkMetaBlock(KEY_ID);
+        when(layoutMetaBlockService.getLayout(SUPPLY_CHAIN_ID)).thenReturn(Optional.of(layoutMetaBlock));
+        when(signatureValidatorService.validateSignature(linkMetaBlock, Optional.of(publicKey)))
+            .thenReturn(true);
+        verificationStateService.addLink(linkMetaBlock);
+        
+        SupplyChainVerificationState state = verificationStateService.getState(layoutPlanCache.getPlan(layoutMetaBlock));
+        assertThat(state.size(), is(1));
+        
+        // a loaded copy of the link meta block is not checked again
+        LinkMetaBlock loaded = createLinkMetaBlock(KEY_ID);
+        LinkValidations linkValidations = new LinkValidations(state);
+        assertThat(linkValidations.isAuthorized(loaded, () -> fail("checked again")), is(true));
+        assertThat(linkValidations.isSignatureValid(loaded, () -> fail("checked again")), is(true));
+        assertThat(linkValidations.getArtifactIndexes(loaded).get().get(ArtifactType.PRODUCTS)
+                .containsUri("file"), is(true));
+    }
+
+    @Test
+    void addLinkValidatedWithTheLayoutKeyShouldNotValidateTheSignatureAgain() {
+        LinkMetaBlock linkMetaBlock = createLinkMetaBlock(KEY_ID);
+        when(layoutMetaBlockService.getLayout(SUPPLY_CHAIN_ID)).thenReturn(Optional.of(layoutMetaBlock));
+        verificationStateService.addLink(linkMetaBlock, Optional.of(new PublicKey(KEY_ID, new byte[] {1})));
+        
+        verify(signatureValidatorService, never()).validateSignature(any(LinkMetaBlock.class), any());
+        LinkValidations linkValidations = new LinkValidations(verificationStateService.getState(layoutPlanCache.getPlan(layoutMetaBlock)));
+        assertThat(linkValidations.isSignatureValid(createLinkMetaBlock(KEY_ID), () -> fail("checked again")), is(true));
+    }
+
+    @Test
+    void addLinkValidatedWithAnotherKeyShouldValidateTheSignatureWithTheLayoutKey() {
+        LinkMetaBlock linkMetaBlock = createLinkMetaBlock(KEY_ID);
+        when(layoutMetaBlockService.getLayout(SUPPLY_CHAIN_ID)).thenReturn(Optional.of(layoutMetaBlock));
+        when(signatureValidatorService.validateSignature(linkMetaBlock, Optional.of(publicKey)))
+            .thenReturn(false);
+        verificationStateService.addLink(linkMetaBlock, Optional.of(new PublicKey(KEY_ID, new byte[] {2})));
+        
+        LinkValidations linkValidations = new LinkValidations(verificationStateService.getState(layoutPlanCache.getPlan(layoutMetaBlock)));
+        assertThat(linkValidations.isSignatureValid(createLinkMetaBlock(KEY_ID), () -> true), is(false));
+    }
+
+    @Test
+    void changedLinkShouldBeCheckedAgain() {
+        LinkMetaBlock linkMetaBlock = createLinkMetaBlock(KEY_ID);
+        linkMetaBlock.calculateDigests();
+        when(layoutMetaBlockService.getLayout(SUPPLY_CHAIN_ID)).thenReturn(Optional.of(layoutMetaBlock));
+        when(signatureValidatorService.validateSignature(linkMetaBlock, Optional.of(publicKey)))
+            .thenReturn(true);
+        verificationStateService.addLink(linkMetaBlock);
+        
+        // the link is changed in the database, the stored digest is not
+        LinkMetaBlock loaded = createLinkMetaBlock(KEY_ID);
+        loaded.getLink().setProducts(List.of(Artifact.builder().uri("file").hash("otherHash").build()));
+        loaded.setLinkDigest(linkMetaBlock.getLinkDigest());
+        loaded.calculateDigests();
+        LinkValidations linkValidations = new LinkValidations(verificationStateService.getState(layoutPlanCache.getPlan(layoutMetaBlock)));
+        assertThat(linkValidations.isSignatureValid(loaded, () -> false), is(false));
+        assertThat(linkValidations.getArtifactIndexes(loaded).isPresent(), is(false));
+    }
+
+    @Test
+    void addLinkWithNotAuthorizedKey() {
+        LinkMetaBlock linkMetaBlock = createLinkMetaBlock("otherKeyId");
+        when(layoutMetaBlockService.getLayout(SUPPLY_CHAIN_ID)).thenReturn(Optional.of(layoutMetaBlock));
+        verificationStateService.addLink(linkMetaBlock);
+        
+        LinkValidations linkValidations = new LinkValidations(verificationStateService.getState(layoutPlanCache.getPlan(layoutMetaBlock)));
+        assertThat(linkValidations.isAuthorized(createLinkMetaBlock("otherKeyId"), () -> true), is(false));
+        assertThat(linkValidations.getArtifactIndexes(linkMetaBlock).isPresent(), is(false));
+    }
+
+    @Test
+    void addLinkWithoutLayout() {
+        when(layoutMetaBlockService.getLayout(SUPPLY_CHAIN_ID)).thenReturn(Optional.empty());
+        verificationStateService.addLink(createLinkMetaBlock(KEY_ID));
+        verify(signatureValidatorService, never()).validateSignature(any(LinkMetaBlock.class), any());
+        assertThat(verificationStateService.getState(layoutPlanCache.getPlan(layoutMetaBlock)), nullValue());
+    }
+
+    @Test
+    void getStateWithChangedLayout() {
+        when(layoutMetaBlockService.getLayout(SUPPLY_CHAIN_ID)).thenReturn(Optional.of(layoutMetaBlock));
+        verificationStateService.addLink(createLinkMetaBlock(KEY_ID));
+        assertThat(verificationStateService.getState(layoutPlanCache.getPlan(layoutMetaBlock)), notNullValue());
+        assertThat(verificationStateService.getState(layoutPlanCache.getPlan(createLayoutMetaBlock("otherSig"))), nullValue());
+    }
+
+    @Test
+    void remove() {
+        when(layoutMetaBlockService.getLayout(SUPPLY_CHAIN_ID)).thenReturn(Optional.of(layoutMetaBlock));
+        verificationStateService.addLink(createLinkMetaBlock(KEY_ID));
+        verificationStateService.remove(SUPPLY_CHAIN_ID);
+        assertThat(verificationStateService.getState(layoutPlanCache.getPlan(layoutMetaBlock)), nullValue());
+    }
+    
+    private LayoutMetaBlock createLayoutMetaBlock(String sig) {
+        return LayoutMetaBlock.builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .signatures(List.of(Signature.builder().keyId(KEY_ID).sig(sig).build()))
+                .layout(Layout.builder()
+                        .keys(List.of(publicKey))
+                        .steps(List.of(Step.builder().name(STEP_NAME).authorizedKeyIds(List.of(KEY_ID)).build()))
+                        .build())
+                .build();
+    }
+    
+    private static LinkMetaBlock createLinkMetaBlock(String keyId) {
+        return LinkMetaBlock.builder()
+                .supplyChainId(SUPPLY_CHAIN_ID)
+                .signature(Signature.builder().keyId(keyId).sig("linkSig").build())
+                .link(Link.builder()
+                        .stepName(STEP_NAME)
+                        .materials(List.of())
+                        .products(List.of(Artifact.builder().uri("file").hash("hash").build()))
+                        .build())
+                .build();
+    }
+
+}
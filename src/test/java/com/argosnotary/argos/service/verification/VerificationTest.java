@@ -19,20 +19,25 @@
  */
 package com.argosnotary.argos.service.verification;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -59,6 +64,8 @@ import com.argosnotary.argos.domain.link.Link.LinkBuilder;
 import com.argosnotary.argos.domain.link.LinkMetaBlock;
 import com.argosnotary.argos.service.account.AccountService;
 import com.argosnotary.argos.service.mongodb.link.LinkMetaBlockRepository;
+import com.argosnotary.argos.service.verification.VerificationLimitException.Limit;
+import com.argosnotary.argos.service.verification.VerificationProperties.EvaluationMode;
 import com.argosnotary.argos.service.verification.rules.AllowRuleVerification;
 import com.argosnotary.argos.service.verification.rules.CreateRuleVerification;
 import com.argosnotary.argos.service.verification.rules.DeleteRuleVerification;
@@ -66,6 +73,8 @@ import com.argosnotary.argos.service.verification.rules.DisallowRuleVerification
 import com.argosnotary.argos.service.verification.rules.MatchRuleVerification;
 import com.argosnotary.argos.service.verification.rules.ModifyRuleVerification;
 import com.argosnotary.argos.service.verification.rules.RequireRuleVerification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 
@@ -74,6 +83,11 @@ class VerificationTest {
     
     @Mock
     private LinkMetaBlockRepository linkMetaBlockRepository;
+
+    
+    @Mock
+    
+    private VerificationStateService verificationStateService;
     
     @Mock
     private AccountService accountService;
@@ -87,6 +101,8 @@ class VerificationTest {
     private VerificationContextsProvider verificationContextsProvider;
 
     private VerificationProvider verificationProvider;
+
+    private VerificationProperties verificationProperties;
     
     private UUID SUPPLYCHAIN_ID = UUID.randomUUID();
     
@@ -109,7 +125,8 @@ class VerificationTest {
     
     @BeforeEach
     void setup() throws Exception {
-    	signatureValidatorService = new SignatureValidatorService(accountService);
+    	signatureValidatorService = new SignatureValidatorService(accountService, new PublicKeyCache(new VerificationProperties(), new SimpleMeterRegistry()), new VerificationProperties());
+    	verificationProperties = new VerificationProperties();
     	bobKey = CryptoHelper.createKeyPair(PASSWORD);
         aliceKey = CryptoHelper.createKeyPair(PASSWORD);
         carlKey = CryptoHelper.createKeyPair(PASSWORD);
@@ -123,7 +140,7 @@ class VerificationTest {
                 new DisallowRuleVerification(),
                 new MatchRuleVerification(),
                 new ModifyRuleVerification(),
-                new RequireRuleVerification()));
+                new RequireRuleVerification()), verificationProperties);
         rulesVerification.init();
         verifications = Arrays.asList(
                 new LayoutAuthorizedKeyIdVerification(),
@@ -133,17 +150,11 @@ class VerificationTest {
                 rulesVerification,
                 new StepAuthorizedKeyIdVerification()
                 );
-        verificationContextsProvider = new VerificationContextsProvider(linkMetaBlockRepository, List.of(
-                new AllowRuleVerification(), 
-                new CreateRuleVerification(),
-                new DeleteRuleVerification(),
-                new DisallowRuleVerification(),
-                new MatchRuleVerification(),
-                new ModifyRuleVerification(),
-                new RequireRuleVerification()));
-        verificationContextsProvider.init();
+        verificationContextsProvider = new VerificationContextsProvider(linkMetaBlockRepository, signatureValidatorService, rulesVerification, verificationStateService);
         verifications.sort(Comparator.comparing(Verification::getPriority));
-        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider);
+        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider, verificationProperties, new LayoutPlanCache(verificationProperties),
+                new VerificationResultCache(verificationProperties, new SimpleMeterRegistry()),
+                new VerificationAdmission(verificationProperties, new SimpleMeterRegistry()));
         verificationProvider.init();
     
         step1LinkBuilder = Link.builder()
@@ -189,13 +200,182 @@ class VerificationTest {
         Map<String, EnumMap<ArtifactType, Set<Artifact>>> stepMap = new HashMap<>();
         stepMap.put(step1.getName(), artifactTypeHashes);
         
-        when(linkMetaBlockRepository.findBySupplyChainId(SUPPLYCHAIN_ID)).thenReturn(Arrays.asList(alicesStep1Block));
-        when(accountService.findPublicKeyByKeyId(bobKey.getKeyId())).thenReturn(Optional.of(bobKey));
+        when(linkMetaBlockRepository.findForVerification(SUPPLYCHAIN_ID)).thenReturn(Arrays.asList(alicesStep1Block));
+        when(accountService.findPublicKeysByKeyIds(Set.of(bobKey.getKeyId()))).thenReturn(Map.of(bobKey.getKeyId(), bobKey));
 
         VerificationRunResult result = verificationProvider.verifyRun(layoutMetaBlock, Set.of(artifact1));
         assertTrue(result.isRunIsValid());     
     }
     
+    @Test
+    void firstValidShouldStopAtFirstValidContext() throws Exception {
+        VerificationRunResult result = verifyRunWithTwoValidContexts(EvaluationMode.FIRST_VALID);
+        assertTrue(result.isRunIsValid());
+        assertThat(result.getEvaluatedContexts(), is(1));
+        assertThat(result.getSkippedContexts(), is(0));
+    }
+    
+    @Test
+    void allShouldEvaluateAllContexts() throws Exception {
+        VerificationRunResult result = verifyRunWithTwoValidContexts(EvaluationMode.ALL);
+        assertTrue(result.isRunIsValid());
+        assertThat(result.getEvaluatedContexts(), is(2));
+    }
+    
+    @Test
+    void parallelFirstValidShouldReturnValidResult() throws Exception {
+        useParallelism(4);
+        VerificationRunResult result = verifyRunWithTwoValidContexts(EvaluationMode.FIRST_VALID);
+        assertTrue(result.isRunIsValid());
+        assertThat(result.getEvaluatedContexts(), is(1));
+        assertThat(result.getSkippedContexts(), is(1));
+        verificationProvider.shutdown();
+    }
+    
+    @Test
+    void parallelAllShouldEvaluateAllContexts() throws Exception {
+        useParallelism(4);
+        VerificationRunResult result = verifyRunWithTwoValidContexts(EvaluationMode.ALL);
+        assertTrue(result.isRunIsValid());
+        assertThat(result.getEvaluatedContexts(), is(2));
+        assertThat(result.getSkippedContexts(), is(0));
+        verificationProvider.shutdown();
+    }
+    
+    @Test
+    void exceededTimeBudgetShouldThrowLimitException() throws Exception {
+        verificationProperties.setTimeBudget(Duration.ZERO);
+        VerificationLimitException exception = assertThrows(VerificationLimitException.class, 
+                () -> verifyRunWithTwoValidContexts(EvaluationMode.FIRST_VALID));
+        assertThat(exception.getLimit(), is(Limit.TIME));
+    }
+    
+    @Test
+    void parallelExceededTimeBudgetShouldThrowLimitException() throws Exception {
+        useParallelism(2);
+        verificationProperties.setTimeBudget(Duration.ZERO);
+        VerificationLimitException exception = assertThrows(VerificationLimitException.class, 
+                () -> verifyRunWithTwoValidContexts(EvaluationMode.FIRST_VALID));
+        assertThat(exception.getLimit(), is(Limit.TIME));
+        verificationProvider.shutdown();
+    }
+    
+    @Test
+    void exceededTimeBudgetDuringVerificationShouldThrowLimitException() throws Exception {
+        verificationProperties.setTimeBudget(Duration.ofMillis(500));
+        AtomicInteger slowVerifications = new AtomicInteger();
+        AtomicInteger nextVerifications = new AtomicInteger();
+        verifications = Arrays.asList(
+                countingVerification(Verification.Priority.LAYOUT_AUTHORIZED_KEYID, slowVerifications, 700), 
+                countingVerification(Verification.Priority.RULES, nextVerifications, 0));
+        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider, verificationProperties, new LayoutPlanCache(verificationProperties),
+                new VerificationResultCache(verificationProperties, new SimpleMeterRegistry()),
+                new VerificationAdmission(verificationProperties, new SimpleMeterRegistry()));
+        verificationProvider.init();
+        
+        VerificationLimitException exception = assertThrows(VerificationLimitException.class, 
+                () -> verifyRunWithTwoValidContexts(EvaluationMode.FIRST_VALID));
+        assertThat(exception.getLimit(), is(Limit.TIME));
+        assertThat(slowVerifications.get(), is(1));
+        assertThat(nextVerifications.get(), is(0));
+    }
+    
+    private static Verification countingVerification(Verification.Priority priority, AtomicInteger count, long sleepMillis) {
+        return new Verification() {
+            @Override
+            public Priority getPriority() {
+                return priority;
+            }
+            
+            @Override
+            public VerificationRunResult verify(VerificationContext context) {
+                count.incrementAndGet();
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return VerificationRunResult.valid(true);
+            }
+        };
+    }
+    
+    @Test
+    void exceededMaxContextsShouldThrowLimitException() throws Exception {
+        verificationProperties.setMaxContexts(1);
+        VerificationLimitException exception = assertThrows(VerificationLimitException.class, 
+                () -> verifyRunWithTwoValidContexts(EvaluationMode.ALL));
+        assertThat(exception.getLimit(), is(Limit.CONTEXTS));
+        assertThat(exception.getMessage(), is("verification run exceeded the maximum of 1 verification contexts"));
+    }
+    
+    @Test
+    void exceededMaxCombinationsShouldThrowLimitException() throws Exception {
+        verificationProperties.setMaxCombinations(1);
+        VerificationLimitException exception = assertThrows(VerificationLimitException.class, 
+                () -> verifyRunWithTwoValidContexts(EvaluationMode.ALL));
+        assertThat(exception.getLimit(), is(Limit.CONTEXTS));
+        assertThat(exception.getMessage(), is("verification run exceeded the maximum of 1 checked link combinations"));
+    }
+    
+    @Test
+    void validContextWithinMaxContextsShouldBeValid() throws Exception {
+        verificationProperties.setMaxContexts(1);
+        VerificationRunResult result = verifyRunWithTwoValidContexts(EvaluationMode.FIRST_VALID);
+        assertTrue(result.isRunIsValid());
+        assertThat(result.getEvaluatedContexts(), is(1));
+    }
+    
+    private void useParallelism(int parallelism) {
+        verificationProperties.setParallelism(parallelism);
+        verificationProvider = new VerificationProvider(verifications, verificationContextsProvider, verificationProperties, new LayoutPlanCache(verificationProperties),
+                new VerificationResultCache(verificationProperties, new SimpleMeterRegistry()),
+                new VerificationAdmission(verificationProperties, new SimpleMeterRegistry()));
+        verificationProvider.init();
+    }
+    
+    private VerificationRunResult verifyRunWithTwoValidContexts(EvaluationMode evaluationMode) throws Exception {
+        verificationProperties.setEvaluationMode(evaluationMode);
+        Artifact artifact1 = new Artifact("file1", "hash1");
+        Artifact artifact2 = new Artifact("file2", "hash2");
+        
+        Step step1 = step1Builder
+                .authorizedKeyIds(List.of(aliceKey.getKeyId()))
+                .expectedMaterials(List.of(new Rule(RuleType.ALLOW, "**")))
+                .expectedProducts(List.of(new Rule(RuleType.ALLOW, "**")))
+                .requiredNumberOfLinks(1).build();
+        Layout layout = Layout.builder()
+                .authorizedKeyIds(List.of(bobKey.getKeyId()))
+                .keys(List.of(bobPublicKey,alicePublicKey))
+                .expectedEndProducts(List.of(MatchRule.builder()
+                        .destinationStepName("step1")
+                        .destinationType(ArtifactType.PRODUCTS)
+                        .pattern("**").build()))
+                .steps(List.of(step1))
+                .build();
+        Signature signature = CryptoHelper.sign(bobKey, PASSWORD, new JsonSigningSerializer().serialize(layout));
+        LayoutMetaBlock layoutMetaBlock  = LayoutMetaBlock.builder().supplyChainId(SUPPLYCHAIN_ID).layout(layout).signatures(List.of(signature)).build();
+        
+        Link step1Link = Link.builder().stepName("step1")
+                .products(List.of(artifact1))
+                .build();
+        Link otherStep1Link = Link.builder().stepName("step1")
+                .materials(List.of(artifact2))
+                .products(List.of(artifact1))
+                .build();
+        
+        LinkMetaBlock alicesStep1Block = LinkMetaBlock.builder().link(step1Link)
+                .signature(CryptoHelper.sign(aliceKey, PASSWORD, new JsonSigningSerializer().serialize(step1Link))).build();
+        LinkMetaBlock alicesOtherStep1Block = LinkMetaBlock.builder().link(otherStep1Link)
+                .signature(CryptoHelper.sign(aliceKey, PASSWORD, new JsonSigningSerializer().serialize(otherStep1Link))).build();
+        
+        when(linkMetaBlockRepository.findForVerification(SUPPLYCHAIN_ID)).thenReturn(List.of(alicesStep1Block, alicesOtherStep1Block));
+        // not used when the time budget is exceeded before the first context
+        lenient().when(accountService.findPublicKeysByKeyIds(Set.of(bobKey.getKeyId()))).thenReturn(Map.of(bobKey.getKeyId(), bobKey));
+
+        return verificationProvider.verifyRun(layoutMetaBlock, Set.of(artifact1));
+    }
+    
     @Test
     void allRules() throws JsonParseException, JsonMappingException, IOException, GeneralSecurityException {        
         Artifact artifact1 = new Artifact("file1", "hash1");
@@ -248,8 +428,8 @@ class VerificationTest {
         EnumMap<ArtifactType, Set<Artifact>> artifactTypeHashes = new EnumMap<>(ArtifactType.class);
         artifactTypeHashes.put(ArtifactType.PRODUCTS, Set.of(artifact5));
         
-        when(linkMetaBlockRepository.findBySupplyChainId(SUPPLYCHAIN_ID)).thenReturn(List.of(alicesStep1Block));
-        when(accountService.findPublicKeyByKeyId(bobKey.getKeyId())).thenReturn(Optional.of(bobKey));
+        when(linkMetaBlockRepository.findForVerification(SUPPLYCHAIN_ID)).thenReturn(List.of(alicesStep1Block));
+        when(accountService.findPublicKeysByKeyIds(Set.of(bobKey.getKeyId()))).thenReturn(Map.of(bobKey.getKeyId(), bobKey));
 
         VerificationRunResult result = verificationProvider.verifyRun(layoutMetaBlock, Set.of(artifact5));
         assertTrue(result.isRunIsValid());        
@@ -322,8 +502,8 @@ class VerificationTest {
         stepMap.put(step1.getName(), artifactTypeHashes1);
         stepMap.put(step2.getName(), artifactTypeHashes2);
 
-        when(linkMetaBlockRepository.findBySupplyChainId(SUPPLYCHAIN_ID)).thenReturn(List.of(alicesStep1Block, alicesStep2Block));
-        when(accountService.findPublicKeyByKeyId(bobKey.getKeyId())).thenReturn(Optional.of(bobKey));
+        when(linkMetaBlockRepository.findForVerification(SUPPLYCHAIN_ID)).thenReturn(List.of(alicesStep1Block, alicesStep2Block));
+        when(accountService.findPublicKeysByKeyIds(Set.of(bobKey.getKeyId()))).thenReturn(Map.of(bobKey.getKeyId(), bobKey));
         
         VerificationRunResult result = verificationProvider.verifyRun(layoutMetaBlock, Set.of(artifact1));
         assertTrue(result.isRunIsValid());        
@@ -0,0 +1,61 @@
+/*
+ * Argos Notary - A new way to secure the Software Supply Chain
+ *
+ * Copyright (C) 2019 - 2020 Rabobank Nederland
+ * Copyright (C) 2019 - 2025 Gerard Borst <gerard.borst@argosnotary.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.argosnotary.argos.service.verification;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.junit.jupiter.api.Test;
+
+import com.argosnotary.argos.service.verification.Verification.Priority;
+import com.argosnotary.argos.service.verification.VerificationTrace.ContextTrace;
+import com.argosnotary.argos.service.verification.VerificationTrace.RuleEntry;
+
+class VerificationTraceTest {
+
+    @Test
+    void addContextShouldStopTracingAtTheMaximum() {
+        VerificationTrace trace = new VerificationTrace(2, 10);
+        assertThat(trace.addContext(), is(notNullValue()));
+        assertThat(trace.addContext(), is(notNullValue()));
+        assertThat(trace.isTruncated(), is(false));
+        assertThat(trace.addContext(), is(nullValue()));
+        assertThat(trace.getGeneratedContexts(), is(3));
+        assertThat(trace.getContexts(), hasSize(2));
+        assertThat(trace.isTruncated(), is(true));
+    }
+
+    @Test
+    void addEntriesShouldStopTracingAtTheMaximum() {
+        ContextTrace contextTrace = new VerificationTrace(2, 2).addContext();
+        contextTrace.addVerification(Priority.RULES, true, 1000);
+        contextTrace.addRule(RuleEntry.builder().stepName("step").build());
+        assertThat(contextTrace.isTruncated(), is(false));
+        contextTrace.addRule(RuleEntry.builder().stepName("step").build());
+        contextTrace.addVerification(Priority.RULES, true, 1000);
+        assertThat(contextTrace.getVerifications(), hasSize(1));
+        assertThat(contextTrace.getRules(), hasSize(1));
+        assertThat(contextTrace.isTruncated(), is(true));
+    }
+
+}
@@ -37,6 +37,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import com.argosnotary.argos.domain.layout.rule.Rule;
 import com.argosnotary.argos.domain.layout.rule.RuleType;
 import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.service.verification.ArtifactIndex;
 import com.argosnotary.argos.service.verification.ArtifactsVerificationContext;
 
 
@@ -69,8 +70,8 @@ class CreateOrModifyRuleVerificationTest {
     @Test
     void verifyExpectedArtifacts() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of());
-        when(context.getProducts()).thenReturn(Set.of(artifact));
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of()));
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
         assertThat(verification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of(artifact));
     }
@@ -78,8 +79,8 @@ class CreateOrModifyRuleVerificationTest {
     @Test
     void verifyExpectedProductsArtifactInMaterials() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of());
-        when(context.getProducts()).thenReturn(Set.of());
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of()));
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of()));
         assertThat(verification.verify(context), is(false));
         verify(context, times(0)).consume(anySet());
     }
@@ -94,8 +95,8 @@ class CreateOrModifyRuleVerificationTest {
     @Test
     void verifyExpectedMaterialsIsNotValid() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of(artifact));
-        when(context.getProducts()).thenReturn(Set.of(artifact));
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
         assertThat(verification.verify(context), is(false));
         verify(context, times(0)).consume(Set.of(artifact));
     }
@@ -103,8 +104,8 @@ class CreateOrModifyRuleVerificationTest {
     @Test
     void verifyModifiedAndCreatedValid() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(productArtifact, materialArtifact, artifact2));
-        when(context.getMaterials()).thenReturn(Set.of(artifact, materialArtifact));
-        when(context.getProducts()).thenReturn(Set.of(artifact, productArtifact, artifact2));
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact, materialArtifact)));
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact, productArtifact, artifact2)));
         assertThat(verification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of(artifact2, productArtifact, materialArtifact));
     }
@@ -37,6 +37,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import com.argosnotary.argos.domain.layout.rule.Rule;
 import com.argosnotary.argos.domain.layout.rule.RuleType;
 import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.service.verification.ArtifactIndex;
 import com.argosnotary.argos.service.verification.ArtifactsVerificationContext;
 
 
@@ -51,8 +52,7 @@ class CreateRuleVerificationTest {
     @Mock
     private ArtifactsVerificationContext artifactsContext;
 
-    @Mock
-    private Artifact artifact;
+    private Artifact artifact = new Artifact("uri", "hash");
 
     @BeforeEach
     void setUp() {
@@ -67,8 +67,8 @@ class CreateRuleVerificationTest {
     @Test
     void verifyExpectedArtifacts() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of());
-        when(context.getProducts()).thenReturn(Set.of(artifact));
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of()));
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
         assertThat(verification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of(artifact));
     }
@@ -76,8 +76,8 @@ class CreateRuleVerificationTest {
     @Test
     void verifyExpectedProductsArtifactInMaterials() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of());
-        when(context.getProducts()).thenReturn(Set.of());
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of()));
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of()));
         assertThat(verification.verify(context), is(false));
         verify(context, times(0)).consume(anySet());
     }
@@ -92,8 +92,8 @@ class CreateRuleVerificationTest {
     @Test
     void verifyExpectedMaterialsIsNotValid() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of(artifact));
-        when(context.getProducts()).thenReturn(Set.of(artifact));
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
         assertThat(verification.verify(context), is(false));
         verify(context, times(0)).consume(Set.of(artifact));
     }
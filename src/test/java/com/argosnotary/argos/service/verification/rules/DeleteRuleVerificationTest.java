@@ -37,6 +37,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import com.argosnotary.argos.domain.layout.rule.Rule;
 import com.argosnotary.argos.domain.layout.rule.RuleType;
 import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.service.verification.ArtifactIndex;
 import com.argosnotary.argos.service.verification.ArtifactsVerificationContext;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,8 +51,7 @@ class DeleteRuleVerificationTest {
     @Mock
     private ArtifactsVerificationContext artifactsContext;
 
-    @Mock
-    private Artifact artifact;
+    private Artifact artifact = new Artifact("uri", "hash");
 
     @BeforeEach
     void setup() {
@@ -66,8 +66,8 @@ class DeleteRuleVerificationTest {
     @Test
     void verifyArtifacts() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of(artifact));
-        when(context.getProducts()).thenReturn(Set.of());
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of()));
         assertThat(deleteRuleVerification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of(artifact));
     }
@@ -75,6 +75,8 @@ class DeleteRuleVerificationTest {
     @Test
     void verifyNotDeleted() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of()));
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of()));
         assertThat(deleteRuleVerification.verify(context), is(false));
         verify(context, times(0)).consume(anySet());
 
@@ -83,8 +85,8 @@ class DeleteRuleVerificationTest {
     @Test
     void verifyWithNonDeletedArtifactsShouldProduceInvalid() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of(artifact));
-        when(context.getProducts()).thenReturn(Set.of(artifact));
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
         assertThat(deleteRuleVerification.verify(context), is(false));
         verify(context, times(0)).consume(anySet());
     }
@@ -93,8 +95,8 @@ class DeleteRuleVerificationTest {
     @Test
     void verifyOnProductsShouldProduceInvalid() {
         when(context.getFilteredArtifacts()).thenReturn(Set.of());
-        when(context.getMaterials()).thenReturn(Set.of(artifact));
-        when(context.getProducts()).thenReturn(Set.of());
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of()));
         assertThat(deleteRuleVerification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of());
     }
@@ -43,6 +43,7 @@ import com.argosnotary.argos.domain.layout.rule.MatchRule;
 import com.argosnotary.argos.domain.layout.rule.RuleType;
 import com.argosnotary.argos.domain.link.Artifact;
 import com.argosnotary.argos.domain.link.Link;
+import com.argosnotary.argos.service.verification.ArtifactIndex;
 import com.argosnotary.argos.service.verification.ArtifactsVerificationContext;
 
 
@@ -103,7 +104,7 @@ class MatchRuleVerificationTest {
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of(artifactWithoutPrfx));
         
         when(context.getLinkByStepName(DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
-        when(destinationLink.getMaterials()).thenReturn(List.of(artifactWithoutPrfx));
+        when(context.getArtifactIndex(destinationLink, ArtifactType.MATERIALS)).thenReturn(ArtifactIndex.of(List.of(artifactWithoutPrfx)));
         assertThat(verification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of(artifactWithoutPrfx));
         
@@ -115,7 +116,7 @@ class MatchRuleVerificationTest {
         when(context.getRule()).thenReturn(matchRule);
         
         when(context.getLinkByStepName(DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
-        when(destinationLink.getMaterials()).thenReturn(List.of(artifactWithoutPrfx));
+        when(context.getArtifactIndex(destinationLink, ArtifactType.MATERIALS)).thenReturn(ArtifactIndex.of(List.of(artifactWithoutPrfx)));
 
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of(sourceArtifactWithPrfx));
         matchRule = new MatchRule(URI2, null, ArtifactType.MATERIALS, null, DESTINATION_STEP_NAME);
@@ -136,7 +137,7 @@ class MatchRuleVerificationTest {
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of(artifactWithoutPrfx));
         
         when(context.getLinkByStepName(DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
-        when(destinationLink.getProducts()).thenReturn(List.of(artifactWithoutPrfx));
+        when(context.getArtifactIndex(destinationLink, ArtifactType.PRODUCTS)).thenReturn(ArtifactIndex.of(List.of(artifactWithoutPrfx)));
         assertThat(verification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of(artifactWithoutPrfx));
         
@@ -148,7 +149,7 @@ class MatchRuleVerificationTest {
         when(context.getRule()).thenReturn(matchRule);
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of(artifactWithoutPrfx));
         when(context.getLinkByStepName(DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
-        when(destinationLink.getMaterials()).thenReturn(List.of(artifactWithoutPrfx));
+        when(context.getArtifactIndex(destinationLink, ArtifactType.MATERIALS)).thenReturn(ArtifactIndex.of(List.of(artifactWithoutPrfx)));
         
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of(artifactWithoutPrfx));
 
@@ -161,7 +162,7 @@ class MatchRuleVerificationTest {
         MatchRule matchRule = new MatchRule(URI, null, ArtifactType.MATERIALS, null, DESTINATION_STEP_NAME);
         when(context.getRule()).thenReturn(matchRule);
         when(context.getLinkByStepName(DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
-        when(destinationLink.getMaterials()).thenReturn(List.of(artifactWithoutPrfx));
+        when(context.getArtifactIndex(destinationLink, ArtifactType.MATERIALS)).thenReturn(ArtifactIndex.of(List.of(artifactWithoutPrfx)));
         
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of());
 
@@ -174,7 +175,7 @@ class MatchRuleVerificationTest {
         MatchRule matchRule = new MatchRule(URI, SRC_PATH_PREFIX, ArtifactType.MATERIALS, null, DESTINATION_STEP_NAME);
         when(context.getRule()).thenReturn(matchRule);
         when(context.getLinkByStepName(DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
-        when(destinationLink.getMaterials()).thenReturn(List.of(artifactWithoutPrfx));
+        when(context.getArtifactIndex(destinationLink, ArtifactType.MATERIALS)).thenReturn(ArtifactIndex.of(List.of(artifactWithoutPrfx)));
         
         when(context.getFilteredArtifacts(SRC_PATH_PREFIX)).thenReturn(Set.of(sourceArtifactWithPrfx));
 
@@ -190,7 +191,7 @@ class MatchRuleVerificationTest {
         
         when(context.getFilteredArtifacts(SRC_PATH_PREFIX)).thenReturn(Set.of(sourceArtifactWithPrfx));
         
-        when(destinationLink.getMaterials()).thenReturn(List.of(sourceArtifactWithPrfx));
+        when(context.getArtifactIndex(destinationLink, ArtifactType.MATERIALS)).thenReturn(ArtifactIndex.of(List.of(sourceArtifactWithPrfx)));
 
         assertThat(verification.verify(context), is(false));
         verify(context, times(0)).consume(anySet());
@@ -201,7 +202,7 @@ class MatchRuleVerificationTest {
         MatchRule matchRule = new MatchRule(URI, null, ArtifactType.MATERIALS, DESTINATION_PATH_PREFIX, DESTINATION_STEP_NAME);
         when(context.getRule()).thenReturn(matchRule);
         when(context.getLinkByStepName(DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
-        when(destinationLink.getMaterials()).thenReturn(List.of(destinationArtifactWithPrfx));
+        when(context.getArtifactIndex(destinationLink, ArtifactType.MATERIALS)).thenReturn(ArtifactIndex.of(List.of(destinationArtifactWithPrfx)));
         
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of(artifactWithoutPrfx));
 
@@ -217,7 +218,7 @@ class MatchRuleVerificationTest {
         
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of(artifactWithoutPrfx));
         
-        when(destinationLink.getMaterials()).thenReturn(List.of(sourceArtifactWithPrfx));
+        when(context.getArtifactIndex(destinationLink, ArtifactType.MATERIALS)).thenReturn(ArtifactIndex.of(List.of(sourceArtifactWithPrfx)));
 
         assertThat(verification.verify(context), is(false));
         verify(context, times(0)).consume(anySet());
@@ -228,7 +229,7 @@ class MatchRuleVerificationTest {
         MatchRule matchRule = new MatchRule(URI, SRC_PATH_PREFIX, ArtifactType.MATERIALS, DESTINATION_PATH_PREFIX, DESTINATION_STEP_NAME);
         when(context.getRule()).thenReturn(matchRule);
         when(context.getLinkByStepName(DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
-        when(destinationLink.getMaterials()).thenReturn(List.of(destinationArtifactWithPrfx));
+        when(context.getArtifactIndex(destinationLink, ArtifactType.MATERIALS)).thenReturn(ArtifactIndex.of(List.of(destinationArtifactWithPrfx)));
         
         when(context.getFilteredArtifacts(SRC_PATH_PREFIX)).thenReturn(Set.of(sourceArtifactWithPrfx));
 
@@ -245,7 +246,7 @@ class MatchRuleVerificationTest {
         
         when(context.getFilteredArtifacts(SRC_PATH_PREFIX)).thenReturn(Set.of(sourceArtifactWithPrfx));
         
-        when(destinationLink.getMaterials()).thenReturn(List.of(destinationArtifactWithPrfx2));
+        when(context.getArtifactIndex(destinationLink, ArtifactType.MATERIALS)).thenReturn(ArtifactIndex.of(List.of(destinationArtifactWithPrfx2)));
 
         assertThat(verification.verify(context), is(false));
         verify(context, times(0)).consume(anySet());
@@ -259,7 +260,7 @@ class MatchRuleVerificationTest {
         when(context.getFilteredArtifacts(null)).thenReturn(Set.of(artifactWithoutPrfx));
         
         when(context.getLinkByStepName(DESTINATION_STEP_NAME)).thenReturn(Optional.of(destinationLink));
-        when(destinationLink.getMaterials()).thenReturn(List.of(destinationOtherHash));
+        when(context.getArtifactIndex(destinationLink, ArtifactType.MATERIALS)).thenReturn(ArtifactIndex.of(List.of(destinationOtherHash)));
         assertThat(verification.verify(context), is(false));
         verify(context, times(0)).consume(anySet());
     }
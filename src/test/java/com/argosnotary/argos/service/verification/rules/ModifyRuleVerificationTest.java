@@ -37,6 +37,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import com.argosnotary.argos.domain.layout.rule.Rule;
 import com.argosnotary.argos.domain.layout.rule.RuleType;
 import com.argosnotary.argos.domain.link.Artifact;
+import com.argosnotary.argos.service.verification.ArtifactIndex;
 import com.argosnotary.argos.service.verification.ArtifactsVerificationContext;
 
 @ExtendWith(MockitoExtension.class)
@@ -74,8 +75,8 @@ class ModifyRuleVerificationTest {
     void verifyArtifactsHappyFlow() {
 
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getProducts()).thenReturn(Set.of(artifact2,productArtifact));
-        when(context.getMaterials()).thenReturn(Set.of(artifact3, materialArtifact));
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact2,productArtifact)));
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact3, materialArtifact)));
 
         assertThat(verification.verify(context), is(true));
         verify(context, times(1)).consume(Set.of(artifact));
@@ -85,8 +86,8 @@ class ModifyRuleVerificationTest {
     void verifyArtifactsNotModified() {
 
         when(context.getFilteredArtifacts()).thenReturn(Set.of(artifact));
-        when(context.getProducts()).thenReturn(Set.of(artifact));
-        when(context.getMaterials()).thenReturn(Set.of(artifact));
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of(artifact)));
 
         assertThat(verification.verify(context), is(false));
         verify(context, times(0)).consume(anySet());
@@ -102,8 +103,8 @@ class ModifyRuleVerificationTest {
     @Test
     void verifyArtifactsNoMaterialMatch() {
 
-        when(context.getProducts()).thenReturn(Set.of(productArtifact));
-        when(context.getMaterials()).thenReturn(Set.of());
+        when(context.getProductsIndex()).thenReturn(ArtifactIndex.of(Set.of(productArtifact)));
+        when(context.getMaterialsIndex()).thenReturn(ArtifactIndex.of(Set.of()));
 
         when(context.getFilteredArtifacts()).thenReturn(Set.of(productArtifact));
 
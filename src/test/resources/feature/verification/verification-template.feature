@@ -47,7 +47,8 @@ Feature: verification template
     # when a call to a feature presented with an array of messages it will cal the feature template iteratively
     * call read('classpath:feature/link/create-link.feature') stepLinksJson
     * configure headers = call read('classpath:headers.js') { token: #(defaultTestData.ownerToken)}
-    Given path supplyChainPath + '/verification'
+    * def verificationSuffix = karate.get('verificationSuffix', '/verification')
+    Given path supplyChainPath + verificationSuffix
     And request  expectedProducts
     When method POST
     Then status 200
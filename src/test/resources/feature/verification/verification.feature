@@ -45,6 +45,12 @@ Feature: Verification
     * def resp = call read('classpath:feature/verification/verification-template.feature') { projectId: #(defaultProjectId), expectedProducts:#(expectedProducts) ,testDir: 'happy-flow',steps:#(defaultSteps), layoutSigner:#(pa1), account2: #(sa1), account3: #(sa2) }
     And match resp.response == {"runIsValid":false}
 
+  Scenario: batch verification of product sets
+    * def wrongHashProducts = [{uri: 'target/argos-test-0.0.1-SNAPSHOT.jar',hash: '0123456789012345678901234567890012345678901234567890123456789012'}]
+    * def productSets = {productSets: [#(defaultExpectedProducts), #(wrongHashProducts), #(defaultExpectedProducts)]}
+    * def resp = call read('classpath:feature/verification/verification-template.feature') { projectId: #(defaultProjectId), expectedProducts:#(productSets), verificationSuffix: '/verification/batch', testDir: 'happy-flow', steps:#(defaultSteps), layoutSigner:#(pa1), account2: #(sa1), account3: #(sa2) }
+    And match resp.response == [{"runIsValid":true},{"runIsValid":false},{"runIsValid":true}]
+
   Scenario: expected expected end products not matches
     * def expectedProducts = [{uri: 'argos-test-0.0.1-SNAPSHOT.jar',hash: '49e73a11c5e689db448d866ce08848ac5886cac8aa31156ea4de37427aca6162'}]
     * def resp = call read('classpath:feature/verification/verification-template.feature') { projectId: #(defaultProjectId), expectedProducts:#(expectedProducts) ,testDir: 'happy-flow',steps:#(defaultSteps), layoutSigner:#(pa1), account2: #(sa1), account3: #(sa2) }